@@ -33,7 +33,7 @@ public class AnnouncementController {
 
         return ResponseEntity.ok(ApiResponse.<AnnouncementResponse>builder()
                 .success(true)
-                .message("Announcement sent to " + response.getSentCount() + " members")
+                .message("Announcement is being sent to " + response.getRecipientCount() + " members")
                 .data(response)
                 .build());
     }
@@ -0,0 +1,76 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.controller;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.ApiResponse;
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.IntentRuleDTO;
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.IntentRuleRequest;
+import com.stephenotieno.church_whatsapp_system.churchconnect.security.JwtUtil;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.IntentRuleService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/intent-rules")
+@RequiredArgsConstructor
+public class IntentRuleController {
+
+    private final IntentRuleService intentRuleService;
+    private final JwtUtil jwtUtil;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<IntentRuleDTO>>> getRules(HttpServletRequest request) {
+        Long churchId = extractChurchId(request);
+        List<IntentRuleDTO> rules = intentRuleService.getRules(churchId);
+
+        return ResponseEntity.ok(ApiResponse.<List<IntentRuleDTO>>builder()
+                .success(true)
+                .data(rules)
+                .build());
+    }
+
+    @GetMapping("/defaults")
+    public ResponseEntity<ApiResponse<Map<String, List<String>>>> getDefaultKeywords() {
+        return ResponseEntity.ok(ApiResponse.<Map<String, List<String>>>builder()
+                .success(true)
+                .data(intentRuleService.getDefaultKeywords())
+                .build());
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<IntentRuleDTO>> addRule(
+            HttpServletRequest request,
+            @Valid @RequestBody IntentRuleRequest ruleRequest) {
+
+        Long churchId = extractChurchId(request);
+        IntentRuleDTO rule = intentRuleService.addRule(churchId, ruleRequest);
+
+        return ResponseEntity.ok(ApiResponse.<IntentRuleDTO>builder()
+                .success(true)
+                .message("Intent rule added successfully")
+                .data(rule)
+                .build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<Void>> deleteRule(
+            HttpServletRequest request,
+            @PathVariable Long id) {
+
+        Long churchId = extractChurchId(request);
+        intentRuleService.deleteRule(churchId, id);
+
+        return ResponseEntity.ok(ApiResponse.<Void>builder()
+                .success(true)
+                .message("Intent rule deleted successfully")
+                .build());
+    }
+
+    private Long extractChurchId(HttpServletRequest request) {
+        String token = request.getHeader("Authorization").substring(7);
+        return jwtUtil.extractChurchId(token);
+    }
+}
@@ -3,6 +3,8 @@ package com.stephenotieno.church_whatsapp_system.churchconnect.controller;
 import com.stephenotieno.church_whatsapp_system.churchconnect.dto.*;
 import com.stephenotieno.church_whatsapp_system.churchconnect.security.JwtUtil;
 import com.stephenotieno.church_whatsapp_system.churchconnect.service.MessageService;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.SendCompletionExecutor;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.SendResult;
 import com.stephenotieno.church_whatsapp_system.churchconnect.service.WhatsAppMetaService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -12,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/messages")
@@ -20,6 +23,7 @@ public class MessageController {
 
     private final MessageService messageService;
     private final WhatsAppMetaService whatsAppMetaService;
+    private final SendCompletionExecutor sendCompletionExecutor;
     private final JwtUtil jwtUtil;
 
     @GetMapping
@@ -79,92 +83,85 @@ public class MessageController {
                 .build());
     }
 
+    /**
+     * Sends without holding a request thread for the Graph API round trip; the response is
+     * written once the send (including any retries) completes
+     */
     @PostMapping("/send")
-    public ResponseEntity<ApiResponse<MessageResponse>> sendMessage(
+    public CompletableFuture<ResponseEntity<ApiResponse<MessageResponse>>> sendMessage(
             HttpServletRequest request,
             @Valid @RequestBody MessageRequest messageRequest) {
 
         Long churchId = extractChurchId(request);
 
-        try {
-            // Send via Meta WhatsApp
-            String messageSid = whatsAppMetaService.sendMessage(
-                    messageRequest.getPhoneNumber(),
-                    messageRequest.getMessageBody()
-            );
+        // Send via Meta WhatsApp
+        return whatsAppMetaService.sendMessageAsync(
+                        null,
+                        messageRequest.getPhoneNumber(),
+                        messageRequest.getMessageBody())
+                .thenApplyAsync(result -> sendResponse(churchId, messageRequest, result,
+                        "Message sent successfully", "Failed to send message"), sendCompletionExecutor);
+    }
 
-            // Save outbound message
-            messageService.saveMessage(
-                    churchId,
-                    messageRequest.getPhoneNumber(),
-                    "OUTBOUND",
-                    messageRequest.getMessageBody(),
-                    messageSid
-            );
+    @PostMapping("/send-media")
+    public CompletableFuture<ResponseEntity<ApiResponse<MessageResponse>>> sendMediaMessage(
+            HttpServletRequest request,
+            @Valid @RequestBody MessageRequest messageRequest) {
 
-            MessageResponse response = MessageResponse.builder()
-                    .messageSid(messageSid)
-                    .phoneNumber(messageRequest.getPhoneNumber())
-                    .status("SENT")
-                    .message("Message sent successfully")
-                    .success(true)
-                    .build();
+        Long churchId = extractChurchId(request);
 
-            return ResponseEntity.ok(ApiResponse.<MessageResponse>builder()
-                    .success(true)
-                    .message("Message sent successfully")
-                    .data(response)
-                    .build());
+        return whatsAppMetaService.sendMessageWithMediaAsync(
+                        messageRequest.getPhoneNumber(),
+                        messageRequest.getMessageBody(),
+                        messageRequest.getMediaUrl(),
+                        messageRequest.getMessageType() != null ? messageRequest.getMessageType() : "image")
+                .thenApplyAsync(result -> sendResponse(churchId, messageRequest, result,
+                        "Media message sent successfully", "Failed to send media message"), sendCompletionExecutor);
+    }
 
-        } catch (Exception e) {
+    /**
+     * Save the outbound message and build the reply. Saving loads the church, member and
+     * conversation (and may create the conversation), so it runs on the send completion
+     * executor rather than on the Graph API or HTTP client thread that completed the send.
+     */
+    private ResponseEntity<ApiResponse<MessageResponse>> sendResponse(Long churchId, MessageRequest messageRequest,
+                                                                      SendResult result, String successMessage,
+                                                                      String failureMessage) {
+        if (!result.sent()) {
             return ResponseEntity.ok(ApiResponse.<MessageResponse>builder()
                     .success(false)
-                    .message("Failed to send message: " + e.getMessage())
+                    .message(failureMessage + ": " + result.error())
                     .build());
         }
-    }
-
-    @PostMapping("/send-media")
-    public ResponseEntity<ApiResponse<MessageResponse>> sendMediaMessage(
-            HttpServletRequest request,
-            @Valid @RequestBody MessageRequest messageRequest) {
-
-        Long churchId = extractChurchId(request);
 
         try {
-            String messageSid = whatsAppMetaService.sendMessageWithMedia(
-                    messageRequest.getPhoneNumber(),
-                    messageRequest.getMessageBody(),
-                    messageRequest.getMediaUrl(),
-                    messageRequest.getMessageType() != null ? messageRequest.getMessageType() : "image"
-            );
-
+            // Save outbound message
             messageService.saveMessage(
                     churchId,
                     messageRequest.getPhoneNumber(),
                     "OUTBOUND",
                     messageRequest.getMessageBody(),
-                    messageSid
+                    result.wamid()
             );
 
             MessageResponse response = MessageResponse.builder()
-                    .messageSid(messageSid)
+                    .messageSid(result.wamid())
                     .phoneNumber(messageRequest.getPhoneNumber())
                     .status("SENT")
-                    .message("Media message sent successfully")
+                    .message(successMessage)
                     .success(true)
                     .build();
 
             return ResponseEntity.ok(ApiResponse.<MessageResponse>builder()
                     .success(true)
-                    .message("Media message sent successfully")
+                    .message(successMessage)
                     .data(response)
                     .build());
 
         } catch (Exception e) {
             return ResponseEntity.ok(ApiResponse.<MessageResponse>builder()
                     .success(false)
-                    .message("Failed to send media message: " + e.getMessage())
+                    .message(failureMessage + ": " + e.getMessage())
                     .build());
         }
     }
@@ -1,9 +1,15 @@
 package com.stephenotieno.church_whatsapp_system.churchconnect.controller;
 
-import com.stephenotieno.church_whatsapp_system.churchconnect.service.ChatbotService;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.InboundJournal;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.InboundQueueService;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.InboundQueueWorker;
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.WebhookBodyPool;
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.WebhookSignatureVerifier;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
@@ -14,11 +20,18 @@ import java.util.*;
 @Slf4j
 public class MetaWebhookController {
 
-    private final ChatbotService chatbotService;
+    private final InboundQueueService inboundQueueService;
+    private final InboundQueueWorker inboundQueueWorker;
+    private final InboundJournal inboundJournal;
+    private final WebhookBodyPool webhookBodyPool;
+    private final WebhookSignatureVerifier webhookSignatureVerifier;
 
     @Value("${meta.whatsapp.webhook.verify.token}")
     private String verifyToken;
 
+    @Value("${meta.whatsapp.webhook.max-body-bytes:1048576}")
+    private int maxBodyBytes;
+
     /**
      * Webhook verification endpoint (GET) - Required by Meta
      */
@@ -41,159 +54,50 @@ public class MetaWebhookController {
     }
 
     /**
-     * Main webhook endpoint to receive incoming WhatsApp messages from Meta
+     * Main webhook endpoint to receive incoming WhatsApp messages from Meta.
+     * The raw body is read once into a pooled buffer, checked against {@code X-Hub-Signature-256},
+     * fsynced to the local {@link InboundJournal}, persisted to the inbound queue and acknowledged immediately;
+     * {@link InboundQueueWorker} runs the chatbot pipeline off the request thread.
      */
     @PostMapping("/webhook")
-    public ResponseEntity<String> receiveMessage(@RequestBody Map<String, Object> payload) {
-        log.info("📨 ========================================");
-        log.info("📨 Received Meta WhatsApp webhook:");
-        log.debug("📨 Payload: {}", payload);
-        log.info("📨 ========================================");
+    public ResponseEntity<String> receiveMessage(
+            HttpServletRequest request,
+            @RequestHeader(value = "X-Hub-Signature-256", required = false) String signature) {
 
+        WebhookBodyPool.Buffer body = webhookBodyPool.acquire();
         try {
-            // Parse Meta webhook structure
-            String object = (String) payload.get("object");
-
-            if (!"whatsapp_business_account".equals(object)) {
-                log.warn("⚠️ Unexpected object type: {}", object);
-                return ResponseEntity.ok("Event received");
+            if (!body.readFrom(request.getInputStream(), request.getContentLength(), maxBodyBytes)) {
+                log.warn("❌ Webhook body exceeds {} bytes - rejected", maxBodyBytes);
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("TOO_LARGE");
             }
 
-            List<Map<String, Object>> entries = (List<Map<String, Object>>) payload.get("entry");
-
-            if (entries == null || entries.isEmpty()) {
-                log.warn("⚠️ No entries in webhook");
-                return ResponseEntity.ok("No entries");
-            }
-
-            for (Map<String, Object> entry : entries) {
-                List<Map<String, Object>> changes = (List<Map<String, Object>>) entry.get("changes");
-
-                if (changes == null) continue;
-
-                for (Map<String, Object> change : changes) {
-                    Map<String, Object> value = (Map<String, Object>) change.get("value");
+            log.info("📨 Received Meta WhatsApp webhook ({} bytes)", body.length());
 
-                    if (value == null) continue;
-
-                    // Check for messages
-                    List<Map<String, Object>> messages = (List<Map<String, Object>>) value.get("messages");
-
-                    if (messages != null && !messages.isEmpty()) {
-                        processMessages(messages);
-                    }
-
-                    // Check for status updates
-                    List<Map<String, Object>> statuses = (List<Map<String, Object>>) value.get("statuses");
-
-                    if (statuses != null && !statuses.isEmpty()) {
-                        processStatuses(statuses);
-                    }
-                }
+            if (!webhookSignatureVerifier.verify(body.bytes(), 0, body.length(), signature)) {
+                log.warn("❌ Webhook signature verification failed - rejected");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("INVALID_SIGNATURE");
             }
 
-            return ResponseEntity.ok("EVENT_RECEIVED");
-
-        } catch (Exception e) {
-            log.error("❌ Error processing webhook: {}", e.getMessage(), e);
-            return ResponseEntity.ok("ERROR_PROCESSED");
-        }
-    }
+            long journalPosition = inboundJournal.append(body.bytes(), 0, body.length());
 
-    /**
-     * Process incoming messages
-     */
-    private void processMessages(List<Map<String, Object>> messages) {
-        for (Map<String, Object> message : messages) {
             try {
-                String messageId = (String) message.get("id");
-                String from = (String) message.get("from");
-                String timestamp = (String) message.get("timestamp");
-                String type = (String) message.get("type");
-
-                log.info("📱 Processing message from: {}", from);
-                log.info("🆔 Message ID: {}", messageId);
-                log.info("📝 Type: {}", type);
-
-                String messageBody = null;
-
-                // Extract message body based on type
-                if ("text".equals(type)) {
-                    Map<String, Object> text = (Map<String, Object>) message.get("text");
-                    if (text != null) {
-                        messageBody = (String) text.get("body");
-                    }
-                } else if ("button".equals(type)) {
-                    Map<String, Object> button = (Map<String, Object>) message.get("button");
-                    if (button != null) {
-                        messageBody = (String) button.get("text");
-                    }
-                } else if ("interactive".equals(type)) {
-                    Map<String, Object> interactive = (Map<String, Object>) message.get("interactive");
-                    if (interactive != null) {
-                        String interactiveType = (String) interactive.get("type");
-                        if ("button_reply".equals(interactiveType)) {
-                            Map<String, Object> buttonReply = (Map<String, Object>) interactive.get("button_reply");
-                            if (buttonReply != null) {
-                                messageBody = (String) buttonReply.get("title");
-                            }
-                        } else if ("list_reply".equals(interactiveType)) {
-                            Map<String, Object> listReply = (Map<String, Object>) interactive.get("list_reply");
-                            if (listReply != null) {
-                                messageBody = (String) listReply.get("title");
-                            }
-                        }
-                    }
-                }
-
-                if (messageBody == null || messageBody.isEmpty()) {
-                    log.warn("⚠️ No message body found or unsupported message type: {}", type);
-                    continue;
-                }
-
-                log.info("💬 Message: {}", messageBody);
-
-                // Process through chatbot service
-                chatbotService.processIncomingMessage("whatsapp:" + from, messageBody, messageId);
-
-                log.info("✅ Message processed successfully");
-
+                inboundQueueService.enqueue(body.bytes(), 0, body.length());
+                inboundJournal.markEnqueued(journalPosition);
+                inboundQueueWorker.signal();
             } catch (Exception e) {
-                log.error("❌ Error processing individual message: {}", e.getMessage(), e);
+                if (journalPosition < 0) throw e;
+                // On disk locally; journal maintenance moves it into the queue once the database is back
+                log.error("❌ Failed to queue webhook, kept in journal: {}", e.getMessage());
             }
-        }
-    }
+            return ResponseEntity.ok("EVENT_RECEIVED");
 
-    /**
-     * Process status updates (delivered, read, failed, etc.)
-     */
-    private void processStatuses(List<Map<String, Object>> statuses) {
-        for (Map<String, Object> status : statuses) {
-            try {
-                String messageId = (String) status.get("id");
-                String statusValue = (String) status.get("status");
-                String recipient = (String) status.get("recipient_id");
-
-                log.info("📊 Status Update:");
-                log.info("   Message ID: {}", messageId);
-                log.info("   Status: {}", statusValue);
-                log.info("   Recipient: {}", recipient);
-
-                // Handle errors
-                if ("failed".equals(statusValue)) {
-                    List<Map<String, Object>> errors = (List<Map<String, Object>>) status.get("errors");
-                    if (errors != null && !errors.isEmpty()) {
-                        Map<String, Object> error = errors.get(0);
-                        log.error("❌ Message failed: Code={}, Title={}",
-                                error.get("code"), error.get("title"));
-                    }
-                }
-
-                // TODO: Update message status in database
+        } catch (Exception e) {
+            // Not persisted, so let Meta redeliver it
+            log.error("❌ Failed to queue webhook: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("RETRY_LATER");
 
-            } catch (Exception e) {
-                log.error("❌ Error processing status: {}", e.getMessage(), e);
-            }
+        } finally {
+            webhookBodyPool.release(body);
         }
     }
 
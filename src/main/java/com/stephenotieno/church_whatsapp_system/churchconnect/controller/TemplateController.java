@@ -0,0 +1,77 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.controller;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.ApiResponse;
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.MessageTemplateDTO;
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.MessageTemplateRequest;
+import com.stephenotieno.church_whatsapp_system.churchconnect.security.JwtUtil;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.ResponseTemplateService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/templates")
+@RequiredArgsConstructor
+public class TemplateController {
+
+    private final ResponseTemplateService responseTemplateService;
+    private final JwtUtil jwtUtil;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<MessageTemplateDTO>>> getTemplates(HttpServletRequest request) {
+        Long churchId = extractChurchId(request);
+        List<MessageTemplateDTO> templates = responseTemplateService.listTemplates(churchId);
+
+        return ResponseEntity.ok(ApiResponse.<List<MessageTemplateDTO>>builder()
+                .success(true)
+                .data(templates)
+                .build());
+    }
+
+    @GetMapping("/variables")
+    public ResponseEntity<ApiResponse<List<String>>> getVariables() {
+        return ResponseEntity.ok(ApiResponse.<List<String>>builder()
+                .success(true)
+                .data(responseTemplateService.availableVariables())
+                .build());
+    }
+
+    @PutMapping("/{key}")
+    public ResponseEntity<ApiResponse<MessageTemplateDTO>> updateTemplate(
+            HttpServletRequest request,
+            @PathVariable String key,
+            @Valid @RequestBody MessageTemplateRequest templateRequest) {
+
+        Long churchId = extractChurchId(request);
+        MessageTemplateDTO template = responseTemplateService.saveTemplate(churchId, key, templateRequest.getBody());
+
+        return ResponseEntity.ok(ApiResponse.<MessageTemplateDTO>builder()
+                .success(true)
+                .message("Template updated successfully")
+                .data(template)
+                .build());
+    }
+
+    @DeleteMapping("/{key}")
+    public ResponseEntity<ApiResponse<MessageTemplateDTO>> resetTemplate(
+            HttpServletRequest request,
+            @PathVariable String key) {
+
+        Long churchId = extractChurchId(request);
+        MessageTemplateDTO template = responseTemplateService.resetTemplate(churchId, key);
+
+        return ResponseEntity.ok(ApiResponse.<MessageTemplateDTO>builder()
+                .success(true)
+                .message("Template reset to default")
+                .data(template)
+                .build());
+    }
+
+    private Long extractChurchId(HttpServletRequest request) {
+        String token = request.getHeader("Authorization").substring(7);
+        return jwtUtil.extractChurchId(token);
+    }
+}
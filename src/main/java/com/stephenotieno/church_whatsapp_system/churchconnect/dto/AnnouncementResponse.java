@@ -8,5 +8,6 @@ import lombok.*;
 public class AnnouncementResponse {
     private Long announcementId;
     private Integer sentCount;
+    private Integer recipientCount;
     private String sentAt;
 }
\ No newline at end of file
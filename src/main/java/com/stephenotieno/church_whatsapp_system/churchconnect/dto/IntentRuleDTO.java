@@ -0,0 +1,16 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.dto;
+
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IntentRuleDTO {
+    private Long id;
+    private String trigger;
+    private String keyword;
+    private Boolean excluded;
+    private LocalDateTime updatedAt;
+}
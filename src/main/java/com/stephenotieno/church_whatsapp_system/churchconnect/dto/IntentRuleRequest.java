@@ -0,0 +1,20 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IntentRuleRequest {
+
+    @NotBlank(message = "Trigger is required")
+    private String trigger; // GREETING, GIVE, PRAYER, ESCALATE, ...
+
+    @NotBlank(message = "Keyword is required")
+    @Size(max = 100, message = "Keyword too long (max 100 characters)")
+    private String keyword;
+
+    private Boolean excluded; // true = remove a built-in keyword instead of adding one
+}
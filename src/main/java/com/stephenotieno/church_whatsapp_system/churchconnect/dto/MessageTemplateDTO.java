@@ -0,0 +1,15 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.dto;
+
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MessageTemplateDTO {
+    private String key;
+    private String body;
+    private Boolean customized;      // false = the bundled default
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,15 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MessageTemplateRequest {
+
+    @NotBlank(message = "Template body is required")
+    @Size(max = 4096, message = "Template too long (max 4096 characters)")
+    private String body;
+}
@@ -17,6 +17,10 @@ public class RegisterRequest {
     @Pattern(regexp = "^\\+254[0-9]{9}$", message = "Phone must be in format +254XXXXXXXXX")
     private String phone;
 
+    // Optional until the church's WhatsApp line is connected
+    @Pattern(regexp = "^[0-9]{6,20}$", message = "WhatsApp phone number ID must be numeric")
+    private String whatsappPhoneNumberId;
+
     @NotBlank(message = "Admin email is required")
     @Email(message = "Invalid email format")
     private String adminEmail;
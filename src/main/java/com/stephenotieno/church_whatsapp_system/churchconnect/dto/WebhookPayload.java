@@ -0,0 +1,76 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.dto;
+
+import java.util.List;
+
+/**
+ * Immutable view of a Meta WhatsApp webhook body, produced by
+ * {@link com.stephenotieno.church_whatsapp_system.churchconnect.util.WebhookPayloadParser}.
+ * Only the fields the pipeline uses are kept; everything else is skipped while parsing.
+ */
+public record WebhookPayload(String object, List<Change> changes) {
+
+    public boolean isWhatsAppBusinessAccount() {
+        return "whatsapp_business_account".equals(object);
+    }
+
+    /**
+     * One {@code entry[].changes[].value} block
+     */
+    public record Change(String phoneNumberId,
+                         String displayPhoneNumber,
+                         List<InboundMessage> messages,
+                         List<StatusEvent> statuses) {
+    }
+
+    public enum MessageType {
+        TEXT, BUTTON, INTERACTIVE, IMAGE, AUDIO, VIDEO, DOCUMENT, STICKER, UNSUPPORTED;
+
+        public static MessageType of(String type) {
+            if (type == null) return UNSUPPORTED;
+            return switch (type) {
+                case "text" -> TEXT;
+                case "button" -> BUTTON;
+                case "interactive" -> INTERACTIVE;
+                case "image" -> IMAGE;
+                case "audio" -> AUDIO;
+                case "video" -> VIDEO;
+                case "document" -> DOCUMENT;
+                case "sticker" -> STICKER;
+                default -> UNSUPPORTED;
+            };
+        }
+
+        public boolean isMedia() {
+            return this == IMAGE || this == AUDIO || this == VIDEO || this == DOCUMENT || this == STICKER;
+        }
+    }
+
+    /**
+     * An inbound member message.
+     * {@code body} is the text the chatbot acts on: the text body, the quick-reply button text
+     * or the interactive reply title. For media it is the caption, empty if there is none, and
+     * {@code media} describes the file. It is null for unsupported types.
+     */
+    public record InboundMessage(String id,
+                                 String from,
+                                 long timestamp,
+                                 MessageType type,
+                                 String body,
+                                 String replyId,
+                                 Media media) {
+    }
+
+    public record Media(String id, String mimeType, String caption, String filename) {
+    }
+
+    /**
+     * Delivery status for a message we sent: sent, delivered, read or failed
+     */
+    public record StatusEvent(String messageId,
+                              String status,
+                              String recipientId,
+                              long timestamp,
+                              Integer errorCode,
+                              String errorTitle) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted copy of a sender's place in a menu or multi-step flow, written through from the
+ * in-memory session store when persistence is enabled so sessions survive a restart
+ */
+@Entity
+@Table(name = "chat_sessions",
+        indexes = @Index(name = "idx_chat_sessions_expires_at", columnList = "expires_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatSession {
+
+    @Id
+    @Column(name = "phone_number")
+    private String phoneNumber;
+
+    @Column(name = "church_id")
+    private Long churchId;
+
+    @Column(name = "menu", length = 20)
+    private String menu; // MAIN, OFFERINGS, INFO
+
+    @Column(name = "step", length = 30)
+    private String step; // AWAITING_AMOUNT, CONFIRM_AMOUNT, AWAITING_PRAYER
+
+    @Column(name = "pending_amount", length = 20)
+    private String pendingAmount;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -31,6 +31,10 @@ public class Church {
     @Column(name = "mpesa_passkey", columnDefinition = "TEXT")
     private String mpesaPasskey;
 
+    // Meta phone_number_id of the church's WhatsApp line; inbound webhooks are routed by it
+    @Column(name = "whatsapp_phone_number_id", unique = true)
+    private String whatsappPhoneNumberId;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
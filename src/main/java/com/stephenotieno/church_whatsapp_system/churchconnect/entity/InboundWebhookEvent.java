@@ -0,0 +1,61 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Raw Meta webhook body persisted before acknowledgement and drained by the inbound workers
+ */
+@Entity
+@Table(name = "inbound_webhook_events",
+        indexes = @Index(name = "idx_inbound_webhook_events_status", columnList = "status, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InboundWebhookEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "payload", nullable = false)
+    @ToString.Exclude
+    private byte[] payload;
+
+    @Column(name = "status", nullable = false)
+    private String status; // PENDING, PROCESSING, DONE, FAILED
+
+    @Column(name = "attempts")
+    private Integer attempts;
+
+    @Column(name = "claimed_by")
+    private String claimedBy;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "received_at", updatable = false)
+    private LocalDateTime receivedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        receivedAt = LocalDateTime.now();
+        if (status == null) {
+            status = "PENDING";
+        }
+        if (attempts == null) {
+            attempts = 0;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A church's change to the chatbot keywords: adds a keyword to a trigger, or with
+ * {@code excluded} removes one of the built-in keywords from it
+ */
+@Entity
+@Table(name = "intent_rules",
+        uniqueConstraints = @UniqueConstraint(name = "uk_intent_rules_church_trigger_keyword",
+                columnNames = {"church_id", "trigger_group", "keyword"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IntentRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "church_id", nullable = false)
+    private Long churchId;
+
+    @Column(name = "trigger_group", nullable = false, length = 30)
+    private String trigger; // IntentClassifier.Trigger name, e.g. GIVE, ESCALATE
+
+    @Column(name = "keyword", nullable = false, length = 100)
+    private String keyword; // lowercase, matched anywhere in the message
+
+    @Column(name = "excluded")
+    private Boolean excluded;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+        if (excluded == null) {
+            excluded = false;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
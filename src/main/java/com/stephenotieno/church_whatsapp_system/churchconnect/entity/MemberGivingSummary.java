@@ -0,0 +1,49 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.time.LocalDateTime;
+
+/**
+ * Running giving totals for one member, maintained as offerings complete so the BALANCE
+ * command reads one row instead of the member's whole offering history.
+ * Amounts are whole cents.
+ */
+@Entity
+@Table(name = "member_giving_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemberGivingSummary {
+
+    // Length of the recent-offerings arrays
+    public static final int RECENT_OFFERINGS = 3;
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Column(name = "church_id", nullable = false)
+    private Long churchId;
+
+    @Column(name = "total_cents", nullable = false)
+    private Long totalCents;
+
+    @Column(name = "offering_count", nullable = false)
+    private Integer offeringCount;
+
+    // Newest first; recentAmountCents[i] was given at recentOfferedAt[i]
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "recent_amount_cents")
+    private Long[] recentAmountCents;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "recent_offered_at")
+    private LocalDateTime[] recentOfferedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,49 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A church's own text for one chatbot response, replacing the bundled default
+ */
+@Entity
+@Table(name = "message_templates",
+        uniqueConstraints = @UniqueConstraint(name = "uk_message_templates_church_key",
+                columnNames = {"church_id", "template_key"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MessageTemplate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "church_id", nullable = false)
+    private Long churchId;
+
+    @Column(name = "template_key", nullable = false, length = 50)
+    private String templateKey; // TemplateKey.templateName()
+
+    @Column(name = "body", nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,79 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * WhatsApp send written in the same transaction as the work that produced it (transactional outbox)
+ * and delivered afterwards by the outbound dispatcher
+ */
+@Entity
+@Table(name = "outbound_messages",
+        indexes = {
+                @Index(name = "idx_outbound_messages_status", columnList = "status, id"),
+                @Index(name = "idx_outbound_messages_recipient", columnList = "recipient, id")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboundMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "church_id")
+    private Long churchId;
+
+    // Stored messages row to stamp with the WAMID once sent; null for sends not kept in a conversation
+    @Column(name = "message_id")
+    private Long messageId;
+
+    // Business number to send from; null = the configured default
+    @Column(name = "phone_number_id")
+    private String phoneNumberId;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "body", nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Column(name = "status", nullable = false)
+    private String status; // PENDING, SENDING, SENT, FAILED
+
+    @Column(name = "attempts")
+    private Integer attempts;
+
+    @Column(name = "wamid")
+    private String wamid;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // Earliest time a retry may be claimed; null = now
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = "PENDING";
+        }
+        if (attempts == null) {
+            attempts = 0;
+        }
+    }
+}
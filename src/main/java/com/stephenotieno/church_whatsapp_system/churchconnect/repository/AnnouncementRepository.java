@@ -4,6 +4,7 @@ import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Announcemen
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -20,5 +21,9 @@ public interface AnnouncementRepository extends JpaRepository<Announcement, Long
             "WHERE a.church.id = :churchId " +
             "ORDER BY a.createdAt DESC")
     Page<Announcement> findByChurchIdWithChurch(@Param("churchId") Long churchId, Pageable pageable);
-}
 
+    // Set once every send for the announcement has completed
+    @Modifying
+    @Query("UPDATE Announcement a SET a.sentCount = :sentCount WHERE a.id = :id")
+    int updateSentCount(@Param("id") Long id, @Param("sentCount") int sentCount);
+}
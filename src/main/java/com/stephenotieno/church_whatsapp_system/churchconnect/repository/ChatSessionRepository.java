@@ -0,0 +1,37 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.repository;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.ChatSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ChatSessionRepository extends JpaRepository<ChatSession, String> {
+
+    // One statement per write; save() would select the row first because the id is assigned
+    @Modifying
+    @Query(value = "INSERT INTO chat_sessions (phone_number, church_id, menu, step, pending_amount, expires_at, updated_at) " +
+            "VALUES (:phoneNumber, :churchId, :menu, :step, :pendingAmount, :expiresAt, :updatedAt) " +
+            "ON CONFLICT (phone_number) DO UPDATE SET church_id = EXCLUDED.church_id, menu = EXCLUDED.menu, " +
+            "step = EXCLUDED.step, pending_amount = EXCLUDED.pending_amount, " +
+            "expires_at = EXCLUDED.expires_at, updated_at = EXCLUDED.updated_at", nativeQuery = true)
+    int upsert(@Param("phoneNumber") String phoneNumber,
+               @Param("churchId") Long churchId,
+               @Param("menu") String menu,
+               @Param("step") String step,
+               @Param("pendingAmount") String pendingAmount,
+               @Param("expiresAt") LocalDateTime expiresAt,
+               @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("DELETE FROM ChatSession s WHERE s.phoneNumber = :phoneNumber")
+    int deleteByPhone(@Param("phoneNumber") String phoneNumber);
+
+    @Modifying
+    @Query("DELETE FROM ChatSession s WHERE s.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    List<ChatSession> findByExpiresAtAfter(LocalDateTime now);
+}
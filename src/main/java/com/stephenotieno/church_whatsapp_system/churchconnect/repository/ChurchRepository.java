@@ -2,10 +2,22 @@ package com.stephenotieno.church_whatsapp_system.churchconnect.repository;
 
 import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Church;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ChurchRepository extends JpaRepository<Church, Long> {
     Optional<Church> findByPhone(String phone);
-}
\ No newline at end of file
+
+    /**
+     * (id, whatsappPhoneNumberId) for every church, oldest first, without loading the entities
+     */
+    @Query("SELECT c.id, c.whatsappPhoneNumberId FROM Church c ORDER BY c.id")
+    List<Object[]> findRoutingEntries();
+
+    @Query("SELECT MAX(c.updatedAt) FROM Church c")
+    LocalDateTime findLatestUpdate();
+}
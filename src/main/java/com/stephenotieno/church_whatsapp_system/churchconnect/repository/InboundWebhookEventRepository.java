@@ -0,0 +1,59 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.repository;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.InboundWebhookEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface InboundWebhookEventRepository extends JpaRepository<InboundWebhookEvent, Long> {
+
+    // SKIP LOCKED lets several nodes claim disjoint batches without blocking each other;
+    // retries backing off stay put until their next_attempt_at, and used-up events are never claimed
+    @Query(value = "SELECT * FROM inbound_webhook_events WHERE status = 'PENDING' " +
+            "AND (next_attempt_at IS NULL OR next_attempt_at <= :now) AND attempts < :maxAttempts " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<InboundWebhookEvent> lockPendingBatch(@Param("limit") int limit,
+                                               @Param("now") LocalDateTime now,
+                                               @Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query("UPDATE InboundWebhookEvent e SET e.status = :status, e.processedAt = :processedAt, " +
+            "e.lastError = :lastError WHERE e.id = :id")
+    int updateStatus(@Param("id") Long id,
+                     @Param("status") String status,
+                     @Param("processedAt") LocalDateTime processedAt,
+                     @Param("lastError") String lastError);
+
+    @Modifying
+    @Query("UPDATE InboundWebhookEvent e SET e.status = 'PENDING', e.lastError = :lastError, " +
+            "e.nextAttemptAt = :nextAttemptAt WHERE e.id = :id")
+    int reschedule(@Param("id") Long id,
+                   @Param("lastError") String lastError,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    // Stale claims with attempts left go back on the queue
+    @Modifying
+    @Query("UPDATE InboundWebhookEvent e SET e.status = 'PENDING', e.claimedBy = null " +
+            "WHERE e.status = 'PROCESSING' AND e.claimedAt < :cutoff AND e.attempts < :maxAttempts")
+    int releaseStaleClaims(@Param("cutoff") LocalDateTime cutoff,
+                           @Param("maxAttempts") int maxAttempts);
+
+    // Stale claims that used their last attempt are parked, as markFailed does
+    @Modifying
+    @Query("UPDATE InboundWebhookEvent e SET e.status = 'FAILED', e.claimedBy = null, " +
+            "e.processedAt = :processedAt, e.lastError = :lastError " +
+            "WHERE e.status = 'PROCESSING' AND e.claimedAt < :cutoff AND e.attempts >= :maxAttempts")
+    int failStaleClaims(@Param("cutoff") LocalDateTime cutoff,
+                        @Param("maxAttempts") int maxAttempts,
+                        @Param("processedAt") LocalDateTime processedAt,
+                        @Param("lastError") String lastError);
+
+    @Modifying
+    @Query("DELETE FROM InboundWebhookEvent e WHERE e.status = 'DONE' AND e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    Long countByStatus(String status);
+}
@@ -0,0 +1,18 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.repository;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.IntentRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface IntentRuleRepository extends JpaRepository<IntentRule, Long> {
+
+    List<IntentRule> findByChurchIdOrderByTriggerAscKeywordAsc(Long churchId);
+
+    boolean existsByChurchIdAndTriggerAndKeyword(Long churchId, String trigger, String keyword);
+
+    // Together with count() this changes on every insert, update and delete
+    @Query("SELECT MAX(r.updatedAt) FROM IntentRule r")
+    LocalDateTime findLatestUpdate();
+}
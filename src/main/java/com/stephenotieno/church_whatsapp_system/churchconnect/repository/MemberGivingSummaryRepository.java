@@ -0,0 +1,55 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.repository;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.MemberGivingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+
+public interface MemberGivingSummaryRepository extends JpaRepository<MemberGivingSummary, Long> {
+
+    // Array slices are written "[1 : n]" so ":n" isn't parsed as a named parameter
+
+    // One atomic upsert, so concurrent completions for the same member can't lose an update
+    @Modifying
+    @Query(value = "INSERT INTO member_giving_summaries AS s (member_id, church_id, total_cents, offering_count, " +
+            "recent_amount_cents, recent_offered_at, updated_at) " +
+            "VALUES (:memberId, :churchId, :amountCents, 1, " +
+            "ARRAY[CAST(:amountCents AS bigint)], ARRAY[CAST(:offeredAt AS timestamp)], now()) " +
+            "ON CONFLICT (member_id) DO UPDATE SET " +
+            "total_cents = s.total_cents + EXCLUDED.total_cents, " +
+            "offering_count = s.offering_count + 1, " +
+            "recent_amount_cents = (EXCLUDED.recent_amount_cents || s.recent_amount_cents)" +
+            "[1 : " + MemberGivingSummary.RECENT_OFFERINGS + "], " +
+            "recent_offered_at = (EXCLUDED.recent_offered_at || s.recent_offered_at)" +
+            "[1 : " + MemberGivingSummary.RECENT_OFFERINGS + "], " +
+            "updated_at = now()", nativeQuery = true)
+    int addCompletedOffering(@Param("memberId") Long memberId,
+                             @Param("churchId") Long churchId,
+                             @Param("amountCents") long amountCents,
+                             @Param("offeredAt") LocalDateTime offeredAt);
+
+    // Holds off addCompletedOffering until the caller commits, so a rebuild's snapshot can't
+    // overwrite an offering folded in while it runs
+    @Modifying
+    @Query(value = "LOCK TABLE member_giving_summaries IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    // Recompute every member's summary from the offerings table
+    @Modifying
+    @Query(value = "INSERT INTO member_giving_summaries (member_id, church_id, total_cents, offering_count, " +
+            "recent_amount_cents, recent_offered_at, updated_at) " +
+            "SELECT o.member_id, MIN(o.church_id), CAST(SUM(ROUND(o.amount * 100)) AS bigint), COUNT(*), " +
+            "(ARRAY_AGG(CAST(ROUND(o.amount * 100) AS bigint) ORDER BY o.created_at DESC, o.id DESC))" +
+            "[1 : " + MemberGivingSummary.RECENT_OFFERINGS + "], " +
+            "(ARRAY_AGG(o.created_at ORDER BY o.created_at DESC, o.id DESC))" +
+            "[1 : " + MemberGivingSummary.RECENT_OFFERINGS + "], now() " +
+            "FROM offerings o WHERE o.status = 'COMPLETED' AND o.member_id IS NOT NULL " +
+            "GROUP BY o.member_id " +
+            "ON CONFLICT (member_id) DO UPDATE SET " +
+            "total_cents = EXCLUDED.total_cents, offering_count = EXCLUDED.offering_count, " +
+            "recent_amount_cents = EXCLUDED.recent_amount_cents, recent_offered_at = EXCLUDED.recent_offered_at, " +
+            "updated_at = now()", nativeQuery = true)
+    int rebuildAll();
+}
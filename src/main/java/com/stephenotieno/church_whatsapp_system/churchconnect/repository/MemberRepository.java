@@ -7,6 +7,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,9 +16,17 @@ import java.util.Optional;
 public interface MemberRepository extends JpaRepository<Member, Long> {
     Page<Member> findByChurchId(Long churchId, Pageable pageable);
     Optional<Member> findByPhoneNumber(String phoneNumber);
+    List<Member> findByPhoneNumberIn(Collection<String> phoneNumbers);
     List<Member> findByChurchIdAndStatus(Long churchId, String status);
     Long countByChurchId(Long churchId);
     Long countByChurchIdAndStatus(Long churchId, String status);
     @Query("SELECT m FROM Member m LEFT JOIN FETCH m.church WHERE m.phoneNumber = :phoneNumber")
     Optional<Member> findByPhoneNumberWithChurch(@Param("phoneNumber") String phoneNumber);
+
+    // MemberDirectory loading: [id, church id, phone number, status]
+    @Query("SELECT m.id, m.church.id, m.phoneNumber, m.status FROM Member m WHERE m.id > :afterId ORDER BY m.id")
+    List<Object[]> findDirectoryEntries(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT m.id, m.church.id, m.phoneNumber, m.status FROM Member m WHERE m.updatedAt >= :since")
+    List<Object[]> findDirectoryEntriesUpdatedSince(@Param("since") LocalDateTime since);
 }
\ No newline at end of file
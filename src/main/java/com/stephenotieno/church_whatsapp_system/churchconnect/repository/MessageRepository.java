@@ -4,6 +4,7 @@ import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Message;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
@@ -45,4 +46,35 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
             @Param("phoneNumber") String phoneNumber,
             Pageable pageable
     );
-}
\ No newline at end of file
+
+    // Claims a WhatsApp message id: 0 rows inserted means an earlier delivery already stored it
+    @Modifying
+    @Query(value = "INSERT INTO messages (church_id, phone_number, direction, message_body, message_sid, " +
+            "message_type, media_url, status, processed, is_command, needs_pastor_reply, created_at, updated_at) " +
+            "VALUES (:churchId, :phoneNumber, 'INBOUND', :messageBody, :messageSid, " +
+            ":messageType, :mediaUrl, 'SENT', false, false, false, now(), now()) " +
+            "ON CONFLICT (message_sid) DO NOTHING", nativeQuery = true)
+    int insertInboundIfAbsent(
+            @Param("churchId") Long churchId,
+            @Param("phoneNumber") String phoneNumber,
+            @Param("messageBody") String messageBody,
+            @Param("messageSid") String messageSid,
+            @Param("messageType") String messageType,
+            @Param("mediaUrl") String mediaUrl
+    );
+
+    // Outbox dispatch results for a queued outbound message
+    @Modifying
+    @Query("UPDATE Message m SET m.messageSid = :messageSid, m.status = 'SENT', m.updatedAt = :now " +
+            "WHERE m.id = :id AND m.status = 'QUEUED'")
+    int markQueuedAsSent(@Param("id") Long id,
+                         @Param("messageSid") String messageSid,
+                         @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Message m SET m.status = 'FAILED', m.errorMessage = :errorMessage, m.updatedAt = :now " +
+            "WHERE m.id = :id")
+    int markSendFailed(@Param("id") Long id,
+                       @Param("errorMessage") String errorMessage,
+                       @Param("now") LocalDateTime now);
+}
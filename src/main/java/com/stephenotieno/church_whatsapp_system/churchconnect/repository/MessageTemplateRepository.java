@@ -0,0 +1,26 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.repository;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.MessageTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface MessageTemplateRepository extends JpaRepository<MessageTemplate, Long> {
+
+    List<MessageTemplate> findByChurchId(Long churchId);
+
+    Optional<MessageTemplate> findByChurchIdAndTemplateKey(Long churchId, String templateKey);
+
+    @Modifying
+    @Query("DELETE FROM MessageTemplate t WHERE t.churchId = :churchId AND t.templateKey = :templateKey")
+    int deleteByChurchIdAndTemplateKey(@Param("churchId") Long churchId,
+                                       @Param("templateKey") String templateKey);
+
+    // Together with count() this changes on every insert, update and delete
+    @Query("SELECT MAX(t.updatedAt) FROM MessageTemplate t")
+    LocalDateTime findLatestUpdate();
+}
@@ -0,0 +1,56 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.repository;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.OutboundMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboundMessageRepository extends JpaRepository<OutboundMessage, Long> {
+
+    // SKIP LOCKED lets several nodes claim disjoint batches without blocking each other;
+    // retries backing off stay put until their next_attempt_at. Only a recipient's oldest
+    // unsent row is claimable, so a later message never overtakes one waiting to be retried
+    @Query(value = "SELECT * FROM outbound_messages o WHERE o.status = 'PENDING' " +
+            "AND (o.next_attempt_at IS NULL OR o.next_attempt_at <= :now) " +
+            "AND NOT EXISTS (SELECT 1 FROM outbound_messages earlier " +
+            "WHERE earlier.recipient = o.recipient AND earlier.id < o.id " +
+            "AND earlier.status IN ('PENDING', 'SENDING')) " +
+            "ORDER BY o.id LIMIT :limit FOR UPDATE OF o SKIP LOCKED", nativeQuery = true)
+    List<OutboundMessage> lockPendingBatch(@Param("limit") int limit,
+                                           @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OutboundMessage o SET o.status = 'SENT', o.wamid = :wamid, o.sentAt = :sentAt, " +
+            "o.lastError = null WHERE o.id = :id")
+    int markSent(@Param("id") Long id,
+                 @Param("wamid") String wamid,
+                 @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE OutboundMessage o SET o.status = :status, o.lastError = :lastError WHERE o.id = :id")
+    int updateStatus(@Param("id") Long id,
+                     @Param("status") String status,
+                     @Param("lastError") String lastError);
+
+    @Modifying
+    @Query("UPDATE OutboundMessage o SET o.status = 'PENDING', o.attempts = :attempts, " +
+            "o.lastError = :lastError, o.nextAttemptAt = :nextAttemptAt WHERE o.id = :id")
+    int reschedule(@Param("id") Long id,
+                   @Param("attempts") Integer attempts,
+                   @Param("lastError") String lastError,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    @Modifying
+    @Query("UPDATE OutboundMessage o SET o.status = 'PENDING' " +
+            "WHERE o.status = 'SENDING' AND o.claimedAt < :cutoff")
+    int releaseStaleClaims(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM OutboundMessage o WHERE o.status = 'SENT' AND o.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    Long countByStatus(String status);
+}
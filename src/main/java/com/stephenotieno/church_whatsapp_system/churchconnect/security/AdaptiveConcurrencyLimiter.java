@@ -0,0 +1,115 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows measured latency, in the style of a gradient limiter.
+ * A slow-moving average of request latency is the baseline; whenever a short window runs
+ * slower than the baseline the limit shrinks in proportion, and when it runs at or below
+ * the baseline the limit grows by roughly sqrt(limit) per window.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final int LONG_WINDOW = 200;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // Sample window, guarded by sampleLock
+    private final ReentrantLock sampleLock = new ReentrantLock();
+    private long windowStart = System.nanoTime();
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = clamp(initialLimit);
+    }
+
+    /**
+     * Claim a slot, or return false if the limit is already reached
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Release a slot claimed by {@link #tryAcquire()} and feed its latency into the limit
+     */
+    public void release(long rttNanos) {
+        int before = inFlight.getAndDecrement();
+
+        // Never block a request thread on bookkeeping; a skipped sample is harmless
+        if (!sampleLock.tryLock()) return;
+        try {
+            windowRttSum += rttNanos;
+            windowSamples++;
+            windowMaxInFlight = Math.max(windowMaxInFlight, before);
+
+            long now = System.nanoTime();
+            if (now - windowStart >= WINDOW_NANOS && windowSamples >= MIN_WINDOW_SAMPLES) {
+                updateLimit((double) windowRttSum / windowSamples);
+                windowStart = now;
+                windowRttSum = 0;
+                windowSamples = 0;
+                windowMaxInFlight = 0;
+            }
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    private void updateLimit(double shortRtt) {
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) / LONG_WINDOW;
+        }
+
+        // Latency stayed high long enough to drag the baseline up: let it recover faster
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        double current = limit;
+
+        // Traffic is well under the limit, so latency says nothing about capacity
+        if (windowMaxInFlight < current / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, longRtt / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        limit = clamp(current * (1 - SMOOTHING) + target * SMOOTHING);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
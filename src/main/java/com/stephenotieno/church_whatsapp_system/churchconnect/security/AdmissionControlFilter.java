@@ -0,0 +1,153 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Admission control in front of everything else, including Spring Security.
+ * Meta webhook deliveries go through an adaptive in-flight limit and are shed with 503
+ * (Meta redelivers later); admin APIs get a separate fixed pool of request threads the
+ * webhook limit can never take, so the dashboard keeps working while the webhook is shedding.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String WEBHOOK_PATH = "/api/whatsapp/webhook";
+    private static final String API_PREFIX = "/api/";
+    private static final String WHATSAPP_PREFIX = "/api/whatsapp/";
+
+    private final boolean enabled;
+    private final int retryAfterSeconds;
+    private final AdaptiveConcurrencyLimiter webhookLimiter;
+    private final Semaphore adminPermits;
+
+    private final Counter webhookShed;
+    private final Counter adminShed;
+
+    public AdmissionControlFilter(MeterRegistry meterRegistry,
+                                  @Value("${admission.enabled:true}") boolean enabled,
+                                  @Value("${admission.retry-after-seconds:5}") int retryAfterSeconds,
+                                  @Value("${admission.webhook.initial-limit:20}") int initialLimit,
+                                  @Value("${admission.webhook.min-limit:4}") int minLimit,
+                                  @Value("${admission.webhook.max-limit:150}") int maxLimit,
+                                  @Value("${admission.admin.max-concurrent:40}") int adminCapacity,
+                                  @Value("${server.tomcat.threads.max:200}") int requestThreads) {
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        // Whatever the limiter decides, leave the admin share of the Tomcat pool untouched
+        int webhookCeiling = Math.max(minLimit, Math.min(maxLimit, requestThreads - adminCapacity));
+        this.webhookLimiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, webhookCeiling);
+        this.adminPermits = new Semaphore(adminCapacity);
+
+        Gauge.builder("admission.limit", webhookLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current in-flight limit")
+                .tag("endpoint", "webhook")
+                .register(meterRegistry);
+        Gauge.builder("admission.inflight", webhookLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently admitted")
+                .tag("endpoint", "webhook")
+                .register(meterRegistry);
+        Gauge.builder("admission.limit", () -> adminCapacity)
+                .description("Current in-flight limit")
+                .tag("endpoint", "admin")
+                .register(meterRegistry);
+        Gauge.builder("admission.inflight", adminPermits, p -> adminCapacity - p.availablePermits())
+                .description("Requests currently admitted")
+                .tag("endpoint", "admin")
+                .register(meterRegistry);
+
+        this.webhookShed = Counter.builder("admission.shed")
+                .description("Requests rejected by admission control")
+                .tag("endpoint", "webhook")
+                .register(meterRegistry);
+        this.adminShed = Counter.builder("admission.shed")
+                .description("Requests rejected by admission control")
+                .tag("endpoint", "admin")
+                .register(meterRegistry);
+
+        log.info("✅ Admission control: webhook limit {} (max {}), admin capacity {}",
+                initialLimit, webhookCeiling, adminCapacity);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String path = request.getRequestURI();
+
+        if (WEBHOOK_PATH.equals(path) && "POST".equals(request.getMethod())) {
+            admitWebhook(request, response, filterChain);
+        } else if (!path.startsWith(WHATSAPP_PREFIX)) {
+            admitAdmin(request, response, filterChain);
+        } else {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private void admitWebhook(HttpServletRequest request,
+                              HttpServletResponse response,
+                              FilterChain filterChain) throws ServletException, IOException {
+
+        if (!webhookLimiter.tryAcquire()) {
+            webhookShed.increment();
+            log.warn("⚠️ Shedding webhook delivery (limit {})", webhookLimiter.getLimit());
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            webhookLimiter.release(System.nanoTime() - start);
+        }
+    }
+
+    private void admitAdmin(HttpServletRequest request,
+                            HttpServletResponse response,
+                            FilterChain filterChain) throws ServletException, IOException {
+
+        if (!adminPermits.tryAcquire()) {
+            adminShed.increment();
+            log.warn("⚠️ Shedding admin request {} {}", request.getMethod(), request.getRequestURI());
+            reject(response);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            adminPermits.release();
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("text/plain");
+        response.getWriter().write("RETRY_LATER");
+    }
+}
@@ -12,12 +12,16 @@ import com.stephenotieno.church_whatsapp_system.churchconnect.repository.GroupRe
 import com.stephenotieno.church_whatsapp_system.churchconnect.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
@@ -29,9 +33,40 @@ public class AnnouncementService {
     private final GroupRepository groupRepository;
     private final MemberRepository memberRepository;
     private final WhatsAppMetaService whatsAppService;
+    private final SendCompletionExecutor sendCompletionExecutor;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
+    // Async Graph API sends in flight per announcement
+    @Value("${announcement.send.concurrency:256}")
+    private int sendConcurrency;
+
+    /**
+     * Save the announcement and start sending it from the church's own number.
+     * Returns as soon as the announcement is saved; the sends run without holding a thread
+     * and {@code sentCount} is recorded once the last one completes.
+     */
     public AnnouncementResponse sendAnnouncement(Long churchId, AnnouncementRequest request) {
+        AnnouncementDraft draft = transactionTemplate.execute(status -> saveAnnouncement(churchId, request));
+
+        sendAll(draft).thenAcceptAsync(sentCount -> {
+            transactionTemplate.executeWithoutResult(status ->
+                    announcementRepository.updateSentCount(draft.announcementId(), sentCount));
+            log.info("📊 Announcement Summary - Sent: {}, Failed: {}, Total: {}",
+                    sentCount, draft.recipients().size() - sentCount, draft.recipients().size());
+        }, sendCompletionExecutor).exceptionally(e -> {
+            log.error("❌ Failed to record announcement {} results: {}", draft.announcementId(), e.getMessage(), e);
+            return null;
+        });
+
+        return AnnouncementResponse.builder()
+                .announcementId(draft.announcementId())
+                .sentCount(0)
+                .recipientCount(draft.recipients().size())
+                .sentAt(draft.sentAt().toString())
+                .build();
+    }
+
+    private AnnouncementDraft saveAnnouncement(Long churchId, AnnouncementRequest request) {
         Church church = churchRepository.findById(churchId)
                 .orElseThrow(() -> new RuntimeException("Church not found"));
 
@@ -41,54 +76,75 @@ public class AnnouncementService {
                     .orElseThrow(() -> new RuntimeException("Group not found"));
         }
 
-        List<Member> recipients = getRecipients(churchId, targetGroup);
+        // Copied out so nothing lazy is touched once the transaction has closed
+        List<Recipient> recipients = getRecipients(churchId, targetGroup).stream()
+                .map(member -> new Recipient(member.getFullName(), member.getPhoneNumber()))
+                .toList();
 
-        Announcement announcement = Announcement.builder()
+        Announcement announcement = announcementRepository.save(Announcement.builder()
                 .church(church)
                 .title(request.getTitle())
                 .message(request.getMessage())
                 .targetGroup(targetGroup)
                 .sentAt(LocalDateTime.now())
                 .sentCount(0)
-                .build();
+                .build());
 
-        int sentCount = 0;
-        int failedCount = 0;
+        // Format the message nicely
+        String formattedMessage = formatMessage(
+                request.getTitle(),
+                request.getMessage(),
+                church.getName()
+        );
 
-        for (Member member : recipients) {
-            try {
-                // Format the message nicely
-                String formattedMessage = formatMessage(
-                        request.getTitle(),
-                        request.getMessage(),
-                        church.getName()
-                );
-
-                whatsAppService.sendMessage(member.getPhoneNumber(), formattedMessage);
-                sentCount++;
-
-                log.info("✅ Message sent to: {} ({})", member.getFullName(), member.getPhoneNumber());
-
-            } catch (Exception e) {
-                failedCount++;
-                log.error("❌ Failed to send WhatsApp to {} ({}): {}",
-                        member.getFullName(),
-                        member.getPhoneNumber(),
-                        e.getMessage());
-            }
+        return new AnnouncementDraft(announcement.getId(), announcement.getSentAt(),
+                church.getWhatsappPhoneNumberId(), formattedMessage, recipients);
+    }
+
+    /**
+     * Send to every recipient with at most {@code sendConcurrency} sends outstanding:
+     * each completed send starts the next one, so no thread waits on a permit
+     *
+     * @return completes with how many were sent
+     */
+    private CompletableFuture<Integer> sendAll(AnnouncementDraft draft) {
+        SendProgress progress = new SendProgress(draft);
+        if (draft.recipients().isEmpty()) {
+            progress.done.complete(0);
+            return progress.done;
         }
 
-        announcement.setSentCount(sentCount);
-        announcement = announcementRepository.save(announcement);
+        int lanes = Math.min(sendConcurrency, draft.recipients().size());
+        for (int i = 0; i < lanes; i++) {
+            sendNext(progress);
+        }
+        return progress.done;
+    }
 
-        log.info("📊 Announcement Summary - Sent: {}, Failed: {}, Total: {}",
-                sentCount, failedCount, recipients.size());
+    private void sendNext(SendProgress progress) {
+        List<Recipient> recipients = progress.draft.recipients();
+        int index;
+        while ((index = progress.next.getAndIncrement()) < recipients.size()) {
+            Recipient recipient = recipients.get(index);
+            CompletableFuture<SendResult> send;
+            try {
+                send = whatsAppService.sendMessageAsync(
+                        progress.draft.phoneNumberId(), recipient.phoneNumber(), progress.draft.message());
+            } catch (RuntimeException e) {
+                send = CompletableFuture.failedFuture(e);
+            }
 
-        return AnnouncementResponse.builder()
-                .announcementId(announcement.getId())
-                .sentCount(sentCount)
-                .sentAt(announcement.getSentAt().toString())
-                .build();
+            // Sends that fail fast complete here; keep looping rather than recursing through callbacks
+            if (send.isDone()) {
+                send.whenComplete((result, error) -> progress.complete(recipient, result, error));
+                continue;
+            }
+            send.whenComplete((result, error) -> {
+                progress.complete(recipient, result, error);
+                sendNext(progress);
+            });
+            return;
+        }
     }
 
     @Transactional(readOnly = true)
@@ -96,6 +152,25 @@ public class AnnouncementService {
         return announcementRepository.findByChurchIdWithChurch(churchId, pageable);
     }
 
+    private static boolean logResult(Recipient recipient, SendResult result, Throwable error) {
+        if (error != null) {
+            log.error("❌ Failed to send WhatsApp to {} ({}): {}",
+                    recipient.fullName(), recipient.phoneNumber(), error.getMessage());
+            return false;
+        }
+        if (result.sent()) {
+            log.info("✅ Message sent to: {} ({})", recipient.fullName(), recipient.phoneNumber());
+            return true;
+        }
+
+        log.error("❌ Failed to send WhatsApp to {} ({}): {} {}",
+                recipient.fullName(),
+                recipient.phoneNumber(),
+                result.failureReason(),
+                result.error());
+        return false;
+    }
+
     private List<Member> getRecipients(Long churchId, Group targetGroup) {
         if (targetGroup == null) {
             return memberRepository.findByChurchIdAndStatus(churchId, "ACTIVE");
@@ -118,4 +193,37 @@ public class AnnouncementService {
                 "📅 " + timestamp + "\n" +
                 "Stay blessed! 🙏";
     }
-}
\ No newline at end of file
+
+    private record Recipient(String fullName, String phoneNumber) {
+    }
+
+    /**
+     * A saved announcement and everything needed to send it outside the transaction
+     */
+    private record AnnouncementDraft(Long announcementId, LocalDateTime sentAt, String phoneNumberId,
+                                     String message, List<Recipient> recipients) {
+    }
+
+    private static final class SendProgress {
+
+        private final AnnouncementDraft draft;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final AtomicInteger sent = new AtomicInteger();
+        private final CompletableFuture<Integer> done = new CompletableFuture<>();
+
+        private SendProgress(AnnouncementDraft draft) {
+            this.draft = draft;
+            this.remaining = new AtomicInteger(draft.recipients().size());
+        }
+
+        private void complete(Recipient recipient, SendResult result, Throwable error) {
+            if (logResult(recipient, result, error)) {
+                sent.incrementAndGet();
+            }
+            if (remaining.decrementAndGet() == 0) {
+                done.complete(sent.get());
+            }
+        }
+    }
+}
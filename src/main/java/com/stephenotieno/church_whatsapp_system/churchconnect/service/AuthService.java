@@ -17,6 +17,7 @@ public class AuthService {
     private final AdminRepository adminRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final ChurchRoutingTable churchRoutingTable;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -28,8 +29,10 @@ public class AuthService {
                 .name(request.getChurchName())
                 .location(request.getLocation())
                 .phone(request.getPhone())
+                .whatsappPhoneNumberId(request.getWhatsappPhoneNumberId())
                 .build();
         church = churchRepository.save(church);
+        churchRoutingTable.refreshAfterCommit();
 
         Admin admin = Admin.builder()
                 .church(church)
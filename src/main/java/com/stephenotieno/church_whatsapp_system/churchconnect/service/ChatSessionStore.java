@@ -0,0 +1,259 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.ChatSession;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.ChatSessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Where each sender is in a numbered menu or multi-step flow, keyed by phone number.
+ * Sessions live in memory and expire after a period of silence, so a conversation turn reads
+ * its state without touching the database. The map is split into segments, each a small LRU
+ * under its own lock, which bounds the total number of sessions; the least recently used
+ * session in a full segment is dropped.
+ * <p>
+ * With persistence enabled every change is also written to {@code chat_sessions} in the
+ * caller's transaction (one upsert or delete, never a read) and the live sessions are loaded
+ * back at startup. Changes reach the in-memory map only once that transaction commits.
+ */
+@Service
+@Slf4j
+public class ChatSessionStore {
+
+    public enum Menu { MAIN, OFFERINGS, INFO }
+
+    public enum Step { AWAITING_AMOUNT, CONFIRM_AMOUNT, AWAITING_PRAYER }
+
+    /**
+     * One sender's session; a null menu or step means none
+     */
+    public record Session(String phoneNumber, Long churchId, Menu menu, Step step,
+                          String pendingAmount, long expiresAtMillis) {
+
+        boolean expired(long nowMillis) {
+            return expiresAtMillis <= nowMillis;
+        }
+    }
+
+    private static final int SEGMENTS = 16;
+
+    private final ChatSessionRepository chatSessionRepository;
+    private final long ttlMillis;
+    private final boolean persistenceEnabled;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final Counter evictions;
+
+    public ChatSessionStore(ChatSessionRepository chatSessionRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${chat.sessions.ttl-seconds:600}") long ttlSeconds,
+                            @Value("${chat.sessions.max-entries:100000}") int maxEntries,
+                            @Value("${chat.sessions.persistence.enabled:false}") boolean persistenceEnabled) {
+        this.chatSessionRepository = chatSessionRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.persistenceEnabled = persistenceEnabled;
+
+        int perSegment = Math.max(1, maxEntries / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+
+        this.evictions = Counter.builder("chat.sessions.evictions")
+                .description("Sessions dropped because the store was full")
+                .register(meterRegistry);
+        Gauge.builder("chat.sessions.active", this, ChatSessionStore::size)
+                .description("Menu and multi-step flow sessions held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The sender's live session, if any; never reads the database
+     */
+    public Optional<Session> get(String phoneNumber) {
+        Segment segment = segmentFor(phoneNumber);
+        long now = System.currentTimeMillis();
+
+        synchronized (segment) {
+            Session session = segment.get(phoneNumber);
+            if (session == null) {
+                return Optional.empty();
+            }
+            if (session.expired(now)) {
+                segment.remove(phoneNumber);
+                return Optional.empty();
+            }
+            return Optional.of(session);
+        }
+    }
+
+    /**
+     * Start or replace the sender's session, expiring {@code ttl} after now
+     */
+    @Transactional
+    public Session put(String phoneNumber, Long churchId, Menu menu, Step step, String pendingAmount) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        Session session = new Session(phoneNumber, churchId, menu, step, pendingAmount, expiresAt);
+
+        if (persistenceEnabled) {
+            chatSessionRepository.upsert(phoneNumber, churchId,
+                    menu != null ? menu.name() : null,
+                    step != null ? step.name() : null,
+                    pendingAmount,
+                    toLocalDateTime(expiresAt),
+                    LocalDateTime.now());
+        }
+
+        afterCommit(() -> {
+            Segment segment = segmentFor(phoneNumber);
+            synchronized (segment) {
+                segment.put(phoneNumber, session);
+            }
+        });
+        return session;
+    }
+
+    /**
+     * End the sender's session
+     */
+    @Transactional
+    public void clear(String phoneNumber) {
+        if (persistenceEnabled) {
+            chatSessionRepository.deleteByPhone(phoneNumber);
+        }
+
+        afterCommit(() -> {
+            Segment segment = segmentFor(phoneNumber);
+            synchronized (segment) {
+                segment.remove(phoneNumber);
+            }
+        });
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void restore() {
+        if (!persistenceEnabled) {
+            return;
+        }
+
+        int restored = 0;
+        for (ChatSession stored : chatSessionRepository.findByExpiresAtAfter(LocalDateTime.now())) {
+            Session session = new Session(stored.getPhoneNumber(), stored.getChurchId(),
+                    stored.getMenu() != null ? Menu.valueOf(stored.getMenu()) : null,
+                    stored.getStep() != null ? Step.valueOf(stored.getStep()) : null,
+                    stored.getPendingAmount(),
+                    stored.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+
+            Segment segment = segmentFor(session.phoneNumber());
+            synchronized (segment) {
+                segment.put(session.phoneNumber(), session);
+            }
+            restored++;
+        }
+
+        if (restored > 0) {
+            log.info("💬 Restored {} chat sessions", restored);
+        }
+    }
+
+    /**
+     * Drop expired sessions that were never touched again
+     */
+    @Scheduled(fixedDelayString = "${chat.sessions.sweep-interval-ms:60000}")
+    @Transactional
+    public void sweepExpired() {
+        long now = System.currentTimeMillis();
+        int swept = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                Iterator<Session> it = segment.values().iterator();
+                while (it.hasNext()) {
+                    if (it.next().expired(now)) {
+                        it.remove();
+                        swept++;
+                    }
+                }
+            }
+        }
+
+        if (persistenceEnabled) {
+            chatSessionRepository.deleteExpired(LocalDateTime.now());
+        }
+        if (swept > 0) {
+            log.debug("🧹 Swept {} expired chat sessions", swept);
+        }
+    }
+
+    private Segment segmentFor(String phoneNumber) {
+        int hash = phoneNumber.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (SEGMENTS - 1)];
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Access-ordered map that drops its least recently used session when full
+     */
+    private final class Segment extends LinkedHashMap<String, Session> {
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
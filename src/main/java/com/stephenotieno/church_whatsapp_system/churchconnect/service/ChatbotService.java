@@ -1,8 +1,12 @@
 package com.stephenotieno.church_whatsapp_system.churchconnect.service;
 
 import com.stephenotieno.church_whatsapp_system.churchconnect.dto.MemberRequest;
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.WebhookPayload.InboundMessage;
 import com.stephenotieno.church_whatsapp_system.churchconnect.entity.*;
 import com.stephenotieno.church_whatsapp_system.churchconnect.repository.*;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.IntentClassifier.Classification;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.IntentClassifier.Intent;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.MenuService.MenuTurn;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -11,7 +15,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -22,93 +25,118 @@ import java.util.regex.Pattern;
 public class ChatbotService {
 
     private final MemberRepository memberRepository;
-    private final OfferingRepository offeringRepository;
     private final ChurchRepository churchRepository;
     private final AnnouncementRepository announcementRepository;
-    private final WhatsAppMetaService whatsAppMetaService;
+    private final OutboundDispatcher outboundDispatcher;
     private final MpesaService mpesaService;
     private final MessageService messageService;
     private final CommandService commandService;
     private final PastorQueueService pastorQueueService;
     private final ConversationService conversationService;
+    private final InboundMessageDeduplicator inboundMessageDeduplicator;
+    private final IntentRuleService intentRuleService;
+    private final ChurchRoutingTable churchRoutingTable;
+    private final MemberDirectory memberDirectory;
+    private final GivingSummaryService givingSummaryService;
+    private final ResponseTemplateService responseTemplateService;
+    private final MenuService menuService;
+
+    private static final Pattern REGISTER_PATTERN = Pattern.compile("register\\s+(.+)", Pattern.CASE_INSENSITIVE);
 
     /**
-     * Process incoming WhatsApp message and generate response
+     * Process incoming WhatsApp message and generate response.
+     * {@code phoneNumberId} is the business number it was sent to, which selects the church.
      */
     @Transactional
-    public void processIncomingMessage(String from, String messageBody, String messageSid) {
+    public void processIncomingMessage(String phoneNumberId, String from, String messageBody, String messageSid) {
         long startTime = System.currentTimeMillis();
         log.info("📩 Received message from {}: {}", from, messageBody);
 
         String phoneNumber = from.replace("whatsapp:", "").trim();
 
-        // Get church (assuming first church for now - enhance later for multi-church)
-        Church church = churchRepository.findAll().stream()
-                .findFirst()
+        // Route to the church that owns the receiving number (in-memory, no query)
+        Long churchId = churchRoutingTable.resolve(phoneNumberId)
                 .orElseThrow(() -> new RuntimeException("No church found"));
+        InboundMessageContext context = new InboundMessageContext(
+                phoneNumberId, phoneNumber, churchRepository.getReferenceById(churchId));
+
+        // Save incoming message, dropping it if an earlier delivery already stored it.
+        // This also resolves the sender's member and conversation once for every later step.
+        if (messageService.saveInboundIfAbsent(context, messageBody, messageSid).isEmpty()) {
+            inboundMessageDeduplicator.recordDatabaseDuplicate(messageSid);
+            return;
+        }
 
-        // Save incoming message
-        Message incomingMessage = messageService.saveMessage(
-                church.getId(), phoneNumber, "INBOUND", messageBody, messageSid);
+        // One scan over the text for every keyword decision below
+        Classification classification = intentRuleService.classify(churchId, messageBody);
 
         // Check for delivery receipts
-        if (messageBody.toLowerCase().contains("delivered") ||
-                messageBody.toLowerCase().contains("read")) {
+        if (classification.deliveryReceipt()) {
             handleDeliveryReceipt(phoneNumber, messageBody);
             return;
         }
 
-        Optional<Member> memberOpt = memberRepository.findByPhoneNumber(phoneNumber);
+        Member member = context.getMember();
+        boolean registered = member != null;
 
         String response;
         String commandType = null;
         boolean isCommand = false;
         boolean needsPastorReply = false;
 
-        if (memberOpt.isEmpty()) {
-            if (messageBody.toLowerCase().startsWith("register")) {
-                response = handleRegistration(phoneNumber, messageBody, church);
+        if (!registered) {
+            if (classification.register()) {
+                response = handleRegistration(context, messageBody);
                 commandType = "REGISTER";
                 isCommand = true;
             } else {
-                response = sendWelcomeMessage(phoneNumber);
+                response = sendWelcomeMessage(churchId);
             }
         } else {
-            Member member = memberOpt.get();
+            // Numbered menus and multi-step flows, answered from the in-memory session
+            MenuTurn turn = menuService.handleMenuSelection(churchId, member, phoneNumber,
+                    messageBody, classification.intent() == Intent.YES).orElse(null);
+            String text = messageBody;
+            if (turn != null && turn.command() != null) {
+                // A selection stands for a typed command
+                text = turn.command();
+                classification = intentRuleService.classify(churchId, text);
+            }
 
-            // Detect command type
-            commandType = detectCommandType(messageBody);
-            isCommand = commandType != null;
+            if (turn != null && turn.reply() != null) {
+                response = turn.reply();
+            } else {
+                // Detect command type
+                commandType = classification.commandType();
+                isCommand = commandType != null;
 
-            // Check if needs pastor reply (long messages, prayer requests, etc.)
-            needsPastorReply = shouldEscalateToPastor(messageBody, commandType);
+                // Check if needs pastor reply (long messages, prayer requests, etc.)
+                needsPastorReply = classification.escalateToPastor();
 
-            response = generateResponse(member, messageBody.trim());
+                response = generateResponse(churchId, member, text.trim(), classification);
+            }
         }
 
         // Update message flags
         if (isCommand) {
-            messageService.markAsCommand(incomingMessage.getId(), commandType);
+            messageService.markAsCommand(context, commandType);
         }
         if (needsPastorReply) {
-            messageService.markNeedsPastorReply(incomingMessage.getId(), true);
+            messageService.markNeedsPastorReply(context, true);
             // Add to pastor queue
-            addToPastorQueue(church.getId(), incomingMessage, messageBody);
+            addToPastorQueue(context, classification);
         }
 
-        // Send response
-        String sentMessageSid = whatsAppMetaService.sendMessage(phoneNumber, response);
-
-        // Save outbound message
-        messageService.saveMessage(
-                church.getId(), phoneNumber, "OUTBOUND", response, sentMessageSid);
+        // Save the response and queue it in the outbox; it is sent after this transaction commits,
+        // so the connection is never held across the Graph API call
+        Message reply = messageService.saveOutbound(context, response);
+        outboundDispatcher.queue(churchId, reply.getId(), phoneNumberId, phoneNumber, response);
 
         // Log command execution
         long executionTime = System.currentTimeMillis() - startTime;
-        if (isCommand && memberOpt.isPresent()) {
+        if (isCommand && registered) {
             commandService.logCommand(
-                    church.getId(),
-                    phoneNumber,
+                    context,
                     commandType,
                     messageBody,
                     null, // parameters - can be enhanced
@@ -123,72 +151,35 @@ public class ChatbotService {
     }
 
     /**
-     * Detect command type from message
+     * Store an inbound photo, voice note, video, document or sticker.
+     * Media is not a command: it skips intent and menu handling and gets no auto-reply,
+     * so a caption is only stored with it. Staff see it in the conversation.
      */
-    private String detectCommandType(String message) {
-        String lower = message.toLowerCase().trim();
-
-        if (lower.startsWith("register")) return "REGISTER";
-        if (lower.startsWith("give") || lower.matches("give\\s+\\d+")) return "GIVE";
-        if (lower.matches(".*(balance|offerings|my offerings|check balance|total).*")) return "BALANCE";
-        if (lower.matches(".*(prayer|pray|intercession|request prayer|ombi).*")) return "PRAYER";
-        if (lower.matches(".*(info|information|details|my details).*")) return "INFO";
-        if (lower.matches(".*(help|menu|commands|msaada).*")) return "HELP";
+    @Transactional
+    public void processIncomingMedia(String phoneNumberId, String from, InboundMessage message) {
+        String phoneNumber = from.replace("whatsapp:", "").trim();
 
-        return null;
-    }
+        Long churchId = churchRoutingTable.resolve(phoneNumberId)
+                .orElseThrow(() -> new RuntimeException("No church found"));
+        InboundMessageContext context = new InboundMessageContext(
+                phoneNumberId, phoneNumber, churchRepository.getReferenceById(churchId));
 
-    /**
-     * Check if message should be escalated to pastor
-     */
-    private boolean shouldEscalateToPastor(String message, String commandType) {
-        // Prayer requests always go to pastor
-        if ("PRAYER".equals(commandType)) return true;
-
-        // Long messages (likely questions/concerns)
-        if (message.length() > 200) return true;
-
-        // Messages with keywords requiring pastor attention
-        String lower = message.toLowerCase();
-        if (lower.contains("counseling") || lower.contains("counsel") ||
-                lower.contains("problem") || lower.contains("issue") ||
-                lower.contains("help me") || lower.contains("confused") ||
-                lower.contains("difficult") || lower.contains("struggling")) {
-            return true;
+        String mediaId = message.media() != null ? message.media().id() : null;
+        if (messageService.saveInboundIfAbsent(context, message.body(), message.id(),
+                message.type().name(), mediaId).isEmpty()) {
+            inboundMessageDeduplicator.recordDatabaseDuplicate(message.id());
+            return;
         }
 
-        return false;
+        log.info("📎 {} from {} stored without a reply", message.type(), phoneNumber);
     }
 
     /**
      * Add message to pastor queue
      */
-    private void addToPastorQueue(Long churchId, Message message, String messageBody) {
+    private void addToPastorQueue(InboundMessageContext context, Classification classification) {
         try {
-            String category = "OTHER";
-            String priority = "MEDIUM";
-
-            String lower = messageBody.toLowerCase();
-            if (lower.contains("prayer") || lower.contains("pray")) {
-                category = "PRAYER";
-            } else if (lower.contains("counsel") || lower.contains("advice")) {
-                category = "COUNSELING";
-            } else if (lower.contains("urgent") || lower.contains("emergency")) {
-                category = "INQUIRY";
-                priority = "HIGH";
-            } else if (lower.contains("complaint") || lower.contains("issue")) {
-                category = "COMPLAINT";
-                priority = "HIGH";
-            }
-
-            com.stephenotieno.church_whatsapp_system.churchconnect.dto.PastorQueueRequest request =
-                    com.stephenotieno.church_whatsapp_system.churchconnect.dto.PastorQueueRequest.builder()
-                            .messageId(message.getId())
-                            .category(category)
-                            .priority(priority)
-                            .build();
-
-            pastorQueueService.addToQueue(churchId, request);
+            pastorQueueService.addToQueue(context, classification.queueCategory(), classification.queuePriority());
             log.info("📬 Message added to pastor queue");
 
         } catch (Exception e) {
@@ -199,119 +190,71 @@ public class ChatbotService {
     /**
      * Generate intelligent response based on message content
      */
-    private String generateResponse(Member member, String message) {
-        String lowerMessage = message.toLowerCase();
+    private String generateResponse(Long churchId, Member member, String message, Classification classification) {
+        return switch (classification.intent()) {
+            case GREETING -> handleGreeting(churchId, member);
 
-        // === GREETINGS ===
-        if (lowerMessage.matches(".*(hello|hi|hey|good morning|good afternoon|good evening|habari|mambo).*")) {
-            return handleGreeting(member);
-        }
-
-        // === SELF REGISTRATION ===
-        if (lowerMessage.startsWith("register")) {
-            return "✅ *Registration Status*\n\n" +
+            // === SELF REGISTRATION ===
+            case ALREADY_REGISTERED -> "✅ *Registration Status*\n\n" +
                     "You're already registered as:\n" +
                     "*" + member.getFullName() + "*\n\n" +
                     "Type *INFO* to view your full details.";
-        }
-
-        // === CHECK BALANCE ===
-        if (lowerMessage.matches(".*(balance|offerings|my offerings|check balance|total).*")) {
-            return getOfferingBalance(member);
-        }
-
-        // === GIVE/OFFERING WITH AMOUNT ===
-        Pattern givePattern = Pattern.compile("give\\s+(\\d+)", Pattern.CASE_INSENSITIVE);
-        Matcher giveMatcher = givePattern.matcher(message);
-
-        if (giveMatcher.find()) {
-            String amount = giveMatcher.group(1);
-            return initiatePayment(member, amount);
-        }
-
-        // === GIVE (general) ===
-        if (lowerMessage.matches(".*(give|offering|donate|tithe|sadaka|mchango).*")) {
-            return getPaymentInstructions(member);
-        }
 
-        // === PRAYER REQUEST ===
-        if (lowerMessage.matches(".*(prayer|pray|intercession|request prayer|ombi).*")) {
-            return handlePrayerRequest(member, message);
-        }
-
-        // === CHURCH INFO ===
-        if (lowerMessage.matches(".*(info|information|details|my details|location|address).*")) {
-            return getMemberInfo(member);
-        }
-
-        // === MEMBERSHIP INFO ===
-        if (lowerMessage.matches(".*(membership|member|status).*")) {
-            return getMembershipDetails(member);
-        }
-
-        // === HELP MENU ===
-        if (lowerMessage.matches(".*(help|menu|commands|msaada).*")) {
-            return getHelpMenu();
-        }
+            case BALANCE -> getOfferingBalance(member);
+            case GIVE_AMOUNT -> initiatePayment(member, classification.giveAmount());
+            case GIVE -> getPaymentInstructions(churchId, member);
+            case PRAYER -> handlePrayerRequest(member, message);
+            case INFO -> getMemberInfo(churchId, member);
+            case MEMBERSHIP -> getMembershipDetails(churchId, member);
+            case HELP -> getHelpMenu(churchId, member);
 
-        // === CONFIRM MESSAGE DELIVERY ===
-        if (lowerMessage.matches(".*(confirm|received|got it|nimepokea).*")) {
-            return "✅ *Confirmed!*\n\n" +
+            // === CONFIRM MESSAGE DELIVERY ===
+            case CONFIRM -> "✅ *Confirmed!*\n\n" +
                     "Thank you *" + member.getFullName() + "*\n" +
                     "Your confirmation has been recorded 📝\n\n" +
                     "_God bless you!_ 🙏";
-        }
 
-        // === THANK YOU ===
-        if (lowerMessage.matches(".*(thank|thanks|asante|appreciate).*")) {
-            return "You're welcome *" + member.getFullName() + "*! 😊\n\n" +
+            // === THANK YOU ===
+            case THANKS -> "You're welcome *" + member.getFullName() + "*! 😊\n\n" +
                     "_Happy to serve you_\n" +
                     "God bless! 🙏";
-        }
 
-        // === AMEN ===
-        if (lowerMessage.matches(".*(amen|hallelujah|praise|glory|amina).*")) {
-            return "🙌 *Amen and Amen!*\n\n" +
+            // === AMEN ===
+            case AMEN -> "🙌 *Amen and Amen!*\n\n" +
                     "_All glory to God!_ 🙏✨";
-        }
 
-        // === YES RESPONSES ===
-        if (lowerMessage.matches("^(yes|yeah|yep|ok|okay|ndio|sawa)$")) {
-            return "Great! How can I assist you?\n\n" +
+            // === YES RESPONSES ===
+            case YES -> "Great! How can I assist you?\n\n" +
                     "Type *HELP* to see available commands 😊";
-        }
 
-        // === CANCEL/STOP ===
-        if (lowerMessage.matches(".*(cancel|stop|unsubscribe|acha).*")) {
-            return handleUnsubscribe(member);
-        }
+            case CANCEL -> handleUnsubscribe(member);
 
-        // === PASTOR REPLY (checking if message is a reply) ===
-        if (message.length() > 50) {
-            return "📨 *Message Received*\n\n" +
+            // === PASTOR REPLY (long free-text message) ===
+            case LONG_MESSAGE -> "📨 *Message Received*\n\n" +
                     "Thank you *" + member.getFullName() + "*\n\n" +
                     "Your message has been forwarded to church leadership. Someone will get back to you soon.\n\n" +
                     "_God bless!_ 🙏";
-        }
 
-        // === DEFAULT RESPONSE ===
-        return "🤔 I didn't quite understand that *" + member.getFullName() + "*\n\n" +
-                "*Try these commands:*\n" +
-                "• HELP - Show all commands\n" +
-                "• BALANCE - Check offerings\n" +
-                "• GIVE [amount] - Make offering\n" +
-                "• PRAYER - Request prayer\n" +
-                "• INFO - Membership details\n\n" +
-                "_Or just type your question!_ 😊";
+            // === DEFAULT RESPONSE ===
+            case UNKNOWN -> "🤔 I didn't quite understand that *" + member.getFullName() + "*\n\n" +
+                    "*Try these commands:*\n" +
+                    "• HELP - Show all commands\n" +
+                    "• BALANCE - Check offerings\n" +
+                    "• GIVE [amount] - Make offering\n" +
+                    "• PRAYER - Request prayer\n" +
+                    "• INFO - Membership details\n\n" +
+                    "_Or just type your question!_ 😊";
+        };
     }
 
     /**
      * Handle new member registration
      */
     @Transactional
-    private String handleRegistration(String phoneNumber, String message, Church church) {
-        Pattern pattern = Pattern.compile("register\\s+(.+)", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(message);
+    private String handleRegistration(InboundMessageContext context, String message) {
+        String phoneNumber = context.getPhoneNumber();
+        Church church = context.getChurch();
+        Matcher matcher = REGISTER_PATTERN.matcher(message);
 
         if (!matcher.find()) {
             return "❌ *Invalid Format*\n\n" +
@@ -329,7 +272,14 @@ public class ChatbotService {
                     "_Example:_ REGISTER John Doe";
         }
 
-        if (memberRepository.findByPhoneNumber(phoneNumber).isPresent()) {
+        // The directory can lag registrations made on another node; the table is authoritative
+        Member existing = memberDirectory.findInDatabase(phoneNumber).orElse(null);
+        if (existing != null && !existing.getChurch().getId().equals(church.getId())) {
+            return "⚠️ *Registered Elsewhere*\n\n" +
+                    "This number is registered with another church.\n\n" +
+                    "Please message that church's WhatsApp number instead.";
+        }
+        if (existing != null) {
             return "⚠️ *Already Registered*\n\n" +
                     "This number is already registered!\n\n" +
                     "Type *INFO* to view your details.";
@@ -342,35 +292,18 @@ public class ChatbotService {
                 .status("ACTIVE")
                 .build();
 
-        memberRepository.save(newMember);
+        context.setMember(memberRepository.save(newMember));
+        memberDirectory.recordAfterCommit(newMember);
         log.info("✅ New member registered: {} ({})", fullName, phoneNumber);
 
-        return "🎉 *Welcome to " + church.getName() + "!*\n\n" +
-                "✅ Registration complete!\n\n" +
-                "*Your Details:*\n" +
-                "📝 Name: " + fullName + "\n" +
-                "📱 Phone: " + phoneNumber + "\n" +
-                "⛪ Church: " + church.getName() + "\n\n" +
-                "─────────────────\n\n" +
-                "Type *HELP* to see what you can do\n\n" +
-                "_God bless you!_ 🙏";
+        return responseTemplateService.render(church.getId(), TemplateKey.REGISTRATION_COMPLETE, context.getMember());
     }
 
     /**
      * Handle greeting
      */
-    private String handleGreeting(Member member) {
-        String timeOfDay = getTimeOfDay();
-
-        return "🙏 Good " + timeOfDay + " *" + member.getFullName() + "*!\n\n" +
-                "Welcome to *" + member.getChurch().getName() + "*\n\n" +
-                "*Quick Actions:*\n" +
-                "💰 GIVE [amount] - Make offering\n" +
-                "📊 BALANCE - Check offerings\n" +
-                "🙏 PRAYER - Request prayer\n" +
-                "📍 INFO - Your details\n" +
-                "❓ HELP - All commands\n\n" +
-                "_How can I help you today?_ 😊";
+    private String handleGreeting(Long churchId, Member member) {
+        return responseTemplateService.render(churchId, TemplateKey.GREETING, member);
     }
 
     /**
@@ -413,61 +346,37 @@ public class ChatbotService {
     /**
      * Get payment instructions
      */
-    private String getPaymentInstructions(Member member) {
-        Church church = member.getChurch();
-
-        return "💰 *Make an Offering*\n\n" +
-                "*Option 1: Quick Payment* ⚡\n" +
-                "Type: *GIVE [amount]*\n" +
-                "_Example:_ GIVE 1000\n" +
-                "Get instant M-PESA prompt!\n\n" +
-                "─────────────────\n\n" +
-                "*Option 2: Manual M-PESA*\n" +
-                "1️⃣ Go to M-PESA menu\n" +
-                "2️⃣ Select _Lipa na M-PESA_\n" +
-                "3️⃣ Choose _Pay Bill_\n" +
-                "4️⃣ Business No: *888880*\n" +
-                "5️⃣ Account: *" + member.getFullName() + "*\n" +
-                "6️⃣ Enter amount\n" +
-                "7️⃣ Enter your PIN\n\n" +
-                "─────────────────\n\n" +
-                "🙏 _Thank you for supporting_ " + church.getName() + "\n\n" +
-                "~Bring the whole tithe into the storehouse~\n" +
-                "_- Malachi 3:10_";
+    private String getPaymentInstructions(Long churchId, Member member) {
+        return responseTemplateService.render(churchId, TemplateKey.PAYMENT_INSTRUCTIONS, member);
     }
 
     /**
      * Get offering balance
      */
     private String getOfferingBalance(Member member) {
-        List<Offering> offerings = offeringRepository.findAll().stream()
-                .filter(o -> o.getMember() != null &&
-                        o.getMember().getId().equals(member.getId()) &&
-                        "COMPLETED".equals(o.getStatus()))
-                .toList();
-
-        BigDecimal totalOfferings = offerings.stream()
-                .map(Offering::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // One primary-key read, however long the member's giving history
+        Optional<MemberGivingSummary> summary = givingSummaryService.getSummary(member.getId());
 
-        List<Offering> recentOfferings = offerings.stream()
-                .sorted((o1, o2) -> o2.getCreatedAt().compareTo(o1.getCreatedAt()))
-                .limit(3)
-                .toList();
+        BigDecimal totalOfferings = summary
+                .map(s -> GivingSummaryService.fromCents(s.getTotalCents()))
+                .orElse(BigDecimal.ZERO);
+        int offeringCount = summary.map(MemberGivingSummary::getOfferingCount).orElse(0);
 
         StringBuilder response = new StringBuilder();
         response.append("💰 *Your Offering Summary*\n\n");
         response.append("👤 *").append(member.getFullName()).append("*\n\n");
         response.append("💵 Total Given: *KES ").append(totalOfferings).append("*\n");
-        response.append("📊 Offerings: *").append(offerings.size()).append("*\n\n");
+        response.append("📊 Offerings: *").append(offeringCount).append("*\n\n");
         response.append("─────────────────\n\n");
 
-        if (!recentOfferings.isEmpty()) {
+        Long[] recentAmounts = summary.map(MemberGivingSummary::getRecentAmountCents).orElse(null);
+        LocalDateTime[] recentDates = summary.map(MemberGivingSummary::getRecentOfferedAt).orElse(null);
+        if (recentAmounts != null && recentDates != null && recentAmounts.length > 0) {
             response.append("*Recent Offerings:*\n");
-            for (Offering offering : recentOfferings) {
-                response.append("• KES ").append(offering.getAmount())
+            for (int i = 0; i < recentAmounts.length && i < recentDates.length; i++) {
+                response.append("• KES ").append(GivingSummaryService.fromCents(recentAmounts[i]))
                         .append(" _- ")
-                        .append(offering.getCreatedAt().format(
+                        .append(recentDates[i].format(
                                 DateTimeFormatter.ofPattern("dd MMM yyyy")))
                         .append("_\n");
             }
@@ -501,69 +410,22 @@ public class ChatbotService {
     /**
      * Get member info
      */
-    private String getMemberInfo(Member member) {
-        Church church = member.getChurch();
-
-        long daysAsMember = java.time.temporal.ChronoUnit.DAYS.between(
-                member.getJoinedDate() != null ? member.getJoinedDate().atStartOfDay() : LocalDateTime.now(),
-                LocalDateTime.now()
-        );
-
-        return "👤 *Your Membership Details*\n\n" +
-                "*Personal Information:*\n" +
-                "📝 Name: " + member.getFullName() + "\n" +
-                "📱 Phone: " + member.getPhoneNumber() + "\n" +
-                "✅ Status: " + member.getStatus() + "\n" +
-                "📅 Member Since: " + (member.getJoinedDate() != null ?
-                member.getJoinedDate().format(DateTimeFormatter.ofPattern("dd MMM yyyy")) :
-                "N/A") + "\n" +
-                "⏱️ Days: " + daysAsMember + " days\n\n" +
-                "─────────────────\n\n" +
-                "*Church Information:*\n" +
-                "⛪ " + church.getName() + "\n" +
-                "📍 " + church.getLocation() + "\n" +
-                "📞 " + church.getPhone() + "\n\n" +
-                "─────────────────\n\n" +
-                "*Service Times:*\n" +
-                "🌅 Sunday: _9:00 AM - 12:00 PM_\n" +
-                "📖 Wednesday: _6:00 PM (Bible Study)_\n" +
-                "🙏 Friday: _6:00 PM (Prayer Meeting)_\n\n" +
-                "_We look forward to seeing you!_ 🙏";
+    private String getMemberInfo(Long churchId, Member member) {
+        return responseTemplateService.render(churchId, TemplateKey.MEMBER_INFO, member);
     }
 
     /**
      * Get membership details
      */
-    private String getMembershipDetails(Member member) {
-        return getMemberInfo(member);
+    private String getMembershipDetails(Long churchId, Member member) {
+        return getMemberInfo(churchId, member);
     }
 
     /**
      * Get help menu
      */
-    private String getHelpMenu() {
-        return "📋 *ChurchConnect Commands*\n\n" +
-                "*🔹 Registration*\n" +
-                "• REGISTER [Name] - Join church\n" +
-                "_Example: REGISTER John Doe_\n\n" +
-                "*🔹 Offerings*\n" +
-                "• GIVE [amount] - Quick M-PESA\n" +
-                "_Example: GIVE 1000_\n" +
-                "• BALANCE - Check offerings\n\n" +
-                "*🔹 Information*\n" +
-                "• INFO - Membership details\n" +
-                "• PRAYER - Submit prayer request\n\n" +
-                "*🔹 Other Commands*\n" +
-                "• HELP - Show this menu\n" +
-                "• CONFIRM - Confirm receipt\n\n" +
-                "─────────────────\n\n" +
-                "*💬 Swahili Commands*\n" +
-                "• HABARI - Salamu\n" +
-                "• MSAADA - Help\n" +
-                "• SADAKA [kiasi] - Toa sadaka\n" +
-                "• OMBI - Ombi la maombi\n\n" +
-                "─────────────────\n\n" +
-                "_Just type your question!_ 😊";
+    private String getHelpMenu(Long churchId, Member member) {
+        return responseTemplateService.render(churchId, TemplateKey.HELP, member);
     }
 
     /**
@@ -572,6 +434,7 @@ public class ChatbotService {
     private String handleUnsubscribe(Member member) {
         member.setStatus("INACTIVE");
         memberRepository.save(member);
+        memberDirectory.recordAfterCommit(member);
 
         return "😢 *Unsubscribed*\n\n" +
                 "We're sorry to see you go *" + member.getFullName() + "*\n\n" +
@@ -583,22 +446,8 @@ public class ChatbotService {
     /**
      * Send welcome message
      */
-    private String sendWelcomeMessage(String phoneNumber) {
-        return "👋 *Welcome to ChurchConnect!*\n\n" +
-                "It looks like you're new here! 🎉\n\n" +
-                "─────────────────\n\n" +
-                "*To Get Started:*\n\n" +
-                "Register by typing:\n" +
-                "*REGISTER [Your Full Name]*\n\n" +
-                "_Example:_\n" +
-                "REGISTER John Doe\n\n" +
-                "─────────────────\n\n" +
-                "*After registration:*\n" +
-                "✅ Give offerings via M-PESA\n" +
-                "✅ Check giving history\n" +
-                "✅ Request prayer\n" +
-                "✅ Get church updates\n\n" +
-                "_We look forward to having you!_ 🙏";
+    private String sendWelcomeMessage(Long churchId) {
+        return responseTemplateService.render(churchId, TemplateKey.WELCOME, (Member) null);
     }
 
     /**
@@ -607,14 +456,4 @@ public class ChatbotService {
     private void handleDeliveryReceipt(String phoneNumber, String message) {
         log.info("✅ Delivery receipt from {}: {}", phoneNumber, message);
     }
-
-    /**
-     * Get time of day
-     */
-    private String getTimeOfDay() {
-        int hour = LocalDateTime.now().getHour();
-        if (hour < 12) return "morning";
-        if (hour < 17) return "afternoon";
-        return "evening";
-    }
 }
\ No newline at end of file
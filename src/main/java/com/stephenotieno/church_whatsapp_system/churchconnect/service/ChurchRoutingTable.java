@@ -0,0 +1,99 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.ChurchRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maps Meta {@code phone_number_id} to the church that owns that WhatsApp line.
+ * The whole table is an immutable snapshot swapped atomically, so lookups on the webhook
+ * path are a single hash probe with no locking and no database access. It is loaded at
+ * startup, reloaded after any church change commits, and periodically to pick up changes
+ * made by other nodes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChurchRoutingTable {
+
+    private final ChurchRepository churchRepository;
+
+    // Route numbers with no church of their own to the oldest church (single-congregation setups)
+    @Value("${church.routing.fallback-to-default:true}")
+    private boolean fallbackToDefault;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), null);
+
+    private record Snapshot(Map<String, Long> churchByPhoneNumberId, Long defaultChurchId) {
+    }
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    /**
+     * Church id for the business number a webhook was delivered to
+     */
+    public Optional<Long> resolve(String phoneNumberId) {
+        Snapshot current = snapshot;
+        Long churchId = phoneNumberId != null ? current.churchByPhoneNumberId().get(phoneNumberId) : null;
+        if (churchId == null && fallbackToDefault) {
+            churchId = current.defaultChurchId();
+        }
+        return Optional.ofNullable(churchId);
+    }
+
+    @Scheduled(fixedDelayString = "${church.routing.refresh-interval-ms:60000}",
+            initialDelayString = "${church.routing.refresh-interval-ms:60000}")
+    public void refresh() {
+        List<Object[]> entries = churchRepository.findRoutingEntries();
+
+        Map<String, Long> byPhoneNumberId = new HashMap<>();
+        Long defaultChurchId = null;
+        for (Object[] entry : entries) {
+            Long churchId = (Long) entry[0];
+            String phoneNumberId = (String) entry[1];
+            if (defaultChurchId == null) {
+                defaultChurchId = churchId;
+            }
+            if (phoneNumberId != null && !phoneNumberId.isBlank()) {
+                byPhoneNumberId.put(phoneNumberId.trim(), churchId);
+            }
+        }
+
+        Snapshot previous = snapshot;
+        snapshot = new Snapshot(Map.copyOf(byPhoneNumberId), defaultChurchId);
+
+        if (!previous.equals(snapshot)) {
+            log.info("🗺️ Church routing table loaded: {} numbers across {} churches", byPhoneNumberId.size(), entries.size());
+        }
+    }
+
+    /**
+     * Reload once the current transaction commits (immediately if there is none)
+     */
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+        });
+    }
+}
@@ -0,0 +1,213 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.MpscRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes chatbot command audit rows off the reply path.
+ * {@link #record} drops the row into a lock-free ring buffer and returns; a background writer
+ * drains it with JDBC batch inserts once a batch has built up or the flush interval passes,
+ * whichever comes first, and drains whatever is left on shutdown.
+ * <p>
+ * Loss is bounded rather than avoided: when the buffer is full the new row is dropped and
+ * counted. A batch the database rejects is retried one row at a time, so one bad row only
+ * loses itself; rows that still fail are logged and counted. The audit log is for analytics,
+ * so neither is worth slowing a member's reply for.
+ */
+@Service
+@Slf4j
+public class CommandAuditWriter {
+
+    /**
+     * One command to audit, with ids instead of entities so nothing is loaded to write it
+     */
+    public record CommandAudit(Long churchId, Long memberId, String phoneNumber, String commandType,
+                               String commandText, String parameters, boolean success,
+                               String errorMessage, String responseSent, long executionTimeMs,
+                               LocalDateTime createdAt) {
+    }
+
+    private static final String INSERT_SQL =
+            "INSERT INTO commands (church_id, member_id, phone_number, command_type, command_text, parameters, " +
+            "success, error_message, response_sent, execution_time_ms, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // error_message is a default varchar(255)
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MpscRingBuffer<CommandAudit> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final Counter recorded;
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter failed;
+    private final Timer flushTimer;
+
+    private Thread writer;
+    private volatile boolean running;
+
+    public CommandAuditWriter(JdbcTemplate jdbcTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${command.audit.buffer-size:8192}") int bufferSize,
+                              @Value("${command.audit.batch-size:200}") int batchSize,
+                              @Value("${command.audit.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new MpscRingBuffer<>(bufferSize);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+
+        this.recorded = Counter.builder("command.audit.recorded")
+                .description("Command audit rows handed to the writer")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("command.audit.dropped")
+                .description("Command audit rows dropped because the buffer was full")
+                .register(meterRegistry);
+        this.written = Counter.builder("command.audit.written")
+                .description("Command audit rows inserted")
+                .register(meterRegistry);
+        this.failed = Counter.builder("command.audit.failed")
+                .description("Command audit rows the database rejected")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("command.audit.flush")
+                .description("Time spent inserting a batch of command audit rows")
+                .register(meterRegistry);
+        Gauge.builder("command.audit.pending", buffer, MpscRingBuffer::size)
+                .description("Command audit rows waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::writeLoop, "command-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+
+        // The writer has exited (or given up); drain the rest from here
+        if (!writer.isAlive()) {
+            flushAll();
+        }
+        if (buffer.size() > 0) {
+            log.warn("⚠️ {} command audit rows not written at shutdown", buffer.size());
+        }
+    }
+
+    /**
+     * Queue a command for the audit log; never blocks
+     */
+    public void record(CommandAudit audit) {
+        if (!buffer.offer(audit)) {
+            dropped.increment();
+            return;
+        }
+
+        recorded.increment();
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void writeLoop() {
+        while (running) {
+            if (buffer.size() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            try {
+                flushAll();
+            } catch (Exception e) {
+                log.error("❌ Command audit flush failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void flushAll() {
+        List<CommandAudit> batch = new ArrayList<>(batchSize);
+        while (buffer.drain(batch::add, batchSize) > 0) {
+            insert(batch);
+            batch.clear();
+        }
+    }
+
+    private void insert(List<CommandAudit> batch) {
+        try {
+            flushTimer.record(() -> jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    bind(ps, batch.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            }));
+            written.increment(batch.size());
+            log.debug("📝 Wrote {} command audit rows", batch.size());
+        } catch (Exception e) {
+            log.warn("⚠️ Command audit batch of {} rejected, retrying row by row: {}", batch.size(), e.getMessage());
+            batch.forEach(this::insertOne);
+        }
+    }
+
+    private void insertOne(CommandAudit audit) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, audit));
+            written.increment();
+        } catch (Exception e) {
+            failed.increment();
+            log.error("❌ Failed to write command audit row for {} ({}): {}",
+                    audit.phoneNumber(), audit.commandType(), e.getMessage());
+        }
+    }
+
+    private static void bind(PreparedStatement ps, CommandAudit audit) throws SQLException {
+        ps.setLong(1, audit.churchId());
+        if (audit.memberId() != null) {
+            ps.setLong(2, audit.memberId());
+        } else {
+            ps.setNull(2, Types.BIGINT);
+        }
+        ps.setString(3, audit.phoneNumber());
+        ps.setString(4, audit.commandType());
+        ps.setString(5, audit.commandText());
+        ps.setString(6, audit.parameters());
+        ps.setBoolean(7, audit.success());
+        ps.setString(8, truncate(audit.errorMessage()));
+        ps.setString(9, audit.responseSent());
+        ps.setLong(10, audit.executionTimeMs());
+        ps.setTimestamp(11, Timestamp.valueOf(audit.createdAt()));
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_ERROR_LENGTH ? value.substring(0, MAX_ERROR_LENGTH) : value;
+    }
+}
@@ -8,6 +8,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -18,37 +20,43 @@ import java.util.stream.Collectors;
 public class CommandService {
 
     private final CommandRepository commandRepository;
-    private final MemberRepository memberRepository;
-    private final ChurchRepository churchRepository;
-
-    @Transactional
-    public Command logCommand(Long churchId, String phoneNumber, String commandType,
-                              String commandText, String parameters,
-                              boolean success, String errorMessage,
-                              String responseSent, long executionTimeMs) {
-
-        Church church = churchRepository.findById(churchId)
-                .orElseThrow(() -> new RuntimeException("Church not found"));
-
-        Member member = memberRepository.findByPhoneNumber(phoneNumber).orElse(null);
-
-        Command command = Command.builder()
-                .church(church)
-                .member(member)
-                .phoneNumber(phoneNumber)
-                .commandType(commandType)
-                .commandText(commandText)
-                .parameters(parameters)
-                .success(success)
-                .errorMessage(errorMessage)
-                .responseSent(responseSent)
-                .executionTimeMs(executionTimeMs)
-                .build();
-
-        command = commandRepository.save(command);
+    private final CommandAuditWriter commandAuditWriter;
+
+    /**
+     * Log a chatbot command against the church and member already resolved for the message.
+     * The row is handed to {@link CommandAuditWriter} only once the reply transaction commits,
+     * so a rolled-back turn is not audited and the row never refers to an uncommitted member.
+     */
+    public void logCommand(InboundMessageContext context, String commandType,
+                           String commandText, String parameters,
+                           boolean success, String errorMessage,
+                           String responseSent, long executionTimeMs) {
+
+        CommandAuditWriter.CommandAudit audit = new CommandAuditWriter.CommandAudit(
+                context.getChurch().getId(),
+                context.getMember() != null ? context.getMember().getId() : null,
+                context.getPhoneNumber(),
+                commandType,
+                commandText,
+                parameters,
+                success,
+                errorMessage,
+                responseSent,
+                executionTimeMs,
+                LocalDateTime.now());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    commandAuditWriter.record(audit);
+                }
+            });
+        } else {
+            commandAuditWriter.record(audit);
+        }
 
         log.info("📝 Command logged: {} - {} ({}ms)", commandType, success ? "SUCCESS" : "FAILED", executionTimeMs);
-        return command;
     }
 
     @Transactional(readOnly = true)
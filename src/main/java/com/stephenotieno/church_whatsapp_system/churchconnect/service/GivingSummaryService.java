@@ -0,0 +1,77 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.MemberGivingSummary;
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Offering;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.MemberGivingSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Keeps {@link MemberGivingSummary} rows in step with completed offerings.
+ * Every completion is folded in with one upsert in the same transaction as the offering,
+ * and the table is rebuilt from the offerings history on startup. The rebuild is an idempotent
+ * upsert run under a table lock, so it is safe on every node and against live offerings.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GivingSummaryService {
+
+    private final MemberGivingSummaryRepository summaryRepository;
+
+    @Value("${giving.summary.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    /**
+     * Add a completed offering to its member's summary. Anonymous offerings are ignored.
+     */
+    @Transactional
+    public void recordCompleted(Offering offering) {
+        if (offering.getMember() == null || !"COMPLETED".equals(offering.getStatus())) {
+            return;
+        }
+
+        summaryRepository.addCompletedOffering(
+                offering.getMember().getId(),
+                offering.getChurch().getId(),
+                toCents(offering.getAmount()),
+                offering.getCreatedAt() != null ? offering.getCreatedAt() : LocalDateTime.now());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<MemberGivingSummary> getSummary(Long memberId) {
+        return summaryRepository.findById(memberId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildOnStartup() {
+        if (!backfillOnStartup) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        summaryRepository.lockForRebuild();
+        int members = summaryRepository.rebuildAll();
+        if (members > 0) {
+            log.info("📊 Giving summaries rebuilt for {} members in {}ms", members, System.currentTimeMillis() - start);
+        }
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,413 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.CircuitBreaker;
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.ExecutionMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The one HTTP client every call to the Meta Graph API goes through.
+ * Built on the JDK {@link HttpClient}: HTTP/2 where graph.facebook.com negotiates it (so
+ * concurrent sends multiplex over one TLS connection), otherwise pooled HTTP/1.1 keep-alive
+ * connections. A semaphore caps requests in flight, which also bounds the HTTP/1.1 pool at that
+ * many connections; connect and request timeouts are explicit. The bearer header and the
+ * /messages URI of each business number are built once rather than per request.
+ * <p>
+ * A circuit breaker counts 5xx responses, timeouts and connection failures; once enough recent
+ * calls failed it refuses sends outright for a while, so callers fail fast instead of each
+ * holding a thread for the full timeout against a degraded Meta.
+ * <p>
+ * Exposes in-flight requests, the cap, time spent waiting for a permit, request latency by
+ * outcome and the breaker state, so pool saturation shows up before sends start timing out.
+ */
+@Component
+@Slf4j
+public class GraphApiClient {
+
+    // How often an async send without a request slot checks for a free one
+    private static final long PERMIT_RETRY_MS = 5;
+
+    private final String graphApiUrl;
+    private final String apiVersion;
+    private final String defaultPhoneNumberId;
+    private final String authorization;
+    private final URI defaultMessagesUri;
+    private final Map<String, URI> messagesUris = new ConcurrentHashMap<>();
+    private final Duration requestTimeout;
+    private final int maxConcurrentRequests;
+
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final OutboundRateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration openDuration;
+    private final Counter circuitRejected;
+    private final PipelineMetrics pipelineMetrics;
+    private final Timer permitWait;
+    private final Timer succeeded;
+    private final Timer rejected;
+    private final Timer failed;
+
+    @Autowired
+    public GraphApiClient(OutboundRateLimiter rateLimiter,
+                          PipelineMetrics pipelineMetrics,
+                          MeterRegistry meterRegistry,
+                          ExecutionMode executionMode,
+                          // Overridden by load tests to point at a local Graph API stub
+                          @Value("${meta.whatsapp.api.base-url:https://graph.facebook.com}") String graphApiUrl,
+                          @Value("${meta.whatsapp.api.version:v21.0}") String apiVersion,
+                          @Value("${meta.whatsapp.phone.number.id}") String defaultPhoneNumberId,
+                          @Value("${meta.whatsapp.access.token}") String accessToken,
+                          @Value("${meta.whatsapp.http.version:HTTP_2}") HttpClient.Version httpVersion,
+                          @Value("${meta.whatsapp.http.connect-timeout-ms:3000}") long connectTimeoutMs,
+                          @Value("${meta.whatsapp.http.request-timeout-ms:10000}") long requestTimeoutMs,
+                          @Value("${meta.whatsapp.http.max-concurrent-requests:64}") int maxConcurrentRequests,
+                          @Value("${meta.whatsapp.circuit-breaker.window-size:50}") int circuitWindowSize,
+                          @Value("${meta.whatsapp.circuit-breaker.minimum-calls:20}") int circuitMinimumCalls,
+                          @Value("${meta.whatsapp.circuit-breaker.failure-rate-threshold:50}") int circuitFailureRate,
+                          @Value("${meta.whatsapp.circuit-breaker.open-duration-ms:30000}") long circuitOpenMs,
+                          @Value("${meta.whatsapp.circuit-breaker.half-open-probes:3}") int circuitProbes) {
+        this(rateLimiter, pipelineMetrics, meterRegistry, executionMode, graphApiUrl, apiVersion,
+                defaultPhoneNumberId, accessToken, httpVersion, requestTimeoutMs, maxConcurrentRequests,
+                circuitWindowSize, circuitMinimumCalls, circuitFailureRate, circuitOpenMs, circuitProbes,
+                executor -> HttpClient.newBuilder()
+                        .version(httpVersion)
+                        .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                        .executor(executor)
+                        .build());
+    }
+
+    /**
+     * @param httpClientFactory builds the client around the executor that runs its callbacks
+     */
+    GraphApiClient(OutboundRateLimiter rateLimiter,
+                   PipelineMetrics pipelineMetrics,
+                   MeterRegistry meterRegistry,
+                   ExecutionMode executionMode,
+                   String graphApiUrl,
+                   String apiVersion,
+                   String defaultPhoneNumberId,
+                   String accessToken,
+                   HttpClient.Version httpVersion,
+                   long requestTimeoutMs,
+                   int maxConcurrentRequests,
+                   int circuitWindowSize,
+                   int circuitMinimumCalls,
+                   int circuitFailureRate,
+                   long circuitOpenMs,
+                   int circuitProbes,
+                   Function<Executor, HttpClient> httpClientFactory) {
+        this.rateLimiter = rateLimiter;
+        this.pipelineMetrics = pipelineMetrics;
+        this.graphApiUrl = graphApiUrl;
+        this.apiVersion = apiVersion;
+        this.defaultPhoneNumberId = defaultPhoneNumberId;
+        this.authorization = "Bearer " + accessToken;
+        this.defaultMessagesUri = URI.create(graphApiUrl + "/" + apiVersion + "/" + defaultPhoneNumberId + "/messages");
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.openDuration = Duration.ofMillis(circuitOpenMs);
+        this.circuitBreaker = new CircuitBreaker(circuitWindowSize, circuitMinimumCalls, circuitFailureRate,
+                openDuration.toNanos(), circuitProbes, System::nanoTime, this::onCircuitTransition);
+
+        // Runs response handling and async continuations; a blocking caller's thread waits on the result
+        this.executor = executionMode.newTaskExecutor("graph-api", Math.max(2, maxConcurrentRequests / 8));
+        this.httpClient = httpClientFactory.apply(executor);
+
+        this.permitWait = Timer.builder("graph.api.permit.wait")
+                .description("Time spent waiting for a free Graph API request slot")
+                .register(meterRegistry);
+        this.succeeded = requestTimer(meterRegistry, "success");
+        this.rejected = requestTimer(meterRegistry, "error_response");
+        this.failed = requestTimer(meterRegistry, "transport_error");
+        Gauge.builder("graph.api.in_flight", inFlight, AtomicInteger::get)
+                .description("Graph API requests currently in flight")
+                .register(meterRegistry);
+        Gauge.builder("graph.api.max_in_flight", () -> maxConcurrentRequests)
+                .description("Cap on concurrent Graph API requests")
+                .register(meterRegistry);
+
+        this.circuitRejected = Counter.builder("graph.api.circuit.rejected")
+                .description("Graph API calls refused without calling Meta because the circuit was open")
+                .register(meterRegistry);
+        Gauge.builder("graph.api.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("Graph API circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+
+        log.info("✅ Graph API client ready: {} ({}), up to {} concurrent requests",
+                graphApiUrl, httpVersion, maxConcurrentRequests);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * POST a JSON body to {@code /{phoneNumberId}/messages} (null = the configured default number)
+     * and return the response body. Waits first for the number's outbound rate limit.
+     *
+     * @throws GraphApiException on a non-2xx response, a timeout or an I/O failure, and without
+     *                           calling Meta while the circuit is open, the rate limit wait would
+     *                           be over the maximum or no request slot frees up in time
+     */
+    public byte[] postMessages(String phoneNumberId, byte[] json) {
+        acquireCircuit();
+
+        boolean sent = false;
+        try {
+            // Before taking a request slot, so queued sends don't hold connections while they wait
+            rateLimiter.acquire(phoneNumberId != null ? phoneNumberId : defaultPhoneNumberId);
+            HttpRequest request = messagesRequest(phoneNumberId, json);
+
+            acquirePermit();
+            sent = true;
+            return send(request);
+        } finally {
+            if (!sent) {
+                circuitBreaker.release();
+            }
+        }
+    }
+
+    /**
+     * {@link #postMessages} without blocking the caller: the rate limit wait, the wait for a
+     * request slot and the call itself are all scheduled, and the future completes on the
+     * client's executor. Fails with the same {@link GraphApiException}s, wrapped in a
+     * {@link CompletionException} where the future API does so.
+     */
+    public CompletableFuture<byte[]> postMessagesAsync(String phoneNumberId, byte[] json) {
+        try {
+            acquireCircuit();
+        } catch (GraphApiException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        long waitNanos;
+        HttpRequest request;
+        try {
+            waitNanos = rateLimiter.reserve(phoneNumberId != null ? phoneNumberId : defaultPhoneNumberId);
+            request = messagesRequest(phoneNumberId, json);
+        } catch (RuntimeException e) {
+            circuitBreaker.release();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        Executor afterRateLimit = waitNanos > 0
+                ? CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS, executor)
+                : Runnable::run;
+        return CompletableFuture.runAsync(() -> { }, afterRateLimit)
+                .thenCompose(ignored -> {
+                    long start = System.nanoTime();
+                    return acquirePermitAsync(start, start + requestTimeout.toNanos());
+                })
+                .whenComplete((ignored, error) -> {
+                    if (error != null) circuitBreaker.release();
+                })
+                .thenCompose(ignored -> sendAsync(request));
+    }
+
+    private void acquireCircuit() {
+        // Fail fast while Meta is degraded, before queuing for a token or a request slot
+        if (!circuitBreaker.tryAcquire()) {
+            circuitRejected.increment();
+            throw new GraphApiException(GraphApiException.Failure.CIRCUIT_OPEN,
+                    "Graph API circuit open, not calling Meta", null);
+        }
+    }
+
+    private HttpRequest messagesRequest(String phoneNumberId, byte[] json) {
+        return HttpRequest.newBuilder(messagesUri(phoneNumberId))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("Authorization", authorization)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json))
+                .build();
+    }
+
+    /**
+     * Make the call holding a request slot
+     */
+    private byte[] send(HttpRequest request) {
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            return handleResponse(response, start);
+        } catch (IOException e) {
+            throw transportFailure(e, start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.release();
+            throw new GraphApiException(GraphApiException.Failure.TRANSPORT,
+                    "Interrupted while calling the Graph API", e);
+        } finally {
+            inFlight.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    private CompletableFuture<byte[]> sendAsync(HttpRequest request) {
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<byte[]>> call;
+        try {
+            call = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (RuntimeException e) {
+            // Never reached Meta: give back everything the send was holding
+            inFlight.decrementAndGet();
+            permits.release();
+            circuitBreaker.release();
+            return CompletableFuture.failedFuture(new GraphApiException(GraphApiException.Failure.TRANSPORT,
+                    "Graph API request failed: " + e.getMessage(), e));
+        }
+        return call
+                .handle((response, error) -> {
+                    try {
+                        if (error == null) {
+                            return handleResponse(response, start);
+                        }
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        if (cause instanceof IOException io) {
+                            throw transportFailure(io, start);
+                        }
+                        circuitBreaker.release();
+                        throw new GraphApiException(GraphApiException.Failure.TRANSPORT,
+                                "Graph API request failed: " + cause.getMessage(), cause);
+                    } finally {
+                        inFlight.decrementAndGet();
+                        permits.release();
+                    }
+                });
+    }
+
+    /**
+     * Record the outcome and return the body of a 2xx response. Error responses below 500 count
+     * as successes for the circuit breaker: Meta answered, the request was at fault.
+     */
+    private byte[] handleResponse(HttpResponse<byte[]> response, long start) {
+        long elapsed = System.nanoTime() - start;
+        pipelineMetrics.recordGraphApi(elapsed);
+
+        int status = response.statusCode();
+        if (status >= 500) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+
+        if (status < 200 || status >= 300) {
+            rejected.record(elapsed, TimeUnit.NANOSECONDS);
+            throw new GraphApiException(status, new String(response.body(), StandardCharsets.UTF_8));
+        }
+
+        succeeded.record(elapsed, TimeUnit.NANOSECONDS);
+        return response.body();
+    }
+
+    private GraphApiException transportFailure(IOException e, long start) {
+        failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        circuitBreaker.onFailure();
+        if (e instanceof HttpTimeoutException) {
+            return new GraphApiException(GraphApiException.Failure.TIMEOUT,
+                    "Graph API request timed out after " + requestTimeout.toMillis() + "ms", e);
+        }
+        return new GraphApiException(GraphApiException.Failure.TRANSPORT,
+                "Graph API request failed: " + e.getMessage(), e);
+    }
+
+    private void acquirePermit() {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(requestTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw saturated();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GraphApiException(GraphApiException.Failure.TRANSPORT,
+                    "Interrupted while waiting for a Graph API request slot", e);
+        } finally {
+            permitWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Take a request slot without blocking a thread: retry on a short timer until one frees up
+     * or {@code deadline} passes
+     */
+    private CompletableFuture<Void> acquirePermitAsync(long start, long deadline) {
+        if (permits.tryAcquire()) {
+            permitWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return CompletableFuture.completedFuture(null);
+        }
+        if (System.nanoTime() >= deadline) {
+            permitWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return CompletableFuture.failedFuture(saturated());
+        }
+        return CompletableFuture.runAsync(() -> { },
+                        CompletableFuture.delayedExecutor(PERMIT_RETRY_MS, TimeUnit.MILLISECONDS, executor))
+                .thenCompose(ignored -> acquirePermitAsync(start, deadline));
+    }
+
+    private GraphApiException saturated() {
+        return new GraphApiException(GraphApiException.Failure.SATURATED,
+                "All " + maxConcurrentRequests + " Graph API request slots busy", null);
+    }
+
+    private void onCircuitTransition(CircuitBreaker.State from, CircuitBreaker.State to) {
+        switch (to) {
+            case OPEN -> log.error("🔌 Graph API circuit OPEN (was {}): failing sends fast for {}ms",
+                    from, openDuration.toMillis());
+            case HALF_OPEN -> log.warn("🔌 Graph API circuit HALF_OPEN: probing Meta");
+            case CLOSED -> log.info("🔌 Graph API circuit CLOSED: Meta is responding again");
+        }
+    }
+
+    /**
+     * Built once per business number; a church's number rarely changes, so the map stays small
+     */
+    private URI messagesUri(String phoneNumberId) {
+        if (phoneNumberId == null) {
+            return defaultMessagesUri;
+        }
+        return messagesUris.computeIfAbsent(phoneNumberId,
+                id -> URI.create(graphApiUrl + "/" + apiVersion + "/" + id + "/messages"));
+    }
+
+    private static Timer requestTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("graph.api.requests")
+                .description("Graph API request latency by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
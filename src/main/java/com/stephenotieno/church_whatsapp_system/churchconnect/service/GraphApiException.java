@@ -0,0 +1,40 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import lombok.Getter;
+
+/**
+ * A Graph API call that did not succeed: an error response ({@code statusCode} and body as
+ * Meta sent them) or a call that got no response, where the status code is 0 and
+ * {@code failure} says why
+ */
+@Getter
+public class GraphApiException extends RuntimeException {
+
+    public enum Failure {
+        ERROR_RESPONSE,
+        TIMEOUT,
+        TRANSPORT,
+        // Refused locally before reaching Meta
+        SATURATED,
+        RATE_LIMITED,
+        CIRCUIT_OPEN
+    }
+
+    private final Failure failure;
+    private final int statusCode;
+    private final String responseBody;
+
+    public GraphApiException(int statusCode, String responseBody) {
+        super("Graph API returned " + statusCode + ": " + responseBody);
+        this.failure = Failure.ERROR_RESPONSE;
+        this.statusCode = statusCode;
+        this.responseBody = responseBody;
+    }
+
+    public GraphApiException(Failure failure, String message, Throwable cause) {
+        super(message, cause);
+        this.failure = failure;
+        this.statusCode = 0;
+        this.responseBody = null;
+    }
+}
@@ -0,0 +1,236 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.WhatsAppMetaService.ButtonData;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.WhatsAppMetaService.ListRow;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.WhatsAppMetaService.ListSection;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes Graph API /messages bodies field by field with a streaming generator and reads back
+ * only {@code messages[0].id} from the response (or {@code error.code} from an error).
+ * No intermediate maps or lists are built: each body goes into a per-thread buffer that is
+ * reset and reused, and the only allocation left per payload is the exact-size byte array
+ * handed to the HTTP client.
+ */
+@Component
+public class GraphPayloadWriter {
+
+    // Past this size a thread's buffer is released instead of kept for the next payload
+    private static final int MAX_RETAINED_BUFFER = 16 * 1024;
+
+    private final JsonFactory jsonFactory;
+    private final ThreadLocal<ByteArrayBuilder> buffers = ThreadLocal.withInitial(() -> new ByteArrayBuilder(512));
+
+    public GraphPayloadWriter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public byte[] text(String to, String body) throws IOException {
+        ByteArrayBuilder buffer = buffer();
+        try (JsonGenerator gen = jsonFactory.createGenerator(buffer)) {
+            startMessage(gen, to, "text");
+            gen.writeObjectFieldStart("text");
+            gen.writeStringField("preview_url", "false");
+            gen.writeStringField("body", body);
+            gen.writeEndObject();
+            gen.writeEndObject();
+        }
+        return toBytes(buffer);
+    }
+
+    /**
+     * @param mediaType image, document, video or audio
+     */
+    public byte[] media(String to, String mediaType, String link, String caption) throws IOException {
+        ByteArrayBuilder buffer = buffer();
+        try (JsonGenerator gen = jsonFactory.createGenerator(buffer)) {
+            startMessage(gen, to, mediaType);
+            gen.writeObjectFieldStart(mediaType);
+            gen.writeStringField("link", link);
+            if (caption != null && !caption.isEmpty()) {
+                gen.writeStringField("caption", caption);
+            }
+            gen.writeEndObject();
+            gen.writeEndObject();
+        }
+        return toBytes(buffer);
+    }
+
+    public byte[] buttons(String to, String bodyText, List<ButtonData> buttons) throws IOException {
+        ByteArrayBuilder buffer = buffer();
+        try (JsonGenerator gen = jsonFactory.createGenerator(buffer)) {
+            startMessage(gen, to, "interactive");
+            startInteractive(gen, "button", bodyText);
+
+            gen.writeObjectFieldStart("action");
+            gen.writeArrayFieldStart("buttons");
+            for (ButtonData button : buttons) {
+                gen.writeStartObject();
+                gen.writeStringField("type", "reply");
+                gen.writeObjectFieldStart("reply");
+                gen.writeStringField("id", button.getId());
+                gen.writeStringField("title", button.getTitle());
+                gen.writeEndObject();
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+
+            gen.writeEndObject(); // interactive
+            gen.writeEndObject();
+        }
+        return toBytes(buffer);
+    }
+
+    public byte[] list(String to, String bodyText, String buttonText, List<ListSection> sections) throws IOException {
+        ByteArrayBuilder buffer = buffer();
+        try (JsonGenerator gen = jsonFactory.createGenerator(buffer)) {
+            startMessage(gen, to, "interactive");
+            startInteractive(gen, "list", bodyText);
+
+            gen.writeObjectFieldStart("action");
+            gen.writeStringField("button", buttonText);
+            gen.writeArrayFieldStart("sections");
+            for (ListSection section : sections) {
+                gen.writeStartObject();
+                gen.writeStringField("title", section.getTitle());
+                gen.writeArrayFieldStart("rows");
+                for (ListRow row : section.getRows()) {
+                    gen.writeStartObject();
+                    gen.writeStringField("id", row.getId());
+                    gen.writeStringField("title", row.getTitle());
+                    if (row.getDescription() != null) {
+                        gen.writeStringField("description", row.getDescription());
+                    }
+                    gen.writeEndObject();
+                }
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+
+            gen.writeEndObject(); // interactive
+            gen.writeEndObject();
+        }
+        return toBytes(buffer);
+    }
+
+    public byte[] markRead(String messageId) throws IOException {
+        ByteArrayBuilder buffer = buffer();
+        try (JsonGenerator gen = jsonFactory.createGenerator(buffer)) {
+            gen.writeStartObject();
+            gen.writeStringField("messaging_product", "whatsapp");
+            gen.writeStringField("status", "read");
+            gen.writeStringField("message_id", messageId);
+            gen.writeEndObject();
+        }
+        return toBytes(buffer);
+    }
+
+    /**
+     * {@code messages[0].id} from a /messages response, or null if it has none.
+     * Stops reading as soon as the id is found.
+     */
+    public String messageId(byte[] response) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(response)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"messages".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (value != JsonToken.START_ARRAY || parser.nextToken() != JsonToken.START_OBJECT) {
+                    return null;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String messageField = parser.currentName();
+                    JsonToken messageValue = parser.nextToken();
+                    if ("id".equals(messageField) && messageValue == JsonToken.VALUE_STRING) {
+                        return parser.getText();
+                    }
+                    parser.skipChildren();
+                }
+                return null;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * {@code error.code} from a Graph API error response, or null if the body has none
+     */
+    public Integer errorCode(String responseBody) {
+        if (responseBody == null || responseBody.isEmpty()) {
+            return null;
+        }
+        try (JsonParser parser = jsonFactory.createParser(responseBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"error".equals(field) || value != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String errorField = parser.currentName();
+                    JsonToken errorValue = parser.nextToken();
+                    if ("code".equals(errorField) && errorValue == JsonToken.VALUE_NUMBER_INT) {
+                        return parser.getIntValue();
+                    }
+                    parser.skipChildren();
+                }
+                return null;
+            }
+            return null;
+        } catch (IOException e) {
+            // Not JSON (a proxy's HTML error page, say): classify by status alone
+            return null;
+        }
+    }
+
+    // === HELPERS ===
+
+    private static void startMessage(JsonGenerator gen, String to, String type) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("messaging_product", "whatsapp");
+        gen.writeStringField("recipient_type", "individual");
+        gen.writeStringField("to", to);
+        gen.writeStringField("type", type);
+    }
+
+    private static void startInteractive(JsonGenerator gen, String type, String bodyText) throws IOException {
+        gen.writeObjectFieldStart("interactive");
+        gen.writeStringField("type", type);
+        gen.writeObjectFieldStart("body");
+        gen.writeStringField("text", bodyText);
+        gen.writeEndObject();
+    }
+
+    private ByteArrayBuilder buffer() {
+        ByteArrayBuilder buffer = buffers.get();
+        buffer.reset();
+        return buffer;
+    }
+
+    private byte[] toBytes(ByteArrayBuilder buffer) {
+        byte[] bytes = buffer.toByteArray();
+        if (bytes.length > MAX_RETAINED_BUFFER) {
+            buffers.remove();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,411 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local write-ahead journal of raw webhook bodies, appended and fsynced before Meta gets its 200.
+ * <p>
+ * Bodies go into fixed-size memory-mapped segment files as
+ * {@code [length:int][state:byte][crc32:int][writtenAt:long][body]}. Concurrent appenders share
+ * fsyncs: whoever takes the force lock flushes everything written so far, so one force covers
+ * every request that appended while the previous one ran. Once the body is committed to the
+ * inbound queue its state byte flips to ENQUEUED (not forced - replaying a record twice is
+ * harmless because processing dedupes by message id).
+ * <p>
+ * On startup, and periodically for records whose queue insert failed, WRITTEN records are
+ * re-fed into the inbound queue. Segments whose records are all enqueued are deleted, and the
+ * total number of segments is capped so disk use stays bounded.
+ */
+@Service
+@Slf4j
+public class InboundJournal {
+
+    private static final byte WRITTEN = 1;
+    private static final byte ENQUEUED = 2;
+    private static final int HEADER_BYTES = 4 + 1 + 4 + 8;
+    private static final String SUFFIX = ".journal";
+
+    private final InboundQueueService inboundQueueService;
+    private final InboundQueueWorker inboundQueueWorker;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final long replayGraceMillis;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private volatile Segment active;
+
+    private final Counter appended;
+    private final Counter replayed;
+    private final Counter lost;
+
+    public InboundJournal(InboundQueueService inboundQueueService,
+                          InboundQueueWorker inboundQueueWorker,
+                          MeterRegistry meterRegistry,
+                          @Value("${inbound.journal.enabled:true}") boolean enabled,
+                          @Value("${inbound.journal.dir:./data/journal}") String directory,
+                          @Value("${inbound.journal.segment-bytes:33554432}") int segmentBytes,
+                          @Value("${inbound.journal.max-segments:32}") int maxSegments,
+                          @Value("${inbound.journal.replay-grace-ms:30000}") long replayGraceMillis) {
+        this.inboundQueueService = inboundQueueService;
+        this.inboundQueueWorker = inboundQueueWorker;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = Math.max(2, maxSegments);
+        this.replayGraceMillis = replayGraceMillis;
+
+        this.appended = Counter.builder("inbound.journal.appended")
+                .description("Webhook bodies written to the local journal")
+                .register(meterRegistry);
+        this.replayed = Counter.builder("inbound.journal.replayed")
+                .description("Journal records re-fed into the inbound queue")
+                .register(meterRegistry);
+        this.lost = Counter.builder("inbound.journal.lost")
+                .description("Unreplayed records dropped by segment retention")
+                .register(meterRegistry);
+        Gauge.builder("inbound.journal.segments", segments, Map::size)
+                .description("Journal segment files on disk")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            log.warn("⚠️ Inbound journal disabled - webhooks are only as durable as the queue insert");
+            return;
+        }
+
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).sorted().toList()) {
+                Segment segment = Segment.open(path, indexOf(path));
+                segment.scan();
+                segment.closed = true;
+                segments.put(segment.index, segment);
+            }
+        }
+
+        // Never append after a possibly torn tail; always start a fresh segment
+        long next = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        active = createSegment(next);
+
+        log.info("✅ Inbound journal opened at {} ({} existing segments)", directory.toAbsolutePath(), segments.size() - 1);
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Segment segment : segments.values()) {
+            segment.closeQuietly();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Append {@code body[offset, offset + length)} and wait until it is on disk.
+     * Returns the record's position, or -1 if the journal is disabled or the append failed.
+     */
+    public long append(byte[] body, int offset, int length) {
+        if (!enabled) return -1;
+
+        if (HEADER_BYTES + length > segmentBytes) {
+            log.warn("⚠️ Webhook body of {} bytes does not fit a journal segment - not journaled", length);
+            return -1;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(body, offset, length);
+
+        try {
+            Segment segment;
+            int position;
+
+            appendLock.lock();
+            try {
+                segment = active;
+                if (segment.writePosition + HEADER_BYTES + length > segmentBytes) {
+                    segment = rotate();
+                }
+                position = segment.writePosition;
+                segment.write(position, body, offset, length, (int) crc.getValue());
+                segment.writePosition = position + HEADER_BYTES + length;
+                segment.pending.incrementAndGet();
+            } finally {
+                appendLock.unlock();
+            }
+
+            segment.awaitDurable(position + HEADER_BYTES + length);
+            appended.increment();
+            return (segment.index << 32) | position;
+
+        } catch (Exception e) {
+            log.error("❌ Failed to journal webhook: {}", e.getMessage(), e);
+            return -1;
+        }
+    }
+
+    /**
+     * Record that the body at {@code position} is safely in the inbound queue
+     */
+    public void markEnqueued(long position) {
+        if (position < 0) return;
+
+        Segment segment = segments.get(position >>> 32);
+        if (segment != null) {
+            segment.markEnqueued((int) position);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayOnStartup() {
+        if (!enabled) return;
+
+        int count = replay(Long.MAX_VALUE);
+        if (count > 0) {
+            log.warn("♻️ Replayed {} journaled webhooks that never reached the queue", count);
+        }
+    }
+
+    /**
+     * Retry records whose queue insert failed, then drop segments that are no longer needed
+     */
+    @Scheduled(fixedDelayString = "${inbound.journal.maintenance-interval-ms:60000}")
+    public void maintain() {
+        if (!enabled || active == null) return;
+
+        int count = replay(System.currentTimeMillis() - replayGraceMillis);
+        if (count > 0) {
+            log.warn("♻️ Replayed {} journaled webhooks after failed queue inserts", count);
+        }
+        enforceRetention();
+    }
+
+    private int replay(long writtenBefore) {
+        int count = 0;
+        for (Segment segment : segments.values()) {
+            if (segment.pending.get() == 0) continue;
+
+            for (int position : segment.pendingRecords(writtenBefore)) {
+                try {
+                    byte[] body = segment.read(position);
+                    inboundQueueService.enqueue(body);
+                    segment.markEnqueued(position);
+                    replayed.increment();
+                    count++;
+                } catch (Exception e) {
+                    // Queue still unavailable: keep the rest for the next run
+                    log.error("❌ Journal replay stopped: {}", e.getMessage());
+                    if (count > 0) inboundQueueWorker.signal();
+                    return count;
+                }
+            }
+        }
+        if (count > 0) inboundQueueWorker.signal();
+        return count;
+    }
+
+    private void enforceRetention() {
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            boolean overCap = segments.size() > maxSegments;
+            if (segment == active || !segment.closed || (segment.pending.get() > 0 && !overCap)) continue;
+
+            if (segment.pending.get() > 0) {
+                lost.increment(segment.pending.get());
+                log.error("❌ Journal over {} segments - dropping {} with {} unreplayed webhooks",
+                        maxSegments, segment.path.getFileName(), segment.pending.get());
+            }
+            delete(segment);
+        }
+    }
+
+    // Called with appendLock held
+    private Segment rotate() throws IOException {
+        Segment previous = active;
+        previous.awaitDurable(previous.writePosition);
+        previous.closed = true;
+
+        active = createSegment(previous.index + 1);
+        return active;
+    }
+
+    private Segment createSegment(long index) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", index, SUFFIX));
+        Segment segment = Segment.create(path, index, segmentBytes);
+        segments.put(index, segment);
+        return segment;
+    }
+
+    private void delete(Segment segment) {
+        segments.remove(segment.index);
+        segment.closeQuietly();
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warn("⚠️ Failed to delete journal segment {}: {}", segment.path, e.getMessage());
+        }
+    }
+
+    private static long indexOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * One memory-mapped segment file
+     */
+    private static final class Segment {
+
+        private final long index;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final ReentrantLock forceLock = new ReentrantLock();
+        private final ReentrantLock stateLock = new ReentrantLock();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        // writePosition is guarded by appendLock, durablePosition by forceLock
+        private volatile int writePosition;
+        private volatile int durablePosition;
+        private volatile boolean closed;
+
+        private Segment(long index, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.index = index;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path, long index, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(index, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        static Segment open(Path path, long index) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(index, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        }
+
+        void write(int position, byte[] body, int offset, int length, int crc) {
+            buffer.put(position + 4, WRITTEN);
+            buffer.putInt(position + 5, crc);
+            buffer.putLong(position + 9, System.currentTimeMillis());
+            buffer.put(position + HEADER_BYTES, body, offset, length);
+            // Length last: a record is only visible to a scan once everything else is in place
+            buffer.putInt(position, length);
+        }
+
+        /**
+         * Group commit: one force flushes every record appended up to that moment
+         */
+        void awaitDurable(int end) {
+            if (durablePosition >= end) return;
+
+            forceLock.lock();
+            try {
+                if (durablePosition >= end) return;
+
+                int from = durablePosition;
+                int to = writePosition;
+                buffer.force(from, to - from);
+                durablePosition = to;
+            } finally {
+                forceLock.unlock();
+            }
+        }
+
+        void markEnqueued(int position) {
+            // The request thread and a replay can race to mark the same record
+            stateLock.lock();
+            try {
+                if (buffer.get(position + 4) == WRITTEN) {
+                    buffer.put(position + 4, ENQUEUED);
+                    pending.decrementAndGet();
+                }
+            } finally {
+                stateLock.unlock();
+            }
+        }
+
+        /**
+         * Find the end of the valid records after a restart; a torn or corrupt record ends the segment
+         */
+        void scan() {
+            int position = 0;
+            while (position + HEADER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER_BYTES + length > buffer.capacity()) break;
+
+                byte state = buffer.get(position + 4);
+                if (state != WRITTEN && state != ENQUEUED) break;
+                if (checksum(position, length) != buffer.getInt(position + 5)) break;
+
+                if (state == WRITTEN) pending.incrementAndGet();
+                position += HEADER_BYTES + length;
+            }
+            writePosition = position;
+            durablePosition = position;
+        }
+
+        List<Integer> pendingRecords(long writtenBefore) {
+            List<Integer> positions = new ArrayList<>();
+            int end = durablePosition;
+            int position = 0;
+            while (position < end) {
+                int length = buffer.getInt(position);
+                if (buffer.get(position + 4) == WRITTEN && buffer.getLong(position + 9) < writtenBefore) {
+                    positions.add(position);
+                }
+                position += HEADER_BYTES + length;
+            }
+            return positions;
+        }
+
+        byte[] read(int position) {
+            byte[] body = new byte[buffer.getInt(position)];
+            buffer.get(position + HEADER_BYTES, body);
+            return body;
+        }
+
+        private int checksum(int position, int length) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(position + HEADER_BYTES, length));
+            return (int) crc.getValue();
+        }
+
+        void closeQuietly() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
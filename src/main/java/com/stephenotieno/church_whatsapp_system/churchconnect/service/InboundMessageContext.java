@@ -0,0 +1,26 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Everything resolved while processing one inbound message.
+ * The church, member, conversation and saved message are looked up once and passed to
+ * each service in the pipeline, so none of them re-reads what an earlier step already loaded.
+ * All entities belong to the surrounding transaction's persistence context.
+ */
+@Getter
+@Setter
+@RequiredArgsConstructor
+public class InboundMessageContext {
+
+    private final String phoneNumberId;   // business number the message was sent to
+    private final String phoneNumber;
+    private final Church church;          // reference only; loaded on first field access
+
+    private Member member;                // null until the sender registers
+    private Conversation conversation;
+    private Message message;              // the stored inbound message
+}
@@ -0,0 +1,158 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drops Meta webhook redeliveries before they reach the chatbot.
+ * Recently seen WhatsApp message ids are held in a time-bounded in-memory set; ids that slip
+ * past it (other nodes, restarts, long retry gaps) are caught by the insert-if-absent on
+ * {@code messages.message_sid} in {@link MessageService#saveInboundIfAbsent}.
+ * <p>
+ * The set is kept in insertion order, which with a fixed TTL is also expiry order: expired
+ * ids are trimmed from the head, and at capacity the oldest id is evicted, so both are O(1)
+ * per id however full the set is.
+ */
+@Service
+@Slf4j
+public class InboundMessageDeduplicator {
+
+    // id -> expiry (nanoTime), oldest first; guarded by lock
+    private final LinkedHashMap<String, Long> recentlySeen = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final Counter memoryDuplicates;
+    private final Counter databaseDuplicates;
+    private final Counter droppedDuplicates;
+    private final Counter droppedUnsupported;
+
+    public InboundMessageDeduplicator(MeterRegistry meterRegistry,
+                                      @Value("${inbound.dedupe.ttl-minutes:30}") long ttlMinutes,
+                                      @Value("${inbound.dedupe.max-entries:200000}") int maxEntries) {
+        this.ttlNanos = TimeUnit.MINUTES.toNanos(ttlMinutes);
+        this.maxEntries = maxEntries;
+
+        this.memoryDuplicates = Counter.builder("inbound.dedupe.duplicates")
+                .description("Redelivered WhatsApp messages detected")
+                .tag("stage", "memory")
+                .register(meterRegistry);
+        this.databaseDuplicates = Counter.builder("inbound.dedupe.duplicates")
+                .description("Redelivered WhatsApp messages detected")
+                .tag("stage", "database")
+                .register(meterRegistry);
+        this.droppedDuplicates = Counter.builder("inbound.messages.dropped")
+                .description("Inbound messages dropped before processing")
+                .tag("reason", "duplicate")
+                .register(meterRegistry);
+        this.droppedUnsupported = Counter.builder("inbound.messages.dropped")
+                .description("Inbound messages dropped before processing")
+                .tag("reason", "unsupported")
+                .register(meterRegistry);
+
+        Gauge.builder("inbound.dedupe.entries", this, InboundMessageDeduplicator::size)
+                .description("WhatsApp message ids held in the in-memory dedupe window")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns true the first time an id is seen inside the window, false for a redelivery
+     */
+    public boolean firstSighting(String messageId) {
+        if (messageId == null) return true;
+
+        lock.lock();
+        try {
+            // Read under the lock so insertion order stays expiry order
+            long now = System.nanoTime();
+            evictExpired(now);
+
+            // Anything still here after the trim is inside its window
+            if (!recentlySeen.containsKey(messageId)) {
+                remember(messageId, now);
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        memoryDuplicates.increment();
+        droppedDuplicates.increment();
+        log.info("♻️ Dropping redelivered message {}", messageId);
+        return false;
+    }
+
+    /**
+     * Let a message through again after its processing failed, so a redelivery can retry it
+     */
+    public void forget(String messageId) {
+        if (messageId == null) return;
+
+        lock.lock();
+        try {
+            recentlySeen.remove(messageId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void recordDatabaseDuplicate(String messageId) {
+        databaseDuplicates.increment();
+        droppedDuplicates.increment();
+        log.info("♻️ Dropping message {} already stored by an earlier delivery", messageId);
+    }
+
+    public void recordUnsupported() {
+        droppedUnsupported.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${inbound.dedupe.sweep-interval-ms:60000}")
+    public void sweep() {
+        lock.lock();
+        try {
+            evictExpired(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return recentlySeen.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remember(String messageId, long now) {
+        if (recentlySeen.size() >= maxEntries) {
+            Iterator<Map.Entry<String, Long>> oldest = recentlySeen.entrySet().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+        recentlySeen.put(messageId, now + ttlNanos);
+    }
+
+    /**
+     * Drop expired ids from the head; stops at the first live one
+     */
+    private void evictExpired(long now) {
+        Iterator<Long> expiries = recentlySeen.values().iterator();
+        while (expiries.hasNext() && expiries.next() - now < 0) {
+            expiries.remove();
+        }
+    }
+}
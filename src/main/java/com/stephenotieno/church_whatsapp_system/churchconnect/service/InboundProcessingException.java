@@ -0,0 +1,20 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import lombok.Getter;
+import java.util.List;
+
+/**
+ * Messages in a webhook event that the chatbot failed to handle.
+ * The event is retried or parked as a whole; only these message ids need to get past
+ * the deduplicator again when it is retried.
+ */
+@Getter
+public class InboundProcessingException extends RuntimeException {
+
+    private final List<String> messageIds;
+
+    public InboundProcessingException(List<String> messageIds, Throwable cause) {
+        super(messageIds.size() + " message(s) failed, first: " + cause.getMessage(), cause);
+        this.messageIds = messageIds;
+    }
+}
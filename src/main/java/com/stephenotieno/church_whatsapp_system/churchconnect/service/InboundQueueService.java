@@ -0,0 +1,120 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.InboundWebhookEvent;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.InboundWebhookEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InboundQueueService {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final InboundWebhookEventRepository inboundWebhookEventRepository;
+
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    /**
+     * Persist a raw webhook body so it can be acknowledged before any processing happens
+     */
+    @Transactional
+    public InboundWebhookEvent enqueue(byte[] payload) {
+        return enqueue(payload, 0, payload.length);
+    }
+
+    /**
+     * Persist {@code buffer[offset, offset + length)}; the bytes are copied, so the buffer can be reused
+     */
+    @Transactional
+    public InboundWebhookEvent enqueue(byte[] buffer, int offset, int length) {
+        byte[] payload = Arrays.copyOfRange(buffer, offset, offset + length);
+        InboundWebhookEvent event = InboundWebhookEvent.builder()
+                .payload(payload)
+                .status("PENDING")
+                .attempts(0)
+                .build();
+
+        event = inboundWebhookEventRepository.save(event);
+        log.debug("📥 Webhook event {} queued ({} bytes)", event.getId(), payload.length);
+        return event;
+    }
+
+    /**
+     * Claim up to {@code limit} pending events with attempts left for this node
+     */
+    @Transactional
+    public List<InboundWebhookEvent> claimBatch(int limit, int maxAttempts) {
+        LocalDateTime now = LocalDateTime.now();
+        List<InboundWebhookEvent> events = inboundWebhookEventRepository.lockPendingBatch(limit, now, maxAttempts);
+
+        for (InboundWebhookEvent event : events) {
+            event.setStatus("PROCESSING");
+            event.setClaimedBy(nodeId);
+            event.setClaimedAt(now);
+            event.setAttempts(event.getAttempts() + 1);
+        }
+
+        return events;
+    }
+
+    @Transactional
+    public void markDone(Long eventId) {
+        inboundWebhookEventRepository.updateStatus(eventId, "DONE", LocalDateTime.now(), null);
+    }
+
+    /**
+     * Return the event to the queue to be retried at {@code retryAt}, or park it as FAILED
+     * once it has used up its attempts
+     *
+     * @return whether a retry was scheduled
+     */
+    @Transactional
+    public boolean markFailed(Long eventId, int attempts, int maxAttempts, String error, LocalDateTime retryAt) {
+        String lastError = error != null && error.length() > MAX_ERROR_LENGTH
+                ? error.substring(0, MAX_ERROR_LENGTH) : error;
+
+        if (attempts >= maxAttempts) {
+            inboundWebhookEventRepository.updateStatus(eventId, "FAILED", LocalDateTime.now(), lastError);
+            log.error("❌ Webhook event {} failed after {} attempts: {}", eventId, attempts, error);
+            return false;
+        }
+
+        inboundWebhookEventRepository.reschedule(eventId, lastError, retryAt);
+        log.warn("⚠️ Webhook event {} will be retried at {} (attempt {}): {}", eventId, retryAt, attempts, error);
+        return true;
+    }
+
+    /**
+     * Hand events held by a crashed or stuck worker back to the queue, or park them as FAILED
+     * if that claim was their last attempt
+     *
+     * @return how many were handed back
+     */
+    @Transactional
+    public int releaseStaleClaims(LocalDateTime cutoff, int maxAttempts) {
+        int failed = inboundWebhookEventRepository.failStaleClaims(cutoff, maxAttempts, LocalDateTime.now(),
+                "Claim timed out on the last attempt");
+        if (failed > 0) {
+            log.error("❌ {} webhook events failed after their last claim timed out", failed);
+        }
+        return inboundWebhookEventRepository.releaseStaleClaims(cutoff, maxAttempts);
+    }
+
+    @Transactional
+    public int purgeProcessed(LocalDateTime cutoff) {
+        return inboundWebhookEventRepository.deleteProcessedBefore(cutoff);
+    }
+
+    @Transactional(readOnly = true)
+    public Long countPending() {
+        return inboundWebhookEventRepository.countByStatus("PENDING");
+    }
+}
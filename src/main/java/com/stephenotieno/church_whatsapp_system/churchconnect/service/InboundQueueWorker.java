@@ -0,0 +1,185 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.InboundWebhookEvent;
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.Backoff;
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.ExecutionMode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the durable inbound webhook queue with a bounded pool of workers.
+ * A single poller thread claims batches sized to the free worker capacity; it wakes up
+ * on every enqueue and otherwise polls on a fixed interval so other nodes' events are picked up too.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InboundQueueWorker {
+
+    private final InboundQueueService inboundQueueService;
+    private final WebhookProcessingService webhookProcessingService;
+    private final InboundMessageDeduplicator inboundMessageDeduplicator;
+    private final PipelineMetrics pipelineMetrics;
+    private final ExecutionMode executionMode;
+
+    @Value("${inbound.queue.workers:8}")
+    private int workers;
+
+    @Value("${inbound.queue.batch-size:32}")
+    private int batchSize;
+
+    @Value("${inbound.queue.poll-interval-ms:250}")
+    private long pollIntervalMs;
+
+    @Value("${inbound.queue.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${inbound.queue.backoff.base-ms:2000}")
+    private long backoffBaseMs;
+
+    @Value("${inbound.queue.backoff.max-ms:300000}")
+    private long backoffMaxMs;
+
+    @Value("${inbound.queue.claim-timeout-seconds:300}")
+    private long claimTimeoutSeconds;
+
+    @Value("${inbound.queue.retention-hours:72}")
+    private long retentionHours;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private ExecutorService executor;
+    private Thread poller;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        // drain() caps in-flight events at workers * 2, which also bounds the virtual executor
+        executor = executionMode.isVirtual()
+                ? executionMode.newTaskExecutor("inbound-worker", workers)
+                : new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(workers),
+                        executionMode.threadFactory("inbound-worker"));
+
+        running = true;
+        poller = new Thread(this::pollLoop, "inbound-poller");
+        poller.setDaemon(true);
+        poller.start();
+
+        log.info("✅ Inbound queue worker started with {} workers", workers);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        poller.interrupt();
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("⚠️ Inbound workers did not finish in time, {} events will be reclaimed", inFlight.get());
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Nudge the poller after a new event has been committed
+     */
+    public void signal() {
+        if (wakeUp.availablePermits() == 0) {
+            wakeUp.release();
+        }
+    }
+
+    private void pollLoop() {
+        while (running) {
+            try {
+                wakeUp.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+                drain();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("❌ Inbound queue poll failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void drain() {
+        while (running) {
+            // Pool threads plus its hand-off queue, so execute() never rejects
+            int capacity = Math.min(workers * 2 - inFlight.get(), batchSize);
+            if (capacity <= 0) return;
+
+            List<InboundWebhookEvent> events = inboundQueueService.claimBatch(capacity, maxAttempts);
+            for (InboundWebhookEvent event : events) {
+                inFlight.incrementAndGet();
+                executor.execute(() -> process(event));
+            }
+
+            if (events.size() < capacity) return;
+        }
+    }
+
+    private void process(InboundWebhookEvent event) {
+        long start = System.nanoTime();
+        pipelineMetrics.recordQueueWait(Duration.between(event.getReceivedAt(), LocalDateTime.now()));
+        try {
+            webhookProcessingService.process(event.getPayload());
+            pipelineMetrics.recordEvent(System.nanoTime() - start);
+            inboundQueueService.markDone(event.getId());
+        } catch (Exception e) {
+            log.error("❌ Error processing webhook event {}: {}", event.getId(), e.getMessage(), e);
+            boolean retrying = inboundQueueService.markFailed(
+                    event.getId(), event.getAttempts(), maxAttempts, e.getMessage(), retryAt(event));
+
+            // The failed messages must get past the deduplicator on the retry; a parked event's must not
+            if (retrying && e instanceof InboundProcessingException failed) {
+                failed.getMessageIds().forEach(inboundMessageDeduplicator::forget);
+            }
+        } finally {
+            inFlight.decrementAndGet();
+            signal();
+        }
+    }
+
+    private LocalDateTime retryAt(InboundWebhookEvent event) {
+        Duration delay = Backoff.fullJitter(event.getAttempts(),
+                Duration.ofMillis(backoffBaseMs), Duration.ofMillis(backoffMaxMs));
+        return LocalDateTime.now().plus(delay);
+    }
+
+    /**
+     * Put events claimed by a node that died mid-processing back on the queue
+     */
+    @Scheduled(fixedDelayString = "${inbound.queue.reclaim-interval-ms:60000}")
+    public void reclaimStaleEvents() {
+        int released = inboundQueueService.releaseStaleClaims(
+                LocalDateTime.now().minusSeconds(claimTimeoutSeconds), maxAttempts);
+        if (released > 0) {
+            log.warn("♻️ Released {} stale webhook claims", released);
+            signal();
+        }
+    }
+
+    /**
+     * Drop processed events once they are past the retention window
+     */
+    @Scheduled(cron = "0 15 * * * ?")
+    public void purgeProcessedEvents() {
+        int purged = inboundQueueService.purgeProcessed(LocalDateTime.now().minusHours(retentionHours));
+        if (purged > 0) {
+            log.info("🧹 Purged {} processed webhook events", purged);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.KeywordAutomaton;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Classifies an inbound chatbot message in one pass.
+ * All keyword lists the chatbot reacts to are compiled into a single {@link KeywordAutomaton};
+ * one scan yields the reply intent, the logged command type, whether the message goes to the
+ * pastor, and its pastor-queue category and priority. Keywords match anywhere in the message,
+ * case-insensitively, with the same precedence the chatbot has always used.
+ * <p>
+ * The built-in keywords are the defaults; {@link #compile} builds a church's own {@link Rules}
+ * from them plus the keywords its intent rules add or remove.
+ */
+@Component
+public class IntentClassifier {
+
+    public enum Intent {
+        GREETING, ALREADY_REGISTERED, BALANCE, GIVE_AMOUNT, GIVE, PRAYER, INFO, MEMBERSHIP, HELP,
+        CONFIRM, THANKS, AMEN, YES, CANCEL, LONG_MESSAGE, UNKNOWN
+    }
+
+    /**
+     * Everything the chatbot needs to know about one message
+     */
+    public record Classification(
+            Intent intent,
+            String commandType,       // REGISTER, GIVE, BALANCE, PRAYER, INFO, HELP or null
+            String giveAmount,        // digits after "give", for GIVE_AMOUNT
+            boolean register,         // starts with "register"
+            boolean deliveryReceipt,
+            boolean escalateToPastor,
+            String queueCategory,
+            String queuePriority) {
+    }
+
+    /**
+     * Keyword groups a church's intent rules can add keywords to or remove them from
+     */
+    public enum Trigger {
+        GREETING(IntentClassifier.GREETING),
+        BALANCE(IntentClassifier.BALANCE),
+        GIVE(IntentClassifier.GIVE),
+        PRAYER(IntentClassifier.PRAYER),
+        INFO(IntentClassifier.INFO),
+        LOCATION(IntentClassifier.LOCATION),
+        MEMBERSHIP(IntentClassifier.MEMBERSHIP),
+        HELP(IntentClassifier.HELP),
+        CONFIRM(IntentClassifier.CONFIRM),
+        THANKS(IntentClassifier.THANKS),
+        AMEN(IntentClassifier.AMEN),
+        CANCEL(IntentClassifier.CANCEL),
+        ESCALATE(IntentClassifier.ESCALATE),
+        QUEUE_PRAYER(IntentClassifier.QUEUE_PRAYER),
+        QUEUE_COUNSEL(IntentClassifier.QUEUE_COUNSEL),
+        QUEUE_URGENT(IntentClassifier.QUEUE_URGENT),
+        QUEUE_COMPLAINT(IntentClassifier.QUEUE_COMPLAINT);
+
+        private final int group;
+
+        Trigger(int group) {
+            this.group = group;
+        }
+    }
+
+    /**
+     * A compiled keyword set, immutable once built; {@code version} identifies the rules it came from
+     */
+    public record Rules(long version, KeywordAutomaton automaton) {
+    }
+
+    // Keyword groups (bit positions in the scan result)
+    private static final int DELIVERY = 0;
+    private static final int GREETING = 1;
+    private static final int BALANCE = 2;
+    private static final int GIVE = 3;
+    private static final int PRAYER = 4;
+    private static final int INFO = 5;
+    private static final int LOCATION = 6;
+    private static final int MEMBERSHIP = 7;
+    private static final int HELP = 8;
+    private static final int CONFIRM = 9;
+    private static final int THANKS = 10;
+    private static final int AMEN = 11;
+    private static final int CANCEL = 12;
+    private static final int ESCALATE = 13;
+    private static final int QUEUE_PRAYER = 14;
+    private static final int QUEUE_COUNSEL = 15;
+    private static final int QUEUE_URGENT = 16;
+    private static final int QUEUE_COMPLAINT = 17;
+
+    private static final int ESCALATE_LENGTH = 200;
+    private static final int LONG_MESSAGE_LENGTH = 50;
+    private static final String[] AFFIRMATIVES = {"yes", "yeah", "yep", "ok", "okay", "ndio", "sawa"};
+
+    private static final String[] DELIVERY_KEYWORDS = {"delivered", "read"};
+    private static final Map<Trigger, List<String>> DEFAULT_KEYWORDS = new EnumMap<>(Trigger.class);
+
+    static {
+        DEFAULT_KEYWORDS.put(Trigger.GREETING, List.of("hello", "hi", "hey", "good morning", "good afternoon", "good evening", "habari", "mambo"));
+        DEFAULT_KEYWORDS.put(Trigger.BALANCE, List.of("balance", "offerings", "my offerings", "check balance", "total"));
+        DEFAULT_KEYWORDS.put(Trigger.GIVE, List.of("give", "offering", "donate", "tithe", "sadaka", "mchango"));
+        DEFAULT_KEYWORDS.put(Trigger.PRAYER, List.of("prayer", "pray", "intercession", "request prayer", "ombi"));
+        DEFAULT_KEYWORDS.put(Trigger.INFO, List.of("info", "information", "details", "my details"));
+        DEFAULT_KEYWORDS.put(Trigger.LOCATION, List.of("location", "address"));
+        DEFAULT_KEYWORDS.put(Trigger.MEMBERSHIP, List.of("membership", "member", "status"));
+        DEFAULT_KEYWORDS.put(Trigger.HELP, List.of("help", "menu", "commands", "msaada"));
+        DEFAULT_KEYWORDS.put(Trigger.CONFIRM, List.of("confirm", "received", "got it", "nimepokea"));
+        DEFAULT_KEYWORDS.put(Trigger.THANKS, List.of("thank", "thanks", "asante", "appreciate"));
+        DEFAULT_KEYWORDS.put(Trigger.AMEN, List.of("amen", "hallelujah", "praise", "glory", "amina"));
+        DEFAULT_KEYWORDS.put(Trigger.CANCEL, List.of("cancel", "stop", "unsubscribe", "acha"));
+        DEFAULT_KEYWORDS.put(Trigger.ESCALATE, List.of("counseling", "counsel", "problem", "issue", "help me", "confused", "difficult", "struggling"));
+        DEFAULT_KEYWORDS.put(Trigger.QUEUE_PRAYER, List.of("prayer", "pray"));
+        DEFAULT_KEYWORDS.put(Trigger.QUEUE_COUNSEL, List.of("counsel", "advice"));
+        DEFAULT_KEYWORDS.put(Trigger.QUEUE_URGENT, List.of("urgent", "emergency"));
+        DEFAULT_KEYWORDS.put(Trigger.QUEUE_COMPLAINT, List.of("complaint", "issue"));
+    }
+
+    private final Rules defaultRules = compile(0, Map.of(), Map.of());
+
+    /**
+     * Built-in keywords for each trigger
+     */
+    public static Map<Trigger, List<String>> defaultKeywords() {
+        return Collections.unmodifiableMap(DEFAULT_KEYWORDS);
+    }
+
+    /**
+     * Build a keyword set from the defaults, minus {@code removed} and plus {@code added}
+     *
+     * @throws IllegalArgumentException if a keyword is not ASCII
+     */
+    public Rules compile(long version, Map<Trigger, List<String>> added,
+                         Map<Trigger, List<String>> removed) {
+        KeywordAutomaton.Builder builder = KeywordAutomaton.builder().add(DELIVERY, DELIVERY_KEYWORDS);
+
+        for (Trigger trigger : Trigger.values()) {
+            Set<String> keywords = new LinkedHashSet<>(DEFAULT_KEYWORDS.get(trigger));
+            keywords.removeAll(removed.getOrDefault(trigger, List.of()));
+            keywords.addAll(added.getOrDefault(trigger, List.of()));
+            builder.add(trigger.group, keywords.toArray(String[]::new));
+        }
+
+        return new Rules(version, builder.build());
+    }
+
+    public Rules defaultRules() {
+        return defaultRules;
+    }
+
+    /**
+     * Classify against the built-in keywords
+     */
+    public Classification classify(String message) {
+        return classify(defaultRules, message);
+    }
+
+    public Classification classify(Rules rules, String message) {
+        long groups = rules.automaton().scan(message);
+
+        // Bounds of message.trim(), without the copy
+        int start = 0;
+        int end = message.length();
+        while (start < end && message.charAt(start) <= ' ') start++;
+        while (end > start && message.charAt(end - 1) <= ' ') end--;
+
+        boolean register = startsWithIgnoreCase(message, start, "register");
+        String giveAmount = has(groups, GIVE) ? giveAmount(message) : null;
+
+        String commandType = commandType(groups, register, startsWithIgnoreCase(message, start, "give"));
+        boolean escalate = "PRAYER".equals(commandType)
+                || message.length() > ESCALATE_LENGTH
+                || has(groups, ESCALATE);
+
+        String category = "OTHER";
+        String priority = "MEDIUM";
+        if (has(groups, QUEUE_PRAYER)) {
+            category = "PRAYER";
+        } else if (has(groups, QUEUE_COUNSEL)) {
+            category = "COUNSELING";
+        } else if (has(groups, QUEUE_URGENT)) {
+            category = "INQUIRY";
+            priority = "HIGH";
+        } else if (has(groups, QUEUE_COMPLAINT)) {
+            category = "COMPLAINT";
+            priority = "HIGH";
+        }
+
+        return new Classification(intent(groups, register, giveAmount, message, start, end), commandType, giveAmount,
+                register, has(groups, DELIVERY), escalate, category, priority);
+    }
+
+    private static Intent intent(long groups, boolean register, String giveAmount,
+                                 String message, int start, int end) {
+        if (has(groups, GREETING)) return Intent.GREETING;
+        if (register) return Intent.ALREADY_REGISTERED;
+        if (has(groups, BALANCE)) return Intent.BALANCE;
+        if (giveAmount != null) return Intent.GIVE_AMOUNT;
+        if (has(groups, GIVE)) return Intent.GIVE;
+        if (has(groups, PRAYER)) return Intent.PRAYER;
+        if (has(groups, INFO) || has(groups, LOCATION)) return Intent.INFO;
+        if (has(groups, MEMBERSHIP)) return Intent.MEMBERSHIP;
+        if (has(groups, HELP)) return Intent.HELP;
+        if (has(groups, CONFIRM)) return Intent.CONFIRM;
+        if (has(groups, THANKS)) return Intent.THANKS;
+        if (has(groups, AMEN)) return Intent.AMEN;
+        if (isAffirmative(message, start, end)) return Intent.YES;
+        if (has(groups, CANCEL)) return Intent.CANCEL;
+        if (end - start > LONG_MESSAGE_LENGTH) return Intent.LONG_MESSAGE;
+        return Intent.UNKNOWN;
+    }
+
+    private static String commandType(long groups, boolean register, boolean startsWithGive) {
+        if (register) return "REGISTER";
+        if (startsWithGive) return "GIVE";
+        if (has(groups, BALANCE)) return "BALANCE";
+        if (has(groups, PRAYER)) return "PRAYER";
+        if (has(groups, INFO)) return "INFO";
+        if (has(groups, HELP)) return "HELP";
+        return null;
+    }
+
+    private static boolean has(long groups, int group) {
+        return (groups & (1L << group)) != 0;
+    }
+
+    /**
+     * Digits of the first "give" followed by whitespace and a number, like {@code give\s+(\d+)}
+     */
+    private static String giveAmount(String message) {
+        int n = message.length();
+        for (int i = 0; i + 4 <= n; i++) {
+            if (!matchesAt(message, i, "give")) continue;
+
+            int j = i + 4;
+            while (j < n && isRegexWhitespace(message.charAt(j))) j++;
+            if (j == i + 4) continue;
+
+            int digitsStart = j;
+            while (j < n && message.charAt(j) >= '0' && message.charAt(j) <= '9') j++;
+            if (j > digitsStart) return message.substring(digitsStart, j);
+        }
+        return null;
+    }
+
+    /**
+     * The whole trimmed message is one of the short affirmatives
+     */
+    private static boolean isAffirmative(String message, int start, int end) {
+        int length = end - start;
+        for (String affirmative : AFFIRMATIVES) {
+            if (affirmative.length() == length && matchesAt(message, start, affirmative)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWithIgnoreCase(String message, int start, String prefix) {
+        return matchesAt(message, start, prefix);
+    }
+
+    /**
+     * {@code word} (lowercase ASCII) occurs at {@code offset}, folding case char by char as
+     * {@code toLowerCase()} does. Unlike {@code regionMatches(true, ...)} this rejects "İ",
+     * which lowercases to two chars (none of these words ends in "i"), and "ſ", which only
+     * matches "s" in upper case.
+     */
+    private static boolean matchesAt(String message, int offset, String word) {
+        if (offset + word.length() > message.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            char c = message.charAt(offset + i);
+            if (c != word.charAt(i) && (c == '\u0130' || Character.toLowerCase(c) != word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,270 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.IntentRuleDTO;
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.IntentRuleRequest;
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.IntentRule;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.IntentRuleRepository;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.IntentClassifier.Classification;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.IntentClassifier.Rules;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.IntentClassifier.Trigger;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Per-church chatbot keywords, stored as {@link IntentRule} rows and compiled into an
+ * immutable {@link Rules} automaton for each church that has any.
+ * <p>
+ * The compiled sets live in one immutable snapshot swapped atomically, so classifying a
+ * message is a map lookup plus a precompiled scan, with no database access and no locking.
+ * A church's set is recompiled after a rule change commits, and every set is rebuilt when the
+ * periodic check sees rules changed on another node. Each compile gets a new version number.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IntentRuleService {
+
+    private final IntentRuleRepository intentRuleRepository;
+    private final IntentClassifier intentClassifier;
+
+    private final AtomicLong versions = new AtomicLong();
+    private volatile Map<Long, Rules> rulesByChurch = Map.of();
+    private volatile String fingerprint;
+
+    // Rules are read and compiled outside the lock; it only orders the swaps. Every read takes
+    // a load number first, so a slow load never replaces a set read after it.
+    private final ReentrantLock swapLock = new ReentrantLock();
+    private final AtomicLong loads = new AtomicLong();
+    private final Map<Long, Long> loadedIn = new HashMap<>(); // guarded by swapLock
+    private long fullLoad; // guarded by swapLock
+
+    @PostConstruct
+    public void init() {
+        reloadAll();
+    }
+
+    /**
+     * Classify a message with the church's keywords
+     */
+    public Classification classify(Long churchId, String message) {
+        return intentClassifier.classify(rulesFor(churchId), message);
+    }
+
+    public Rules rulesFor(Long churchId) {
+        Rules rules = churchId != null ? rulesByChurch.get(churchId) : null;
+        return rules != null ? rules : intentClassifier.defaultRules();
+    }
+
+    // === ADMIN ===
+
+    @Transactional(readOnly = true)
+    public List<IntentRuleDTO> getRules(Long churchId) {
+        return intentRuleRepository.findByChurchIdOrderByTriggerAscKeywordAsc(churchId)
+                .stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    public Map<String, List<String>> getDefaultKeywords() {
+        Map<String, List<String>> defaults = new LinkedHashMap<>();
+        IntentClassifier.defaultKeywords().forEach((trigger, keywords) -> defaults.put(trigger.name(), keywords));
+        return defaults;
+    }
+
+    @Transactional
+    public IntentRuleDTO addRule(Long churchId, IntentRuleRequest request) {
+        Trigger trigger = parseTrigger(request.getTrigger());
+        String keyword = normalizeKeyword(request.getKeyword());
+
+        if (intentRuleRepository.existsByChurchIdAndTriggerAndKeyword(churchId, trigger.name(), keyword)) {
+            throw new RuntimeException("Rule already exists");
+        }
+
+        IntentRule rule = IntentRule.builder()
+                .churchId(churchId)
+                .trigger(trigger.name())
+                .keyword(keyword)
+                .excluded(Boolean.TRUE.equals(request.getExcluded()))
+                .build();
+        rule = intentRuleRepository.save(rule);
+
+        recompileAfterCommit(churchId);
+        log.info("🔤 Intent rule added for church {}: {} {} '{}'",
+                churchId, trigger, rule.getExcluded() ? "-" : "+", keyword);
+        return mapToDTO(rule);
+    }
+
+    @Transactional
+    public void deleteRule(Long churchId, Long ruleId) {
+        IntentRule rule = intentRuleRepository.findById(ruleId)
+                .filter(r -> r.getChurchId().equals(churchId))
+                .orElseThrow(() -> new RuntimeException("Rule not found"));
+
+        intentRuleRepository.delete(rule);
+        recompileAfterCommit(churchId);
+        log.info("🗑️ Intent rule {} deleted for church {}", ruleId, churchId);
+    }
+
+    // === COMPILATION ===
+
+    /**
+     * Rebuild every church's set when rules were changed on another node
+     */
+    @Scheduled(fixedDelayString = "${intent.rules.refresh-interval-ms:30000}",
+            initialDelayString = "${intent.rules.refresh-interval-ms:30000}")
+    public void reloadIfChanged() {
+        if (!currentFingerprint().equals(fingerprint)) {
+            reloadAll();
+        }
+    }
+
+    public void reloadAll() {
+        long load = loads.incrementAndGet();
+        String loadedFingerprint = currentFingerprint();
+
+        Map<Long, List<IntentRule>> byChurch = intentRuleRepository.findAll().stream()
+                .collect(Collectors.groupingBy(IntentRule::getChurchId));
+
+        Map<Long, Rules> compiled = new HashMap<>();
+        byChurch.forEach((churchId, rules) -> compiled.put(churchId, compile(churchId, rules)));
+
+        swapLock.lock();
+        try {
+            if (load < fullLoad) {
+                return;
+            }
+            // A church recompiled from a later read than this one keeps that set
+            loadedIn.forEach((churchId, churchLoad) -> {
+                if (churchLoad > load) {
+                    Rules current = rulesByChurch.get(churchId);
+                    if (current != null) {
+                        compiled.put(churchId, current);
+                    } else {
+                        compiled.remove(churchId);
+                    }
+                }
+            });
+            loadedIn.values().removeIf(churchLoad -> churchLoad < load);
+            fullLoad = load;
+
+            rulesByChurch = Map.copyOf(compiled);
+            fingerprint = loadedFingerprint;
+        } finally {
+            swapLock.unlock();
+        }
+        log.info("🔤 Intent rules loaded for {} churches", compiled.size());
+    }
+
+    private void recompile(Long churchId) {
+        long load = loads.incrementAndGet();
+        List<IntentRule> rules = intentRuleRepository.findByChurchIdOrderByTriggerAscKeywordAsc(churchId);
+        Rules compiled = rules.isEmpty() ? null : compile(churchId, rules);
+
+        swapLock.lock();
+        try {
+            // Skip if a load that read after this one was already applied
+            if (load < fullLoad || load < loadedIn.getOrDefault(churchId, 0L)) {
+                return;
+            }
+            loadedIn.put(churchId, load);
+
+            Map<Long, Rules> updated = new HashMap<>(rulesByChurch);
+            if (compiled == null) {
+                updated.remove(churchId);
+            } else {
+                updated.put(churchId, compiled);
+            }
+            rulesByChurch = Map.copyOf(updated);
+        } finally {
+            swapLock.unlock();
+        }
+    }
+
+    private void recompileAfterCommit(Long churchId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recompile(churchId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recompile(churchId);
+            }
+        });
+    }
+
+    private Rules compile(Long churchId, List<IntentRule> rules) {
+        Map<Trigger, List<String>> added = new EnumMap<>(Trigger.class);
+        Map<Trigger, List<String>> removed = new EnumMap<>(Trigger.class);
+
+        for (IntentRule rule : rules) {
+            Trigger trigger;
+            try {
+                trigger = Trigger.valueOf(rule.getTrigger());
+            } catch (IllegalArgumentException e) {
+                log.warn("⚠️ Ignoring intent rule {} with unknown trigger {}", rule.getId(), rule.getTrigger());
+                continue;
+            }
+            Map<Trigger, List<String>> target = Boolean.TRUE.equals(rule.getExcluded()) ? removed : added;
+            target.computeIfAbsent(trigger, t -> new ArrayList<>()).add(rule.getKeyword());
+        }
+
+        try {
+            Rules compiled = intentClassifier.compile(versions.incrementAndGet(), added, removed);
+            log.debug("🔤 Compiled intent rules v{} for church {} ({} rules)", compiled.version(), churchId, rules.size());
+            return compiled;
+        } catch (IllegalArgumentException e) {
+            // Only reachable through rows written outside the API, which validates keywords
+            log.warn("⚠️ Intent rules for church {} are invalid, using defaults: {}", churchId, e.getMessage());
+            return intentClassifier.defaultRules();
+        }
+    }
+
+    private String currentFingerprint() {
+        return intentRuleRepository.count() + "|" + intentRuleRepository.findLatestUpdate();
+    }
+
+    // === HELPERS ===
+
+    private Trigger parseTrigger(String name) {
+        try {
+            return Trigger.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown trigger: " + name);
+        }
+    }
+
+    private String normalizeKeyword(String keyword) {
+        String normalized = keyword.trim().toLowerCase();
+        if (normalized.isEmpty()) {
+            throw new RuntimeException("Keyword is required");
+        }
+        for (int i = 0; i < normalized.length(); i++) {
+            if (normalized.charAt(i) >= 128) {
+                throw new RuntimeException("Keywords must be ASCII");
+            }
+        }
+        return normalized;
+    }
+
+    private IntentRuleDTO mapToDTO(IntentRule rule) {
+        return IntentRuleDTO.builder()
+                .id(rule.getId())
+                .trigger(rule.getTrigger())
+                .keyword(rule.getKeyword())
+                .excluded(rule.getExcluded())
+                .updatedAt(rule.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,417 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Member;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.MemberRepository;
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.LongBloomFilter;
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.LongLongHashMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-memory index of every member by phone number, so the webhook path can tell who is
+ * writing without a string-keyed database lookup.
+ * <p>
+ * A phone number is reduced to its digits and encoded as a {@code long} (a leading 1 keeps
+ * leading zeros significant). Each key maps to one packed {@code long} holding the member id,
+ * church id and status in a primitive open-addressing table, and a second table maps each
+ * member id back to its key so a changed number can be dropped; about 44 bytes a member, so
+ * 300,000 members fit in roughly 13 MB. A Bloom filter in front answers "unknown number" for
+ * first-time senders without probing the table.
+ * <p>
+ * Lookups take an optimistic read of a {@link StampedLock} and only block if a writer
+ * interfered. The table is loaded when the application is ready, updated after commit when
+ * this node registers, edits or deactivates a member, polled for rows changed on other nodes,
+ * and rebuilt in full periodically. Until it is loaded, and for numbers it can't answer for
+ * (non-numeric, or two rows normalising to the same digits), callers fall back to the database,
+ * which is searched for the number with and without its leading '+'.
+ */
+@Service
+@Slf4j
+public class MemberDirectory {
+
+    /**
+     * What the directory knows about a phone number, without touching the database
+     */
+    public record Entry(long memberId, long churchId, boolean active) {
+    }
+
+    private static final long ABSENT = -1;
+    private static final long UNKNOWN = -2;
+
+    // Packed value: member id (39 bits) | church id (20 bits) | status (4 bits)
+    private static final int STATUS_BITS = 4;
+    private static final int CHURCH_BITS = 20;
+    private static final long STATUS_MASK = (1L << STATUS_BITS) - 1;
+    private static final long MAX_CHURCH_ID = (1L << CHURCH_BITS) - 1;
+    private static final long MAX_MEMBER_ID = (1L << (63 - CHURCH_BITS - STATUS_BITS)) - 1;
+    private static final long STATUS_ACTIVE = 1;
+    private static final long STATUS_INACTIVE = 2;
+    private static final long STATUS_OTHER = 3;
+    private static final long FALLBACK = 15; // ask the database
+
+    private static final int LOAD_BATCH_SIZE = 10_000;
+    private static final Duration UPDATE_LOOKBACK = Duration.ofMinutes(2);
+
+    private final MemberRepository memberRepository;
+    private final boolean enabled;
+
+    private final StampedLock lock = new StampedLock();
+    private LongLongHashMap table = new LongLongHashMap(0);
+    private LongLongHashMap keysByMember = new LongLongHashMap(0);
+    private LongBloomFilter bloom = new LongBloomFilter(0);
+    private volatile boolean loaded;
+    private volatile LocalDateTime updatedSince;
+
+    private final Counter hits;
+    private final Counter absent;
+    private final Counter fallbacks;
+
+    public MemberDirectory(MemberRepository memberRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${member.directory.enabled:true}") boolean enabled) {
+        this.memberRepository = memberRepository;
+        this.enabled = enabled;
+
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.absent = lookupCounter(meterRegistry, "absent");
+        this.fallbacks = lookupCounter(meterRegistry, "fallback");
+
+        Gauge.builder("member.directory.entries", this, directory -> directory.table.size())
+                .description("Phone numbers held in the in-memory member directory")
+                .register(meterRegistry);
+        Gauge.builder("member.directory.bytes", this, MemberDirectory::heapBytes)
+                .description("Approximate heap used by the member directory tables and Bloom filter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drop-in for {@link MemberRepository#findByPhoneNumber}. A known number returns an
+     * unloaded reference (no query until a field other than the id is read), an unknown one
+     * returns empty without a query.
+     */
+    public Optional<Member> findByPhoneNumber(String phoneNumber) {
+        long packed = lookupPacked(phoneNumber);
+        if (packed == UNKNOWN) {
+            fallbacks.increment();
+            return findInDatabase(phoneNumber);
+        }
+        if (packed == ABSENT) {
+            absent.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(memberRepository.getReferenceById(memberIdOf(packed)));
+    }
+
+    /**
+     * {@link #findByPhoneNumber(String)} for one church: a member of another church is empty,
+     * as if the number were not registered
+     */
+    public Optional<Member> findByPhoneNumber(String phoneNumber, Long churchId) {
+        long packed = lookupPacked(phoneNumber);
+        if (packed == UNKNOWN) {
+            fallbacks.increment();
+            return findInDatabase(phoneNumber)
+                    .filter(member -> member.getChurch().getId().equals(churchId));
+        }
+        if (packed == ABSENT) {
+            absent.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        if (churchId == null || ((packed >>> STATUS_BITS) & MAX_CHURCH_ID) != churchId) {
+            return Optional.empty();
+        }
+        return Optional.of(memberRepository.getReferenceById(memberIdOf(packed)));
+    }
+
+    /**
+     * Member and church ids and status for a phone number
+     */
+    public Optional<Entry> lookup(String phoneNumber) {
+        long packed = lookupPacked(phoneNumber);
+        if (packed == UNKNOWN) {
+            fallbacks.increment();
+            return findInDatabase(phoneNumber)
+                    .map(member -> new Entry(member.getId(), member.getChurch().getId(),
+                            "ACTIVE".equals(member.getStatus())));
+        }
+        if (packed == ABSENT) {
+            absent.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(new Entry(memberIdOf(packed), (packed >>> STATUS_BITS) & MAX_CHURCH_ID,
+                (packed & STATUS_MASK) == STATUS_ACTIVE));
+    }
+
+    /**
+     * Look a number up in the members table, matching it whether it was stored with or without
+     * a leading '+' (WhatsApp sends "254…", admins often type "+254…"). A row stored exactly as
+     * given wins if both exist. Use this wherever the directory's answer isn't good enough,
+     * such as the check before registering a number.
+     */
+    public Optional<Member> findInDatabase(String phoneNumber) {
+        long key = phoneKey(phoneNumber);
+        if (key < 0) {
+            return memberRepository.findByPhoneNumber(phoneNumber);
+        }
+
+        String digits = Long.toString(key).substring(1);
+        List<Member> members = memberRepository.findByPhoneNumberIn(List.of(phoneNumber, digits, "+" + digits));
+        return members.stream()
+                .filter(member -> phoneNumber.equals(member.getPhoneNumber()))
+                .findFirst()
+                .or(() -> members.stream().min(Comparator.comparing(Member::getId)));
+    }
+
+    /**
+     * Apply a saved member to the directory once the current transaction commits,
+     * dropping the number it had before if this save changed it
+     */
+    public void recordAfterCommit(Member member) {
+        long memberId = member.getId();
+        long churchId = member.getChurch().getId();
+        String phoneNumber = member.getPhoneNumber();
+        String status = member.getStatus();
+
+        Runnable update = () -> {
+            long stamp = lock.writeLock();
+            try {
+                index(memberId, churchId, phoneNumber, status);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        };
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Rebuild the whole directory from the members table, off-lock, and swap it in
+     */
+    @Scheduled(fixedDelayString = "${member.directory.full-reload-interval-ms:3600000}",
+            initialDelayString = "${member.directory.full-reload-interval-ms:3600000}")
+    public void reload() {
+        if (!enabled) return;
+
+        long start = System.currentTimeMillis();
+        LocalDateTime startedAt = LocalDateTime.now();
+
+        int expected = (int) Math.min(memberRepository.count(), Integer.MAX_VALUE / 2);
+        LongLongHashMap newTable = new LongLongHashMap(expected);
+        LongLongHashMap newKeysByMember = new LongLongHashMap(expected);
+        long afterId = 0;
+        while (true) {
+            List<Object[]> rows = memberRepository.findDirectoryEntries(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (Object[] row : rows) {
+                put(newTable, newKeysByMember, (Long) row[0], (Long) row[1], (String) row[2], (String) row[3]);
+            }
+            if (rows.size() < LOAD_BATCH_SIZE) break;
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+        LongBloomFilter newBloom = bloomFor(newTable);
+
+        long stamp = lock.writeLock();
+        try {
+            table = newTable;
+            keysByMember = newKeysByMember;
+            bloom = newBloom;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        // Catch saves that committed while the snapshot was being read
+        updatedSince = startedAt.minus(UPDATE_LOOKBACK);
+        loaded = true;
+
+        log.info("📇 Member directory loaded: {} numbers, {} KB in {}ms",
+                newTable.size(), heapBytes() / 1024,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Pick up members saved by other nodes since the last poll, including numbers they changed
+     */
+    @Scheduled(fixedDelayString = "${member.directory.refresh-interval-ms:30000}",
+            initialDelayString = "${member.directory.refresh-interval-ms:30000}")
+    public void refreshUpdated() {
+        if (!loaded) return;
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<Object[]> rows = memberRepository.findDirectoryEntriesUpdatedSince(updatedSince);
+        if (!rows.isEmpty()) {
+            long stamp = lock.writeLock();
+            try {
+                for (Object[] row : rows) {
+                    index((Long) row[0], (Long) row[1], (String) row[2], (String) row[3]);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            log.debug("📇 Member directory refreshed {} updated members", rows.size());
+        }
+        updatedSince = startedAt.minus(UPDATE_LOOKBACK);
+    }
+
+    private long lookupPacked(String phoneNumber) {
+        long key = phoneKey(phoneNumber);
+        if (!loaded || key < 0) return UNKNOWN;
+
+        long stamp = lock.tryOptimisticRead();
+        long packed = probe(key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                packed = probe(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        if (packed == ABSENT) return ABSENT;
+        return (packed & STATUS_MASK) == FALLBACK ? UNKNOWN : packed;
+    }
+
+    private long probe(long key) {
+        if (!bloom.mightContain(key)) return ABSENT;
+        return table.get(key, ABSENT);
+    }
+
+    private long heapBytes() {
+        return (table.capacity() + keysByMember.capacity()) * 16L + bloom.sizeInBytes();
+    }
+
+    // Callers hold the write lock
+
+    private void index(long memberId, Long churchId, String phoneNumber, String status) {
+        put(table, keysByMember, memberId, churchId, phoneNumber, status);
+
+        long key = phoneKey(phoneNumber);
+        if (key < 0) return;
+        if (table.size() > bloom.expectedKeys()) {
+            bloom = bloomFor(table);
+        } else {
+            bloom.add(key);
+        }
+    }
+
+    private static void removeIfOwned(LongLongHashMap table, long key, long memberId) {
+        long packed = table.get(key, ABSENT);
+        if (packed != ABSENT && (packed & STATUS_MASK) != FALLBACK && memberIdOf(packed) == memberId) {
+            table.remove(key);
+        }
+    }
+
+    private static void put(LongLongHashMap table, LongLongHashMap keysByMember,
+                            long memberId, Long churchId, String phoneNumber, String status) {
+        long key = phoneKey(phoneNumber);
+
+        // The member's number changed, here or on another node: it no longer answers for the old one
+        long previousKey = keysByMember.get(memberId, ABSENT);
+        if (previousKey != ABSENT && previousKey != key) {
+            removeIfOwned(table, previousKey, memberId);
+        }
+        if (key < 0) { // looked up in the database instead
+            keysByMember.remove(memberId);
+            return;
+        }
+        keysByMember.put(memberId, key);
+
+        long packed = pack(memberId, churchId, status);
+        long existing = table.get(key, ABSENT);
+        if (existing != ABSENT && ((existing & STATUS_MASK) == FALLBACK || memberIdOf(existing) != memberId)) {
+            // Two members normalise to the same digits; let the database decide between them
+            packed = FALLBACK;
+        }
+        table.put(key, packed);
+    }
+
+    private static LongBloomFilter bloomFor(LongLongHashMap table) {
+        // Headroom so registrations don't force a rebuild straight away
+        LongBloomFilter filter = new LongBloomFilter(table.size() + table.size() / 4);
+        table.forEachKey(filter::add);
+        return filter;
+    }
+
+    private static long pack(long memberId, Long churchId, String status) {
+        if (churchId == null || memberId > MAX_MEMBER_ID || churchId > MAX_CHURCH_ID) {
+            return FALLBACK;
+        }
+        long statusCode = "ACTIVE".equals(status) ? STATUS_ACTIVE
+                : "INACTIVE".equals(status) ? STATUS_INACTIVE
+                : STATUS_OTHER;
+        return memberId << (CHURCH_BITS + STATUS_BITS) | churchId << STATUS_BITS | statusCode;
+    }
+
+    private static long memberIdOf(long packed) {
+        return packed >>> (CHURCH_BITS + STATUS_BITS);
+    }
+
+    /**
+     * A phone number as WhatsApp sends it (digits only, no '+'); unchanged if it can't be read
+     */
+    public static String digitsOf(String phoneNumber) {
+        long key = phoneKey(phoneNumber);
+        return key < 0 ? phoneNumber : Long.toString(key).substring(1);
+    }
+
+    /**
+     * Digits of a phone number as a positive long, ignoring "whatsapp:", "+", spaces, dashes,
+     * dots and brackets; -1 if it has other characters or more than 18 digits
+     */
+    static long phoneKey(String phoneNumber) {
+        if (phoneNumber == null) return -1;
+
+        int start = phoneNumber.startsWith("whatsapp:") ? "whatsapp:".length() : 0;
+        long key = 1;
+        int digits = 0;
+        for (int i = start; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 18) return -1;
+                key = key * 10 + (c - '0');
+            } else if (c != '+' && c != ' ' && c != '-' && c != '.' && c != '(' && c != ')') {
+                return -1;
+            }
+        }
+        return digits == 0 ? -1 : key;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("member.directory.lookups")
+                .description("Member lookups by phone number")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
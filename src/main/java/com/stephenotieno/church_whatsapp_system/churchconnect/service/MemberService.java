@@ -20,13 +20,14 @@ public class MemberService {
 
     private final MemberRepository memberRepository;
     private final ChurchRepository churchRepository;
+    private final MemberDirectory memberDirectory;
 
     @Transactional
     public MemberResponse addMember(Long churchId, MemberRequest request) {
         Church church = churchRepository.findById(churchId)
                 .orElseThrow(() -> new RuntimeException("Church not found"));
 
-        Optional<Member> existing = memberRepository.findByPhoneNumber(request.getPhoneNumber());
+        Optional<Member> existing = memberDirectory.findInDatabase(request.getPhoneNumber());
         if (existing.isPresent()) {
             throw new RuntimeException("Member with this phone already exists");
         }
@@ -39,6 +40,7 @@ public class MemberService {
                 .build();
 
         member = memberRepository.save(member);
+        memberDirectory.recordAfterCommit(member);
         return mapToResponse(member);
     }
 
@@ -62,6 +64,7 @@ public class MemberService {
         member.setPhoneNumber(request.getPhoneNumber());
 
         member = memberRepository.save(member);
+        memberDirectory.recordAfterCommit(member);
         return mapToResponse(member);
     }
 
@@ -71,6 +74,7 @@ public class MemberService {
                 .orElseThrow(() -> new RuntimeException("Member not found"));
         member.setStatus("INACTIVE");
         memberRepository.save(member);
+        memberDirectory.recordAfterCommit(member);
     }
 
     public Map<String, Object> getMemberStats(Long churchId) {
@@ -1,24 +1,58 @@
 package com.stephenotieno.church_whatsapp_system.churchconnect.service;
 
 import com.stephenotieno.church_whatsapp_system.churchconnect.dto.MenuRequest;
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Church;
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Member;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.ChurchRepository;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.ChatSessionStore.Menu;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.ChatSessionStore.Session;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.ChatSessionStore.Step;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.MemberDirectory.Entry;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MenuService {
 
     private final WhatsAppMetaService whatsAppService;
+    private final ResponseTemplateService responseTemplateService;
+    private final ChatSessionStore chatSessionStore;
+    private final MemberDirectory memberDirectory;
+    private final ChurchRepository churchRepository;
+
+    private static final Pattern AMOUNT_PATTERN = Pattern.compile("\\d{1,7}");
+    private static final Set<String> DECLINES = Set.of("no", "cancel", "hapana", "stop");
+
+    /**
+     * Outcome of a menu turn: a {@code reply} to send, or a {@code command} to handle as if typed
+     */
+    public record MenuTurn(String reply, String command) {
+
+        static MenuTurn ofReply(String reply) {
+            return new MenuTurn(reply, null);
+        }
+
+        static MenuTurn ofCommand(String command) {
+            return new MenuTurn(null, command);
+        }
+    }
 
     /**
      * Send interactive menu to member (formatted as text with options)
      */
     public void sendMainMenu(String phoneNumber, String memberName) {
-        String menu = buildMainMenu(memberName);
-        whatsAppService.sendMessage(phoneNumber, menu);
+        Long churchId = churchOf(phoneNumber);
+        pushMenu(phoneNumber, churchId, Menu.MAIN,
+                responseTemplateService.render(churchId, TemplateKey.MAIN_MENU, memberName));
         log.info("📱 Main menu sent to: {}", phoneNumber);
     }
 
@@ -26,8 +60,8 @@ public class MenuService {
      * Send offerings menu
      */
     public void sendOfferingsMenu(String phoneNumber) {
-        String menu = buildOfferingsMenu();
-        whatsAppService.sendMessage(phoneNumber, menu);
+        Long churchId = churchOf(phoneNumber);
+        pushMenu(phoneNumber, churchId, Menu.OFFERINGS, buildOfferingsMenu(churchId));
         log.info("💰 Offerings menu sent to: {}", phoneNumber);
     }
 
@@ -35,99 +69,199 @@ public class MenuService {
      * Send info menu
      */
     public void sendInfoMenu(String phoneNumber) {
-        String menu = buildInfoMenu();
-        whatsAppService.sendMessage(phoneNumber, menu);
+        Long churchId = churchOf(phoneNumber);
+        pushMenu(phoneNumber, churchId, Menu.INFO, buildInfoMenu(churchId));
         log.info("ℹ️ Info menu sent to: {}", phoneNumber);
     }
 
     /**
-     * Build main menu
+     * Send a menu from the member's church line and open its session, so the member's numbered
+     * reply is read against it. The session is keyed the way inbound messages are (digits only)
+     * and dropped again if the send fails. A number with no member gets the menu without a
+     * session, since its replies go through registration instead.
      */
-    private String buildMainMenu(String memberName) {
-        return "🏠 *ChurchConnect Main Menu*\n\n" +
-                "Hello *" + memberName + "*! 👋\n\n" +
-                "What would you like to do today?\n\n" +
-                "─────────────────\n\n" +
-                "*Quick Actions:*\n\n" +
-                "1️⃣ 💰 *GIVE* - Make offering\n" +
-                "2️⃣ 📊 *BALANCE* - Check giving\n" +
-                "3️⃣ 🙏 *PRAYER* - Prayer request\n" +
-                "4️⃣ ℹ️ *INFO* - My details\n" +
-                "5️⃣ ❓ *HELP* - All commands\n\n" +
-                "─────────────────\n\n" +
-                "_Just type the number or command!_ 😊\n\n" +
-                "Example: Type *1* or *GIVE 1000*";
+    private void pushMenu(String phoneNumber, Long churchId, Menu menu, String text) {
+        if (churchId == null) {
+            log.warn("⚠️ {} is not a member, sending {} menu without a session", phoneNumber, menu);
+            whatsAppService.sendMessage(phoneNumber, text);
+            return;
+        }
+
+        String sessionKey = MemberDirectory.digitsOf(phoneNumber);
+        String fromPhoneNumberId = churchRepository.findById(churchId)
+                .map(Church::getWhatsappPhoneNumberId)
+                .orElse(null);
+
+        chatSessionStore.put(sessionKey, churchId, menu, null, null);
+        try {
+            whatsAppService.sendMessageFrom(fromPhoneNumberId, phoneNumber, text);
+        } catch (RuntimeException e) {
+            chatSessionStore.clear(sessionKey);
+            throw e;
+        }
+    }
+
+    private Long churchOf(String phoneNumber) {
+        return memberDirectory.lookup(phoneNumber)
+                .map(Entry::churchId)
+                .orElse(null);
     }
 
     /**
      * Build offerings menu
      */
-    private String buildOfferingsMenu() {
-        return "💰 *Offerings Menu*\n\n" +
-                "Choose an option:\n\n" +
-                "1️⃣ *Quick Give*\n" +
-                "   Type: GIVE 100\n" +
-                "   _Instant M-PESA prompt_\n\n" +
-                "2️⃣ *Check Balance*\n" +
-                "   Type: BALANCE\n" +
-                "   _View your giving history_\n\n" +
-                "3️⃣ *Manual M-PESA*\n" +
-                "   Type: INFO\n" +
-                "   _Get PayBill details_\n\n" +
-                "─────────────────\n\n" +
-                "💡 *Quick Amounts:*\n" +
-                "• Type *GIVE 100*\n" +
-                "• Type *GIVE 500*\n" +
-                "• Type *GIVE 1000*\n\n" +
-                "Type *MENU* to go back";
+    private String buildOfferingsMenu(Long churchId) {
+        return responseTemplateService.render(churchId, TemplateKey.OFFERINGS_MENU, (Member) null);
     }
 
     /**
      * Build info menu
      */
-    private String buildInfoMenu() {
-        return "ℹ️ *Information Menu*\n\n" +
-                "What would you like to know?\n\n" +
-                "1️⃣ *My Details*\n" +
-                "   Type: INFO\n" +
-                "   _View membership info_\n\n" +
-                "2️⃣ *Church Info*\n" +
-                "   Type: LOCATION\n" +
-                "   _Address & contact_\n\n" +
-                "3️⃣ *Service Times*\n" +
-                "   Type: TIMES\n" +
-                "   _Worship schedule_\n\n" +
-                "4️⃣ *Help & Commands*\n" +
-                "   Type: HELP\n" +
-                "   _See all commands_\n\n" +
-                "─────────────────\n\n" +
-                "Type *MENU* to go back";
+    private String buildInfoMenu(Long churchId) {
+        return responseTemplateService.render(churchId, TemplateKey.INFO_MENU, (Member) null);
     }
 
     /**
-     * Handle menu selection
+     * Handle a message from a registered member against their menu session.
+     * Returns a reply to send as is, the command a numbered selection stands for (to be handled
+     * like the member had typed it), or empty when the message is not part of a menu flow.
      */
-    public String handleMenuSelection(String input, String memberName) {
+    public Optional<MenuTurn> handleMenuSelection(Long churchId, Member member, String phoneNumber,
+                                                  String input, boolean affirmative) {
         String selection = input.trim().toLowerCase();
 
-        switch (selection) {
-            case "1":
-            case "menu":
-                return buildMainMenu(memberName);
+        if (selection.equals("menu")) {
+            chatSessionStore.put(phoneNumber, churchId, Menu.MAIN, null, null);
+            return Optional.of(MenuTurn.ofReply(responseTemplateService.render(churchId, TemplateKey.MAIN_MENU, member)));
+        }
+
+        // A session opened for another church's line does not apply to this one
+        Session session = chatSessionStore.get(phoneNumber).orElse(null);
+        if (session == null || !Objects.equals(session.churchId(), churchId)) {
+            return Optional.empty();
+        }
+
+        if (session.step() != null) {
+            return handleStep(session, input.trim(), selection, affirmative);
+        }
+
+        Optional<MenuTurn> turn = session.menu() != null
+                ? handleOption(session, selection, churchId)
+                : Optional.empty();
+        if (turn.isEmpty()) {
+            // Anything that isn't an option leaves the menu and is handled as a normal message
+            chatSessionStore.clear(phoneNumber);
+        }
+        return turn;
+    }
+
+    private Optional<MenuTurn> handleOption(Session session, String selection, Long churchId) {
+        String phoneNumber = session.phoneNumber();
+
+        switch (session.menu()) {
+            case MAIN:
+                switch (selection) {
+                    case "1":
+                        chatSessionStore.put(phoneNumber, churchId, Menu.OFFERINGS, null, null);
+                        return Optional.of(MenuTurn.ofReply(buildOfferingsMenu(churchId)));
+                    case "2":
+                        return command(phoneNumber, "balance");
+                    case "3":
+                        chatSessionStore.put(phoneNumber, churchId, null, Step.AWAITING_PRAYER, null);
+                        return Optional.of(MenuTurn.ofReply("🙏 *Prayer Request*\n\n" +
+                                "Please type your prayer request and we will forward it to our prayer team.\n\n" +
+                                "Type *MENU* to go back"));
+                    case "4":
+                        chatSessionStore.put(phoneNumber, churchId, Menu.INFO, null, null);
+                        return Optional.of(MenuTurn.ofReply(buildInfoMenu(churchId)));
+                    case "5":
+                        return command(phoneNumber, "help");
+                    default:
+                        return Optional.empty();
+                }
 
-            case "2":
-            case "offerings":
-                return buildOfferingsMenu();
+            case OFFERINGS:
+                switch (selection) {
+                    case "1":
+                        chatSessionStore.put(phoneNumber, churchId, null, Step.AWAITING_AMOUNT, null);
+                        return Optional.of(MenuTurn.ofReply("💰 *Quick Give*\n\n" +
+                                "How much would you like to give?\n\n" +
+                                "_Reply with the amount in KES, e.g._ *1000*"));
+                    case "2":
+                        return command(phoneNumber, "balance");
+                    case "3":
+                        return command(phoneNumber, "give");
+                    default:
+                        return Optional.empty();
+                }
 
-            case "3":
-            case "info menu":
-                return buildInfoMenu();
+            case INFO:
+                switch (selection) {
+                    case "1":
+                        return command(phoneNumber, "info");
+                    case "2":
+                    case "location":
+                        return reply(phoneNumber, responseTemplateService.render(
+                                churchId, TemplateKey.CHURCH_INFO, (Member) null));
+                    case "3":
+                    case "times":
+                        return reply(phoneNumber, responseTemplateService.render(
+                                churchId, TemplateKey.SERVICE_TIMES, (Member) null));
+                    case "4":
+                        return command(phoneNumber, "help");
+                    default:
+                        return Optional.empty();
+                }
 
             default:
-                return "❓ Invalid selection. Type *MENU* to see options.";
+                return Optional.empty();
         }
     }
 
+    private Optional<MenuTurn> handleStep(Session session, String text, String selection, boolean affirmative) {
+        String phoneNumber = session.phoneNumber();
+
+        switch (session.step()) {
+            case AWAITING_AMOUNT:
+                String amount = selection.replace(",", "");
+                if (!AMOUNT_PATTERN.matcher(amount).matches()) {
+                    chatSessionStore.clear(phoneNumber);
+                    return Optional.empty();
+                }
+                chatSessionStore.put(phoneNumber, session.churchId(), null, Step.CONFIRM_AMOUNT, amount);
+                return Optional.of(MenuTurn.ofReply("💰 *Confirm Offering*\n\n" +
+                        "Give *KES " + amount + "* via M-PESA?\n\n" +
+                        "Reply *YES* to continue or *NO* to cancel"));
+
+            case CONFIRM_AMOUNT:
+                if (affirmative) {
+                    return command(phoneNumber, "give " + session.pendingAmount());
+                }
+                chatSessionStore.clear(phoneNumber);
+                if (DECLINES.contains(selection)) {
+                    return Optional.of(MenuTurn.ofReply("👍 Offering cancelled.\n\nType *MENU* to see options."));
+                }
+                return Optional.empty();
+
+            case AWAITING_PRAYER:
+                return command(phoneNumber, "prayer " + text);
+
+            default:
+                chatSessionStore.clear(phoneNumber);
+                return Optional.empty();
+        }
+    }
+
+    private Optional<MenuTurn> command(String phoneNumber, String command) {
+        chatSessionStore.clear(phoneNumber);
+        return Optional.of(MenuTurn.ofCommand(command));
+    }
+
+    private Optional<MenuTurn> reply(String phoneNumber, String reply) {
+        chatSessionStore.clear(phoneNumber);
+        return Optional.of(MenuTurn.ofReply(reply));
+    }
+
     /**
      * Send custom menu (for future WhatsApp native buttons)
      */
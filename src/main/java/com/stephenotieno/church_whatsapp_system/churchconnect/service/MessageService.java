@@ -10,6 +10,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,8 +20,8 @@ public class MessageService {
 
     private final MessageRepository messageRepository;
     private final ConversationRepository conversationRepository;
-    private final MemberRepository memberRepository;
     private final ChurchRepository churchRepository;
+    private final MemberDirectory memberDirectory;
 
     @Transactional
     public Message saveMessage(Long churchId, String phoneNumber, String direction,
@@ -29,7 +30,7 @@ public class MessageService {
         Church church = churchRepository.findById(churchId)
                 .orElseThrow(() -> new RuntimeException("Church not found"));
 
-        Member member = memberRepository.findByPhoneNumber(phoneNumber).orElse(null);
+        Member member = memberDirectory.findByPhoneNumber(phoneNumber, churchId).orElse(null);
 
         // Get or create conversation
         Conversation conversation = conversationRepository
@@ -61,24 +62,85 @@ public class MessageService {
         return message;
     }
 
+    /**
+     * Save an inbound message unless its WhatsApp id is already stored.
+     * Returns empty for a Meta redelivery. The id claim runs first, so a duplicate
+     * costs a single no-op insert. The sender's member and conversation are resolved
+     * into the context for the rest of the pipeline.
+     */
     @Transactional
-    public void markAsCommand(Long messageId, String commandType) {
-        Message message = messageRepository.findById(messageId)
-                .orElseThrow(() -> new RuntimeException("Message not found"));
+    public Optional<Message> saveInboundIfAbsent(InboundMessageContext context,
+                                                 String messageBody, String messageSid) {
+        return saveInboundIfAbsent(context, messageBody, messageSid, "TEXT", null);
+    }
+
+    /**
+     * {@link #saveInboundIfAbsent(InboundMessageContext, String, String)} for a media message:
+     * {@code messageBody} is its caption (empty if none) and {@code mediaId} the Graph API media id,
+     * kept in media_url (GET /{media-id} returns the download URL)
+     */
+    @Transactional
+    public Optional<Message> saveInboundIfAbsent(InboundMessageContext context, String messageBody,
+                                                 String messageSid, String messageType, String mediaId) {
+        Message message;
+        if (messageSid == null) {
+            resolveParticipants(context);
+            message = newMessage(context, "INBOUND", messageBody, null);
+            message.setMessageType(messageType);
+            message.setMediaUrl(mediaId);
+            message = messageRepository.save(message);
+        } else {
+            if (messageRepository.insertInboundIfAbsent(context.getChurch().getId(), context.getPhoneNumber(),
+                    messageBody, messageSid, messageType, mediaId) == 0) {
+                return Optional.empty();
+            }
+
+            message = messageRepository.findByMessageSid(messageSid)
+                    .orElseThrow(() -> new RuntimeException("Message not found"));
+
+            resolveParticipants(context);
+            message.setMember(context.getMember());
+            message.setConversation(context.getConversation());
+        }
+        context.setMessage(message);
+
+        // Update conversation; a media message without a caption shows as its type
+        updateConversation(context.getConversation(),
+                messageBody.isEmpty() && !"TEXT".equals(messageType) ? "[" + messageType + "]" : messageBody,
+                "INBOUND");
+
+        log.info("💾 Message saved: {} from {}", message.getId(), context.getPhoneNumber());
+        return Optional.of(message);
+    }
 
+    /**
+     * Save the reply to the message in {@code context}, in the same conversation, as QUEUED.
+     * The outbound dispatcher stamps it with the WAMID and marks it SENT once delivered to Meta.
+     */
+    @Transactional
+    public Message saveOutbound(InboundMessageContext context, String messageBody) {
+        Message message = newMessage(context, "OUTBOUND", messageBody, null);
+        message.setStatus("QUEUED");
+        message = messageRepository.save(message);
+
+        // Update conversation
+        updateConversation(context.getConversation(), messageBody, "OUTBOUND");
+
+        log.info("💾 Message saved: {} from {}", message.getId(), context.getPhoneNumber());
+        return message;
+    }
+
+    @Transactional
+    public void markAsCommand(InboundMessageContext context, String commandType) {
+        Message message = context.getMessage();
         message.setIsCommand(true);
         message.setCommandType(commandType);
         message.setProcessed(true);
-        messageRepository.save(message);
     }
 
     @Transactional
-    public void markNeedsPastorReply(Long messageId, boolean needsReply) {
-        Message message = messageRepository.findById(messageId)
-                .orElseThrow(() -> new RuntimeException("Message not found"));
-
-        message.setNeedsPastorReply(needsReply);
-        messageRepository.save(message);
+    public void markNeedsPastorReply(InboundMessageContext context, boolean needsReply) {
+        context.getMessage().setNeedsPastorReply(needsReply);
     }
 
     @Transactional(readOnly = true)
@@ -124,6 +186,36 @@ public class MessageService {
         });
     }
 
+    private void resolveParticipants(InboundMessageContext context) {
+        // Only a member of the church this line belongs to counts as registered here
+        Member member = memberDirectory.findByPhoneNumber(context.getPhoneNumber(), context.getChurch().getId())
+                .orElse(null);
+        context.setMember(member);
+
+        // Get or create conversation
+        context.setConversation(conversationRepository
+                .findByPhoneNumberAndChurchId(context.getPhoneNumber(), context.getChurch().getId())
+                .orElseGet(() -> createNewConversation(context.getChurch(), member, context.getPhoneNumber())));
+    }
+
+    private Message newMessage(InboundMessageContext context, String direction,
+                               String messageBody, String messageSid) {
+        return Message.builder()
+                .church(context.getChurch())
+                .member(context.getMember())
+                .conversation(context.getConversation())
+                .phoneNumber(context.getPhoneNumber())
+                .direction(direction)
+                .messageBody(messageBody)
+                .messageSid(messageSid)
+                .messageType("TEXT")
+                .status("SENT")
+                .processed(false)
+                .isCommand(false)
+                .needsPastorReply(false)
+                .build();
+    }
+
     private Conversation createNewConversation(Church church, Member member, String phoneNumber) {
         Conversation conversation = Conversation.builder()
                 .church(church)
@@ -0,0 +1,206 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.WebhookPayload.StatusEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers WhatsApp delivery statuses and writes them in batches.
+ * Events are coalesced per message id so only the latest state survives a flush window,
+ * and each flush is a single UPDATE joined against the batch passed as arrays.
+ * <p>
+ * {@link #record} returns a future that completes once the status has been written, so the
+ * webhook event it came from is only acknowledged after that. A failed write puts the batch
+ * back for the next flush and its waiters move on to that flush.
+ */
+@Service
+@Slf4j
+public class MessageStatusBuffer {
+
+    // Rows only move forward: a late "delivered" never overwrites "read", and "read" is final
+    private static final String FLUSH_SQL =
+            "UPDATE messages m SET status = u.status, " +
+            "error_message = COALESCE(u.error, m.error_message), updated_at = now() " +
+            "FROM unnest(?::text[], ?::text[], ?::text[], ?::int[]) AS u(message_sid, status, error, rank) " +
+            "WHERE m.message_sid = u.message_sid " +
+            "AND u.rank >= CASE m.status WHEN 'SENT' THEN 1 WHEN 'DELIVERED' THEN 2 " +
+            "WHEN 'FAILED' THEN 3 WHEN 'READ' THEN 4 ELSE 0 END";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxBatchSize;
+
+    private final Map<String, PendingStatus> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Completed by the flush that writes everything recorded before it started
+    private volatile CompletableFuture<Void> nextFlush = new CompletableFuture<>();
+
+    private final Counter received;
+    private final Counter coalesced;
+    private final Counter rowsUpdated;
+    private final Timer flushTimer;
+
+    public MessageStatusBuffer(JdbcTemplate jdbcTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${whatsapp.status.max-batch-size:500}") int maxBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxBatchSize = maxBatchSize;
+
+        this.received = Counter.builder("whatsapp.status.received")
+                .description("Delivery status events received from Meta")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("whatsapp.status.coalesced")
+                .description("Status events superseded by a newer event for the same message")
+                .register(meterRegistry);
+        this.rowsUpdated = Counter.builder("whatsapp.status.rows.updated")
+                .description("Message rows updated by status flushes")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("whatsapp.status.flush")
+                .description("Time spent writing a batch of statuses")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue a status for the next flush
+     *
+     * @return completes once the status has been written
+     */
+    public CompletableFuture<Void> record(StatusEvent event) {
+        if (event.messageId() == null || event.status() == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        received.increment();
+        PendingStatus incoming = PendingStatus.of(event);
+        PendingStatus merged = pending.merge(event.messageId(), incoming, PendingStatus::latest);
+        if (merged != incoming) {
+            coalesced.increment();
+        }
+
+        // Read after the merge: a flush that started since then may not have seen this status
+        CompletableFuture<Void> written = nextFlush;
+
+        if (pending.size() >= maxBatchSize) {
+            flush();
+        }
+        return written;
+    }
+
+    @Scheduled(fixedDelayString = "${whatsapp.status.flush-interval-ms:500}")
+    public void flush() {
+        if (!flushLock.tryLock()) return;
+
+        CompletableFuture<Void> flushing = nextFlush;
+        nextFlush = new CompletableFuture<>();
+
+        List<String> sids = new ArrayList<>(pending.size());
+        List<PendingStatus> statuses = new ArrayList<>(pending.size());
+        try {
+            for (String sid : pending.keySet()) {
+                PendingStatus status = pending.remove(sid);
+                if (status != null) {
+                    sids.add(sid);
+                    statuses.add(status);
+                }
+            }
+
+            if (!sids.isEmpty()) {
+                flushTimer.record(() -> write(sids, statuses));
+            }
+            flushing.complete(null);
+        } catch (Exception e) {
+            log.error("❌ Failed to flush {} message statuses, keeping them for the next flush: {}",
+                    sids.size(), e.getMessage(), e);
+            for (int i = 0; i < sids.size(); i++) {
+                pending.merge(sids.get(i), statuses.get(i), PendingStatus::furthest);
+            }
+            CompletableFuture<Void> retry = nextFlush;
+            retry.whenComplete((ignored, error) -> flushing.complete(null));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(List<String> sids, List<PendingStatus> statuses) {
+        int size = sids.size();
+        String[] statusValues = new String[size];
+        String[] errors = new String[size];
+        Integer[] ranks = new Integer[size];
+
+        for (int i = 0; i < size; i++) {
+            PendingStatus status = statuses.get(i);
+            statusValues[i] = status.status();
+            errors[i] = status.error();
+            ranks[i] = status.rank();
+        }
+
+        int updated = jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FLUSH_SQL);
+            statement.setArray(1, connection.createArrayOf("text", sids.toArray()));
+            statement.setArray(2, connection.createArrayOf("text", statusValues));
+            statement.setArray(3, connection.createArrayOf("text", errors));
+            statement.setArray(4, connection.createArrayOf("integer", ranks));
+            return statement;
+        });
+
+        rowsUpdated.increment(updated);
+        log.debug("📊 Flushed {} message statuses ({} rows updated)", size, updated);
+    }
+
+    /**
+     * Latest known state for one message
+     */
+    record PendingStatus(String status, int rank, long timestamp, String error) {
+
+        static PendingStatus of(StatusEvent event) {
+            String status = event.status().toUpperCase();
+            String error = event.errorCode() != null
+                    ? event.errorCode() + ": " + (event.errorTitle() != null ? event.errorTitle() : "Unknown error")
+                    : null;
+            return new PendingStatus(status, rankOf(status), event.timestamp(), error);
+        }
+
+        static PendingStatus latest(PendingStatus current, PendingStatus incoming) {
+            if (incoming.timestamp != current.timestamp) {
+                return incoming.timestamp > current.timestamp ? incoming : current;
+            }
+            return incoming.rank >= current.rank ? incoming : current;
+        }
+
+        /**
+         * Whichever of two states is further along, for putting back a batch that failed to write
+         */
+        static PendingStatus furthest(PendingStatus current, PendingStatus requeued) {
+            return requeued.rank > current.rank ? requeued : current;
+        }
+
+        private static int rankOf(String status) {
+            return switch (status) {
+                case "SENT" -> 1;
+                case "DELIVERED" -> 2;
+                case "FAILED" -> 3;
+                case "READ" -> 4;
+                default -> 0;
+            };
+        }
+    }
+}
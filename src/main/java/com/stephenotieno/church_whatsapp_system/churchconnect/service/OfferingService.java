@@ -23,6 +23,7 @@ public class OfferingService {
     private final OfferingRepository offeringRepository;
     private final MemberRepository memberRepository;
     private final ChurchRepository churchRepository;
+    private final GivingSummaryService givingSummaryService;
 
     @Transactional
     public Offering recordOffering(Long churchId, OfferingRequest request) {
@@ -44,7 +45,9 @@ public class OfferingService {
                 .status("COMPLETED")
                 .build();
 
-        return offeringRepository.save(offering);
+        offering = offeringRepository.save(offering);
+        givingSummaryService.recordCompleted(offering);
+        return offering;
     }
 
     public Page<Offering> getOfferings(Long churchId, Pageable pageable) {
@@ -81,6 +84,7 @@ public class OfferingService {
                 .status("COMPLETED")
                 .build();
 
-        offeringRepository.save(offering);
+        offering = offeringRepository.save(offering);
+        givingSummaryService.recordCompleted(offering);
     }
 }
\ No newline at end of file
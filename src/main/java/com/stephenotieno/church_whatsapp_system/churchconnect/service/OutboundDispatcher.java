@@ -0,0 +1,234 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.OutboundMessage;
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.Backoff;
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.ExecutionMode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends queued outbound WhatsApp messages outside any database transaction.
+ * A poller claims batches of the outbox and hands each send to a single-threaded lane chosen
+ * by recipient. Only a recipient's oldest unsent message can be claimed, so replies to one
+ * number leave in the order they were queued, even across retries and nodes, while different
+ * numbers are sent in parallel. The poller wakes up when a queuing transaction commits and
+ * otherwise polls on a fixed interval, which also picks up retries once they are due.
+ * <p>
+ * A failed send is retried only if the failure is retryable (rate limits, 5xx, timeouts), after
+ * an exponential backoff with full jitter; permanent failures such as a number outside the 24h
+ * window are parked as FAILED straight away. Sends refused because the Graph API circuit is
+ * open, or because Meta rejected the access token, are pushed back without using up an attempt.
+ * <p>
+ * Delivery is at least once: a node that dies between the Graph API call and recording the
+ * WAMID has its claim released and the message is sent again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboundDispatcher {
+
+    private final OutboundQueueService outboundQueueService;
+    private final WhatsAppMetaService whatsAppMetaService;
+    private final PipelineMetrics pipelineMetrics;
+    private final ExecutionMode executionMode;
+
+    @Value("${outbound.dispatch.workers:8}")
+    private int workers;
+
+    @Value("${outbound.dispatch.batch-size:32}")
+    private int batchSize;
+
+    @Value("${outbound.dispatch.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${outbound.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${outbound.dispatch.backoff.base-ms:5000}")
+    private long backoffBaseMs;
+
+    @Value("${outbound.dispatch.backoff.max-ms:600000}")
+    private long backoffMaxMs;
+
+    @Value("${outbound.dispatch.claim-timeout-seconds:120}")
+    private long claimTimeoutSeconds;
+
+    @Value("${outbound.dispatch.retention-hours:72}")
+    private long retentionHours;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private ExecutorService[] lanes;
+    private Thread poller;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        lanes = new ExecutorService[workers];
+        for (int i = 0; i < workers; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(executionMode.threadFactory("outbound-lane-" + i));
+        }
+
+        running = true;
+        poller = new Thread(this::pollLoop, "outbound-poller");
+        poller.setDaemon(true);
+        poller.start();
+
+        log.info("✅ Outbound dispatcher started with {} lanes", workers);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        poller.interrupt();
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            if (!lane.awaitTermination(30, TimeUnit.SECONDS)) {
+                lane.shutdownNow();
+            }
+        }
+        if (inFlight.get() > 0) {
+            log.warn("⚠️ Outbound dispatcher stopped with {} sends in flight, they will be reclaimed", inFlight.get());
+        }
+    }
+
+    /**
+     * Queue a send in the caller's transaction; it goes out once that transaction commits
+     */
+    public OutboundMessage queue(Long churchId, Long messageId, String phoneNumberId,
+                                 String recipient, String body) {
+        OutboundMessage outbound = outboundQueueService.enqueue(churchId, messageId, phoneNumberId, recipient, body);
+        signalAfterCommit();
+        return outbound;
+    }
+
+    /**
+     * Nudge the poller
+     */
+    public void signal() {
+        if (wakeUp.availablePermits() == 0) {
+            wakeUp.release();
+        }
+    }
+
+    private void signalAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            signal();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                signal();
+            }
+        });
+    }
+
+    private void pollLoop() {
+        while (running) {
+            try {
+                wakeUp.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+                drain();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("❌ Outbound queue poll failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void drain() {
+        while (running) {
+            int capacity = Math.min(workers * 2 - inFlight.get(), batchSize);
+            if (capacity <= 0) return;
+
+            // At most one message per recipient is claimable at a time; the next follows once it is sent
+            List<OutboundMessage> batch = outboundQueueService.claimBatch(capacity);
+            for (OutboundMessage outbound : batch) {
+                inFlight.incrementAndGet();
+                lanes[laneFor(outbound.getRecipient())].execute(() -> send(outbound));
+            }
+
+            if (batch.size() < capacity) return;
+        }
+    }
+
+    private void send(OutboundMessage outbound) {
+        pipelineMetrics.recordOutboxWait(Duration.between(outbound.getCreatedAt(), LocalDateTime.now()));
+        boolean sent = false;
+        try {
+            String wamid = whatsAppMetaService.sendMessageFrom(
+                    outbound.getPhoneNumberId(), outbound.getRecipient(), outbound.getBody());
+            outboundQueueService.markSent(outbound, wamid);
+            sent = true;
+        } catch (WhatsAppSendException e) {
+            // Neither is the message's fault: wait without using up an attempt
+            if (e.getReason() == WhatsAppSendException.Reason.CIRCUIT_OPEN
+                    || e.getReason() == WhatsAppSendException.Reason.AUTH) {
+                outboundQueueService.defer(outbound, e.getMessage(), retryAt(outbound));
+            } else {
+                outboundQueueService.markFailed(outbound, maxAttempts, e.getMessage(), e.isRetryable(), retryAt(outbound));
+            }
+        } catch (Exception e) {
+            outboundQueueService.markFailed(outbound, maxAttempts, e.getMessage(), true, retryAt(outbound));
+        } finally {
+            inFlight.decrementAndGet();
+            // Failures wait for the next poll rather than retrying immediately
+            if (sent) signal();
+        }
+    }
+
+    private LocalDateTime retryAt(OutboundMessage outbound) {
+        Duration delay = Backoff.fullJitter(outbound.getAttempts(),
+                Duration.ofMillis(backoffBaseMs), Duration.ofMillis(backoffMaxMs));
+        return LocalDateTime.now().plus(delay);
+    }
+
+    private int laneFor(String recipient) {
+        int hash = recipient.hashCode();
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, lanes.length);
+    }
+
+    /**
+     * Put sends claimed by a node that died mid-send back on the queue
+     */
+    @Scheduled(fixedDelayString = "${outbound.dispatch.reclaim-interval-ms:60000}")
+    public void reclaimStaleSends() {
+        int released = outboundQueueService.releaseStaleClaims(
+                LocalDateTime.now().minusSeconds(claimTimeoutSeconds));
+        if (released > 0) {
+            log.warn("♻️ Released {} stale outbound claims", released);
+            signal();
+        }
+    }
+
+    /**
+     * Drop sent rows once they are past the retention window
+     */
+    @Scheduled(cron = "0 20 * * * ?")
+    public void purgeSentMessages() {
+        int purged = outboundQueueService.purgeSent(LocalDateTime.now().minusHours(retentionHours));
+        if (purged > 0) {
+            log.info("🧹 Purged {} sent outbound messages", purged);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.OutboundMessage;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.MessageRepository;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.OutboundMessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Database side of the outbound WhatsApp outbox: sends are inserted in the caller's transaction
+ * and claimed, completed or failed by {@link OutboundDispatcher} in short transactions of their own.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboundQueueService {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final OutboundMessageRepository outboundMessageRepository;
+    private final MessageRepository messageRepository;
+
+    /**
+     * Queue a send; it becomes visible to the dispatcher only if the surrounding transaction commits
+     */
+    @Transactional
+    public OutboundMessage enqueue(Long churchId, Long messageId, String phoneNumberId,
+                                   String recipient, String body) {
+        OutboundMessage outbound = OutboundMessage.builder()
+                .churchId(churchId)
+                .messageId(messageId)
+                .phoneNumberId(phoneNumberId)
+                .recipient(recipient)
+                .body(body)
+                .status("PENDING")
+                .attempts(0)
+                .build();
+
+        outbound = outboundMessageRepository.save(outbound);
+        log.debug("📤 Outbound message {} queued for {}", outbound.getId(), recipient);
+        return outbound;
+    }
+
+    /**
+     * Claim up to {@code limit} pending sends for this node
+     */
+    @Transactional
+    public List<OutboundMessage> claimBatch(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboundMessage> batch = outboundMessageRepository.lockPendingBatch(limit, now);
+
+        for (OutboundMessage outbound : batch) {
+            outbound.setStatus("SENDING");
+            outbound.setClaimedAt(now);
+            outbound.setAttempts(outbound.getAttempts() + 1);
+        }
+
+        return batch;
+    }
+
+    /**
+     * Record the WAMID Meta returned, on the outbox row and on the stored message
+     */
+    @Transactional
+    public void markSent(OutboundMessage outbound, String wamid) {
+        LocalDateTime now = LocalDateTime.now();
+        outboundMessageRepository.markSent(outbound.getId(), wamid, now);
+        if (outbound.getMessageId() != null && wamid != null) {
+            messageRepository.markQueuedAsSent(outbound.getMessageId(), wamid, now);
+        }
+    }
+
+    /**
+     * Put the send back on the queue until {@code retryAt}, or park it as FAILED if the failure
+     * is permanent or it has used up its attempts
+     */
+    @Transactional
+    public void markFailed(OutboundMessage outbound, int maxAttempts, String error,
+                           boolean retryable, LocalDateTime retryAt) {
+        String lastError = truncate(error);
+
+        if (!retryable || outbound.getAttempts() >= maxAttempts) {
+            outboundMessageRepository.updateStatus(outbound.getId(), "FAILED", lastError);
+            if (outbound.getMessageId() != null) {
+                messageRepository.markSendFailed(outbound.getMessageId(), lastError, LocalDateTime.now());
+            }
+            log.error("❌ Outbound message {} to {} failed {}: {}", outbound.getId(), outbound.getRecipient(),
+                    retryable ? "after " + outbound.getAttempts() + " attempts" : "permanently", error);
+        } else {
+            outboundMessageRepository.reschedule(outbound.getId(), outbound.getAttempts(), lastError, retryAt);
+            log.warn("⚠️ Outbound message {} will be retried at {} (attempt {}): {}",
+                    outbound.getId(), retryAt, outbound.getAttempts(), error);
+        }
+    }
+
+    /**
+     * Put the send back on the queue until {@code retryAt} without using up an attempt,
+     * for sends refused through no fault of the message (open circuit, rejected access token)
+     */
+    @Transactional
+    public void defer(OutboundMessage outbound, String reason, LocalDateTime retryAt) {
+        outboundMessageRepository.reschedule(outbound.getId(), outbound.getAttempts() - 1, truncate(reason), retryAt);
+        log.debug("⏸️ Outbound message {} deferred until {}: {}", outbound.getId(), retryAt, reason);
+    }
+
+    /**
+     * Hand sends held by a crashed or stuck dispatcher back to the queue
+     */
+    @Transactional
+    public int releaseStaleClaims(LocalDateTime cutoff) {
+        return outboundMessageRepository.releaseStaleClaims(cutoff);
+    }
+
+    @Transactional
+    public int purgeSent(LocalDateTime cutoff) {
+        return outboundMessageRepository.deleteSentBefore(cutoff);
+    }
+
+    @Transactional(readOnly = true)
+    public Long countPending() {
+        return outboundMessageRepository.countByStatus("PENDING");
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -0,0 +1,162 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Keeps each business number under Meta's messages-per-second throughput cap.
+ * Every phone_number_id gets a token bucket refilled at the configured rate and holding up to
+ * {@code burst} tokens. A send that finds the bucket empty reserves the next free token and
+ * waits for it rather than failing, so a large announcement is spread out instead of drawing
+ * 429s; reservations are handed out in order, so waiting senders leave first come, first served.
+ * <p>
+ * Only a send that would have to wait longer than the configured maximum is rejected, and it
+ * takes no token. Wait time and rejections are recorded per number.
+ * <p>
+ * Buckets live in this JVM. With several application nodes sending for the same number, the
+ * configured rate and burst are Meta's cap for the whole deployment and each node takes an
+ * equal share of them ({@code meta.whatsapp.rate-limit.nodes}).
+ */
+@Component
+@Slf4j
+public class OutboundRateLimiter {
+
+    private final boolean enabled;
+    private final double messagesPerSecond;
+    private final double burst;
+    private final long maxWaitNanos;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public OutboundRateLimiter(MeterRegistry meterRegistry,
+                               @Value("${meta.whatsapp.rate-limit.enabled:true}") boolean enabled,
+                               @Value("${meta.whatsapp.rate-limit.messages-per-second:80}") double messagesPerSecond,
+                               @Value("${meta.whatsapp.rate-limit.burst:80}") int burst,
+                               @Value("${meta.whatsapp.rate-limit.max-wait-ms:30000}") long maxWaitMs,
+                               @Value("${meta.whatsapp.rate-limit.nodes:1}") int nodes) {
+        if (messagesPerSecond <= 0 || burst < 1 || nodes < 1) {
+            throw new IllegalArgumentException(
+                    "Rate limit needs a positive rate, a burst of at least 1 and at least 1 node");
+        }
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.messagesPerSecond = messagesPerSecond / nodes;
+        this.burst = Math.max(1, (double) burst / nodes);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+
+        if (enabled) {
+            log.info("✅ Outbound rate limit: {} messages/s per number, burst {}, max wait {}ms (this node's share of {})",
+                    this.messagesPerSecond, this.burst, maxWaitMs, nodes);
+        }
+    }
+
+    /**
+     * Wait until {@code phoneNumberId} may send another message
+     *
+     * @throws GraphApiException when the wait would exceed the maximum, or on interrupt
+     */
+    public void acquire(String phoneNumberId) {
+        long waitNanos = reserve(phoneNumberId);
+        if (waitNanos == 0) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + waitNanos;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new GraphApiException(GraphApiException.Failure.TRANSPORT,
+                        "Interrupted while waiting for the outbound rate limit", new InterruptedException());
+            }
+        }
+    }
+
+    /**
+     * Reserve the next send for {@code phoneNumberId} without waiting, for callers that
+     * schedule the send themselves
+     *
+     * @return nanos until the reserved send may go out, 0 for now
+     * @throws GraphApiException when that would be over the maximum wait
+     */
+    public long reserve(String phoneNumberId) {
+        return reserve(phoneNumberId, System.nanoTime());
+    }
+
+    /**
+     * {@link #reserve(String)} at a given {@link System#nanoTime()} reading
+     */
+    long reserve(String phoneNumberId, long now) {
+        if (!enabled) {
+            return 0;
+        }
+
+        Bucket bucket = buckets.computeIfAbsent(phoneNumberId, id -> new Bucket(id, now));
+        long waitNanos = bucket.reserve(now);
+        if (waitNanos < 0) {
+            bucket.rejected.increment();
+            throw new GraphApiException(GraphApiException.Failure.RATE_LIMITED,
+                    "Outbound rate limit for " + phoneNumberId + " would delay this send over "
+                            + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + "ms", null);
+        }
+
+        bucket.waits.record(waitNanos, TimeUnit.NANOSECONDS);
+        return waitNanos;
+    }
+
+    /**
+     * One number's bucket. Tokens go negative while sends are queued on it: each waiting
+     * send holds one token of debt, paid off as the bucket refills.
+     */
+    private final class Bucket {
+
+        private final double nanosPerToken = TimeUnit.SECONDS.toNanos(1) / messagesPerSecond;
+        private final Timer waits;
+        private final Counter rejected;
+
+        private double tokens = burst;
+        private long refilledAt;
+
+        Bucket(String phoneNumberId, long now) {
+            this.refilledAt = now;
+            this.waits = Timer.builder("outbound.rate_limit.wait")
+                    .description("Time a send waited for its number's rate limit")
+                    .tag("phone_number_id", phoneNumberId)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("outbound.rate_limit.rejected")
+                    .description("Sends rejected because the rate limit wait exceeded the maximum")
+                    .tag("phone_number_id", phoneNumberId)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Take the next token
+         *
+         * @return nanos until it is available, or -1 if that is past the maximum wait
+         */
+        synchronized long reserve(long now) {
+            // A caller that read the clock before the last one got the lock refills nothing
+            if (now > refilledAt) {
+                tokens = Math.min(burst, tokens + (now - refilledAt) / nanosPerToken);
+                refilledAt = now;
+            }
+
+            double after = tokens - 1;
+            long waitNanos = after >= 0 ? 0 : (long) Math.ceil(-after * nanosPerToken);
+            if (waitNanos > maxWaitNanos) {
+                return -1;
+            }
+            tokens = after;
+            return waitNanos;
+        }
+    }
+}
@@ -22,7 +22,7 @@ public class PastorQueueService {
     private final MemberRepository memberRepository;
     private final AdminRepository adminRepository;
     private final ChurchRepository churchRepository;
-    private final WhatsAppMetaService whatsAppMetaService;
+    private final OutboundDispatcher outboundDispatcher;
 
     @Transactional
     public PastorQueueDTO addToQueue(Long churchId, PastorQueueRequest request) {
@@ -54,6 +54,32 @@ public class PastorQueueService {
         return mapToDTO(queue);
     }
 
+    /**
+     * Queue the inbound message in {@code context} for a pastor, reusing its loaded entities
+     */
+    @Transactional
+    public PastorQueueDTO addToQueue(InboundMessageContext context, String category, String priority) {
+        Message message = context.getMessage();
+
+        PastorQueue queue = PastorQueue.builder()
+                .message(message)
+                .member(context.getMember())
+                .church(context.getChurch())
+                .phoneNumber(context.getPhoneNumber())
+                .priority(priority != null ? priority : "MEDIUM")
+                .category(category)
+                .status("PENDING")
+                .build();
+
+        queue = pastorQueueRepository.save(queue);
+
+        // Mark message as needing pastor reply
+        message.setNeedsPastorReply(true);
+
+        log.info("📬 Message added to pastor queue: {}", queue.getId());
+        return mapToDTO(queue);
+    }
+
     @Transactional(readOnly = true)
     public Page<PastorQueueDTO> getPendingQueue(Long churchId, Pageable pageable) {
         return pastorQueueRepository.findByChurchIdAndStatusWithDetails(
@@ -101,8 +127,10 @@ public class PastorQueueService {
         PastorQueue queue = pastorQueueRepository.findById(request.getQueueId())
                 .orElseThrow(() -> new RuntimeException("Queue item not found"));
 
-        // Send WhatsApp reply
-        whatsAppMetaService.sendMessage(queue.getPhoneNumber(), request.getReplyMessage());
+        // Queue the WhatsApp reply from the church's own number; it is sent once this transaction commits
+        Church church = queue.getChurch();
+        outboundDispatcher.queue(church.getId(), null, church.getWhatsappPhoneNumberId(),
+                queue.getPhoneNumber(), request.getReplyMessage());
 
         // Update queue
         queue.setPastorReply(request.getReplyMessage());
@@ -115,7 +143,7 @@ public class PastorQueueService {
 
         queue = pastorQueueRepository.save(queue);
 
-        log.info("✉️ Pastor reply sent for queue: {}", queue.getId());
+        log.info("✉️ Pastor reply queued for queue: {}", queue.getId());
         return mapToDTO(queue);
     }
 
@@ -0,0 +1,63 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency timers for each stage of the inbound pipeline and outbound dispatch, exported as {@code pipeline.stage}
+ * with p50/p99/p999 so load tests can read them from /actuator/metrics.
+ */
+@Component
+public class PipelineMetrics {
+
+    private final Timer queueWait;
+    private final Timer event;
+    private final Timer partitionWait;
+    private final Timer message;
+    private final Timer graphApi;
+    private final Timer outboxWait;
+
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        this.queueWait = stage(meterRegistry, "queue_wait", "Webhook receipt until a worker claims it");
+        this.event = stage(meterRegistry, "event", "Parse and process one queued webhook");
+        this.partitionWait = stage(meterRegistry, "partition_wait", "Message waiting behind its sender partition");
+        this.message = stage(meterRegistry, "message", "Chatbot handling of one inbound message");
+        this.graphApi = stage(meterRegistry, "graph_api", "One Graph API send call");
+        this.outboxWait = stage(meterRegistry, "outbox_wait", "Reply queued in the outbox until a dispatcher lane sends it");
+    }
+
+    private static Timer stage(MeterRegistry meterRegistry, String stage, String description) {
+        return Timer.builder("pipeline.stage")
+                .description(description)
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+    }
+
+    public void recordQueueWait(Duration duration) {
+        queueWait.record(duration);
+    }
+
+    public void recordEvent(long nanos) {
+        event.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPartitionWait(long nanos) {
+        partitionWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordMessage(long nanos) {
+        message.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordGraphApi(long nanos) {
+        graphApi.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordOutboxWait(Duration duration) {
+        outboxWait.record(duration);
+    }
+}
@@ -0,0 +1,343 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.MessageTemplateDTO;
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Church;
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Member;
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.MessageTemplate;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.ChurchRepository;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.MessageTemplateRepository;
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.ResponseTemplate;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Renders chatbot responses from templates a church can edit.
+ * Each church's templates are compiled once, with its name, contact details and PayBill
+ * already folded in; a response left with no member placeholders is cached as a finished
+ * String, the rest are rendered into a per-thread builder that is reused across messages.
+ * <p>
+ * A church's compiled set is dropped when one of its templates is changed here, and every set
+ * is dropped when the periodic check sees templates or churches changed by another node.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResponseTemplateService {
+
+    private static final String DEFAULTS_LOCATION = "message-templates/";
+    private static final TemplateKey[] KEYS = TemplateKey.values();
+    private static final DateTimeFormatter MEMBER_SINCE_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy");
+
+    // Builders that grew past this are dropped rather than kept by the thread
+    private static final int MAX_RETAINED_BUFFER = 16 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    private final MessageTemplateRepository templateRepository;
+    private final ChurchRepository churchRepository;
+
+    // Shown when a church has no M-PESA shortcode of its own
+    @Value("${mpesa.shortcode:}")
+    private String defaultPaybill;
+
+    private final String[] defaultSources = new String[KEYS.length];
+    private final ConcurrentHashMap<Long, ResponseTemplate[]> byChurch = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    // Defaults with church placeholders left empty, for sends with no church
+    private ResponseTemplate[] unbound;
+    private volatile String fingerprint;
+
+    @PostConstruct
+    public void init() {
+        for (TemplateKey key : KEYS) {
+            defaultSources[key.ordinal()] = readDefault(key);
+        }
+        unbound = compileAll(null, Map.of());
+        fingerprint = currentFingerprint();
+        log.info("✅ Loaded {} default response templates", KEYS.length);
+    }
+
+    /**
+     * Render {@code key} for a member of {@code churchId}; a null church uses the defaults
+     * and a null member leaves member placeholders empty
+     */
+    public String render(Long churchId, TemplateKey key, Member member) {
+        ResponseTemplate template = templatesFor(churchId)[key.ordinal()];
+        if (template.isConstant()) {
+            return template.constant();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        template.renderTo(buffer, slot -> memberValue(TemplateVariable.ofSlot(slot), member, now));
+        String rendered = buffer.toString();
+
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
+        }
+        return rendered;
+    }
+
+    /**
+     * Render {@code key} where only the member's name is known
+     */
+    public String render(Long churchId, TemplateKey key, String memberName) {
+        return render(churchId, key, Member.builder().fullName(memberName).build());
+    }
+
+    // === ADMIN ===
+
+    @Transactional(readOnly = true)
+    public List<MessageTemplateDTO> listTemplates(Long churchId) {
+        Map<String, MessageTemplate> overrides = overridesFor(churchId);
+
+        List<MessageTemplateDTO> templates = new ArrayList<>(KEYS.length);
+        for (TemplateKey key : KEYS) {
+            templates.add(toDTO(key, overrides.get(key.templateName())));
+        }
+        return templates;
+    }
+
+    /**
+     * Replace the church's text for one response; it is used from the next message after commit
+     */
+    @Transactional
+    public MessageTemplateDTO saveTemplate(Long churchId, String name, String body) {
+        TemplateKey key = resolveKey(name);
+
+        try {
+            ResponseTemplate.compile(body, TemplateVariable::slotOf);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid template: " + e.getMessage());
+        }
+
+        MessageTemplate template = templateRepository
+                .findByChurchIdAndTemplateKey(churchId, key.templateName())
+                .orElseGet(() -> MessageTemplate.builder()
+                        .churchId(churchId)
+                        .templateKey(key.templateName())
+                        .build());
+        template.setBody(body);
+        template = templateRepository.save(template);
+
+        evictAfterCommit(churchId);
+        log.info("📝 Template {} updated for church {}", key.templateName(), churchId);
+        return toDTO(key, template);
+    }
+
+    /**
+     * Go back to the bundled default for one response
+     */
+    @Transactional
+    public MessageTemplateDTO resetTemplate(Long churchId, String name) {
+        TemplateKey key = resolveKey(name);
+        templateRepository.deleteByChurchIdAndTemplateKey(churchId, key.templateName());
+
+        evictAfterCommit(churchId);
+        log.info("↩️ Template {} reset to default for church {}", key.templateName(), churchId);
+        return toDTO(key, null);
+    }
+
+    public List<String> availableVariables() {
+        return Arrays.stream(TemplateVariable.values())
+                .map(TemplateVariable::placeholder)
+                .toList();
+    }
+
+    // === CACHE ===
+
+    /**
+     * Drop compiled sets when templates or church details were changed on another node
+     */
+    @Scheduled(fixedDelayString = "${response.templates.refresh-interval-ms:30000}",
+            initialDelayString = "${response.templates.refresh-interval-ms:30000}")
+    public void reloadIfChanged() {
+        String current = currentFingerprint();
+        if (!current.equals(fingerprint)) {
+            fingerprint = current;
+            evictAll();
+            log.info("🔄 Response templates changed, recompiling on next use");
+        }
+    }
+
+    /**
+     * Recompile the church's templates on next use, e.g. after its name or shortcode changed
+     */
+    public void evictAfterCommit(Long churchId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(churchId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(churchId);
+            }
+        });
+    }
+
+    private void evict(Long churchId) {
+        generation.incrementAndGet();
+        byChurch.remove(churchId);
+    }
+
+    private void evictAll() {
+        generation.incrementAndGet();
+        byChurch.clear();
+    }
+
+    private ResponseTemplate[] templatesFor(Long churchId) {
+        if (churchId == null) {
+            return unbound;
+        }
+
+        ResponseTemplate[] templates = byChurch.get(churchId);
+        if (templates != null) {
+            return templates;
+        }
+
+        long loadedAt = generation.get();
+        Church church = churchRepository.findById(churchId).orElse(null);
+        templates = compileAll(church, overridesFor(churchId));
+
+        // An eviction that raced the load must not leave the old texts cached
+        byChurch.put(churchId, templates);
+        if (generation.get() != loadedAt) {
+            byChurch.remove(churchId, templates);
+        }
+        return templates;
+    }
+
+    private ResponseTemplate[] compileAll(Church church, Map<String, MessageTemplate> overrides) {
+        IntFunction<String> churchValues = slot -> churchValue(TemplateVariable.ofSlot(slot), church);
+
+        ResponseTemplate[] templates = new ResponseTemplate[KEYS.length];
+        for (TemplateKey key : KEYS) {
+            templates[key.ordinal()] = compile(key, overrides.get(key.templateName())).bind(churchValues);
+        }
+        return templates;
+    }
+
+    private ResponseTemplate compile(TemplateKey key, MessageTemplate override) {
+        if (override != null) {
+            try {
+                return ResponseTemplate.compile(override.getBody(), TemplateVariable::slotOf);
+            } catch (IllegalArgumentException e) {
+                // Only reachable by editing the table directly; the API validates on save
+                log.warn("⚠️ Template {} for church {} is invalid, using default: {}",
+                        key.templateName(), override.getChurchId(), e.getMessage());
+            }
+        }
+        return ResponseTemplate.compile(defaultSources[key.ordinal()], TemplateVariable::slotOf);
+    }
+
+    private Map<String, MessageTemplate> overridesFor(Long churchId) {
+        Map<String, MessageTemplate> overrides = new HashMap<>();
+        for (MessageTemplate template : templateRepository.findByChurchId(churchId)) {
+            overrides.put(template.getTemplateKey(), template);
+        }
+        return overrides;
+    }
+
+    private String currentFingerprint() {
+        return templateRepository.count() + "|" + templateRepository.findLatestUpdate()
+                + "|" + churchRepository.findLatestUpdate();
+    }
+
+    // === VALUES ===
+
+    /**
+     * Value of a church placeholder, or null to leave a member placeholder open
+     */
+    private String churchValue(TemplateVariable variable, Church church) {
+        if (!variable.isChurchScoped()) {
+            return null;
+        }
+        if (church == null) {
+            return "";
+        }
+
+        return switch (variable) {
+            case CHURCH_NAME -> church.getName();
+            case CHURCH_LOCATION -> Objects.toString(church.getLocation(), "");
+            case CHURCH_PHONE -> Objects.toString(church.getPhone(), "");
+            case PAYBILL -> church.getMpesaShortcode() != null && !church.getMpesaShortcode().isBlank()
+                    ? church.getMpesaShortcode() : defaultPaybill;
+            default -> null;
+        };
+    }
+
+    private String memberValue(TemplateVariable variable, Member member, LocalDateTime now) {
+        if (variable == TemplateVariable.TIME_OF_DAY) {
+            return timeOfDay(now);
+        }
+        if (member == null) {
+            return "";
+        }
+
+        return switch (variable) {
+            case MEMBER_NAME -> member.getFullName();
+            case MEMBER_PHONE -> member.getPhoneNumber();
+            case MEMBER_STATUS -> member.getStatus();
+            case MEMBER_SINCE -> member.getJoinedDate() != null
+                    ? member.getJoinedDate().format(MEMBER_SINCE_FORMAT) : "N/A";
+            case MEMBER_DAYS -> String.valueOf(ChronoUnit.DAYS.between(
+                    member.getJoinedDate() != null ? member.getJoinedDate().atStartOfDay() : now, now));
+            default -> "";
+        };
+    }
+
+    private static String timeOfDay(LocalDateTime now) {
+        int hour = now.getHour();
+        if (hour < 12) return "morning";
+        if (hour < 17) return "afternoon";
+        return "evening";
+    }
+
+    // === HELPERS ===
+
+    private TemplateKey resolveKey(String name) {
+        return TemplateKey.fromName(name).orElseThrow(() -> new RuntimeException("Template not found"));
+    }
+
+    private MessageTemplateDTO toDTO(TemplateKey key, MessageTemplate override) {
+        return MessageTemplateDTO.builder()
+                .key(key.templateName())
+                .body(override != null ? override.getBody() : defaultSources[key.ordinal()])
+                .customized(override != null)
+                .updatedAt(override != null ? override.getUpdatedAt() : null)
+                .build();
+    }
+
+    private static String readDefault(TemplateKey key) {
+        ClassPathResource resource = new ClassPathResource(DEFAULTS_LOCATION + key.templateName() + ".txt");
+        try (InputStream in = resource.getInputStream()) {
+            String source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            // Files end with a newline the message itself should not
+            return source.endsWith("\n") ? source.substring(0, source.length() - 1) : source;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Missing default template " + resource.getPath(), e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.ExecutionMode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the database work that follows an async send (saving the sent message, recording an
+ * announcement's count) off the Graph API and HTTP client threads that complete the send,
+ * so blocking JPA calls never hold up other sends' callbacks.
+ */
+@Component
+@Slf4j
+public class SendCompletionExecutor implements Executor {
+
+    private final ExecutorService executor;
+
+    public SendCompletionExecutor(ExecutionMode executionMode,
+                                  @Value("${meta.whatsapp.async.completion-threads:8}") int threads) {
+        this.executor = executionMode.newTaskExecutor("send-completion", threads);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("⚠️ Send completion tasks did not finish in time");
+            executor.shutdownNow();
+        }
+    }
+}
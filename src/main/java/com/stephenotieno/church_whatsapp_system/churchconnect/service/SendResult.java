@@ -0,0 +1,19 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.WhatsAppSendException.Reason;
+
+/**
+ * Outcome of an async WhatsApp send: the WAMID Meta assigned, or why the send failed
+ * after {@code attempts} tries
+ */
+public record SendResult(boolean sent, String recipient, String wamid,
+                         Reason failureReason, String error, int attempts) {
+
+    static SendResult ofSent(String recipient, String wamid, int attempts) {
+        return new SendResult(true, recipient, wamid, null, null, attempts);
+    }
+
+    static SendResult ofFailure(String recipient, Reason failureReason, String error, int attempts) {
+        return new SendResult(false, recipient, null, failureReason, error, attempts);
+    }
+}
@@ -0,0 +1,90 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.ExecutionMode;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.*;
+
+/**
+ * Runs inbound message work on a fixed set of single-threaded partitions keyed by sender.
+ * Everything from one phone number lands on the same partition and runs in submission order,
+ * while different senders spread across all partitions in parallel.
+ * <p>
+ * The ordering guarantee covers one webhook delivery: its messages are submitted in the order
+ * Meta listed them. Separate deliveries are separate queue events, which different inbound
+ * workers (or nodes) may parse and submit in either order, so two messages from one sender
+ * that arrive in different deliveries are not guaranteed to be handled in arrival order.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SenderPartitionedExecutor {
+
+    private final MeterRegistry meterRegistry;
+    private final ExecutionMode executionMode;
+
+    // 0 = one partition per available core
+    @Value("${inbound.partitions:0}")
+    private int configuredPartitions;
+
+    private ThreadPoolExecutor[] partitions;
+
+    @PostConstruct
+    public void start() {
+        int count = configuredPartitions > 0
+                ? configuredPartitions
+                : Runtime.getRuntime().availableProcessors();
+
+        partitions = new ThreadPoolExecutor[count];
+        for (int i = 0; i < count; i++) {
+            ThreadPoolExecutor partition = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(),
+                    executionMode.threadFactory("sender-partition-" + i));
+            partitions[i] = partition;
+
+            String tag = String.valueOf(i);
+            Gauge.builder("inbound.partition.queue.depth", partition, p -> p.getQueue().size())
+                    .description("Messages waiting on a sender partition")
+                    .tag("partition", tag)
+                    .register(meterRegistry);
+            FunctionCounter.builder("inbound.partition.completed", partition, ThreadPoolExecutor::getCompletedTaskCount)
+                    .description("Messages processed by a sender partition")
+                    .tag("partition", tag)
+                    .register(meterRegistry);
+        }
+
+        log.info("✅ Sender-partitioned executor started with {} partitions", count);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (ThreadPoolExecutor partition : partitions) {
+            partition.shutdown();
+        }
+        for (ThreadPoolExecutor partition : partitions) {
+            if (!partition.awaitTermination(30, TimeUnit.SECONDS)) {
+                partition.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Queue a task behind any earlier work from the same sender
+     */
+    public CompletableFuture<Void> submit(String sender, Runnable task) {
+        return CompletableFuture.runAsync(task, partitions[partitionFor(sender)]);
+    }
+
+    public int partitionFor(String sender) {
+        int hash = sender.hashCode();
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, partitions.length);
+    }
+}
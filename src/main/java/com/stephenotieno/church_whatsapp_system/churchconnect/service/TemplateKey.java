@@ -0,0 +1,38 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Chatbot responses a church can customise. The default text of each lives in
+ * {@code classpath:message-templates/<name>.txt}.
+ */
+public enum TemplateKey {
+    WELCOME("welcome"),
+    REGISTRATION_COMPLETE("registration_complete"),
+    GREETING("greeting"),
+    HELP("help"),
+    PAYMENT_INSTRUCTIONS("payment_instructions"),
+    MEMBER_INFO("member_info"),
+    MAIN_MENU("main_menu"),
+    OFFERINGS_MENU("offerings_menu"),
+    INFO_MENU("info_menu"),
+    CHURCH_INFO("church_info"),
+    SERVICE_TIMES("service_times");
+
+    private final String templateName;
+
+    TemplateKey(String templateName) {
+        this.templateName = templateName;
+    }
+
+    public String templateName() {
+        return templateName;
+    }
+
+    public static Optional<TemplateKey> fromName(String name) {
+        return Arrays.stream(values())
+                .filter(key -> key.templateName.equalsIgnoreCase(name))
+                .findFirst();
+    }
+}
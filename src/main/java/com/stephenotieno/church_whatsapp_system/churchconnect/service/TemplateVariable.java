@@ -0,0 +1,59 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Placeholders available to response templates, written {@code {{name}}}.
+ * Church variables are folded into a church's templates when they are compiled;
+ * member variables are filled in on every render.
+ */
+public enum TemplateVariable {
+    CHURCH_NAME("church_name", true),
+    CHURCH_LOCATION("church_location", true),
+    CHURCH_PHONE("church_phone", true),
+    PAYBILL("paybill", true),
+    MEMBER_NAME("member_name", false),
+    MEMBER_PHONE("member_phone", false),
+    MEMBER_STATUS("member_status", false),
+    MEMBER_SINCE("member_since", false),
+    MEMBER_DAYS("member_days", false),
+    TIME_OF_DAY("time_of_day", false);
+
+    private static final TemplateVariable[] VALUES = values();
+    private static final Map<String, TemplateVariable> BY_NAME = new HashMap<>();
+
+    static {
+        for (TemplateVariable variable : VALUES) {
+            BY_NAME.put(variable.placeholder, variable);
+        }
+    }
+
+    private final String placeholder;
+    private final boolean churchScoped;
+
+    TemplateVariable(String placeholder, boolean churchScoped) {
+        this.placeholder = placeholder;
+        this.churchScoped = churchScoped;
+    }
+
+    public String placeholder() {
+        return placeholder;
+    }
+
+    public boolean isChurchScoped() {
+        return churchScoped;
+    }
+
+    /**
+     * Slot number for a placeholder name, -1 if there is no such variable
+     */
+    public static int slotOf(String placeholder) {
+        TemplateVariable variable = BY_NAME.get(placeholder.toLowerCase());
+        return variable != null ? variable.ordinal() : -1;
+    }
+
+    public static TemplateVariable ofSlot(int slot) {
+        return VALUES[slot];
+    }
+}
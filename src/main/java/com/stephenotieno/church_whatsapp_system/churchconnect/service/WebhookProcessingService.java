@@ -0,0 +1,158 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.WebhookPayload;
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.WebhookPayload.*;
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.WebhookPayloadParser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookProcessingService {
+
+    private final ChatbotService chatbotService;
+    private final SenderPartitionedExecutor senderPartitionedExecutor;
+    private final WebhookPayloadParser webhookPayloadParser;
+    private final InboundMessageDeduplicator inboundMessageDeduplicator;
+    private final MessageStatusBuffer messageStatusBuffer;
+    private final PipelineMetrics pipelineMetrics;
+
+    // How long an event waits for its statuses to be written before it is retried instead
+    @Value("${whatsapp.status.ack-timeout-ms:30000}")
+    private long statusAckTimeoutMs;
+
+    /**
+     * Process a raw webhook body taken from the inbound queue.
+     * Returns once every message in the body has been handled by its sender partition
+     * and every status in it has been written.
+     *
+     * @throws InboundProcessingException if any message failed, so the event is retried
+     */
+    public void process(byte[] rawPayload) throws IOException {
+        WebhookPayload payload = webhookPayloadParser.parse(rawPayload);
+
+        if (!payload.isWhatsAppBusinessAccount()) {
+            log.warn("⚠️ Unexpected object type: {}", payload.object());
+            return;
+        }
+
+        if (payload.changes().isEmpty()) {
+            log.warn("⚠️ No entries in webhook");
+            return;
+        }
+
+        Map<String, CompletableFuture<Void>> pending = new LinkedHashMap<>();
+        List<CompletableFuture<Void>> statusWrites = new ArrayList<>();
+
+        for (Change change : payload.changes()) {
+            if (!change.messages().isEmpty()) {
+                processMessages(change.phoneNumberId(), change.messages(), pending);
+            }
+
+            if (!change.statuses().isEmpty()) {
+                processStatuses(change.statuses(), statusWrites);
+            }
+        }
+
+        // The queue event is only complete once its messages are handled and its statuses written
+        awaitMessages(pending);
+        CompletableFuture.allOf(statusWrites.toArray(new CompletableFuture[0]))
+                .orTimeout(statusAckTimeoutMs, TimeUnit.MILLISECONDS)
+                .join();
+    }
+
+    /**
+     * Dispatch incoming messages to their sender's partition
+     */
+    private void processMessages(String phoneNumberId, List<InboundMessage> messages,
+                                 Map<String, CompletableFuture<Void>> pending) {
+        for (InboundMessage message : messages) {
+            log.info("📱 Processing message {} from {} ({})", message.id(), message.from(), message.type());
+
+            // Media arrives with its caption, or an empty body, and is stored without a reply
+            if (message.body() == null || message.from() == null) {
+                log.warn("⚠️ No message body found or unsupported message type: {}", message.type());
+                inboundMessageDeduplicator.recordUnsupported();
+                continue;
+            }
+
+            // Meta redelivers when we are slow; drop repeats before any DB work
+            if (!inboundMessageDeduplicator.firstSighting(message.id())) {
+                continue;
+            }
+
+            long submitted = System.nanoTime();
+            pending.put(message.id(), senderPartitionedExecutor.submit(message.from(), () -> {
+                pipelineMetrics.recordPartitionWait(System.nanoTime() - submitted);
+                processMessage(phoneNumberId, message);
+            }));
+        }
+    }
+
+    private void processMessage(String phoneNumberId, InboundMessage message) {
+        long start = System.nanoTime();
+        try {
+            // Process through chatbot service
+            if (message.type().isMedia()) {
+                chatbotService.processIncomingMedia(phoneNumberId, "whatsapp:" + message.from(), message);
+            } else {
+                chatbotService.processIncomingMessage(
+                        phoneNumberId, "whatsapp:" + message.from(), message.body(), message.id());
+            }
+            pipelineMetrics.recordMessage(System.nanoTime() - start);
+
+            log.info("✅ Message processed successfully");
+
+        } catch (RuntimeException e) {
+            log.error("❌ Error processing message {}: {}", message.id(), e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for every dispatched message, then fail the event if any of them failed
+     */
+    private void awaitMessages(Map<String, CompletableFuture<Void>> pending) {
+        List<String> failedIds = new ArrayList<>();
+        Throwable firstFailure = null;
+
+        for (Map.Entry<String, CompletableFuture<Void>> entry : pending.entrySet()) {
+            try {
+                entry.getValue().join();
+            } catch (CompletionException e) {
+                failedIds.add(entry.getKey());
+                if (firstFailure == null) {
+                    firstFailure = e.getCause() != null ? e.getCause() : e;
+                }
+            }
+        }
+
+        if (!failedIds.isEmpty()) {
+            throw new InboundProcessingException(failedIds, firstFailure);
+        }
+    }
+
+    /**
+     * Queue status updates (delivered, read, failed, etc.) for the next batched write
+     */
+    private void processStatuses(List<StatusEvent> statuses, List<CompletableFuture<Void>> statusWrites) {
+        for (StatusEvent status : statuses) {
+            log.debug("📊 Status Update: {} -> {} ({})", status.messageId(), status.status(), status.recipientId());
+
+            // Handle errors
+            if ("failed".equals(status.status()) && status.errorCode() != null) {
+                log.error("❌ Message failed: Code={}, Title={}", status.errorCode(), status.errorTitle());
+            }
+
+            statusWrites.add(messageStatusBuffer.record(status));
+        }
+    }
+}
@@ -1,15 +1,19 @@
 package com.stephenotieno.church_whatsapp_system.churchconnect.service;
 
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.Backoff;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpServerErrorException;
 import jakarta.annotation.PostConstruct;
-import java.util.*;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -19,78 +23,65 @@ public class WhatsAppMetaService {
     @Value("${meta.whatsapp.phone.number.id}")
     private String phoneNumberId;
 
-    @Value("${meta.whatsapp.access.token}")
-    private String accessToken;
+    // Tries per async send, counting the first, for rate limits, 5xx and timeouts
+    @Value("${meta.whatsapp.async.max-attempts:3}")
+    private int asyncMaxAttempts;
 
-    @Value("${meta.whatsapp.api.version:v21.0}")
-    private String apiVersion;
+    @Value("${meta.whatsapp.async.backoff.base-ms:1000}")
+    private long asyncBackoffBaseMs;
 
-    private String baseUrl;
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${meta.whatsapp.async.backoff.max-ms:30000}")
+    private long asyncBackoffMaxMs;
+
+    // No retry starts later than this after the first attempt, which bounds how long a caller waits
+    @Value("${meta.whatsapp.async.retry-window-ms:20000}")
+    private long asyncRetryWindowMs;
+
+    private final GraphApiClient graphApiClient;
+    private final GraphPayloadWriter payloadWriter;
+    private final MeterRegistry meterRegistry;
+
+    private Counter authFailures;
 
     @PostConstruct
     public void init() {
-        this.baseUrl = "https://graph.facebook.com/" + apiVersion + "/" + phoneNumberId;
+        this.authFailures = Counter.builder("whatsapp.send.auth_failures")
+                .description("Sends Meta rejected for the access token or app permissions; alert on any")
+                .register(meterRegistry);
         log.info("✅ Meta WhatsApp Service initialized");
         log.info("📱 Phone Number ID: {}", phoneNumberId);
-        log.info("🌐 Base URL: {}", baseUrl);
     }
 
     /**
      * Send a text message via Meta WhatsApp Business API
      */
     public String sendMessage(String to, String messageBody) {
-        try {
-            // Remove 'whatsapp:' prefix if present
-            String cleanNumber = to.replace("whatsapp:", "").trim();
-
-            // Ensure number starts with + or country code
-            if (!cleanNumber.startsWith("+")) {
-                cleanNumber = "+" + cleanNumber;
-            }
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(accessToken);
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("messaging_product", "whatsapp");
-            requestBody.put("recipient_type", "individual");
-            requestBody.put("to", cleanNumber);
-            requestBody.put("type", "text");
-
-            Map<String, String> text = new HashMap<>();
-            text.put("preview_url", "false");
-            text.put("body", messageBody);
-            requestBody.put("text", text);
+        return sendMessageFrom(null, to, messageBody);
+    }
 
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+    /**
+     * Send a text message from a specific business number (null = the configured default)
+     */
+    public String sendMessageFrom(String fromPhoneNumberId, String to, String messageBody) {
+        try {
+            String cleanNumber = cleanNumber(to);
 
-            String url = baseUrl + "/messages";
             log.info("📤 Sending message to {} via Meta API", cleanNumber);
-            log.debug("Request URL: {}", url);
-            log.debug("Request Body: {}", requestBody);
-
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> responseBody = response.getBody();
-                List<Map<String, Object>> messages = (List<Map<String, Object>>) responseBody.get("messages");
 
-                if (messages != null && !messages.isEmpty()) {
-                    String messageId = (String) messages.get(0).get("id");
-                    log.info("✅ Message sent successfully to {}: ID={}", cleanNumber, messageId);
-                    return messageId;
-                }
+            String messageId = postMessage(fromPhoneNumberId, payloadWriter.text(cleanNumber, messageBody));
+            if (messageId != null) {
+                log.info("✅ Message sent successfully to {}: ID={}", cleanNumber, messageId);
+                return messageId;
             }
 
             log.warn("⚠️ Unexpected response format from Meta API");
             return null;
 
-        } catch (HttpClientErrorException | HttpServerErrorException e) {
-            log.error("❌ HTTP Error sending message to {}: {} - {}",
-                    to, e.getStatusCode(), e.getResponseBodyAsString());
-            throw new RuntimeException("Failed to send WhatsApp message: " + e.getMessage());
+        } catch (GraphApiException e) {
+            WhatsAppSendException failure = sendFailure("Failed to send WhatsApp message", e);
+            log.error("❌ HTTP Error sending message to {}: {} {} - {}", to, e.getStatusCode(), failure.getReason(),
+                    e.getResponseBody() != null ? e.getResponseBody() : e.getMessage());
+            throw failure;
         } catch (Exception e) {
             log.error("❌ Failed to send message to {}: {}", to, e.getMessage(), e);
             throw new RuntimeException("Failed to send WhatsApp message: " + e.getMessage());
@@ -98,52 +89,54 @@ public class WhatsAppMetaService {
     }
 
     /**
-     * Send a message with media (image, document, etc.)
+     * Send a text message without blocking the caller. The future always completes normally,
+     * with the WAMID or the failure reason; retryable failures are retried after a jittered
+     * backoff on a timer, holding no thread while they wait.
      */
-    public String sendMessageWithMedia(String to, String caption, String mediaUrl, String mediaType) {
+    public CompletableFuture<SendResult> sendMessageAsync(String fromPhoneNumberId, String to, String messageBody) {
+        String cleanNumber = cleanNumber(to);
         try {
-            String cleanNumber = to.replace("whatsapp:", "").trim();
-            if (!cleanNumber.startsWith("+")) {
-                cleanNumber = "+" + cleanNumber;
-            }
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(accessToken);
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("messaging_product", "whatsapp");
-            requestBody.put("recipient_type", "individual");
-            requestBody.put("to", cleanNumber);
-            requestBody.put("type", mediaType); // image, document, video, audio
+            return sendAsync(fromPhoneNumberId, cleanNumber, payloadWriter.text(cleanNumber, messageBody));
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(
+                    SendResult.ofFailure(cleanNumber, WhatsAppSendException.Reason.INVALID_REQUEST, e.getMessage(), 0));
+        }
+    }
 
-            Map<String, Object> media = new HashMap<>();
-            media.put("link", mediaUrl);
-            if (caption != null && !caption.isEmpty()) {
-                media.put("caption", caption);
-            }
-            requestBody.put(mediaType, media);
+    /**
+     * Async {@link #sendMessageWithMedia}, on the same terms as {@link #sendMessageAsync}
+     */
+    public CompletableFuture<SendResult> sendMessageWithMediaAsync(String to, String caption,
+                                                                   String mediaUrl, String mediaType) {
+        String cleanNumber = cleanNumber(to);
+        try {
+            return sendAsync(null, cleanNumber, payloadWriter.media(cleanNumber, mediaType, mediaUrl, caption));
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(
+                    SendResult.ofFailure(cleanNumber, WhatsAppSendException.Reason.INVALID_REQUEST, e.getMessage(), 0));
+        }
+    }
 
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+    /**
+     * Send a message with media (image, document, etc.)
+     */
+    public String sendMessageWithMedia(String to, String caption, String mediaUrl, String mediaType) {
+        try {
+            String cleanNumber = cleanNumber(to);
 
-            String url = baseUrl + "/messages";
             log.info("📤 Sending {} media to {}", mediaType, cleanNumber);
 
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> responseBody = response.getBody();
-                List<Map<String, Object>> messages = (List<Map<String, Object>>) responseBody.get("messages");
-
-                if (messages != null && !messages.isEmpty()) {
-                    String messageId = (String) messages.get(0).get("id");
-                    log.info("✅ Media message sent successfully: ID={}", messageId);
-                    return messageId;
-                }
+            // mediaType: image, document, video, audio
+            String messageId = postMessage(null, payloadWriter.media(cleanNumber, mediaType, mediaUrl, caption));
+            if (messageId != null) {
+                log.info("✅ Media message sent successfully: ID={}", messageId);
             }
+            return messageId;
 
-            return null;
-
+        } catch (GraphApiException e) {
+            WhatsAppSendException failure = sendFailure("Failed to send WhatsApp media message", e);
+            log.error("❌ Failed to send media message: {}", failure.getMessage());
+            throw failure;
         } catch (Exception e) {
             log.error("❌ Failed to send media message: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to send WhatsApp media message: " + e.getMessage());
@@ -155,67 +148,20 @@ public class WhatsAppMetaService {
      */
     public String sendButtonMessage(String to, String bodyText, List<ButtonData> buttons) {
         try {
-            String cleanNumber = to.replace("whatsapp:", "").trim();
-            if (!cleanNumber.startsWith("+")) {
-                cleanNumber = "+" + cleanNumber;
-            }
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(accessToken);
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("messaging_product", "whatsapp");
-            requestBody.put("recipient_type", "individual");
-            requestBody.put("to", cleanNumber);
-            requestBody.put("type", "interactive");
-
-            Map<String, Object> interactive = new HashMap<>();
-            interactive.put("type", "button");
-
-            Map<String, String> body = new HashMap<>();
-            body.put("text", bodyText);
-            interactive.put("body", body);
-
-            List<Map<String, Object>> actionButtons = new ArrayList<>();
-            for (ButtonData button : buttons) {
-                Map<String, Object> btn = new HashMap<>();
-                btn.put("type", "reply");
-
-                Map<String, String> reply = new HashMap<>();
-                reply.put("id", button.getId());
-                reply.put("title", button.getTitle());
-                btn.put("reply", reply);
-
-                actionButtons.add(btn);
-            }
+            String cleanNumber = cleanNumber(to);
 
-            Map<String, Object> action = new HashMap<>();
-            action.put("buttons", actionButtons);
-            interactive.put("action", action);
-
-            requestBody.put("interactive", interactive);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-
-            String url = baseUrl + "/messages";
             log.info("📤 Sending button message to {}", cleanNumber);
 
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> responseBody = response.getBody();
-                List<Map<String, Object>> messages = (List<Map<String, Object>>) responseBody.get("messages");
-
-                if (messages != null && !messages.isEmpty()) {
-                    String messageId = (String) messages.get(0).get("id");
-                    log.info("✅ Button message sent successfully: ID={}", messageId);
-                    return messageId;
-                }
+            String messageId = postMessage(null, payloadWriter.buttons(cleanNumber, bodyText, buttons));
+            if (messageId != null) {
+                log.info("✅ Button message sent successfully: ID={}", messageId);
             }
+            return messageId;
 
-            return null;
-
+        } catch (GraphApiException e) {
+            WhatsAppSendException failure = sendFailure("Failed to send button message", e);
+            log.error("❌ Failed to send button message: {}", failure.getMessage());
+            throw failure;
         } catch (Exception e) {
             log.error("❌ Failed to send button message: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to send button message: " + e.getMessage());
@@ -228,74 +174,20 @@ public class WhatsAppMetaService {
     public String sendListMessage(String to, String bodyText, String buttonText,
                                   List<ListSection> sections) {
         try {
-            String cleanNumber = to.replace("whatsapp:", "").trim();
-            if (!cleanNumber.startsWith("+")) {
-                cleanNumber = "+" + cleanNumber;
-            }
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(accessToken);
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("messaging_product", "whatsapp");
-            requestBody.put("recipient_type", "individual");
-            requestBody.put("to", cleanNumber);
-            requestBody.put("type", "interactive");
-
-            Map<String, Object> interactive = new HashMap<>();
-            interactive.put("type", "list");
-
-            Map<String, String> body = new HashMap<>();
-            body.put("text", bodyText);
-            interactive.put("body", body);
-
-            Map<String, Object> action = new HashMap<>();
-            action.put("button", buttonText);
-
-            List<Map<String, Object>> sectionsList = new ArrayList<>();
-            for (ListSection section : sections) {
-                Map<String, Object> sec = new HashMap<>();
-                sec.put("title", section.getTitle());
-
-                List<Map<String, Object>> rows = new ArrayList<>();
-                for (ListRow row : section.getRows()) {
-                    Map<String, Object> r = new HashMap<>();
-                    r.put("id", row.getId());
-                    r.put("title", row.getTitle());
-                    if (row.getDescription() != null) {
-                        r.put("description", row.getDescription());
-                    }
-                    rows.add(r);
-                }
-                sec.put("rows", rows);
-                sectionsList.add(sec);
-            }
-            action.put("sections", sectionsList);
-            interactive.put("action", action);
-
-            requestBody.put("interactive", interactive);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+            String cleanNumber = cleanNumber(to);
 
-            String url = baseUrl + "/messages";
             log.info("📤 Sending list message to {}", cleanNumber);
 
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> responseBody = response.getBody();
-                List<Map<String, Object>> messages = (List<Map<String, Object>>) responseBody.get("messages");
-
-                if (messages != null && !messages.isEmpty()) {
-                    String messageId = (String) messages.get(0).get("id");
-                    log.info("✅ List message sent successfully: ID={}", messageId);
-                    return messageId;
-                }
+            String messageId = postMessage(null, payloadWriter.list(cleanNumber, bodyText, buttonText, sections));
+            if (messageId != null) {
+                log.info("✅ List message sent successfully: ID={}", messageId);
             }
+            return messageId;
 
-            return null;
-
+        } catch (GraphApiException e) {
+            WhatsAppSendException failure = sendFailure("Failed to send list message", e);
+            log.error("❌ Failed to send list message: {}", failure.getMessage());
+            throw failure;
         } catch (Exception e) {
             log.error("❌ Failed to send list message: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to send list message: " + e.getMessage());
@@ -307,22 +199,10 @@ public class WhatsAppMetaService {
      */
     public boolean markAsRead(String messageId) {
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(accessToken);
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("messaging_product", "whatsapp");
-            requestBody.put("status", "read");
-            requestBody.put("message_id", messageId);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-
-            String url = baseUrl + "/messages";
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
+            graphApiClient.postMessages(null, payloadWriter.markRead(messageId));
 
             log.info("📖 Message {} marked as read", messageId);
-            return response.getStatusCode().is2xxSuccessful();
+            return true;
 
         } catch (Exception e) {
             log.error("❌ Failed to mark message as read: {}", e.getMessage());
@@ -330,6 +210,82 @@ public class WhatsAppMetaService {
         }
     }
 
+    /**
+     * Send one /messages request through the shared Graph API client and return messages[0].id
+     */
+    private String postMessage(String fromPhoneNumberId, byte[] payload) throws IOException {
+        return payloadWriter.messageId(graphApiClient.postMessages(fromPhoneNumberId, payload));
+    }
+
+    private CompletableFuture<SendResult> sendAsync(String fromPhoneNumberId, String to, byte[] payload) {
+        CompletableFuture<SendResult> result = new CompletableFuture<>();
+        long retryDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(asyncRetryWindowMs);
+        attemptAsync(fromPhoneNumberId, to, payload, 1, retryDeadline, result);
+        return result;
+    }
+
+    private void attemptAsync(String fromPhoneNumberId, String to, byte[] payload, int attempt,
+                              long retryDeadline, CompletableFuture<SendResult> result) {
+        graphApiClient.postMessagesAsync(fromPhoneNumberId, payload).whenComplete((response, error) -> {
+            if (error == null) {
+                String messageId = messageIdOrNull(response);
+                log.info("✅ Message sent successfully to {}: ID={}", to, messageId);
+                result.complete(SendResult.ofSent(to, messageId, attempt));
+                return;
+            }
+
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            WhatsAppSendException failure = cause instanceof GraphApiException graphError
+                    ? sendFailure("Failed to send WhatsApp message", graphError)
+                    : new WhatsAppSendException("Failed to send WhatsApp message: " + cause.getMessage(),
+                            WhatsAppSendException.Reason.TRANSPORT, 0, null, cause);
+
+            Duration delay = Backoff.fullJitter(attempt,
+                    Duration.ofMillis(asyncBackoffBaseMs), Duration.ofMillis(asyncBackoffMaxMs));
+            if (failure.isRetryable() && attempt < asyncMaxAttempts
+                    && System.nanoTime() + delay.toNanos() - retryDeadline < 0) {
+                log.warn("⚠️ Send to {} failed ({}), retrying in {}ms", to, failure.getReason(), delay.toMillis());
+                CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS)
+                        .execute(() -> attemptAsync(fromPhoneNumberId, to, payload, attempt + 1, retryDeadline, result));
+                return;
+            }
+
+            log.error("❌ Failed to send message to {} after {} attempts: {}", to, attempt, failure.getMessage());
+            result.complete(SendResult.ofFailure(to, failure.getReason(), failure.getMessage(), attempt));
+        });
+    }
+
+    private String messageIdOrNull(byte[] response) {
+        try {
+            return payloadWriter.messageId(response);
+        } catch (IOException e) {
+            log.warn("⚠️ Unexpected response format from Meta API");
+            return null;
+        }
+    }
+
+    /**
+     * Classify a failed call as retryable or permanent
+     */
+    private WhatsAppSendException sendFailure(String message, GraphApiException e) {
+        WhatsAppSendException failure = WhatsAppSendException.from(message, e, payloadWriter.errorCode(e.getResponseBody()));
+        if (failure.getReason() == WhatsAppSendException.Reason.AUTH) {
+            authFailures.increment();
+            log.error("🔑 Meta rejected the access token or app permissions ({}, code {}): check META_WA_ACCESS_TOKEN",
+                    failure.getStatusCode(), failure.getErrorCode());
+        }
+        return failure;
+    }
+
+    /**
+     * Strip a 'whatsapp:' prefix and make sure the number starts with +
+     */
+    private static String cleanNumber(String to) {
+        String cleanNumber = to.replace("whatsapp:", "").trim();
+        return cleanNumber.startsWith("+") ? cleanNumber : "+" + cleanNumber;
+    }
+
     // Helper classes for interactive messages
     @lombok.Data
     @lombok.AllArgsConstructor
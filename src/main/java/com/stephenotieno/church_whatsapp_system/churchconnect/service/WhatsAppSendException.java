@@ -0,0 +1,109 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import lombok.Getter;
+import java.util.Set;
+
+/**
+ * A WhatsApp send that failed, classified by whether trying again later can help.
+ * Built from the {@link GraphApiException} behind it using the HTTP status and, for error
+ * responses, Meta's {@code error.code}.
+ */
+@Getter
+public class WhatsAppSendException extends RuntimeException {
+
+    public enum Reason {
+        // Permanent: the same request will fail the same way
+        OUTSIDE_WINDOW(false),
+        UNDELIVERABLE(false),
+        INVALID_REQUEST(false),
+        // Retryable: Meta or the network, not the message
+        RATE_LIMITED(true),
+        // Retryable once someone fixes the access token or app permissions; raises an alert
+        AUTH(true),
+        SERVER_ERROR(true),
+        TIMEOUT(true),
+        TRANSPORT(true),
+        CIRCUIT_OPEN(true);
+
+        private final boolean retryable;
+
+        Reason(boolean retryable) {
+            this.retryable = retryable;
+        }
+
+        public boolean isRetryable() {
+            return retryable;
+        }
+    }
+
+    // Meta error codes, see the Cloud API error code reference
+    private static final int RE_ENGAGEMENT_REQUIRED = 131047;   // outside the 24h customer service window
+    private static final int UNDELIVERABLE_MESSAGE = 131026;    // not a WhatsApp user, or can't receive it
+    private static final int INVALID_PARAMETER = 100;
+    private static final Set<Integer> AUTH_CODES = Set.of(
+            190,        // access token expired or invalid
+            10,         // permission denied
+            200);       // permission not granted to the app
+    private static final Set<Integer> RATE_LIMIT_CODES = Set.of(
+            4,          // application request limit
+            80007,      // WABA rate limit
+            130429,     // Cloud API throughput
+            131056);    // too many messages to one recipient
+    private static final Set<Integer> SERVER_ERROR_CODES = Set.of(
+            1, 2,       // unknown error, service temporarily unavailable
+            131000,     // something went wrong
+            131016);    // service unavailable
+
+    private final Reason reason;
+    private final int statusCode;
+    private final Integer errorCode;
+
+    public WhatsAppSendException(String message, Reason reason, int statusCode, Integer errorCode, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+        this.statusCode = statusCode;
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Classify a failed Graph API call
+     *
+     * @param errorCode {@code error.code} from the response body, null if there was none
+     */
+    public static WhatsAppSendException from(String message, GraphApiException e, Integer errorCode) {
+        return new WhatsAppSendException(message + ": " + e.getMessage(),
+                classify(e, errorCode), e.getStatusCode(), errorCode, e);
+    }
+
+    public boolean isRetryable() {
+        return reason.isRetryable();
+    }
+
+    static Reason classify(GraphApiException e, Integer errorCode) {
+        Reason noResponse = switch (e.getFailure()) {
+            case TIMEOUT -> Reason.TIMEOUT;
+            case TRANSPORT, SATURATED -> Reason.TRANSPORT;
+            case RATE_LIMITED -> Reason.RATE_LIMITED;
+            case CIRCUIT_OPEN -> Reason.CIRCUIT_OPEN;
+            case ERROR_RESPONSE -> null;
+        };
+        if (noResponse != null) {
+            return noResponse;
+        }
+
+        if (errorCode != null) {
+            if (AUTH_CODES.contains(errorCode)) return Reason.AUTH;
+            if (errorCode == RE_ENGAGEMENT_REQUIRED) return Reason.OUTSIDE_WINDOW;
+            if (errorCode == UNDELIVERABLE_MESSAGE) return Reason.UNDELIVERABLE;
+            if (errorCode == INVALID_PARAMETER) return Reason.INVALID_REQUEST;
+            if (RATE_LIMIT_CODES.contains(errorCode)) return Reason.RATE_LIMITED;
+            if (SERVER_ERROR_CODES.contains(errorCode)) return Reason.SERVER_ERROR;
+        }
+
+        int status = e.getStatusCode();
+        if (status == 401 || status == 403) return Reason.AUTH;
+        if (status == 429) return Reason.RATE_LIMITED;
+        if (status >= 500) return Reason.SERVER_ERROR;
+        return Reason.INVALID_REQUEST;
+    }
+}
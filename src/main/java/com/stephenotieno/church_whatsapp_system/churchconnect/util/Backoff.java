@@ -0,0 +1,27 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter: the delay before retry {@code n} is drawn uniformly
+ * from zero up to {@code min(max, base * 2^(n-1))}. Spreading retries over the whole range keeps
+ * many senders that failed together from retrying together.
+ */
+public final class Backoff {
+
+    private Backoff() {
+    }
+
+    /**
+     * @param attempt the attempt that just failed, starting at 1
+     */
+    public static Duration fullJitter(int attempt, Duration base, Duration max) {
+        int shift = Math.min(Math.max(attempt, 1) - 1, 30);
+        long ceiling = Math.min(max.toMillis(), base.toMillis() << shift);
+        if (ceiling <= 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+}
@@ -0,0 +1,152 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker for calls to one remote dependency.
+ * Closed, it remembers the outcome of the last {@code windowSize} calls and opens once at least
+ * {@code minimumCalls} of them have been made and the failure rate reaches the threshold. Open,
+ * it refuses every call until {@code openDuration} has passed, then lets a few probe calls
+ * through (half-open): if they all succeed it closes with a clean window, and any failure
+ * opens it again.
+ * <p>
+ * Callers bracket each call with {@link #tryAcquire} and exactly one of {@link #onSuccess},
+ * {@link #onFailure} or {@link #release} (for calls that never reached the dependency).
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier clock;
+    private final BiConsumer<State, State> onTransition;
+
+    // Ring of the last windowSize outcomes, true = failure
+    private final boolean[] outcomes;
+    private int next;
+    private int calls;
+    private int failures;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int probesIssued;
+    private int probesSucceeded;
+
+    /**
+     * @param failureRateThreshold percentage of failed calls in the window that opens the breaker
+     * @param onTransition         called with (from, to) on every state change, under the breaker's lock
+     */
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold,
+                          long openDurationNanos, int halfOpenProbes,
+                          LongSupplier clock, BiConsumer<State, State> onTransition) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize
+                || failureRateThreshold < 1 || failureRateThreshold > 100 || halfOpenProbes < 1) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings");
+        }
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDurationNanos;
+        this.halfOpenProbes = halfOpenProbes;
+        this.clock = clock;
+        this.onTransition = onTransition;
+    }
+
+    /**
+     * Whether a call may go ahead now
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openDurationNanos) {
+                return false;
+            }
+            transition(State.HALF_OPEN);
+            probesIssued = 0;
+            probesSucceeded = 0;
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (probesIssued >= halfOpenProbes) {
+                return false;
+            }
+            probesIssued++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= halfOpenProbes) {
+                resetWindow();
+                transition(State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+        }
+    }
+
+    /**
+     * Give back an acquired call that was abandoned before reaching the dependency
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && probesIssued > 0) {
+            probesIssued--;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (calls == outcomes.length) {
+            if (outcomes[next]) failures--;
+        } else {
+            calls++;
+        }
+        outcomes[next] = failed;
+        if (failed) failures++;
+        next = (next + 1) % outcomes.length;
+
+        if (calls >= minimumCalls && failures * 100 >= failureRateThreshold * calls) {
+            open();
+        }
+    }
+
+    private void open() {
+        openedAt = clock.getAsLong();
+        transition(State.OPEN);
+    }
+
+    private void resetWindow() {
+        Arrays.fill(outcomes, false);
+        next = 0;
+        calls = 0;
+        failures = 0;
+    }
+
+    private void transition(State to) {
+        State from = state;
+        state = to;
+        if (from != to) {
+            onTransition.accept(from, to);
+        }
+    }
+}
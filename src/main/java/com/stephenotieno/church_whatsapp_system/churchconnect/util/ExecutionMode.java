@@ -0,0 +1,93 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides whether our own executors run on virtual or platform threads.
+ * Virtual threads are opt-in through {@code spring.threads.virtual.enabled} (the same switch that
+ * moves Tomcat and @Scheduled onto them) and only take effect on a Java 21+ runtime; the build
+ * still targets 17, so the Java 21 APIs are looked up reflectively.
+ */
+@Component
+@Slf4j
+public class ExecutionMode {
+
+    private final Method ofVirtual;
+    private final Method builderName;
+    private final Method builderFactory;
+    private final Method newThreadPerTaskExecutor;
+
+    public ExecutionMode(@Value("${spring.threads.virtual.enabled:false}") boolean virtualRequested) {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method newThreadPerTaskExecutor = null;
+
+        if (virtualRequested) {
+            try {
+                Class<?> builder = Class.forName("java.lang.Thread$Builder");
+                ofVirtual = Thread.class.getMethod("ofVirtual");
+                builderName = builder.getMethod("name", String.class, long.class);
+                builderFactory = builder.getMethod("factory");
+                newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+                log.info("✅ Virtual threads enabled for inbound processing and outbound HTTP");
+            } catch (ReflectiveOperationException e) {
+                ofVirtual = null;
+                log.warn("⚠️ Virtual threads requested but the runtime is Java {} - using platform threads",
+                        Runtime.version().feature());
+            }
+        }
+
+        this.ofVirtual = ofVirtual;
+        this.builderName = builderName;
+        this.builderFactory = builderFactory;
+        this.newThreadPerTaskExecutor = newThreadPerTaskExecutor;
+    }
+
+    public boolean isVirtual() {
+        return ofVirtual != null;
+    }
+
+    /**
+     * Threads named {@code prefix-1, prefix-2, ...}; platform threads are daemons
+     */
+    public ThreadFactory threadFactory(String prefix) {
+        if (isVirtual()) {
+            try {
+                Object builder = builderName.invoke(ofVirtual.invoke(null), prefix + "-", 1L);
+                return (ThreadFactory) builderFactory.invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Failed to create virtual thread factory", e);
+            }
+        }
+
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * One new virtual thread per task, or a fixed pool of {@code platformThreads} platform threads.
+     * Callers bound concurrency themselves; the virtual executor does not.
+     */
+    public ExecutorService newTaskExecutor(String prefix, int platformThreads) {
+        if (isVirtual()) {
+            try {
+                return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory(prefix));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Failed to create virtual thread executor", e);
+            }
+        }
+        return Executors.newFixedThreadPool(platformThreads, threadFactory(prefix));
+    }
+}
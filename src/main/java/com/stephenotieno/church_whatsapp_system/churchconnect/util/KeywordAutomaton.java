@@ -0,0 +1,174 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton over a fixed keyword set, compiled to a dense DFA.
+ * Each keyword belongs to a group (0-63); {@link #scan} makes one pass over the text,
+ * lowercasing char by char, and returns the bitmask of groups with at least one keyword
+ * occurring anywhere in it - the same answer as {@code text.toLowerCase().contains(keyword)}
+ * for every keyword, without allocating.
+ * <p>
+ * Characters that appear in no keyword share one input class, so the transition table is
+ * {@code states x (distinct keyword chars + 1)} ints.
+ */
+public final class KeywordAutomaton {
+
+    private final int[] charClass;     // ASCII char -> input class, 0 = not in any keyword
+    private final int classes;
+    private final int[] transitions;   // state * classes + class -> next state
+    private final long[] outputs;      // state -> groups matched on entering it
+
+    private KeywordAutomaton(int[] charClass, int classes, int[] transitions, long[] outputs) {
+        this.charClass = charClass;
+        this.classes = classes;
+        this.transitions = transitions;
+        this.outputs = outputs;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Bitmask of groups with a keyword occurring in {@code text}, case-insensitively
+     */
+    public long scan(CharSequence text) {
+        long matched = 0;
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c == '\u0130') {
+                // String.toLowerCase turns this into "i" plus a combining dot: a keyword can end
+                // on the "i", but none continues past the dot
+                state = transitions[state * classes + charClass['i']];
+                matched |= outputs[state];
+                state = 0;
+                continue;
+            }
+            state = transitions[state * classes + classOf(c)];
+            matched |= outputs[state];
+        }
+        return matched;
+    }
+
+    private int classOf(char c) {
+        if (c >= 128) {
+            c = Character.toLowerCase(c);
+            if (c >= 128) return 0;
+        }
+        return charClass[c];
+    }
+
+    public static final class Builder {
+
+        private final List<String> keywords = new ArrayList<>();
+        private final List<Integer> groups = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder add(int group, String... keywords) {
+            if (group < 0 || group > 63) {
+                throw new IllegalArgumentException("Group must be between 0 and 63: " + group);
+            }
+            for (String keyword : keywords) {
+                if (keyword.isEmpty()) continue;
+                String lower = keyword.toLowerCase();
+                for (int i = 0; i < lower.length(); i++) {
+                    if (lower.charAt(i) >= 128) {
+                        throw new IllegalArgumentException("Keywords must be ASCII: " + keyword);
+                    }
+                }
+                this.keywords.add(lower);
+                this.groups.add(group);
+            }
+            return this;
+        }
+
+        public KeywordAutomaton build() {
+            // Input classes: one per distinct keyword char, upper and lower case sharing a class
+            int[] charClass = new int[128];
+            int classes = 1;
+            for (String keyword : keywords) {
+                for (int i = 0; i < keyword.length(); i++) {
+                    char c = keyword.charAt(i);
+                    if (charClass[c] == 0) {
+                        charClass[c] = classes;
+                        char upper = Character.toUpperCase(c);
+                        if (upper < 128) charClass[upper] = classes;
+                        classes++;
+                    }
+                }
+            }
+
+            // Trie; -1 marks a missing edge until the failure links fill it in
+            List<int[]> trie = new ArrayList<>();
+            List<Long> output = new ArrayList<>();
+            trie.add(newRow(classes));
+            output.add(0L);
+
+            for (int k = 0; k < keywords.size(); k++) {
+                String keyword = keywords.get(k);
+                int state = 0;
+                for (int i = 0; i < keyword.length(); i++) {
+                    int cls = charClass[keyword.charAt(i)];
+                    if (trie.get(state)[cls] < 0) {
+                        trie.get(state)[cls] = trie.size();
+                        trie.add(newRow(classes));
+                        output.add(0L);
+                    }
+                    state = trie.get(state)[cls];
+                }
+                output.set(state, output.get(state) | (1L << groups.get(k)));
+            }
+
+            // Breadth-first failure links, turning the trie into a complete DFA
+            int states = trie.size();
+            int[] transitions = new int[states * classes];
+            long[] outputs = new long[states];
+            int[] fail = new int[states];
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+            for (int cls = 0; cls < classes; cls++) {
+                int next = trie.get(0)[cls];
+                if (next < 0 || cls == 0) {
+                    transitions[cls] = 0;
+                } else {
+                    transitions[cls] = next;
+                    fail[next] = 0;
+                    queue.add(next);
+                }
+            }
+            outputs[0] = output.get(0);
+
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                outputs[state] = output.get(state) | outputs[fail[state]];
+
+                for (int cls = 0; cls < classes; cls++) {
+                    int next = trie.get(state)[cls];
+                    int fallback = transitions[fail[state] * classes + cls];
+                    if (next < 0 || cls == 0) {
+                        transitions[state * classes + cls] = cls == 0 ? 0 : fallback;
+                    } else {
+                        transitions[state * classes + cls] = next;
+                        fail[next] = fallback;
+                        queue.add(next);
+                    }
+                }
+            }
+
+            return new KeywordAutomaton(charClass, classes, transitions, outputs);
+        }
+
+        private static int[] newRow(int classes) {
+            int[] row = new int[classes];
+            Arrays.fill(row, -1);
+            return row;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+/**
+ * Bloom filter over {@code long} keys: 10 bits and 7 probes per expected key,
+ * about a 1% false-positive rate at capacity. Never gives a false negative.
+ * Keys can be added but not removed; rebuild it to drop keys or grow it.
+ */
+public final class LongBloomFilter {
+
+    private static final int BITS_PER_KEY = 10;
+    private static final int PROBES = 7;
+
+    private final long[] words;
+    private final long bits;
+    private final int expectedKeys;
+
+    public LongBloomFilter(int expectedKeys) {
+        this.expectedKeys = Math.max(expectedKeys, 1024);
+        this.words = new long[(int) (((long) this.expectedKeys * BITS_PER_KEY + 63) / 64)];
+        this.bits = (long) words.length * 64;
+    }
+
+    public int expectedKeys() {
+        return expectedKeys;
+    }
+
+    public long sizeInBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    public void add(long key) {
+        long hash = LongLongHashMap.mix(key);
+        long step = (hash >>> 32) | 1;
+        for (int i = 0; i < PROBES; i++) {
+            long bit = Long.remainderUnsigned(hash, bits);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+            hash += step;
+        }
+    }
+
+    public boolean mightContain(long key) {
+        long hash = LongLongHashMap.mix(key);
+        long step = (hash >>> 32) | 1;
+        for (int i = 0; i < PROBES; i++) {
+            long bit = Long.remainderUnsigned(hash, bits);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+            hash += step;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,154 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing hash map from positive {@code long} keys to {@code long} values,
+ * with linear probing over two parallel arrays (16 bytes a slot, no boxing, no per-entry objects).
+ * Removal shifts the following run back instead of leaving tombstones.
+ * <p>
+ * Not thread-safe. {@link #get} never throws or loops forever when racing a writer, so callers
+ * can use it under an optimistic read and discard the answer if the read turns out invalid.
+ */
+public final class LongLongHashMap {
+
+    private static final long EMPTY = 0;
+    private static final double MAX_LOAD = 0.75;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Math.max(16, (int) Math.ceil(expectedSize / MAX_LOAD) + 1);
+        keys = new long[capacity];
+        values = new long[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Value for {@code key}, or {@code missing} if absent
+     */
+    public long get(long key, long missing) {
+        long[] k = keys;
+        long[] v = values;
+        int capacity = k.length;
+        if (v.length != capacity) {
+            return missing; // caught mid-resize
+        }
+
+        int slot = slot(key, capacity);
+        for (int probes = 0; probes < capacity; probes++) {
+            long current = k[slot];
+            if (current == key) return v[slot];
+            if (current == EMPTY) return missing;
+            if (++slot == capacity) slot = 0;
+        }
+        return missing;
+    }
+
+    public void put(long key, long value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Keys must be positive: " + key);
+        }
+        if (size + 1 > keys.length * MAX_LOAD) {
+            resize(keys.length * 2);
+        }
+
+        int capacity = keys.length;
+        int slot = slot(key, capacity);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            if (++slot == capacity) slot = 0;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    public boolean remove(long key) {
+        int capacity = keys.length;
+        int slot = slot(key, capacity);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) return false;
+            if (++slot == capacity) slot = 0;
+        }
+
+        // Pull back later entries of the run that would otherwise become unreachable
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            if (++next == capacity) next = 0;
+            long moving = keys[next];
+            if (moving == EMPTY) break;
+
+            int home = slot(moving, capacity);
+            boolean reachable = hole <= next
+                    ? hole < home && home <= next
+                    : hole < home || home <= next;
+            if (reachable) continue;
+
+            keys[hole] = moving;
+            values[hole] = values[next];
+            hole = next;
+        }
+        keys[hole] = EMPTY;
+        values[hole] = 0;
+        size--;
+        return true;
+    }
+
+    public void forEachKey(LongConsumer action) {
+        for (long key : keys) {
+            if (key != EMPTY) action.accept(key);
+        }
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        long[] newKeys = new long[newCapacity];
+        long[] newValues = new long[newCapacity];
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == EMPTY) continue;
+            int slot = slot(key, newCapacity);
+            while (newKeys[slot] != EMPTY) {
+                if (++slot == newCapacity) slot = 0;
+            }
+            newKeys[slot] = key;
+            newValues[slot] = oldValues[i];
+        }
+
+        keys = newKeys;
+        values = newValues;
+    }
+
+    private static int slot(long key, int capacity) {
+        // Map the mixed hash onto [0, capacity) without a modulo, so capacity need not be a power of two
+        return (int) (((mix(key) >>> 32) * capacity) >>> 32);
+    }
+
+    /**
+     * MurmurHash3 64-bit finaliser
+     */
+    public static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,109 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ * Each slot carries a sequence number telling producers and the consumer whose turn it is
+ * (Vyukov's bounded queue): a producer claims a position with one CAS on the tail and
+ * publishes the element by advancing the slot's sequence; the consumer, the only thread that
+ * moves the head, needs no atomic read-modify-write at all. {@link #offer} never blocks - it
+ * returns false when the buffer is full, leaving the overflow policy to the caller.
+ */
+public final class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;   // written by the consumer only
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity out of range: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add {@code element} if there is room; safe from any thread
+     */
+    public boolean offer(E element) {
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) position & mask;
+            long lag = sequences.getAcquire(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) break;
+            } else if (lag < 0) {
+                return false; // the consumer has not freed this slot yet: full
+            }
+            // else another producer took this position; retry with the new tail
+        }
+
+        elements.setPlain(index, element);
+        sequences.setRelease(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Remove the oldest element, or null if none is published yet; consumer thread only
+     */
+    public E poll() {
+        long position = head;
+        int index = (int) position & mask;
+        if (sequences.getAcquire(index) != position + 1) {
+            return null;
+        }
+
+        E element = elements.getPlain(index);
+        elements.setPlain(index, null);
+        sequences.setRelease(index, position + mask + 1);
+        head = position + 1;
+        return element;
+    }
+
+    /**
+     * Hand up to {@code limit} elements to {@code consumer}, oldest first; consumer thread only
+     *
+     * @return how many were drained
+     */
+    public int drain(Consumer<? super E> consumer, int limit) {
+        int drained = 0;
+        while (drained < limit) {
+            E element = poll();
+            if (element == null) break;
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Approximate number of elements, including claimed slots not yet published
+     */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,137 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Message template compiled once into literal segments and numbered slots.
+ * Source text uses {@code {{name}}} placeholders; {@link #compile} resolves every name to a
+ * slot number up front, so rendering is a straight walk over the segments with no parsing,
+ * lookups by name or intermediate strings.
+ * <p>
+ * Values known early (say, everything about the church) can be folded in with {@link #bind};
+ * a template left with no slots is a constant and renders to the same String every time.
+ */
+public final class ResponseTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String[] literals;   // literals[i] comes before slots[i]; one more literal than slots
+    private final int[] slots;
+    private final String constant;     // whole text when there are no slots
+    private final int literalLength;
+
+    private ResponseTemplate(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        this.constant = slots.length == 0 ? literals[0] : null;
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compile {@code source}; {@code slotIndex} maps a placeholder name to its slot number,
+     * or -1 if there is no such placeholder
+     *
+     * @throws IllegalArgumentException on an unknown or unclosed placeholder
+     */
+    public static ResponseTemplate compile(String source, ToIntFunction<String> slotIndex) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+
+        StringBuilder literal = new StringBuilder();
+        int pos = 0;
+        while (true) {
+            int open = source.indexOf(OPEN, pos);
+            if (open < 0) {
+                literal.append(source, pos, source.length());
+                break;
+            }
+
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at position " + open);
+            }
+
+            String name = source.substring(open + OPEN.length(), close).trim();
+            int slot = slotIndex.applyAsInt(name);
+            if (slot < 0) {
+                throw new IllegalArgumentException("Unknown placeholder {{" + name + "}}");
+            }
+
+            literal.append(source, pos, open);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            slots.add(slot);
+            pos = close + CLOSE.length();
+        }
+        literals.add(literal.toString());
+
+        return new ResponseTemplate(literals.toArray(String[]::new),
+                slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Copy of this template with every slot for which {@code values} returns non-null replaced
+     * by that text and merged into the surrounding literals
+     */
+    public ResponseTemplate bind(IntFunction<String> values) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+
+        StringBuilder literal = new StringBuilder(this.literals[0]);
+        for (int i = 0; i < this.slots.length; i++) {
+            String value = values.apply(this.slots[i]);
+            if (value != null) {
+                literal.append(value);
+            } else {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                slots.add(this.slots[i]);
+            }
+            literal.append(this.literals[i + 1]);
+        }
+        literals.add(literal.toString());
+
+        return new ResponseTemplate(literals.toArray(String[]::new),
+                slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public boolean isConstant() {
+        return constant != null;
+    }
+
+    /**
+     * The full text of a template with no slots left, otherwise null
+     */
+    public String constant() {
+        return constant;
+    }
+
+    /**
+     * Append the rendered text to {@code out}; a null slot value renders as nothing
+     */
+    public void renderTo(StringBuilder out, IntFunction<String> values) {
+        if (constant != null) {
+            out.append(constant);
+            return;
+        }
+
+        out.ensureCapacity(out.length() + literalLength + 16 * slots.length);
+        out.append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            String value = values.apply(slots[i]);
+            if (value != null) {
+                out.append(value);
+            }
+            out.append(literals[i + 1]);
+        }
+    }
+}
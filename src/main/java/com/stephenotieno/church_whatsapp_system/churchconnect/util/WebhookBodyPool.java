@@ -0,0 +1,86 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Pool of reusable byte buffers for reading webhook bodies.
+ * The request body is read once into a pooled buffer, and the same bytes are signature-checked
+ * and queued; buffers that had to grow past the retain size are dropped instead of pooled.
+ */
+@Component
+public class WebhookBodyPool {
+
+    private final ArrayBlockingQueue<Buffer> pool;
+    private final int initialBytes;
+    private final int retainBytes;
+
+    public WebhookBodyPool(@Value("${meta.whatsapp.webhook.buffer-pool-size:64}") int poolSize,
+                           @Value("${meta.whatsapp.webhook.buffer-initial-bytes:8192}") int initialBytes,
+                           @Value("${meta.whatsapp.webhook.buffer-retain-bytes:65536}") int retainBytes) {
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+        this.initialBytes = initialBytes;
+        this.retainBytes = retainBytes;
+    }
+
+    public Buffer acquire() {
+        Buffer buffer = pool.poll();
+        return buffer != null ? buffer : new Buffer(initialBytes);
+    }
+
+    public void release(Buffer buffer) {
+        if (buffer.bytes.length <= retainBytes) {
+            buffer.length = 0;
+            pool.offer(buffer);
+        }
+    }
+
+    /**
+     * A growable byte array plus the number of valid bytes in it
+     */
+    public static final class Buffer {
+
+        private byte[] bytes;
+        private int length;
+
+        private Buffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        /**
+         * Read the stream to its end; returns false if it is longer than {@code maxBytes}
+         */
+        public boolean readFrom(InputStream in, int expectedLength, int maxBytes) throws IOException {
+            if (expectedLength > maxBytes) return false;
+            if (expectedLength > bytes.length) {
+                bytes = new byte[expectedLength];
+            }
+
+            length = 0;
+            int read;
+            while ((read = in.read(bytes, length, bytes.length - length)) != -1) {
+                length += read;
+                if (length == bytes.length) {
+                    if (length >= maxBytes) {
+                        // Full at the cap: anything more means the body is too large
+                        return in.read() == -1;
+                    }
+                    bytes = Arrays.copyOf(bytes, Math.min(maxBytes, bytes.length * 2));
+                }
+            }
+            return true;
+        }
+
+        public byte[] bytes() {
+            return bytes;
+        }
+
+        public int length() {
+            return length;
+        }
+    }
+}
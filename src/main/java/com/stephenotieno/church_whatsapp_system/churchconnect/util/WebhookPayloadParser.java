@@ -0,0 +1,332 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.WebhookPayload;
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.WebhookPayload.*;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass streaming parser for Meta webhook bodies.
+ * Reads the raw bytes token by token straight into {@link WebhookPayload} records,
+ * skipping unknown fields without materialising them.
+ */
+@Component
+public class WebhookPayloadParser {
+
+    private final JsonFactory jsonFactory;
+
+    public WebhookPayloadParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public WebhookPayload parse(byte[] body) throws IOException {
+        return parse(body, 0, body.length);
+    }
+
+    public WebhookPayload parse(byte[] body, int offset, int length) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body, offset, length)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT, parser);
+
+            String object = null;
+            List<Change> changes = new ArrayList<>(1);
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "object" -> object = parser.getValueAsString();
+                    case "entry" -> readEntries(parser, changes);
+                    default -> parser.skipChildren();
+                }
+            }
+
+            return new WebhookPayload(object, List.copyOf(changes));
+        }
+    }
+
+    private void readEntries(JsonParser parser, List<Change> changes) throws IOException {
+        if (!startArray(parser)) return;
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("changes".equals(field)) {
+                    readChanges(parser, changes);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private void readChanges(JsonParser parser, List<Change> changes) throws IOException {
+        if (!startArray(parser)) return;
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("value".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                    changes.add(readValue(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private Change readValue(JsonParser parser) throws IOException {
+        String phoneNumberId = null;
+        String displayPhoneNumber = null;
+        List<InboundMessage> messages = List.of();
+        List<StatusEvent> statuses = List.of();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "metadata" -> {
+                    if (!startObject(parser)) break;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String metaField = parser.currentName();
+                        parser.nextToken();
+                        if ("phone_number_id".equals(metaField)) {
+                            phoneNumberId = parser.getValueAsString();
+                        } else if ("display_phone_number".equals(metaField)) {
+                            displayPhoneNumber = parser.getValueAsString();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+                case "messages" -> messages = readMessages(parser);
+                case "statuses" -> statuses = readStatuses(parser);
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new Change(phoneNumberId, displayPhoneNumber, messages, statuses);
+    }
+
+    private List<InboundMessage> readMessages(JsonParser parser) throws IOException {
+        if (!startArray(parser)) return List.of();
+
+        List<InboundMessage> messages = new ArrayList<>(2);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            messages.add(readMessage(parser));
+        }
+        return List.copyOf(messages);
+    }
+
+    private InboundMessage readMessage(JsonParser parser) throws IOException {
+        String id = null;
+        String from = null;
+        long timestamp = 0;
+        String type = null;
+        String text = null;
+        String buttonText = null;
+        String buttonPayload = null;
+        String replyId = null;
+        String replyTitle = null;
+        Media media = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.getValueAsString();
+                case "from" -> from = parser.getValueAsString();
+                case "timestamp" -> timestamp = parseEpoch(parser.getValueAsString());
+                case "type" -> type = parser.getValueAsString();
+                case "text" -> text = readStringField(parser, "body");
+                case "button" -> {
+                    if (!startObject(parser)) break;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String buttonField = parser.currentName();
+                        parser.nextToken();
+                        if ("text".equals(buttonField)) {
+                            buttonText = parser.getValueAsString();
+                        } else if ("payload".equals(buttonField)) {
+                            buttonPayload = parser.getValueAsString();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+                case "interactive" -> {
+                    if (!startObject(parser)) break;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String interactiveField = parser.currentName();
+                        parser.nextToken();
+                        if (("button_reply".equals(interactiveField) || "list_reply".equals(interactiveField))
+                                && startObject(parser)) {
+                            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                                String replyField = parser.currentName();
+                                parser.nextToken();
+                                if ("id".equals(replyField)) {
+                                    replyId = parser.getValueAsString();
+                                } else if ("title".equals(replyField)) {
+                                    replyTitle = parser.getValueAsString();
+                                } else {
+                                    parser.skipChildren();
+                                }
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+                case "image", "audio", "video", "document", "sticker" -> media = readMedia(parser);
+                default -> parser.skipChildren();
+            }
+        }
+
+        // Fields can arrive in any order, so the body is picked once the type is known
+        MessageType messageType = MessageType.of(type);
+        String body = switch (messageType) {
+            case TEXT -> text;
+            case BUTTON -> buttonText;
+            case INTERACTIVE -> replyTitle;
+            case IMAGE, AUDIO, VIDEO, DOCUMENT, STICKER ->
+                    media != null && media.caption() != null ? media.caption() : "";
+            default -> null;
+        };
+        if (messageType == MessageType.BUTTON) {
+            replyId = buttonPayload;
+        }
+
+        return new InboundMessage(id, from, timestamp, messageType, body, replyId, media);
+    }
+
+    private Media readMedia(JsonParser parser) throws IOException {
+        if (!startObject(parser)) return null;
+
+        String id = null;
+        String mimeType = null;
+        String caption = null;
+        String filename = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.getValueAsString();
+                case "mime_type" -> mimeType = parser.getValueAsString();
+                case "caption" -> caption = parser.getValueAsString();
+                case "filename" -> filename = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new Media(id, mimeType, caption, filename);
+    }
+
+    private List<StatusEvent> readStatuses(JsonParser parser) throws IOException {
+        if (!startArray(parser)) return List.of();
+
+        List<StatusEvent> statuses = new ArrayList<>(2);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            statuses.add(readStatus(parser));
+        }
+        return List.copyOf(statuses);
+    }
+
+    private StatusEvent readStatus(JsonParser parser) throws IOException {
+        String messageId = null;
+        String status = null;
+        String recipientId = null;
+        long timestamp = 0;
+        Integer errorCode = null;
+        String errorTitle = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> messageId = parser.getValueAsString();
+                case "status" -> status = parser.getValueAsString();
+                case "recipient_id" -> recipientId = parser.getValueAsString();
+                case "timestamp" -> timestamp = parseEpoch(parser.getValueAsString());
+                case "errors" -> {
+                    if (!startArray(parser)) break;
+                    // Only the first error is kept
+                    boolean first = true;
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String errorField = parser.currentName();
+                            parser.nextToken();
+                            if (first && "code".equals(errorField)) {
+                                errorCode = parser.getValueAsInt();
+                            } else if (first && "title".equals(errorField)) {
+                                errorTitle = parser.getValueAsString();
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                        first = false;
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new StatusEvent(messageId, status, recipientId, timestamp, errorCode, errorTitle);
+    }
+
+    /**
+     * Read {@code {"<name>": "..."}} and return that string, skipping anything else
+     */
+    private String readStringField(JsonParser parser, String name) throws IOException {
+        if (!startObject(parser)) return null;
+
+        String value = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (name.equals(field)) {
+                value = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * True if the current value is an object; otherwise skips it, whatever it is
+     */
+    private boolean startObject(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.START_OBJECT) return true;
+        parser.skipChildren();
+        return false;
+    }
+
+    private boolean startArray(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.START_ARRAY) return true;
+        parser.skipChildren();
+        return false;
+    }
+
+    private long parseEpoch(String value) {
+        if (value == null || value.isEmpty()) return 0;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void expect(JsonToken actual, JsonToken expected, JsonParser parser) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Malformed webhook body: expected " + expected + " but found " + actual
+                    + " at " + parser.currentLocation());
+        }
+    }
+}
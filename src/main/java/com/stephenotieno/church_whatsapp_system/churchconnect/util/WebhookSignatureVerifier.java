@@ -0,0 +1,116 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Checks Meta's {@code X-Hub-Signature-256} header (sha256=HMAC of the raw body with the app secret).
+ * Initialised {@link Mac} instances and their digest buffers are pooled and reused, and the hex
+ * header is compared against the digest in place, so a verification allocates nothing.
+ * <p>
+ * Startup fails when no app secret is configured, unless verification has been switched off
+ * explicitly with {@code meta.whatsapp.signature.verify=false}.
+ */
+@Component
+@Slf4j
+public class WebhookSignatureVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String PREFIX = "sha256=";
+    private static final int DIGEST_LENGTH = 32;
+
+    private final SecretKeySpec key;
+    private final ConcurrentLinkedQueue<Hmac> pool = new ConcurrentLinkedQueue<>();
+
+    public WebhookSignatureVerifier(@Value("${meta.whatsapp.app.secret:}") String appSecret,
+                                    @Value("${meta.whatsapp.signature.verify:true}") boolean verify) {
+        if (!verify) {
+            this.key = null;
+            log.warn("⚠️ meta.whatsapp.signature.verify=false - webhook signatures will NOT be verified");
+        } else if (appSecret == null || appSecret.isBlank()) {
+            throw new IllegalStateException("meta.whatsapp.app.secret is not set; set META_WA_APP_SECRET "
+                    + "or disable verification with meta.whatsapp.signature.verify=false");
+        } else {
+            this.key = new SecretKeySpec(appSecret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        }
+    }
+
+    public boolean isEnabled() {
+        return key != null;
+    }
+
+    /**
+     * True if the signature header matches {@code body[offset, offset + length)}
+     * (always true when verification is switched off)
+     */
+    public boolean verify(byte[] body, int offset, int length, String signatureHeader) {
+        if (key == null) return true;
+        if (signatureHeader == null
+                || signatureHeader.length() != PREFIX.length() + DIGEST_LENGTH * 2
+                || !signatureHeader.startsWith(PREFIX)) {
+            return false;
+        }
+
+        Hmac hmac = pool.poll();
+        try {
+            if (hmac == null) {
+                hmac = new Hmac(key);
+            }
+            hmac.mac.update(body, offset, length);
+            hmac.mac.doFinal(hmac.digest, 0);
+            return matches(hmac.digest, signatureHeader);
+        } catch (GeneralSecurityException e) {
+            log.error("❌ Failed to compute webhook signature: {}", e.getMessage());
+            // Don't pool an instance left in an unknown state
+            hmac = null;
+            return false;
+        } finally {
+            if (hmac != null) {
+                pool.offer(hmac);
+            }
+        }
+    }
+
+    /**
+     * Constant-time comparison of the digest with the lowercase/uppercase hex after "sha256="
+     */
+    private static boolean matches(byte[] digest, String header) {
+        int diff = 0;
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            int high = hexValue(header.charAt(PREFIX.length() + i * 2));
+            int low = hexValue(header.charAt(PREFIX.length() + i * 2 + 1));
+            // -1 for a non-hex char, which can never match a byte value
+            diff |= ((high << 4) | (low & 0xF)) ^ (digest[i] & 0xFF);
+            diff |= (high | low) & 0x80000000;
+        }
+        return diff == 0;
+    }
+
+    /**
+     * ASCII hex digit value, or -1. Unlike {@link Character#digit} this rejects other scripts'
+     * digits and fullwidth letters.
+     */
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        return -1;
+    }
+
+    private static final class Hmac {
+
+        private final Mac mac;
+        private final byte[] digest = new byte[DIGEST_LENGTH];
+
+        private Hmac(SecretKeySpec key) throws GeneralSecurityException {
+            this.mac = Mac.getInstance(ALGORITHM);
+            this.mac.init(key);
+        }
+    }
+}
@@ -3,7 +3,7 @@ package com.stephenotieno.church_whatsapp_system;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "meta.whatsapp.app.secret=test-app-secret")
 class ChurchWhatsappSystemApplicationTests {
 
 	@Test
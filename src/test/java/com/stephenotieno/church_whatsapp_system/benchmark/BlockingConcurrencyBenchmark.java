@@ -0,0 +1,90 @@
+package com.stephenotieno.church_whatsapp_system.benchmark;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.ExecutionMode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrency ceiling for blocking message handling on platform vs virtual threads, same heap.
+ * Each task blocks for {@code blockMillis} like one JDBC round trip plus a Graph API call;
+ * an operation completes {@code concurrency} tasks at once. The platform executor is capped
+ * at Tomcat's default 200 threads, so its time per operation grows with concurrency while the
+ * virtual executor's stays near one block. The virtual benchmark needs a Java 21+ runtime.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Benchmark)
+public class BlockingConcurrencyBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({"200", "2000", "10000"})
+    public int concurrency;
+
+    @Param({"20"})
+    public long blockMillis;
+
+    private ExecutorService platform;
+    private ExecutorService virtual;
+
+    @Setup
+    public void setUp() {
+        platform = new ExecutionMode(false).newTaskExecutor("bench-platform", PLATFORM_THREADS);
+
+        ExecutionMode virtualMode = new ExecutionMode(true);
+        if (virtualMode.isVirtual()) {
+            virtual = virtualMode.newTaskExecutor("bench-virtual", PLATFORM_THREADS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        platform.shutdownNow();
+        if (virtual != null) {
+            virtual.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public void platformThreads() throws InterruptedException {
+        runBatch(platform);
+    }
+
+    @Benchmark
+    public void virtualThreads() throws InterruptedException {
+        if (virtual == null) {
+            throw new UnsupportedOperationException("Virtual threads need a Java 21+ runtime");
+        }
+        runBatch(virtual);
+    }
+
+    private void runBatch(ExecutorService executor) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(blockMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BlockingConcurrencyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,190 @@
+package com.stephenotieno.church_whatsapp_system.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.GraphPayloadWriter;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.WhatsAppMetaService.ButtonData;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.WhatsAppMetaService.ListRow;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.WhatsAppMetaService.ListSection;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming {@link GraphPayloadWriter} against the previous nested {@code HashMap}/{@code ArrayList}
+ * request bodies and {@code readTree} response walk, for each kind of outbound message.
+ * Each operation writes one payload and reads the message id back out of a typical response.
+ * Run with {@code -prof gc} to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphPayloadBenchmark {
+
+    private static final String TO = "+254712345678";
+    private static final String BODY = "Good morning John! 🙏\n\nYour offering of KES 1,000 has been received. "
+            + "Thank you for your faithful giving to Grace Fellowship.";
+    private static final byte[] RESPONSE = ("{\"messaging_product\":\"whatsapp\","
+            + "\"contacts\":[{\"input\":\"+254712345678\",\"wa_id\":\"254712345678\"}],"
+            + "\"messages\":[{\"id\":\"wamid.HBgMMjU0NzEyMzQ1Njc4FQIAERgSQjk2RjM1QzI3RTk5QzZGQUE2AA==\"}]}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"text", "media", "buttons", "list"})
+    public String payload;
+
+    private ObjectMapper objectMapper;
+    private GraphPayloadWriter writer;
+    private List<ButtonData> buttons;
+    private List<ListSection> sections;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        writer = new GraphPayloadWriter(objectMapper);
+        buttons = List.of(
+                new ButtonData("give", "💰 Give"),
+                new ButtonData("events", "📅 Events"),
+                new ButtonData("prayer", "🙏 Prayer"));
+        sections = List.of(
+                new ListSection("Giving", List.of(
+                        new ListRow("tithe", "Tithe", "Give your tithe via M-Pesa"),
+                        new ListRow("offering", "Offering", "Sunday offering"),
+                        new ListRow("building", "Building Fund", null))),
+                new ListSection("Church Info", List.of(
+                        new ListRow("services", "Service Times", "Sunday and midweek services"),
+                        new ListRow("contact", "Contact Us", "Church office and location"))));
+    }
+
+    @Benchmark
+    public void streamingWriter(Blackhole blackhole) throws IOException {
+        byte[] body = switch (payload) {
+            case "text" -> writer.text(TO, BODY);
+            case "media" -> writer.media(TO, "image", "https://cdn.example.org/flyer.jpg", BODY);
+            case "buttons" -> writer.buttons(TO, BODY, buttons);
+            default -> writer.list(TO, BODY, "View options", sections);
+        };
+        blackhole.consume(body);
+        blackhole.consume(writer.messageId(RESPONSE));
+    }
+
+    @Benchmark
+    public void mapBinding(Blackhole blackhole) throws IOException {
+        Map<String, Object> requestBody = switch (payload) {
+            case "text" -> legacyText();
+            case "media" -> legacyMedia();
+            case "buttons" -> legacyButtons();
+            default -> legacyList();
+        };
+        blackhole.consume(objectMapper.writeValueAsBytes(requestBody));
+
+        JsonNode id = objectMapper.readTree(RESPONSE).path("messages").path(0).path("id");
+        blackhole.consume(id.isTextual() ? id.asText() : null);
+    }
+
+    // The request bodies as WhatsAppMetaService used to build them
+
+    private static Map<String, Object> legacyEnvelope(String type) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("messaging_product", "whatsapp");
+        requestBody.put("recipient_type", "individual");
+        requestBody.put("to", TO);
+        requestBody.put("type", type);
+        return requestBody;
+    }
+
+    private static Map<String, Object> legacyText() {
+        Map<String, Object> requestBody = legacyEnvelope("text");
+        Map<String, String> text = new HashMap<>();
+        text.put("preview_url", "false");
+        text.put("body", BODY);
+        requestBody.put("text", text);
+        return requestBody;
+    }
+
+    private static Map<String, Object> legacyMedia() {
+        Map<String, Object> requestBody = legacyEnvelope("image");
+        Map<String, Object> media = new HashMap<>();
+        media.put("link", "https://cdn.example.org/flyer.jpg");
+        media.put("caption", BODY);
+        requestBody.put("image", media);
+        return requestBody;
+    }
+
+    private Map<String, Object> legacyButtons() {
+        Map<String, Object> requestBody = legacyEnvelope("interactive");
+        Map<String, Object> interactive = new HashMap<>();
+        interactive.put("type", "button");
+
+        Map<String, String> body = new HashMap<>();
+        body.put("text", BODY);
+        interactive.put("body", body);
+
+        List<Map<String, Object>> actionButtons = new ArrayList<>();
+        for (ButtonData button : buttons) {
+            Map<String, Object> btn = new HashMap<>();
+            btn.put("type", "reply");
+            Map<String, String> reply = new HashMap<>();
+            reply.put("id", button.getId());
+            reply.put("title", button.getTitle());
+            btn.put("reply", reply);
+            actionButtons.add(btn);
+        }
+
+        Map<String, Object> action = new HashMap<>();
+        action.put("buttons", actionButtons);
+        interactive.put("action", action);
+        requestBody.put("interactive", interactive);
+        return requestBody;
+    }
+
+    private Map<String, Object> legacyList() {
+        Map<String, Object> requestBody = legacyEnvelope("interactive");
+        Map<String, Object> interactive = new HashMap<>();
+        interactive.put("type", "list");
+
+        Map<String, String> body = new HashMap<>();
+        body.put("text", BODY);
+        interactive.put("body", body);
+
+        Map<String, Object> action = new HashMap<>();
+        action.put("button", "View options");
+
+        List<Map<String, Object>> sectionsList = new ArrayList<>();
+        for (ListSection section : sections) {
+            Map<String, Object> sec = new HashMap<>();
+            sec.put("title", section.getTitle());
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (ListRow row : section.getRows()) {
+                Map<String, Object> r = new HashMap<>();
+                r.put("id", row.getId());
+                r.put("title", row.getTitle());
+                if (row.getDescription() != null) {
+                    r.put("description", row.getDescription());
+                }
+                rows.add(r);
+            }
+            sec.put("rows", rows);
+            sectionsList.add(sec);
+        }
+        action.put("sections", sectionsList);
+        interactive.put("action", action);
+        requestBody.put("interactive", interactive);
+        return requestBody;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GraphPayloadBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
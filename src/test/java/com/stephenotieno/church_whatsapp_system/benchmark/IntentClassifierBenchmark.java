@@ -0,0 +1,71 @@
+package com.stephenotieno.church_whatsapp_system.benchmark;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.IntentClassifier;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.LegacyIntentChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IntentClassifier} against the previous chain of lowercase copies and
+ * {@code String.matches(".*(a|b).*")} calls spread over ChatbotService ({@link LegacyIntentChain}).
+ * Each operation classifies a mix of short commands, greetings and a long pastoral message.
+ * Run with {@code -prof gc} to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IntentClassifierBenchmark {
+
+    static final String[] MESSAGES = {
+            "Hello",
+            "GIVE 1000",
+            "balance",
+            "PRAYER for my exams",
+            "asante sana",
+            "ok",
+            "Pastor, I have been struggling with a difficult situation at home and at work. "
+                    + "I feel confused about what to do next and would really appreciate counseling and prayer "
+                    + "for my family this week. It is urgent. Thank you for always standing with us.",
+            "When is the youth conference next month?"
+    };
+
+    private IntentClassifier classifier;
+
+    @Setup
+    public void setUp() {
+        classifier = new IntentClassifier();
+    }
+
+    @Benchmark
+    public void compiledAutomaton(Blackhole blackhole) {
+        for (String message : MESSAGES) {
+            blackhole.consume(classifier.classify(message));
+        }
+    }
+
+    @Benchmark
+    public void regexChain(Blackhole blackhole) {
+        for (String message : MESSAGES) {
+            blackhole.consume(LegacyIntentChain.deliveryReceipt(message));
+            String commandType = LegacyIntentChain.commandType(message);
+            blackhole.consume(commandType);
+            blackhole.consume(LegacyIntentChain.escalate(message, commandType));
+            blackhole.consume(LegacyIntentChain.responseBranch(message.trim()));
+            blackhole.consume(LegacyIntentChain.queueCategory(message));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IntentClassifierBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
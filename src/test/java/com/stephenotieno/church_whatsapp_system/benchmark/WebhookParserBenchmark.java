@@ -0,0 +1,115 @@
+package com.stephenotieno.church_whatsapp_system.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.WebhookPayload;
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.WebhookPayloadParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming {@link WebhookPayloadParser} against the previous
+ * {@code Map<String, Object>} binding and walk, on a three-entry webhook.
+ * Run with {@code -prof gc} to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WebhookParserBenchmark {
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    private ObjectMapper objectMapper;
+    private WebhookPayloadParser parser;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        parser = new WebhookPayloadParser(objectMapper);
+        body = WebhookPayloads.multiEntry().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void streamingParser(Blackhole blackhole) throws IOException {
+        WebhookPayload payload = parser.parse(body);
+        for (WebhookPayload.Change change : payload.changes()) {
+            for (WebhookPayload.InboundMessage message : change.messages()) {
+                blackhole.consume(message.body());
+            }
+            for (WebhookPayload.StatusEvent status : change.statuses()) {
+                blackhole.consume(status.status());
+            }
+        }
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void mapWalk(Blackhole blackhole) throws IOException {
+        Map<String, Object> payload = objectMapper.readValue(body, PAYLOAD_TYPE);
+        if (!"whatsapp_business_account".equals(payload.get("object"))) return;
+
+        List<Map<String, Object>> entries = (List<Map<String, Object>>) payload.get("entry");
+        for (Map<String, Object> entry : entries) {
+            List<Map<String, Object>> changes = (List<Map<String, Object>>) entry.get("changes");
+            if (changes == null) continue;
+
+            for (Map<String, Object> change : changes) {
+                Map<String, Object> value = (Map<String, Object>) change.get("value");
+                if (value == null) continue;
+
+                List<Map<String, Object>> messages = (List<Map<String, Object>>) value.get("messages");
+                if (messages != null) {
+                    for (Map<String, Object> message : messages) {
+                        blackhole.consume(legacyBody(message));
+                    }
+                }
+
+                List<Map<String, Object>> statuses = (List<Map<String, Object>>) value.get("statuses");
+                if (statuses != null) {
+                    for (Map<String, Object> status : statuses) {
+                        blackhole.consume(status.get("status"));
+                    }
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String legacyBody(Map<String, Object> message) {
+        String type = (String) message.get("type");
+        if ("text".equals(type)) {
+            Map<String, Object> text = (Map<String, Object>) message.get("text");
+            return text != null ? (String) text.get("body") : null;
+        }
+        if ("button".equals(type)) {
+            Map<String, Object> button = (Map<String, Object>) message.get("button");
+            return button != null ? (String) button.get("text") : null;
+        }
+        if ("interactive".equals(type)) {
+            Map<String, Object> interactive = (Map<String, Object>) message.get("interactive");
+            if (interactive == null) return null;
+            Map<String, Object> reply = (Map<String, Object>) interactive.get(interactive.get("type"));
+            return reply != null ? (String) reply.get("title") : null;
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WebhookParserBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,106 @@
+package com.stephenotieno.church_whatsapp_system.benchmark;
+
+/**
+ * Realistic Meta webhook bodies for benchmarks and load generation
+ */
+public final class WebhookPayloads {
+
+    public static final String PHONE_NUMBER_ID = "106540352242922";
+
+    private WebhookPayloads() {
+    }
+
+    public static String text(String messageId, String from, String body) {
+        return message(messageId, from, "\"type\":\"text\",\"text\":{\"body\":" + quote(body) + "}");
+    }
+
+    public static String button(String messageId, String from, String text) {
+        return message(messageId, from,
+                "\"type\":\"button\",\"button\":{\"payload\":\"MENU_GIVE\",\"text\":" + quote(text) + "}");
+    }
+
+    public static String listReply(String messageId, String from, String title) {
+        return message(messageId, from,
+                "\"type\":\"interactive\",\"interactive\":{\"type\":\"list_reply\","
+                        + "\"list_reply\":{\"id\":\"row_balance\",\"title\":" + quote(title)
+                        + ",\"description\":\"View your giving history\"}}");
+    }
+
+    public static String image(String messageId, String from) {
+        return message(messageId, from,
+                "\"type\":\"image\",\"image\":{\"caption\":\"Sunday bulletin\",\"mime_type\":\"image/jpeg\","
+                        + "\"sha256\":\"4d1f3a9b2c\",\"id\":\"1234567890\"}");
+    }
+
+    public static String status(String wamid, String recipient, String status) {
+        String errors = "failed".equals(status)
+                ? ",\"errors\":[{\"code\":131047,\"title\":\"Re-engagement message\","
+                        + "\"error_data\":{\"details\":\"More than 24 hours have passed\"}}]"
+                : "";
+        return "{\"id\":\"" + wamid + "\",\"status\":\"" + status + "\",\"timestamp\":\"1717000000\","
+                + "\"recipient_id\":\"" + recipient + "\","
+                + "\"conversation\":{\"id\":\"c0ffee\",\"origin\":{\"type\":\"service\"}},"
+                + "\"pricing\":{\"billable\":true,\"pricing_model\":\"CBP\",\"category\":\"service\"}"
+                + errors + "}";
+    }
+
+    /**
+     * Wrap message and status JSON objects into one entry/change with contacts and metadata
+     */
+    public static String change(String contactName, String waId, String[] messages, String[] statuses) {
+        StringBuilder value = new StringBuilder();
+        value.append("{\"messaging_product\":\"whatsapp\",\"metadata\":{\"display_phone_number\":\"254700000000\",")
+                .append("\"phone_number_id\":\"").append(PHONE_NUMBER_ID).append("\"}");
+        if (messages.length > 0) {
+            value.append(",\"contacts\":[{\"profile\":{\"name\":").append(quote(contactName))
+                    .append("},\"wa_id\":\"").append(waId).append("\"}]");
+            value.append(",\"messages\":[").append(String.join(",", messages)).append("]");
+        }
+        if (statuses.length > 0) {
+            value.append(",\"statuses\":[").append(String.join(",", statuses)).append("]");
+        }
+        value.append("}");
+        return "{\"id\":\"109876543210\",\"changes\":[{\"value\":" + value + ",\"field\":\"messages\"}]}";
+    }
+
+    public static String envelope(String... entries) {
+        return "{\"object\":\"whatsapp_business_account\",\"entry\":[" + String.join(",", entries) + "]}";
+    }
+
+    /**
+     * Three entries mixing text, button, list replies, media and a status burst
+     */
+    public static String multiEntry() {
+        String pastoral = "Pastor, I have been struggling with a difficult situation at home and at work. "
+                + "I feel confused about what to do next and would really appreciate counseling and prayer "
+                + "for my family this week. Thank you for always standing with us.";
+
+        return envelope(
+                change("Jane Wanjiku", "254712345678", new String[]{
+                        text("wamid.HBgM1", "254712345678", "Habari! GIVE 1000"),
+                        button("wamid.HBgM2", "254712345678", "BALANCE"),
+                        text("wamid.HBgM3", "254712345678", pastoral)
+                }, new String[0]),
+                change("Peter Otieno", "254722000111", new String[]{
+                        listReply("wamid.HBgM4", "254722000111", "Check Balance"),
+                        image("wamid.HBgM5", "254722000111"),
+                        text("wamid.HBgM6", "254722000111", "PRAYER for my exams")
+                }, new String[0]),
+                change(null, null, new String[0], new String[]{
+                        status("wamid.OUT1", "254712345678", "sent"),
+                        status("wamid.OUT1", "254712345678", "delivered"),
+                        status("wamid.OUT2", "254722000111", "read"),
+                        status("wamid.OUT3", "254733999888", "failed")
+                }));
+    }
+
+    static String message(String messageId, String from, String typed) {
+        return "{\"context\":{\"from\":\"254700000000\",\"id\":\"wamid.CTX\"},\"from\":\"" + from + "\","
+                + "\"id\":\"" + messageId + "\",\"timestamp\":\"1717000000\"," + typed + "}";
+    }
+
+    static String quote(String value) {
+        if (value == null) return "null";
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,99 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.ChatSessionRepository;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.ChatSessionStore.Menu;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.ChatSessionStore.Session;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.ChatSessionStore.Step;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ChatSessionStoreTest {
+
+    @Mock private ChatSessionRepository chatSessionRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void putReplacesAndClearEnds() {
+        ChatSessionStore store = store(600, 1000, false);
+
+        store.put("254711000000", 1L, Menu.MAIN, null, null);
+        store.put("254711000000", 1L, null, Step.CONFIRM_AMOUNT, "500");
+
+        Session session = store.get("254711000000").orElseThrow();
+        assertThat(session.menu()).isNull();
+        assertThat(session.step()).isEqualTo(Step.CONFIRM_AMOUNT);
+        assertThat(session.pendingAmount()).isEqualTo("500");
+        assertThat(store.size()).isEqualTo(1);
+
+        store.clear("254711000000");
+        assertThat(store.get("254711000000")).isEmpty();
+        verifyNoInteractions(chatSessionRepository);
+    }
+
+    @Test
+    void expiredSessionIsNotReturned() {
+        ChatSessionStore store = store(0, 1000, false);
+
+        store.put("254711000000", 1L, Menu.MAIN, null, null);
+
+        assertThat(store.get("254711000000")).isEmpty();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void sweepDropsExpiredSessions() {
+        ChatSessionStore store = store(0, 1000, false);
+        for (int i = 0; i < 50; i++) {
+            store.put("2547110000" + i, 1L, Menu.MAIN, null, null);
+        }
+
+        store.sweepExpired();
+
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void fullStoreDropsLeastRecentlyUsed() {
+        // 16 segments of one session each
+        ChatSessionStore store = store(600, 16, false);
+        for (int i = 0; i < 200; i++) {
+            store.put("2547110" + i, 1L, Menu.MAIN, null, null);
+        }
+
+        assertThat(store.size()).isLessThanOrEqualTo(16);
+        assertThat(meterRegistry.get("chat.sessions.evictions").counter().count()).isGreaterThanOrEqualTo(184);
+        assertThat(store.get("2547110199")).isPresent();
+    }
+
+    @Test
+    void persistenceWritesEveryChange() {
+        ChatSessionStore store = store(600, 1000, true);
+
+        store.put("254711000000", 1L, Menu.OFFERINGS, null, null);
+        store.clear("254711000000");
+
+        verify(chatSessionRepository).upsert(eq("254711000000"), eq(1L), eq("OFFERINGS"), eq(null), eq(null),
+                any(), any());
+        verify(chatSessionRepository).deleteByPhone("254711000000");
+    }
+
+    private ChatSessionStore store(long ttlSeconds, int maxEntries, boolean persistence) {
+        return new ChatSessionStore(chatSessionRepository, meterRegistry, ttlSeconds, maxEntries, persistence);
+    }
+}
@@ -0,0 +1,102 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.WebhookPayload.InboundMessage;
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.WebhookPayload.Media;
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.WebhookPayload.MessageType;
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Church;
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Message;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.AnnouncementRepository;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.ChurchRepository;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.MemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Media messages are stored with their type and media id and get no reply
+ */
+class ChatbotServiceMediaTest {
+
+    private static final String PHONE_NUMBER_ID = "106540352242922";
+
+    @Mock private MemberRepository memberRepository;
+    @Mock private ChurchRepository churchRepository;
+    @Mock private AnnouncementRepository announcementRepository;
+    @Mock private OutboundDispatcher outboundDispatcher;
+    @Mock private MpesaService mpesaService;
+    @Mock private MessageService messageService;
+    @Mock private CommandService commandService;
+    @Mock private PastorQueueService pastorQueueService;
+    @Mock private ConversationService conversationService;
+    @Mock private InboundMessageDeduplicator inboundMessageDeduplicator;
+    @Mock private IntentRuleService intentRuleService;
+    @Mock private ChurchRoutingTable churchRoutingTable;
+    @Mock private MemberDirectory memberDirectory;
+    @Mock private GivingSummaryService givingSummaryService;
+    @Mock private ResponseTemplateService responseTemplateService;
+    @Mock private MenuService menuService;
+
+    @InjectMocks
+    private ChatbotService chatbotService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(churchRoutingTable.resolve(PHONE_NUMBER_ID)).thenReturn(Optional.of(1L));
+        when(churchRepository.getReferenceById(1L)).thenReturn(Church.builder().id(1L).build());
+    }
+
+    @Test
+    void mediaIsStoredWithoutAReply() {
+        when(messageService.saveInboundIfAbsent(any(), anyString(), anyString(), anyString(), any()))
+                .thenReturn(Optional.of(new Message()));
+
+        chatbotService.processIncomingMedia(PHONE_NUMBER_ID, "whatsapp:254711000000",
+                media("wamid.1", MessageType.AUDIO, ""));
+
+        verify(messageService).saveInboundIfAbsent(any(), eq(""), eq("wamid.1"), eq("AUDIO"), eq("media-1"));
+        verify(messageService, never()).saveOutbound(any(), anyString());
+        verifyNoInteractions(intentRuleService, menuService, outboundDispatcher, pastorQueueService,
+                commandService, responseTemplateService);
+    }
+
+    @Test
+    void captionIsStoredButNotActedOn() {
+        when(messageService.saveInboundIfAbsent(any(), anyString(), anyString(), anyString(), any()))
+                .thenReturn(Optional.of(new Message()));
+
+        chatbotService.processIncomingMedia(PHONE_NUMBER_ID, "whatsapp:254711000000",
+                media("wamid.2", MessageType.IMAGE, "give 100"));
+
+        verify(messageService).saveInboundIfAbsent(any(), eq("give 100"), eq("wamid.2"), eq("IMAGE"), eq("media-1"));
+        verifyNoInteractions(intentRuleService, menuService, outboundDispatcher, mpesaService);
+    }
+
+    @Test
+    void redeliveredMediaIsCountedAsADuplicate() {
+        when(messageService.saveInboundIfAbsent(any(), anyString(), anyString(), anyString(), any()))
+                .thenReturn(Optional.empty());
+
+        chatbotService.processIncomingMedia(PHONE_NUMBER_ID, "whatsapp:254711000000",
+                media("wamid.3", MessageType.DOCUMENT, ""));
+
+        verify(inboundMessageDeduplicator).recordDatabaseDuplicate("wamid.3");
+        verifyNoInteractions(outboundDispatcher);
+    }
+
+    private static InboundMessage media(String id, MessageType type, String caption) {
+        return new InboundMessage(id, "254711000000", 1717000000, type, caption, null,
+                new Media("media-1", "application/octet-stream", caption.isEmpty() ? null : caption, null));
+    }
+}
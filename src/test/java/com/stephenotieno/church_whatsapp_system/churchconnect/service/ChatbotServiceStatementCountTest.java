@@ -0,0 +1,119 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.MemberRequest;
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Church;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.ChurchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * A registered member's command costs a fixed number of SQL statements, however many
+ * services touch it. For an existing conversation:
+ * claim message id, load message, member, conversation, [giving summary for BALANCE],
+ * insert reply, insert outbox row, then one update each for the message and conversation.
+ * The Graph API call happens later on an outbound dispatcher lane and the command log row is
+ * written by the background audit writer, so neither is counted here.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.stephenotieno.church_whatsapp_system.churchconnect.service.StatementCounter",
+        "spring.jpa.show-sql=false",
+        "inbound.journal.enabled=false",
+        "meta.whatsapp.app.secret=test-app-secret"
+})
+@Testcontainers
+class ChatbotServiceStatementCountTest {
+
+    private static final int COMMAND_STATEMENT_BUDGET = 10;
+    private static final AtomicInteger PHONES = new AtomicInteger(700000000);
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @MockitoBean
+    private WhatsAppMetaService whatsAppMetaService;
+
+    @MockitoBean
+    private MpesaService mpesaService;
+
+    @Autowired
+    private ChatbotService chatbotService;
+
+    @Autowired
+    private ChurchRepository churchRepository;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private ChurchRoutingTable churchRoutingTable;
+
+    private String phoneNumber;
+
+    @BeforeEach
+    void setUp() {
+        when(whatsAppMetaService.sendMessageFrom(any(), anyString(), anyString()))
+                .thenAnswer(invocation -> "wamid.out." + UUID.randomUUID());
+
+        Church church = churchRepository.findAll().stream().findFirst()
+                .orElseGet(() -> churchRepository.save(Church.builder()
+                        .name("Test Church")
+                        .location("Nairobi")
+                        .phone("254700000000")
+                        .build()));
+        churchRoutingTable.refresh();
+
+        // Stored as +254..., messages arrive as 254...; the member directory matches them up
+        phoneNumber = "254" + PHONES.incrementAndGet();
+        memberService.addMember(church.getId(), new MemberRequest("+" + phoneNumber, "Jane Wanjiku"));
+
+        // First message opens the conversation
+        send("hello");
+    }
+
+    @Test
+    void balanceCommandStaysWithinStatementBudget() {
+        StatementCounter.reset();
+        send("BALANCE");
+
+        assertThat(StatementCounter.count()).isLessThanOrEqualTo(COMMAND_STATEMENT_BUDGET);
+    }
+
+    @Test
+    void giveCommandStaysWithinStatementBudget() {
+        StatementCounter.reset();
+        send("GIVE 500");
+
+        assertThat(StatementCounter.count()).isLessThanOrEqualTo(COMMAND_STATEMENT_BUDGET);
+    }
+
+    @Test
+    void redeliveredMessageCostsOneStatement() {
+        String messageSid = "wamid.in." + UUID.randomUUID();
+        chatbotService.processIncomingMessage(null, phoneNumber, "BALANCE", messageSid);
+
+        StatementCounter.reset();
+        chatbotService.processIncomingMessage(null, phoneNumber, "BALANCE", messageSid);
+
+        assertThat(StatementCounter.count()).isEqualTo(1);
+    }
+
+    private void send(String body) {
+        chatbotService.processIncomingMessage(null, phoneNumber, body, "wamid.in." + UUID.randomUUID());
+    }
+}
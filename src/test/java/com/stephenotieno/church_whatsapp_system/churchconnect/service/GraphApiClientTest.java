@@ -0,0 +1,355 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.ExecutionMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Every way {@link GraphApiClient#postMessagesAsync} can finish gives back its request slot,
+ * its in-flight count and, when Meta was never reached, its circuit breaker call.
+ * The client allows one request at a time, so a leaked slot shows up as the next send
+ * failing with SATURATED.
+ */
+class GraphApiClientTest {
+
+    private static final byte[] OK_BODY = "{\"messages\":[{\"id\":\"wamid.1\"}]}".getBytes(StandardCharsets.UTF_8);
+    private static final long REQUEST_TIMEOUT_MS = 200;
+    private static final long OPEN_MS = 50;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FakeHttpClient http = new FakeHttpClient();
+    private GraphApiClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    void successReleasesSlot() throws Exception {
+        client = client(rateLimiter(false), 10);
+        http.respond(200, OK_BODY);
+
+        assertThat(client.postMessagesAsync("123", new byte[0]).get(2, TimeUnit.SECONDS)).isEqualTo(OK_BODY);
+        assertSlotFree();
+    }
+
+    @Test
+    void errorResponseReleasesSlot() throws Exception {
+        client = client(rateLimiter(false), 10);
+        http.respond(400, "{\"error\":{\"code\":100}}".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(failureOf(client.postMessagesAsync("123", new byte[0])).getStatusCode()).isEqualTo(400);
+        assertSlotFree();
+    }
+
+    @Test
+    void ioFailureReleasesSlot() throws Exception {
+        client = client(rateLimiter(false), 10);
+        http.handler = request -> CompletableFuture.failedFuture(new IOException("connection reset"));
+
+        assertThat(failureOf(client.postMessagesAsync("123", new byte[0])).getFailure())
+                .isEqualTo(GraphApiException.Failure.TRANSPORT);
+        assertSlotFree();
+    }
+
+    @Test
+    void timeoutReleasesSlot() throws Exception {
+        client = client(rateLimiter(false), 10);
+        http.handler = request -> CompletableFuture.failedFuture(new HttpTimeoutException("timed out"));
+
+        assertThat(failureOf(client.postMessagesAsync("123", new byte[0])).getFailure())
+                .isEqualTo(GraphApiException.Failure.TIMEOUT);
+        assertSlotFree();
+    }
+
+    @Test
+    void nonIoFailureReleasesSlot() throws Exception {
+        client = client(rateLimiter(false), 10);
+        http.handler = request -> CompletableFuture.failedFuture(new IllegalStateException("boom"));
+
+        assertThat(failureOf(client.postMessagesAsync("123", new byte[0])).getFailure())
+                .isEqualTo(GraphApiException.Failure.TRANSPORT);
+        assertSlotFree();
+    }
+
+    @Test
+    void synchronousThrowFromHttpClientReleasesSlot() throws Exception {
+        client = client(rateLimiter(false), 10);
+        http.handler = request -> {
+            throw new IllegalStateException("client closed");
+        };
+
+        assertThat(failureOf(client.postMessagesAsync("123", new byte[0])).getFailure())
+                .isEqualTo(GraphApiException.Failure.TRANSPORT);
+        assertSlotFree();
+    }
+
+    @Test
+    void saturatedSendTakesNoSlotAndHeldSlotIsReturnedLater() throws Exception {
+        client = client(rateLimiter(false), 10);
+        CompletableFuture<HttpResponse<byte[]>> slow = new CompletableFuture<>();
+        http.handler = request -> slow;
+
+        CompletableFuture<byte[]> first = client.postMessagesAsync("123", new byte[0]);
+        assertThat(failureOf(client.postMessagesAsync("123", new byte[0])).getFailure())
+                .isEqualTo(GraphApiException.Failure.SATURATED);
+        assertThat(inFlight()).isEqualTo(1);
+
+        slow.complete(new FakeResponse(200, OK_BODY));
+        first.get(2, TimeUnit.SECONDS);
+        assertSlotFree();
+    }
+
+    @Test
+    void synchronousThrowGivesBackHalfOpenProbe() throws Exception {
+        client = client(rateLimiter(false), 1);
+        openThenWait();
+
+        http.handler = request -> {
+            throw new IllegalStateException("client closed");
+        };
+        failureOf(client.postMessagesAsync("123", new byte[0]));
+
+        // The only probe was given back, so the next send may still go out and close the circuit
+        http.respond(200, OK_BODY);
+        assertThat(client.postMessagesAsync("123", new byte[0]).get(2, TimeUnit.SECONDS)).isEqualTo(OK_BODY);
+    }
+
+    @Test
+    void saturatedSendGivesBackHalfOpenProbe() throws Exception {
+        client = client(rateLimiter(false), 1, 2);
+        openThenWait();
+
+        // The first probe holds the only request slot, so the second times out waiting for it
+        CompletableFuture<HttpResponse<byte[]>> slow = new CompletableFuture<>();
+        http.handler = request -> slow;
+        CompletableFuture<byte[]> probe = client.postMessagesAsync("123", new byte[0]);
+        assertThat(failureOf(client.postMessagesAsync("123", new byte[0])).getFailure())
+                .isEqualTo(GraphApiException.Failure.SATURATED);
+
+        slow.complete(new FakeResponse(200, OK_BODY));
+        probe.get(2, TimeUnit.SECONDS);
+
+        // Had the saturated send kept its probe, both would be used up and this would be refused
+        http.respond(200, OK_BODY);
+        assertThat(client.postMessagesAsync("123", new byte[0]).get(2, TimeUnit.SECONDS)).isEqualTo(OK_BODY);
+    }
+
+    @Test
+    void rateLimitRejectionGivesBackHalfOpenProbe() throws Exception {
+        client = client(rateLimiter(true), 1);
+        http.respond(500, new byte[0]);
+        // Uses the number's only token and opens the circuit
+        failureOf(client.postMessagesAsync("123", new byte[0]));
+        TimeUnit.MILLISECONDS.sleep(OPEN_MS + 20);
+
+        assertThat(failureOf(client.postMessagesAsync("123", new byte[0])).getFailure())
+                .isEqualTo(GraphApiException.Failure.RATE_LIMITED);
+
+        // Another number has its own bucket; the probe given back lets it through
+        http.respond(200, OK_BODY);
+        assertThat(client.postMessagesAsync("456", new byte[0]).get(2, TimeUnit.SECONDS)).isEqualTo(OK_BODY);
+    }
+
+    @Test
+    void openCircuitRefusesWithoutTakingSlot() throws Exception {
+        client = client(rateLimiter(false), 1);
+        http.respond(500, new byte[0]);
+        failureOf(client.postMessagesAsync("123", new byte[0]));
+
+        assertThat(failureOf(client.postMessagesAsync("123", new byte[0])).getFailure())
+                .isEqualTo(GraphApiException.Failure.CIRCUIT_OPEN);
+        assertThat(inFlight()).isZero();
+    }
+
+    // === HELPERS ===
+
+    /**
+     * @param circuitWindow 1 opens the circuit on the first failure
+     */
+    private GraphApiClient client(OutboundRateLimiter rateLimiter, int circuitWindow) {
+        return client(rateLimiter, circuitWindow, 1);
+    }
+
+    private GraphApiClient client(OutboundRateLimiter rateLimiter, int circuitWindow, int halfOpenProbes) {
+        return new GraphApiClient(rateLimiter, new PipelineMetrics(meterRegistry), meterRegistry,
+                new ExecutionMode(false), "http://graph.test", "v21.0", "123", "token",
+                HttpClient.Version.HTTP_1_1, REQUEST_TIMEOUT_MS, 1,
+                circuitWindow, circuitWindow, 100, OPEN_MS, halfOpenProbes, executor -> http);
+    }
+
+    private OutboundRateLimiter rateLimiter(boolean enabled) {
+        // One token per number and no waiting: the second send on a number is rejected
+        return new OutboundRateLimiter(meterRegistry, enabled, 0.001, 1, 0, 1);
+    }
+
+    private void openThenWait() throws Exception {
+        http.respond(500, new byte[0]);
+        failureOf(client.postMessagesAsync("123", new byte[0]));
+        TimeUnit.MILLISECONDS.sleep(OPEN_MS + 20);
+    }
+
+    /**
+     * The in-flight count is back to zero and the one request slot can be taken again
+     */
+    private void assertSlotFree() throws Exception {
+        assertThat(inFlight()).isZero();
+        http.respond(200, OK_BODY);
+        assertThat(client.postMessagesAsync("123", new byte[0]).get(2, TimeUnit.SECONDS)).isEqualTo(OK_BODY);
+        assertThat(inFlight()).isZero();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("graph.api.in_flight").gauge().value();
+    }
+
+    private static GraphApiException failureOf(CompletableFuture<byte[]> future) throws Exception {
+        try {
+            future.get(2, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(GraphApiException.class);
+            return (GraphApiException) e.getCause();
+        }
+        return fail("Expected the send to fail");
+    }
+
+    private static final class FakeHttpClient extends HttpClient {
+
+        private volatile Function<HttpRequest, CompletableFuture<HttpResponse<byte[]>>> handler;
+
+        void respond(int status, byte[] body) {
+            handler = request -> CompletableFuture.completedFuture(new FakeResponse(status, body));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                                HttpResponse.BodyHandler<T> bodyHandler) {
+            return (CompletableFuture<HttpResponse<T>>) (CompletableFuture<?>) handler.apply(request);
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                                HttpResponse.BodyHandler<T> bodyHandler,
+                                                                HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+            return sendAsync(request, bodyHandler);
+        }
+
+        @Override
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+                throws IOException, InterruptedException {
+            try {
+                return sendAsync(request, bodyHandler).get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            }
+        }
+
+        @Override
+        public Optional<CookieHandler> cookieHandler() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Duration> connectTimeout() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Redirect followRedirects() {
+            return Redirect.NEVER;
+        }
+
+        @Override
+        public Optional<ProxySelector> proxy() {
+            return Optional.empty();
+        }
+
+        @Override
+        public SSLContext sslContext() {
+            return null;
+        }
+
+        @Override
+        public SSLParameters sslParameters() {
+            return null;
+        }
+
+        @Override
+        public Optional<Authenticator> authenticator() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Version version() {
+            return Version.HTTP_1_1;
+        }
+
+        @Override
+        public Optional<Executor> executor() {
+            return Optional.empty();
+        }
+    }
+
+    private record FakeResponse(int statusCode, byte[] body) implements HttpResponse<byte[]> {
+
+        @Override
+        public HttpRequest request() {
+            return HttpRequest.newBuilder(uri()).build();
+        }
+
+        @Override
+        public Optional<HttpResponse<byte[]>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(Map.of(), (name, value) -> true);
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return URI.create("http://graph.test/v21.0/123/messages");
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InboundMessageDeduplicatorTest {
+
+    private final InboundMessageDeduplicator deduplicator =
+            new InboundMessageDeduplicator(new SimpleMeterRegistry(), 30, 3);
+
+    @Test
+    void dropsRedeliveryInsideWindow() {
+        assertThat(deduplicator.firstSighting("wamid.1")).isTrue();
+        assertThat(deduplicator.firstSighting("wamid.1")).isFalse();
+    }
+
+    @Test
+    void evictsOldestAtCapacityEvenWhenNothingHasExpired() {
+        deduplicator.firstSighting("wamid.1");
+        deduplicator.firstSighting("wamid.2");
+        deduplicator.firstSighting("wamid.3");
+        deduplicator.firstSighting("wamid.4");
+
+        assertThat(deduplicator.size()).isEqualTo(3);
+        assertThat(deduplicator.firstSighting("wamid.2")).isFalse();
+        assertThat(deduplicator.firstSighting("wamid.1")).isTrue();
+    }
+
+    @Test
+    void forgottenIdIsLetThroughAgain() {
+        deduplicator.firstSighting("wamid.1");
+        deduplicator.forget("wamid.1");
+
+        assertThat(deduplicator.firstSighting("wamid.1")).isTrue();
+    }
+
+    @Test
+    void expiredIdsAreTrimmed() {
+        InboundMessageDeduplicator noWindow = new InboundMessageDeduplicator(new SimpleMeterRegistry(), 0, 10);
+        noWindow.firstSighting("wamid.1");
+        noWindow.firstSighting("wamid.2");
+
+        noWindow.sweep();
+        assertThat(noWindow.size()).isZero();
+        assertThat(noWindow.firstSighting("wamid.1")).isTrue();
+    }
+}
@@ -0,0 +1,58 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.InboundWebhookEvent;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.InboundWebhookEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+/**
+ * Attempts are enforced when claiming and when releasing stale claims
+ */
+class InboundQueueServiceTest {
+
+    @Mock private InboundWebhookEventRepository inboundWebhookEventRepository;
+
+    @InjectMocks
+    private InboundQueueService inboundQueueService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void claimOnlyAsksForEventsWithAttemptsLeft() {
+        InboundWebhookEvent event = InboundWebhookEvent.builder().id(1L).status("PENDING").attempts(4).build();
+        when(inboundWebhookEventRepository.lockPendingBatch(eq(10), any(), eq(5))).thenReturn(List.of(event));
+
+        assertThat(inboundQueueService.claimBatch(10, 5)).containsExactly(event);
+        assertThat(event.getStatus()).isEqualTo("PROCESSING");
+        assertThat(event.getAttempts()).isEqualTo(5);
+    }
+
+    @Test
+    void staleClaimsOnTheirLastAttemptFailInsteadOfReturning() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(5);
+        when(inboundWebhookEventRepository.failStaleClaims(eq(cutoff), eq(5), any(), anyString())).thenReturn(2);
+        when(inboundWebhookEventRepository.releaseStaleClaims(cutoff, 5)).thenReturn(3);
+
+        assertThat(inboundQueueService.releaseStaleClaims(cutoff, 5)).isEqualTo(3);
+
+        InOrder order = inOrder(inboundWebhookEventRepository);
+        order.verify(inboundWebhookEventRepository).failStaleClaims(eq(cutoff), eq(5), any(), anyString());
+        order.verify(inboundWebhookEventRepository).releaseStaleClaims(cutoff, 5);
+    }
+}
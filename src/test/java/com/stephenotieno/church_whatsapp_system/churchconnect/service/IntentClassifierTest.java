@@ -0,0 +1,127 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.IntentClassifier.Classification;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.IntentClassifier.Intent;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntentClassifierTest {
+
+    private static final int MESSAGES = 100_000;
+
+    // Lookalikes that lowercase to ASCII (Kelvin sign), to two chars (dotted I) or stay non-ASCII (long s)
+    private static final String ODD_CHARS = "\u212A\u0130\u017F\u00E9\u00C9\u03A3";
+    private static final String FILLER = "abcdefghijklmnopqrstuvwxyz0123456789 ,.!?'-";
+
+    private final IntentClassifier classifier = new IntentClassifier();
+
+    @Test
+    void matchesTheLegacyChainOnRandomSingleLineMessages() {
+        Random random = new Random(2024);
+        List<String> words = new ArrayList<>(List.of("delivered", "read", "register", "give", "yes", "yeah",
+                "yep", "ok", "okay", "ndio", "sawa"));
+        IntentClassifier.defaultKeywords().values().forEach(words::addAll);
+
+        for (int i = 0; i < MESSAGES; i++) {
+            String message = randomMessage(random, words);
+            assertMatchesLegacy(message);
+        }
+    }
+
+    @Test
+    void matchesTheLegacyChainOnKnownMessages() {
+        for (String message : List.of("Hello", "GIVE 1000", "give\t250 please", "  register John Doe  ",
+                "balance", "PRAYER for my exams", "asante sana", "ok", " Okay ", "o\u212Aay", "yeſ",
+                "g\u0130ve 100", "REG\u0130STER Jane", "\u0130nfo", "already read it", "",
+                "When is the youth conference next month?", "x".repeat(201))) {
+            assertMatchesLegacy(message);
+        }
+    }
+
+    @Test
+    void findsKeywordsOnAnyLine() {
+        // The legacy ".*(...).*" patterns never matched across a newline
+        Classification classification = classifier.classify("Dear pastor,\nwhat is my balance?");
+
+        assertThat(classification.intent()).isEqualTo(Intent.BALANCE);
+        assertThat(classification.commandType()).isEqualTo("BALANCE");
+        assertThat(LegacyIntentChain.commandType("Dear pastor,\nwhat is my balance?")).isNull();
+    }
+
+    private void assertMatchesLegacy(String message) {
+        Classification classification = classifier.classify(message);
+        String legacyCommandType = LegacyIntentChain.commandType(message);
+
+        String intent = classification.intent() == Intent.GIVE_AMOUNT
+                ? "GIVE_AMOUNT:" + classification.giveAmount()
+                : classification.intent().name();
+        assertThat(intent).as("intent of %s", quoted(message))
+                .isEqualTo(LegacyIntentChain.responseBranch(message.trim()));
+        assertThat(classification.commandType()).as("command type of %s", quoted(message))
+                .isEqualTo(legacyCommandType);
+        assertThat(classification.escalateToPastor()).as("escalation of %s", quoted(message))
+                .isEqualTo(LegacyIntentChain.escalate(message, legacyCommandType));
+        assertThat(classification.deliveryReceipt()).as("delivery receipt of %s", quoted(message))
+                .isEqualTo(LegacyIntentChain.deliveryReceipt(message));
+        assertThat(classification.queueCategory() + "/" + classification.queuePriority())
+                .as("queue category of %s", quoted(message))
+                .isEqualTo(LegacyIntentChain.queueCategory(message));
+    }
+
+    /**
+     * Keywords in random case, partial keywords, digits after "give", filler and odd characters,
+     * from a few characters up to past the escalation length. Never a line terminator.
+     */
+    private static String randomMessage(Random random, List<String> words) {
+        StringBuilder message = new StringBuilder();
+        if (random.nextInt(8) == 0) message.append(random.nextBoolean() ? "  " : "\t");
+
+        int parts = 1 + random.nextInt(random.nextInt(10) == 0 ? 60 : 6);
+        for (int p = 0; p < parts; p++) {
+            switch (random.nextInt(6)) {
+                case 0, 1 -> {
+                    String word = words.get(random.nextInt(words.size()));
+                    if (random.nextInt(4) == 0) word = word.substring(0, 1 + random.nextInt(word.length()));
+                    message.append(randomCase(random, word));
+                }
+                case 2 -> message.append(randomCase(random, "give"))
+                        .append(" \t\u000B\f".charAt(random.nextInt(4)))
+                        .append(random.nextInt(100_000));
+                case 3 -> message.append(ODD_CHARS.charAt(random.nextInt(ODD_CHARS.length())));
+                default -> {
+                    int length = 1 + random.nextInt(12);
+                    for (int i = 0; i < length; i++) {
+                        message.append(FILLER.charAt(random.nextInt(FILLER.length())));
+                    }
+                }
+            }
+            if (random.nextBoolean()) message.append(' ');
+        }
+        if (random.nextInt(8) == 0) message.append(" \t");
+        return message.toString();
+    }
+
+    private static String randomCase(Random random, String word) {
+        StringBuilder result = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (random.nextInt(5) == 0) {
+                c = Character.toUpperCase(c);
+                // Occasionally the lookalike a naive case-insensitive compare would accept
+                if (c == 'I' && random.nextInt(4) == 0) c = '\u0130';
+                if (c == 'S' && random.nextInt(4) == 0) c = '\u017F';
+                if (c == 'K' && random.nextInt(4) == 0) c = '\u212A';
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+
+    private static String quoted(String message) {
+        return "\"" + message.replace("\t", "\\t").replace("\u000B", "\\v").replace("\f", "\\f") + "\"";
+    }
+}
@@ -0,0 +1,80 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.IntentRuleRequest;
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.IntentRule;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.IntentRuleRepository;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.IntentClassifier.Intent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reloads and recompiles swap in the newest rules whatever order they finish in
+ */
+class IntentRuleServiceTest {
+
+    @Mock private IntentRuleRepository intentRuleRepository;
+
+    private IntentRuleService intentRuleService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        intentRuleService = new IntentRuleService(intentRuleRepository, new IntentClassifier());
+        when(intentRuleRepository.save(any())).thenAnswer(call -> call.getArgument(0));
+    }
+
+    @Test
+    void ruleAddedDuringAReloadSurvivesIt() {
+        IntentRule shalom = rule(1L, "GREETING", "shalom");
+        when(intentRuleRepository.findByChurchIdOrderByTriggerAscKeywordAsc(1L)).thenReturn(List.of(shalom));
+
+        // The reload reads before the rule is added and swaps after its recompile
+        when(intentRuleRepository.findAll()).thenAnswer(call -> {
+            intentRuleService.addRule(1L, new IntentRuleRequest("GREETING", "shalom", false));
+            return List.of();
+        });
+        intentRuleService.reloadAll();
+
+        assertThat(intentRuleService.classify(1L, "shalom").intent()).isEqualTo(Intent.GREETING);
+    }
+
+    @Test
+    void reloadReplacesOlderRecompiles() {
+        when(intentRuleRepository.findByChurchIdOrderByTriggerAscKeywordAsc(1L))
+                .thenReturn(List.of(rule(1L, "GREETING", "shalom")));
+        intentRuleService.addRule(1L, new IntentRuleRequest("GREETING", "shalom", false));
+        assertThat(intentRuleService.classify(1L, "shalom").intent()).isEqualTo(Intent.GREETING);
+
+        // The rule was deleted on another node
+        when(intentRuleRepository.findAll()).thenReturn(List.of());
+        intentRuleService.reloadAll();
+
+        assertThat(intentRuleService.classify(1L, "shalom").intent()).isNotEqualTo(Intent.GREETING);
+    }
+
+    @Test
+    void recompileWithNoRulesFallsBackToDefaults() {
+        when(intentRuleRepository.findAll()).thenReturn(List.of(rule(1L, "GREETING", "shalom")));
+        intentRuleService.reloadAll();
+        IntentRule stored = rule(1L, "GREETING", "shalom");
+        stored.setId(9L);
+        when(intentRuleRepository.findById(9L)).thenReturn(Optional.of(stored));
+        when(intentRuleRepository.findByChurchIdOrderByTriggerAscKeywordAsc(1L)).thenReturn(List.of());
+
+        intentRuleService.deleteRule(1L, 9L);
+
+        assertThat(intentRuleService.rulesFor(1L)).isSameAs(intentRuleService.rulesFor(null));
+    }
+
+    private static IntentRule rule(Long churchId, String trigger, String keyword) {
+        return IntentRule.builder().churchId(churchId).trigger(trigger).keyword(keyword).excluded(false).build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The keyword matching ChatbotService did before {@link IntentClassifier}, kept verbatim apart
+ * from returning the chosen branch. The reference for IntentClassifierTest and the benchmark.
+ */
+public final class LegacyIntentChain {
+
+    private LegacyIntentChain() {
+    }
+
+    public static boolean deliveryReceipt(String messageBody) {
+        return messageBody.toLowerCase().contains("delivered") ||
+                messageBody.toLowerCase().contains("read");
+    }
+
+    public static String commandType(String message) {
+        String lower = message.toLowerCase().trim();
+
+        if (lower.startsWith("register")) return "REGISTER";
+        if (lower.startsWith("give") || lower.matches("give\\s+\\d+")) return "GIVE";
+        if (lower.matches(".*(balance|offerings|my offerings|check balance|total).*")) return "BALANCE";
+        if (lower.matches(".*(prayer|pray|intercession|request prayer|ombi).*")) return "PRAYER";
+        if (lower.matches(".*(info|information|details|my details).*")) return "INFO";
+        if (lower.matches(".*(help|menu|commands|msaada).*")) return "HELP";
+
+        return null;
+    }
+
+    public static boolean escalate(String message, String commandType) {
+        if ("PRAYER".equals(commandType)) return true;
+        if (message.length() > 200) return true;
+
+        String lower = message.toLowerCase();
+        return lower.contains("counseling") || lower.contains("counsel") ||
+                lower.contains("problem") || lower.contains("issue") ||
+                lower.contains("help me") || lower.contains("confused") ||
+                lower.contains("difficult") || lower.contains("struggling");
+    }
+
+    public static String queueCategory(String messageBody) {
+        String category = "OTHER";
+        String priority = "MEDIUM";
+
+        String lower = messageBody.toLowerCase();
+        if (lower.contains("prayer") || lower.contains("pray")) {
+            category = "PRAYER";
+        } else if (lower.contains("counsel") || lower.contains("advice")) {
+            category = "COUNSELING";
+        } else if (lower.contains("urgent") || lower.contains("emergency")) {
+            category = "INQUIRY";
+            priority = "HIGH";
+        } else if (lower.contains("complaint") || lower.contains("issue")) {
+            category = "COMPLAINT";
+            priority = "HIGH";
+        }
+        return category + "/" + priority;
+    }
+
+    public static String responseBranch(String message) {
+        String lowerMessage = message.toLowerCase();
+
+        if (lowerMessage.matches(".*(hello|hi|hey|good morning|good afternoon|good evening|habari|mambo).*")) return "GREETING";
+        if (lowerMessage.startsWith("register")) return "ALREADY_REGISTERED";
+        if (lowerMessage.matches(".*(balance|offerings|my offerings|check balance|total).*")) return "BALANCE";
+
+        Pattern givePattern = Pattern.compile("give\\s+(\\d+)", Pattern.CASE_INSENSITIVE);
+        Matcher giveMatcher = givePattern.matcher(message);
+        if (giveMatcher.find()) return "GIVE_AMOUNT:" + giveMatcher.group(1);
+
+        if (lowerMessage.matches(".*(give|offering|donate|tithe|sadaka|mchango).*")) return "GIVE";
+        if (lowerMessage.matches(".*(prayer|pray|intercession|request prayer|ombi).*")) return "PRAYER";
+        if (lowerMessage.matches(".*(info|information|details|my details|location|address).*")) return "INFO";
+        if (lowerMessage.matches(".*(membership|member|status).*")) return "MEMBERSHIP";
+        if (lowerMessage.matches(".*(help|menu|commands|msaada).*")) return "HELP";
+        if (lowerMessage.matches(".*(confirm|received|got it|nimepokea).*")) return "CONFIRM";
+        if (lowerMessage.matches(".*(thank|thanks|asante|appreciate).*")) return "THANKS";
+        if (lowerMessage.matches(".*(amen|hallelujah|praise|glory|amina).*")) return "AMEN";
+        if (lowerMessage.matches("^(yes|yeah|yep|ok|okay|ndio|sawa)$")) return "YES";
+        if (lowerMessage.matches(".*(cancel|stop|unsubscribe|acha).*")) return "CANCEL";
+        if (message.length() > 50) return "LONG_MESSAGE";
+        return "UNKNOWN";
+    }
+}
@@ -0,0 +1,66 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Church;
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Member;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.MemberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Church-scoped lookups, from the loaded directory and from the database fallback
+ */
+class MemberDirectoryTest {
+
+    @Mock private MemberRepository memberRepository;
+
+    private MemberDirectory memberDirectory;
+    private final Member member = Member.builder()
+            .id(7L)
+            .church(Church.builder().id(1L).build())
+            .phoneNumber("254711000000")
+            .status("ACTIVE")
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        memberDirectory = new MemberDirectory(memberRepository, new SimpleMeterRegistry(), true);
+        when(memberRepository.getReferenceById(7L)).thenReturn(member);
+    }
+
+    @Test
+    void loadedDirectoryOnlyMatchesTheMembersChurch() {
+        when(memberRepository.findDirectoryEntries(anyLong(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{7L, 1L, "254711000000", "ACTIVE"}));
+        memberDirectory.reload();
+
+        assertThat(memberDirectory.findByPhoneNumber("254711000000", 1L)).contains(member);
+        assertThat(memberDirectory.findByPhoneNumber("+254711000000", 1L)).contains(member);
+        assertThat(memberDirectory.findByPhoneNumber("254711000000", 2L)).isEmpty();
+        assertThat(memberDirectory.findByPhoneNumber("254722000000", 1L)).isEmpty();
+    }
+
+    @Test
+    void databaseFallbackOnlyMatchesTheMembersChurch() {
+        when(memberRepository.findByPhoneNumberIn(any())).thenReturn(List.of(member));
+
+        assertThat(memberDirectory.findByPhoneNumber("254711000000", 1L)).contains(member);
+        assertThat(memberDirectory.findByPhoneNumber("254711000000", 2L)).isEmpty();
+    }
+
+    @Test
+    void digitsMatchTheInboundSessionKey() {
+        assertThat(MemberDirectory.digitsOf("+254 711-000000")).isEqualTo("254711000000");
+        assertThat(MemberDirectory.digitsOf("whatsapp:254711000000")).isEqualTo("254711000000");
+        assertThat(MemberDirectory.digitsOf("not a number")).isEqualTo("not a number");
+    }
+}
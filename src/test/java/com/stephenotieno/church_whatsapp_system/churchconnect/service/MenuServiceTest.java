@@ -0,0 +1,186 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Church;
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Member;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.ChatSessionRepository;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.ChurchRepository;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.ChatSessionStore.Menu;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.ChatSessionStore.Session;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.ChatSessionStore.Step;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.MemberDirectory.Entry;
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.MenuService.MenuTurn;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Menu turns against a real in-memory session store
+ */
+class MenuServiceTest {
+
+    private static final String PHONE = "254711000000";
+    private static final String CHURCH_LINE = "106540352242922";
+
+    @Mock private WhatsAppMetaService whatsAppService;
+    @Mock private ResponseTemplateService responseTemplateService;
+    @Mock private MemberDirectory memberDirectory;
+    @Mock private ChurchRepository churchRepository;
+    @Mock private ChatSessionRepository chatSessionRepository;
+
+    private ChatSessionStore chatSessionStore;
+    private MenuService menuService;
+    private final Member member = Member.builder().id(5L).fullName("Jane").build();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        chatSessionStore = new ChatSessionStore(chatSessionRepository, new SimpleMeterRegistry(), 600, 1000, false);
+        menuService = new MenuService(whatsAppService, responseTemplateService, chatSessionStore,
+                memberDirectory, churchRepository);
+
+        when(responseTemplateService.render(any(), any(TemplateKey.class), any(Member.class)))
+                .thenAnswer(call -> call.getArgument(1).toString());
+        when(responseTemplateService.render(any(), any(TemplateKey.class), (Member) eq(null)))
+                .thenAnswer(call -> call.getArgument(1).toString());
+        when(responseTemplateService.render(any(), any(TemplateKey.class), anyString()))
+                .thenAnswer(call -> call.getArgument(1).toString());
+        when(memberDirectory.lookup("+" + PHONE)).thenReturn(Optional.of(new Entry(5L, 1L, true)));
+        when(churchRepository.findById(1L))
+                .thenReturn(Optional.of(Church.builder().id(1L).whatsappPhoneNumberId(CHURCH_LINE).build()));
+    }
+
+    @Test
+    void pushedMenusOpenASessionForTheMembersChurch() {
+        menuService.sendMainMenu("+" + PHONE, "Jane");
+        assertThat(chatSessionStore.get(PHONE)).map(Session::menu).contains(Menu.MAIN);
+        assertThat(chatSessionStore.get(PHONE)).map(Session::churchId).contains(1L);
+        verify(responseTemplateService).render(1L, TemplateKey.MAIN_MENU, "Jane");
+        verify(whatsAppService).sendMessageFrom(CHURCH_LINE, "+" + PHONE, "MAIN_MENU");
+
+        menuService.sendOfferingsMenu("+" + PHONE);
+        assertThat(chatSessionStore.get(PHONE)).map(Session::menu).contains(Menu.OFFERINGS);
+
+        menuService.sendInfoMenu("+" + PHONE);
+        assertThat(chatSessionStore.get(PHONE)).map(Session::menu).contains(Menu.INFO);
+    }
+
+    @Test
+    void pushedMenuReplyIsReadAgainstTheSession() {
+        menuService.sendOfferingsMenu("+" + PHONE);
+
+        MenuTurn turn = menuService.handleMenuSelection(1L, member, PHONE, "3", false).orElseThrow();
+
+        assertThat(turn.command()).isEqualTo("give");
+        assertThat(chatSessionStore.get(PHONE)).isEmpty();
+    }
+
+    @Test
+    void failedSendDropsTheSession() {
+        when(whatsAppService.sendMessageFrom(any(), anyString(), anyString()))
+                .thenThrow(new RuntimeException("Failed to send WhatsApp message"));
+
+        assertThatThrownBy(() -> menuService.sendInfoMenu("+" + PHONE)).isInstanceOf(RuntimeException.class);
+        assertThat(chatSessionStore.get(PHONE)).isEmpty();
+    }
+
+    @Test
+    void nonMemberGetsTheMenuWithoutASession() {
+        when(memberDirectory.lookup("+254722000000")).thenReturn(Optional.empty());
+
+        menuService.sendMainMenu("+254722000000", "Friend");
+
+        verify(whatsAppService).sendMessage("+254722000000", "MAIN_MENU");
+        assertThat(chatSessionStore.size()).isZero();
+    }
+
+    @Test
+    void mainMenuOptionFourOpensTheInfoMenu() {
+        menuService.handleMenuSelection(1L, member, PHONE, "menu", false);
+
+        MenuTurn turn = menuService.handleMenuSelection(1L, member, PHONE, "4", false).orElseThrow();
+
+        assertThat(turn.reply()).isEqualTo("INFO_MENU");
+        assertThat(chatSessionStore.get(PHONE)).map(Session::menu).contains(Menu.INFO);
+    }
+
+    @Test
+    void infoOptionsGiveChurchInfoAndServiceTimes() {
+        assertThat(infoSelection("1").command()).isEqualTo("info");
+        assertThat(infoSelection("2").reply()).isEqualTo("CHURCH_INFO");
+        assertThat(infoSelection("location").reply()).isEqualTo("CHURCH_INFO");
+        assertThat(infoSelection("3").reply()).isEqualTo("SERVICE_TIMES");
+        assertThat(infoSelection("times").reply()).isEqualTo("SERVICE_TIMES");
+        assertThat(infoSelection("4").command()).isEqualTo("help");
+
+        verify(responseTemplateService, times(2)).render(1L, TemplateKey.CHURCH_INFO, (Member) null);
+        assertThat(chatSessionStore.get(PHONE)).isEmpty();
+    }
+
+    @Test
+    void quickGiveWalksThroughAmountAndConfirmation() {
+        chatSessionStore.put(PHONE, 1L, Menu.OFFERINGS, null, null);
+
+        assertThat(turn("1").reply()).contains("Quick Give");
+        assertThat(chatSessionStore.get(PHONE)).map(Session::step).contains(Step.AWAITING_AMOUNT);
+
+        assertThat(turn("1,500").reply()).contains("KES 1500");
+        assertThat(chatSessionStore.get(PHONE)).map(Session::pendingAmount).contains("1500");
+
+        MenuTurn confirmed = menuService.handleMenuSelection(1L, member, PHONE, "yes", true).orElseThrow();
+        assertThat(confirmed.command()).isEqualTo("give 1500");
+        assertThat(chatSessionStore.get(PHONE)).isEmpty();
+    }
+
+    @Test
+    void decliningTheAmountCancels() {
+        chatSessionStore.put(PHONE, 1L, null, Step.CONFIRM_AMOUNT, "200");
+
+        assertThat(turn("no").reply()).contains("cancelled");
+        assertThat(chatSessionStore.get(PHONE)).isEmpty();
+    }
+
+    @Test
+    void prayerStepForwardsTheText() {
+        chatSessionStore.put(PHONE, 1L, Menu.MAIN, null, null);
+
+        turn("3");
+        assertThat(turn("Please pray for my family").command()).isEqualTo("prayer Please pray for my family");
+    }
+
+    @Test
+    void anythingElseLeavesTheMenu() {
+        chatSessionStore.put(PHONE, 1L, Menu.MAIN, null, null);
+
+        assertThat(menuService.handleMenuSelection(1L, member, PHONE, "balance please", false)).isEmpty();
+        assertThat(chatSessionStore.get(PHONE)).isEmpty();
+    }
+
+    @Test
+    void sessionFromAnotherChurchIsIgnored() {
+        chatSessionStore.put(PHONE, 2L, Menu.OFFERINGS, null, null);
+
+        assertThat(menuService.handleMenuSelection(1L, member, PHONE, "1", false)).isEmpty();
+        assertThat(chatSessionStore.get(PHONE)).map(Session::churchId).contains(2L);
+    }
+
+    private MenuTurn infoSelection(String selection) {
+        chatSessionStore.put(PHONE, 1L, Menu.INFO, null, null);
+        return turn(selection);
+    }
+
+    private MenuTurn turn(String input) {
+        return menuService.handleMenuSelection(1L, member, PHONE, input, false).orElseThrow();
+    }
+}
@@ -0,0 +1,114 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OutboundRateLimiterTest {
+
+    private static final String NUMBER = "1234567890";
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long T0 = 1_000_000_000L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void burstGoesOutImmediatelyThenSendsQueueAtTheRate() {
+        OutboundRateLimiter limiter = limiter(10, 5, 1_000, 1);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.reserve(NUMBER, T0)).isZero();
+        }
+        assertThat(limiter.reserve(NUMBER, T0)).isEqualTo(100 * MS);
+        assertThat(limiter.reserve(NUMBER, T0)).isEqualTo(200 * MS);
+    }
+
+    @Test
+    void bucketRefillsOverTime() {
+        OutboundRateLimiter limiter = limiter(10, 5, 1_000, 1);
+        for (int i = 0; i < 5; i++) {
+            limiter.reserve(NUMBER, T0);
+        }
+
+        // 300ms at 10/s is three tokens
+        long later = T0 + 300 * MS;
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.reserve(NUMBER, later)).isZero();
+        }
+        assertThat(limiter.reserve(NUMBER, later)).isEqualTo(100 * MS);
+    }
+
+    @Test
+    void refillStopsAtTheBurst() {
+        OutboundRateLimiter limiter = limiter(10, 5, 1_000, 1);
+        limiter.reserve(NUMBER, T0);
+
+        long muchLater = T0 + TimeUnit.MINUTES.toNanos(1);
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.reserve(NUMBER, muchLater)).isZero();
+        }
+        assertThat(limiter.reserve(NUMBER, muchLater)).isEqualTo(100 * MS);
+    }
+
+    @Test
+    void sendOverTheMaximumWaitIsRejectedWithoutTakingAToken() {
+        OutboundRateLimiter limiter = limiter(10, 1, 250, 1);
+        assertThat(limiter.reserve(NUMBER, T0)).isZero();
+        assertThat(limiter.reserve(NUMBER, T0)).isEqualTo(100 * MS);
+        assertThat(limiter.reserve(NUMBER, T0)).isEqualTo(200 * MS);
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> limiter.reserve(NUMBER, T0))
+                    .isInstanceOfSatisfying(GraphApiException.class, e ->
+                            assertThat(e.getFailure()).isEqualTo(GraphApiException.Failure.RATE_LIMITED));
+        }
+        assertThat(meterRegistry.get("outbound.rate_limit.rejected").counter().count()).isEqualTo(2);
+
+        // The rejections left the queue as it was: 100ms later the next send waits 200ms again
+        assertThat(limiter.reserve(NUMBER, T0 + 100 * MS)).isEqualTo(200 * MS);
+    }
+
+    @Test
+    void staleClockReadingRefillsNothing() {
+        OutboundRateLimiter limiter = limiter(10, 1, 1_000, 1);
+        assertThat(limiter.reserve(NUMBER, T0 + 100 * MS)).isZero();
+
+        assertThat(limiter.reserve(NUMBER, T0)).isEqualTo(100 * MS);
+    }
+
+    @Test
+    void numbersHaveSeparateBuckets() {
+        OutboundRateLimiter limiter = limiter(10, 1, 1_000, 1);
+
+        assertThat(limiter.reserve(NUMBER, T0)).isZero();
+        assertThat(limiter.reserve("0987654321", T0)).isZero();
+        assertThat(limiter.reserve(NUMBER, T0)).isEqualTo(100 * MS);
+    }
+
+    @Test
+    void eachNodeTakesAnEqualShareOfRateAndBurst() {
+        OutboundRateLimiter limiter = limiter(80, 80, 1_000, 4);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(limiter.reserve(NUMBER, T0)).isZero();
+        }
+        // 20 messages/s on this node
+        assertThat(limiter.reserve(NUMBER, T0)).isEqualTo(50 * MS);
+    }
+
+    @Test
+    void disabledLimiterNeverWaits() {
+        OutboundRateLimiter limiter = new OutboundRateLimiter(meterRegistry, false, 1, 1, 0, 1);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.reserve(NUMBER, T0)).isZero();
+        }
+    }
+
+    private OutboundRateLimiter limiter(double messagesPerSecond, int burst, long maxWaitMs, int nodes) {
+        return new OutboundRateLimiter(meterRegistry, true, messagesPerSecond, burst, maxWaitMs, nodes);
+    }
+}
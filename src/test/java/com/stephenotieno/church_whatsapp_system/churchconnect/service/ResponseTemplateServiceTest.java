@@ -0,0 +1,301 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Church;
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.Member;
+import com.stephenotieno.church_whatsapp_system.churchconnect.entity.MessageTemplate;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.ChurchRepository;
+import com.stephenotieno.church_whatsapp_system.churchconnect.repository.MessageTemplateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The bundled defaults render to the replies ChatbotService and MenuService used to build by
+ * concatenation, and compiled sets are cached per church
+ */
+class ResponseTemplateServiceTest {
+
+    @Mock private MessageTemplateRepository templateRepository;
+    @Mock private ChurchRepository churchRepository;
+
+    private ResponseTemplateService responseTemplateService;
+
+    private final Church church = Church.builder()
+            .id(1L)
+            .name("Grace Chapel")
+            .location("Nairobi")
+            .phone("0700000000")
+            .mpesaShortcode("888880")
+            .build();
+    private final Member member = Member.builder()
+            .id(5L)
+            .church(church)
+            .fullName("Jane Wanjiku")
+            .phoneNumber("254711000000")
+            .status("ACTIVE")
+            .joinedDate(LocalDate.now().minusDays(10))
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        responseTemplateService = new ResponseTemplateService(templateRepository, churchRepository);
+        ReflectionTestUtils.setField(responseTemplateService, "defaultPaybill", "174379");
+        responseTemplateService.init();
+
+        when(churchRepository.findById(1L)).thenReturn(Optional.of(church));
+        when(templateRepository.save(any())).thenAnswer(call -> call.getArgument(0));
+    }
+
+    // === DEFAULTS ===
+
+    @Test
+    void welcomeMatchesThePreviousReply() {
+        assertThat(responseTemplateService.render(1L, TemplateKey.WELCOME, (Member) null)).isEqualTo(
+                "👋 *Welcome to ChurchConnect!*\n\n" +
+                "It looks like you're new here! 🎉\n\n" +
+                "─────────────────\n\n" +
+                "*To Get Started:*\n\n" +
+                "Register by typing:\n" +
+                "*REGISTER [Your Full Name]*\n\n" +
+                "_Example:_\n" +
+                "REGISTER John Doe\n\n" +
+                "─────────────────\n\n" +
+                "*After registration:*\n" +
+                "✅ Give offerings via M-PESA\n" +
+                "✅ Check giving history\n" +
+                "✅ Request prayer\n" +
+                "✅ Get church updates\n\n" +
+                "_We look forward to having you!_ 🙏");
+    }
+
+    @Test
+    void registrationCompleteMatchesThePreviousReply() {
+        assertThat(responseTemplateService.render(1L, TemplateKey.REGISTRATION_COMPLETE, member)).isEqualTo(
+                "🎉 *Welcome to Grace Chapel!*\n\n" +
+                "✅ Registration complete!\n\n" +
+                "*Your Details:*\n" +
+                "📝 Name: Jane Wanjiku\n" +
+                "📱 Phone: 254711000000\n" +
+                "⛪ Church: Grace Chapel\n\n" +
+                "─────────────────\n\n" +
+                "Type *HELP* to see what you can do\n\n" +
+                "_God bless you!_ 🙏");
+    }
+
+    @Test
+    void greetingMatchesThePreviousReply() {
+        String timeOfDay = timeOfDay(LocalDateTime.now().getHour());
+
+        assertThat(responseTemplateService.render(1L, TemplateKey.GREETING, member)).isEqualTo(
+                "🙏 Good " + timeOfDay + " *Jane Wanjiku*!\n\n" +
+                "Welcome to *Grace Chapel*\n\n" +
+                "*Quick Actions:*\n" +
+                "💰 GIVE [amount] - Make offering\n" +
+                "📊 BALANCE - Check offerings\n" +
+                "🙏 PRAYER - Request prayer\n" +
+                "📍 INFO - Your details\n" +
+                "❓ HELP - All commands\n\n" +
+                "_How can I help you today?_ 😊");
+    }
+
+    @Test
+    void paymentInstructionsMatchThePreviousReply() {
+        assertThat(responseTemplateService.render(1L, TemplateKey.PAYMENT_INSTRUCTIONS, member)).isEqualTo(
+                "💰 *Make an Offering*\n\n" +
+                "*Option 1: Quick Payment* ⚡\n" +
+                "Type: *GIVE [amount]*\n" +
+                "_Example:_ GIVE 1000\n" +
+                "Get instant M-PESA prompt!\n\n" +
+                "─────────────────\n\n" +
+                "*Option 2: Manual M-PESA*\n" +
+                "1️⃣ Go to M-PESA menu\n" +
+                "2️⃣ Select _Lipa na M-PESA_\n" +
+                "3️⃣ Choose _Pay Bill_\n" +
+                "4️⃣ Business No: *888880*\n" +
+                "5️⃣ Account: *Jane Wanjiku*\n" +
+                "6️⃣ Enter amount\n" +
+                "7️⃣ Enter your PIN\n\n" +
+                "─────────────────\n\n" +
+                "🙏 _Thank you for supporting_ Grace Chapel\n\n" +
+                "~Bring the whole tithe into the storehouse~\n" +
+                "_- Malachi 3:10_");
+    }
+
+    @Test
+    void memberInfoMatchesThePreviousReply() {
+        String since = member.getJoinedDate().format(DateTimeFormatter.ofPattern("dd MMM yyyy"));
+
+        assertThat(responseTemplateService.render(1L, TemplateKey.MEMBER_INFO, member)).isEqualTo(
+                "👤 *Your Membership Details*\n\n" +
+                "*Personal Information:*\n" +
+                "📝 Name: Jane Wanjiku\n" +
+                "📱 Phone: 254711000000\n" +
+                "✅ Status: ACTIVE\n" +
+                "📅 Member Since: " + since + "\n" +
+                "⏱️ Days: 10 days\n\n" +
+                "─────────────────\n\n" +
+                "*Church Information:*\n" +
+                "⛪ Grace Chapel\n" +
+                "📍 Nairobi\n" +
+                "📞 0700000000\n\n" +
+                "─────────────────\n\n" +
+                "*Service Times:*\n" +
+                "🌅 Sunday: _9:00 AM - 12:00 PM_\n" +
+                "📖 Wednesday: _6:00 PM (Bible Study)_\n" +
+                "🙏 Friday: _6:00 PM (Prayer Meeting)_\n\n" +
+                "_We look forward to seeing you!_ 🙏");
+    }
+
+    @Test
+    void helpMatchesThePreviousReply() {
+        assertThat(responseTemplateService.render(1L, TemplateKey.HELP, member)).isEqualTo(
+                "📋 *ChurchConnect Commands*\n\n" +
+                "*🔹 Registration*\n" +
+                "• REGISTER [Name] - Join church\n" +
+                "_Example: REGISTER John Doe_\n\n" +
+                "*🔹 Offerings*\n" +
+                "• GIVE [amount] - Quick M-PESA\n" +
+                "_Example: GIVE 1000_\n" +
+                "• BALANCE - Check offerings\n\n" +
+                "*🔹 Information*\n" +
+                "• INFO - Membership details\n" +
+                "• PRAYER - Submit prayer request\n\n" +
+                "*🔹 Other Commands*\n" +
+                "• HELP - Show this menu\n" +
+                "• CONFIRM - Confirm receipt\n\n" +
+                "─────────────────\n\n" +
+                "*💬 Swahili Commands*\n" +
+                "• HABARI - Salamu\n" +
+                "• MSAADA - Help\n" +
+                "• SADAKA [kiasi] - Toa sadaka\n" +
+                "• OMBI - Ombi la maombi\n\n" +
+                "─────────────────\n\n" +
+                "_Just type your question!_ 😊");
+    }
+
+    @Test
+    void offeringsMenuMatchesThePreviousReply() {
+        assertThat(responseTemplateService.render(1L, TemplateKey.OFFERINGS_MENU, (Member) null)).isEqualTo(
+                "💰 *Offerings Menu*\n\n" +
+                "Choose an option:\n\n" +
+                "1️⃣ *Quick Give*\n" +
+                "   Type: GIVE 100\n" +
+                "   _Instant M-PESA prompt_\n\n" +
+                "2️⃣ *Check Balance*\n" +
+                "   Type: BALANCE\n" +
+                "   _View your giving history_\n\n" +
+                "3️⃣ *Manual M-PESA*\n" +
+                "   Type: INFO\n" +
+                "   _Get PayBill details_\n\n" +
+                "─────────────────\n\n" +
+                "💡 *Quick Amounts:*\n" +
+                "• Type *GIVE 100*\n" +
+                "• Type *GIVE 500*\n" +
+                "• Type *GIVE 1000*\n\n" +
+                "Type *MENU* to go back");
+    }
+
+    @Test
+    void infoMenuMatchesThePreviousReply() {
+        assertThat(responseTemplateService.render(1L, TemplateKey.INFO_MENU, (Member) null)).isEqualTo(
+                "ℹ️ *Information Menu*\n\n" +
+                "What would you like to know?\n\n" +
+                "1️⃣ *My Details*\n" +
+                "   Type: INFO\n" +
+                "   _View membership info_\n\n" +
+                "2️⃣ *Church Info*\n" +
+                "   Type: LOCATION\n" +
+                "   _Address & contact_\n\n" +
+                "3️⃣ *Service Times*\n" +
+                "   Type: TIMES\n" +
+                "   _Worship schedule_\n\n" +
+                "4️⃣ *Help & Commands*\n" +
+                "   Type: HELP\n" +
+                "   _See all commands_\n\n" +
+                "─────────────────\n\n" +
+                "Type *MENU* to go back");
+    }
+
+    @Test
+    void paybillFallsBackToTheConfiguredShortcode() {
+        church.setMpesaShortcode(" ");
+
+        assertThat(responseTemplateService.render(1L, TemplateKey.PAYMENT_INSTRUCTIONS, member))
+                .contains("Business No: *174379*");
+    }
+
+    // === CACHE ===
+
+    @Test
+    void constantResponsesAreRenderedOnce() {
+        String first = responseTemplateService.render(1L, TemplateKey.CHURCH_INFO, (Member) null);
+        String second = responseTemplateService.render(1L, TemplateKey.CHURCH_INFO, member);
+
+        assertThat(first).contains("Grace Chapel").contains("Nairobi");
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void churchSetIsCompiledOnceUntilEvicted() {
+        responseTemplateService.render(1L, TemplateKey.GREETING, member);
+        responseTemplateService.render(1L, TemplateKey.HELP, member);
+        responseTemplateService.render(1L, TemplateKey.WELCOME, (Member) null);
+        verify(churchRepository, times(1)).findById(1L);
+
+        church.setName("Grace Cathedral");
+        responseTemplateService.evictAfterCommit(1L);
+
+        assertThat(responseTemplateService.render(1L, TemplateKey.CHURCH_INFO, (Member) null))
+                .contains("Grace Cathedral");
+        verify(churchRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void savedOverrideIsUsedFromTheNextRender() {
+        assertThat(responseTemplateService.render(1L, TemplateKey.WELCOME, (Member) null)).contains("ChurchConnect");
+
+        responseTemplateService.saveTemplate(1L, "welcome", "Karibu {{church_name}}!");
+        when(templateRepository.findByChurchId(1L)).thenReturn(List.of(MessageTemplate.builder()
+                .churchId(1L).templateKey("welcome").body("Karibu {{church_name}}!").build()));
+
+        assertThat(responseTemplateService.render(1L, TemplateKey.WELCOME, (Member) null))
+                .isEqualTo("Karibu Grace Chapel!");
+    }
+
+    @Test
+    void savingAnUnknownPlaceholderIsRejected() {
+        assertThatThrownBy(() -> responseTemplateService.saveTemplate(1L, "welcome", "Hi {{member_nmae}}"))
+                .hasMessageContaining("Invalid template")
+                .hasMessageContaining("{{member_nmae}}");
+        verify(templateRepository, never()).save(any());
+    }
+
+    @Test
+    void noChurchRendersDefaultsWithChurchValuesEmpty() {
+        assertThat(responseTemplateService.render(null, TemplateKey.REGISTRATION_COMPLETE, member))
+                .startsWith("🎉 *Welcome to !*");
+        verify(churchRepository, never()).findById(any());
+    }
+
+    private static String timeOfDay(int hour) {
+        if (hour < 12) return "morning";
+        if (hour < 17) return "afternoon";
+        return "evening";
+    }
+}
@@ -0,0 +1,80 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.service;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.service.WhatsAppSendException.Reason;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WhatsAppSendExceptionTest {
+
+    @Test
+    void callsWithoutResponseAreClassifiedByFailure() {
+        assertThat(classify(GraphApiException.Failure.TIMEOUT)).isEqualTo(Reason.TIMEOUT);
+        assertThat(classify(GraphApiException.Failure.TRANSPORT)).isEqualTo(Reason.TRANSPORT);
+        assertThat(classify(GraphApiException.Failure.SATURATED)).isEqualTo(Reason.TRANSPORT);
+        assertThat(classify(GraphApiException.Failure.RATE_LIMITED)).isEqualTo(Reason.RATE_LIMITED);
+        assertThat(classify(GraphApiException.Failure.CIRCUIT_OPEN)).isEqualTo(Reason.CIRCUIT_OPEN);
+    }
+
+    @Test
+    void metaErrorCodeWinsOverStatus() {
+        assertThat(classify(400, 131047)).isEqualTo(Reason.OUTSIDE_WINDOW);
+        assertThat(classify(400, 131026)).isEqualTo(Reason.UNDELIVERABLE);
+        assertThat(classify(400, 100)).isEqualTo(Reason.INVALID_REQUEST);
+        assertThat(classify(400, 130429)).isEqualTo(Reason.RATE_LIMITED);
+        assertThat(classify(400, 131056)).isEqualTo(Reason.RATE_LIMITED);
+        assertThat(classify(500, 131000)).isEqualTo(Reason.SERVER_ERROR);
+        assertThat(classify(503, 2)).isEqualTo(Reason.SERVER_ERROR);
+    }
+
+    @Test
+    void authFailuresAreTheirOwnRetryableReason() {
+        assertThat(classify(401, 190)).isEqualTo(Reason.AUTH);
+        assertThat(classify(403, 10)).isEqualTo(Reason.AUTH);
+        assertThat(classify(400, 200)).isEqualTo(Reason.AUTH);
+        assertThat(classify(401, null)).isEqualTo(Reason.AUTH);
+        assertThat(classify(403, null)).isEqualTo(Reason.AUTH);
+        assertThat(Reason.AUTH.isRetryable()).isTrue();
+    }
+
+    @Test
+    void unknownCodesFallBackToStatus() {
+        assertThat(classify(429, null)).isEqualTo(Reason.RATE_LIMITED);
+        assertThat(classify(502, null)).isEqualTo(Reason.SERVER_ERROR);
+        assertThat(classify(500, 999999)).isEqualTo(Reason.SERVER_ERROR);
+        assertThat(classify(400, null)).isEqualTo(Reason.INVALID_REQUEST);
+        assertThat(classify(404, 999999)).isEqualTo(Reason.INVALID_REQUEST);
+    }
+
+    @Test
+    void onlyMessageFaultsArePermanent() {
+        assertThat(Reason.OUTSIDE_WINDOW.isRetryable()).isFalse();
+        assertThat(Reason.UNDELIVERABLE.isRetryable()).isFalse();
+        assertThat(Reason.INVALID_REQUEST.isRetryable()).isFalse();
+        assertThat(Reason.RATE_LIMITED.isRetryable()).isTrue();
+        assertThat(Reason.SERVER_ERROR.isRetryable()).isTrue();
+        assertThat(Reason.TIMEOUT.isRetryable()).isTrue();
+        assertThat(Reason.TRANSPORT.isRetryable()).isTrue();
+        assertThat(Reason.CIRCUIT_OPEN.isRetryable()).isTrue();
+    }
+
+    @Test
+    void fromKeepsStatusAndCode() {
+        WhatsAppSendException e = WhatsAppSendException.from("Failed to send",
+                new GraphApiException(400, "{\"error\":{\"code\":131047}}"), 131047);
+
+        assertThat(e.getReason()).isEqualTo(Reason.OUTSIDE_WINDOW);
+        assertThat(e.getStatusCode()).isEqualTo(400);
+        assertThat(e.getErrorCode()).isEqualTo(131047);
+        assertThat(e.isRetryable()).isFalse();
+        assertThat(e.getMessage()).startsWith("Failed to send: ");
+    }
+
+    private static Reason classify(GraphApiException.Failure failure) {
+        return WhatsAppSendException.classify(new GraphApiException(failure, "failed", null), null);
+    }
+
+    private static Reason classify(int status, Integer errorCode) {
+        return WhatsAppSendException.classify(new GraphApiException(status, "{}"), errorCode);
+    }
+}
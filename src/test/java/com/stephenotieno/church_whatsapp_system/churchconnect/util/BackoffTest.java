@@ -0,0 +1,56 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BackoffTest {
+
+    private static final Duration BASE = Duration.ofMillis(100);
+    private static final Duration MAX = Duration.ofSeconds(5);
+
+    @Test
+    void delayStaysUnderDoublingCeiling() {
+        for (int attempt = 1; attempt <= 8; attempt++) {
+            long ceiling = Math.min(MAX.toMillis(), BASE.toMillis() << (attempt - 1));
+            for (int i = 0; i < 1_000; i++) {
+                assertThat(Backoff.fullJitter(attempt, BASE, MAX).toMillis()).isBetween(0L, ceiling);
+            }
+        }
+    }
+
+    @Test
+    void delayIsSpreadOverTheWholeRange() {
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long delay = Backoff.fullJitter(4, BASE, MAX).toMillis();
+            min = Math.min(min, delay);
+            max = Math.max(max, delay);
+        }
+
+        // Ceiling for attempt 4 is 800ms
+        assertThat(min).isLessThan(80);
+        assertThat(max).isGreaterThan(720);
+    }
+
+    @Test
+    void largeAttemptsAreCappedWithoutOverflow() {
+        for (int attempt : new int[] {31, 64, Integer.MAX_VALUE}) {
+            assertThat(Backoff.fullJitter(attempt, BASE, MAX)).isBetween(Duration.ZERO, MAX);
+        }
+    }
+
+    @Test
+    void attemptBelowOneIsTreatedAsFirst() {
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(Backoff.fullJitter(0, BASE, MAX).toMillis()).isBetween(0L, BASE.toMillis());
+        }
+    }
+
+    @Test
+    void zeroBaseMeansNoDelay() {
+        assertThat(Backoff.fullJitter(3, Duration.ZERO, MAX)).isEqualTo(Duration.ZERO);
+    }
+}
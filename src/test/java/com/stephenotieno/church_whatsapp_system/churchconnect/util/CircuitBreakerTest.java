@@ -0,0 +1,152 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import com.stephenotieno.church_whatsapp_system.churchconnect.util.CircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerTest {
+
+    private static final long OPEN_NANOS = 1_000;
+
+    private long now;
+    private final List<String> transitions = new ArrayList<>();
+
+    // Window of 10, opens at 50% once 4 calls are in, 2 half-open probes
+    private final CircuitBreaker breaker = new CircuitBreaker(10, 4, 50, OPEN_NANOS, 2,
+            () -> now, (from, to) -> transitions.add(from + "->" + to));
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        fail(3);
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void opensOnceFailureRateReachesThreshold() {
+        succeed(2);
+        fail(1);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+
+        fail(1);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(transitions).containsExactly("CLOSED->OPEN");
+    }
+
+    @Test
+    void ratesAFullWindowByItsLastCalls() {
+        succeed(10);
+        // Each failure pushes out one of the successes
+        fail(4);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+
+        fail(1);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void oldOutcomesSlideOutOfTheWindow() {
+        fail(1);
+        succeed(9);
+        // The failure is 10 calls old and drops out; 1 new failure in 10 is 10%
+        fail(1);
+        succeed(1);
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void halfOpensAfterOpenDurationAndClosesWhenProbesSucceed() {
+        open();
+        now += OPEN_NANOS - 1;
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        now += 1;
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+        // Only two probes are let through
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED");
+
+        // Closed with a clean window: one failure is not enough to reopen
+        fail(1);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void failedProbeReopens() {
+        open();
+        now += OPEN_NANOS;
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        // The open period restarts from the failed probe
+        now += OPEN_NANOS;
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void releasedProbeCanBeTakenAgain() {
+        open();
+        now += OPEN_NANOS;
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.release();
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void releaseIsANoOpWhenClosed() {
+        breaker.release();
+        fail(1);
+        succeed(3);
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> new CircuitBreaker(10, 11, 50, 1, 1, () -> 0, (a, b) -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CircuitBreaker(10, 5, 0, 1, 1, () -> 0, (a, b) -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CircuitBreaker(10, 5, 50, 1, 0, () -> 0, (a, b) -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void open() {
+        fail(4);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    private void succeed(int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onSuccess();
+        }
+    }
+
+    private void fail(int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure();
+        }
+    }
+}
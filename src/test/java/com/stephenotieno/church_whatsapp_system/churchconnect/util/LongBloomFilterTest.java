@@ -0,0 +1,58 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongBloomFilterTest {
+
+    @Test
+    void everyAddedKeyIsReported() {
+        LongBloomFilter filter = new LongBloomFilter(100_000);
+        Random random = new Random(3);
+        long[] keys = new long[100_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong() & Long.MAX_VALUE;
+            filter.add(keys[i]);
+        }
+
+        for (long key : keys) {
+            assertThat(filter.mightContain(key)).isTrue();
+        }
+    }
+
+    @Test
+    void overfilledFilterStillHasNoFalseNegatives() {
+        LongBloomFilter filter = new LongBloomFilter(1_024);
+        for (long key = 1; key <= 50_000; key++) {
+            filter.add(key);
+        }
+
+        for (long key = 1; key <= 50_000; key++) {
+            assertThat(filter.mightContain(key)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateIsNearOnePercentAtCapacity() {
+        LongBloomFilter filter = new LongBloomFilter(100_000);
+        for (long key = 1; key <= 100_000; key++) {
+            filter.add(key);
+        }
+
+        int falsePositives = 0;
+        for (long key = 1_000_001; key <= 1_100_000; key++) {
+            if (filter.mightContain(key)) falsePositives++;
+        }
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        LongBloomFilter filter = new LongBloomFilter(0);
+
+        assertThat(filter.mightContain(1)).isFalse();
+        assertThat(filter.mightContain(254_700_000_000L)).isFalse();
+    }
+}
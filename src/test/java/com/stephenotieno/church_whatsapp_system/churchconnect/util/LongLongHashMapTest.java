@@ -0,0 +1,157 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongLongHashMapTest {
+
+    private static final long MISSING = -1;
+
+    @Test
+    void keysWithTheSameHomeSlotAreAllReachable() {
+        LongLongHashMap map = new LongLongHashMap(0);
+        List<Long> keys = keysWithSameHomeSlot(map.capacity(), 5);
+        for (long key : keys) {
+            map.put(key, key * 10);
+        }
+
+        assertThat(map.size()).isEqualTo(5);
+        for (long key : keys) {
+            assertThat(map.get(key, MISSING)).isEqualTo(key * 10);
+        }
+    }
+
+    @Test
+    void removingFromACollisionRunKeepsTheRestReachable() {
+        LongLongHashMap map = new LongLongHashMap(0);
+        List<Long> keys = keysWithSameHomeSlot(map.capacity(), 5);
+        keys.forEach(key -> map.put(key, key));
+
+        assertThat(map.remove(keys.get(0))).isTrue();
+        assertThat(map.remove(keys.get(2))).isTrue();
+
+        assertThat(map.size()).isEqualTo(3);
+        assertThat(map.get(keys.get(0), MISSING)).isEqualTo(MISSING);
+        assertThat(map.get(keys.get(2), MISSING)).isEqualTo(MISSING);
+        for (long key : List.of(keys.get(1), keys.get(3), keys.get(4))) {
+            assertThat(map.get(key, MISSING)).isEqualTo(key);
+        }
+    }
+
+    @Test
+    void growsPastItsExpectedSize() {
+        LongLongHashMap map = new LongLongHashMap(0);
+        int initialCapacity = map.capacity();
+        for (long key = 1; key <= 100_000; key++) {
+            map.put(key, -key);
+        }
+
+        assertThat(map.size()).isEqualTo(100_000);
+        assertThat(map.capacity()).isGreaterThan(initialCapacity);
+        assertThat(map.size()).isLessThanOrEqualTo((int) (map.capacity() * 0.75));
+        for (long key = 1; key <= 100_000; key++) {
+            assertThat(map.get(key, MISSING)).isEqualTo(-key);
+        }
+        assertThat(map.get(100_001, MISSING)).isEqualTo(MISSING);
+    }
+
+    @Test
+    void putOverwritesWithoutGrowing() {
+        LongLongHashMap map = new LongLongHashMap(0);
+        map.put(42, 1);
+        map.put(42, 2);
+
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.get(42, MISSING)).isEqualTo(2);
+    }
+
+    @Test
+    void removingAnAbsentKeyChangesNothing() {
+        LongLongHashMap map = new LongLongHashMap(0);
+        map.put(7, 70);
+
+        assertThat(map.remove(8)).isFalse();
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.get(7, MISSING)).isEqualTo(70);
+    }
+
+    @Test
+    void matchesAHashMapUnderRandomPutsAndRemoves() {
+        Random random = new Random(11);
+        LongLongHashMap map = new LongLongHashMap(0);
+        Map<Long, Long> expected = new HashMap<>();
+
+        // A small key range keeps the table dense, so runs wrap around the end and get shifted back
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(400);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null);
+            } else {
+                long value = random.nextLong();
+                map.put(key, value);
+                expected.put(key, value);
+            }
+
+            if (i % 1_000 == 0) {
+                assertSameContents(map, expected);
+            }
+        }
+        assertSameContents(map, expected);
+    }
+
+    @Test
+    void forEachKeyVisitsEveryKeyOnce() {
+        LongLongHashMap map = new LongLongHashMap(0);
+        for (long key = 1; key <= 1_000; key++) {
+            map.put(key * 7919, key);
+        }
+
+        Set<Long> seen = new HashSet<>();
+        map.forEachKey(key -> assertThat(seen.add(key)).isTrue());
+        assertThat(seen).hasSize(1_000);
+    }
+
+    @Test
+    void rejectsKeysThatAreNotPositive() {
+        LongLongHashMap map = new LongLongHashMap(0);
+
+        assertThatThrownBy(() -> map.put(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.put(-5, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertSameContents(LongLongHashMap map, Map<Long, Long> expected) {
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 1; key <= 400; key++) {
+            Long value = expected.get(key);
+            if (value == null) {
+                assertThat(map.get(key, MISSING)).isEqualTo(MISSING);
+            } else {
+                assertThat(map.get(key, Long.MIN_VALUE)).isEqualTo(value);
+            }
+        }
+    }
+
+    private static List<Long> keysWithSameHomeSlot(int capacity, int count) {
+        List<Long> keys = new ArrayList<>();
+        int target = homeSlot(1, capacity);
+        for (long key = 1; keys.size() < count; key++) {
+            if (homeSlot(key, capacity) == target) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static int homeSlot(long key, int capacity) {
+        return (int) (((LongLongHashMap.mix(key) >>> 32) * capacity) >>> 32);
+    }
+}
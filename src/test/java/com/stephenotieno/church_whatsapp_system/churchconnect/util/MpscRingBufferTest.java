@@ -0,0 +1,124 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MpscRingBufferTest {
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertThat(new MpscRingBuffer<>(1).capacity()).isEqualTo(1);
+        assertThat(new MpscRingBuffer<>(5).capacity()).isEqualTo(8);
+        assertThat(new MpscRingBuffer<>(8).capacity()).isEqualTo(8);
+        assertThatThrownBy(() -> new MpscRingBuffer<>(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsOfferWhenFullAndAcceptsAgainOnceDrained() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(buffer.offer(5)).isFalse();
+    }
+
+    @Test
+    void pollsInOfferOrderAcrossWraparound() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        List<Integer> polled = new ArrayList<>();
+
+        // Several laps around the ring, keeping it partly full
+        int next = 0;
+        assertThat(buffer.offer(next++)).isTrue();
+        for (int round = 0; round < 10; round++) {
+            assertThat(buffer.offer(next++)).isTrue();
+            assertThat(buffer.offer(next++)).isTrue();
+            polled.add(buffer.poll());
+            polled.add(buffer.poll());
+        }
+        Integer element;
+        while ((element = buffer.poll()) != null) {
+            polled.add(element);
+        }
+
+        assertThat(polled).hasSize(next);
+        for (int i = 0; i < next; i++) {
+            assertThat(polled.get(i)).isEqualTo(i);
+        }
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void drainStopsAtLimit() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(8);
+        for (int i = 0; i < 5; i++) {
+            buffer.offer(i);
+        }
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drain(drained::add, 3)).isEqualTo(3);
+        assertThat(drained).containsExactly(0, 1, 2);
+        assertThat(buffer.drain(drained::add, 10)).isEqualTo(2);
+        assertThat(drained).containsExactly(0, 1, 2, 3, 4);
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    void concurrentProducersLoseNothingAndKeepTheirOwnOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 100_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(1024);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!buffer.offer(element)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+        start.countDown();
+
+        long[] nextExpected = new long[producers];
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer && System.nanoTime() < deadline) {
+            long[] element = buffer.poll();
+            if (element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int producer = (int) element[0];
+            assertThat(element[1]).isEqualTo(nextExpected[producer]);
+            nextExpected[producer]++;
+            received++;
+        }
+        pool.shutdown();
+
+        assertThat(received).isEqualTo(producers * perProducer);
+        assertThat(buffer.poll()).isNull();
+    }
+}
@@ -0,0 +1,80 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResponseTemplateTest {
+
+    private static final List<String> NAMES = List.of("church", "name", "phone");
+
+    @Test
+    void textWithoutPlaceholdersIsConstant() {
+        ResponseTemplate template = compile("Hello there");
+
+        assertThat(template.isConstant()).isTrue();
+        assertThat(template.constant()).isEqualTo("Hello there");
+        assertThat(render(template, slot -> "x")).isEqualTo("Hello there");
+    }
+
+    @Test
+    void slotsAreFilledOnRender() {
+        ResponseTemplate template = compile("{{name}} of {{ church }}, call {{phone}}!");
+
+        assertThat(template.isConstant()).isFalse();
+        assertThat(template.constant()).isNull();
+        assertThat(render(template, slot -> "<" + NAMES.get(slot) + ">"))
+                .isEqualTo("<name> of <church>, call <phone>!");
+    }
+
+    @Test
+    void nullValueRendersAsNothing() {
+        assertThat(render(compile("[{{name}}]"), slot -> null)).isEqualTo("[]");
+    }
+
+    @Test
+    void bindFoldsKnownValuesIntoLiterals() {
+        ResponseTemplate bound = compile("{{name}} of {{church}}").bind(slot -> slot == 0 ? "Grace" : null);
+
+        assertThat(bound.isConstant()).isFalse();
+        assertThat(render(bound, slot -> {
+            assertThat(slot).isEqualTo(1);
+            return "Jane";
+        })).isEqualTo("Jane of Grace");
+    }
+
+    @Test
+    void bindingEverySlotLeavesAConstant() {
+        ResponseTemplate bound = compile("{{church}} ({{phone}})").bind(slot -> slot == 0 ? "Grace" : "0700");
+
+        assertThat(bound.isConstant()).isTrue();
+        assertThat(bound.constant()).isEqualTo("Grace (0700)");
+    }
+
+    @Test
+    void unknownPlaceholderIsRejected() {
+        assertThatThrownBy(() -> compile("Hi {{nmae}}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("{{nmae}}");
+    }
+
+    @Test
+    void unclosedPlaceholderIsRejected() {
+        assertThatThrownBy(() -> compile("Hi {{name"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unclosed");
+    }
+
+    private static ResponseTemplate compile(String source) {
+        return ResponseTemplate.compile(source, NAMES::indexOf);
+    }
+
+    private static String render(ResponseTemplate template, IntFunction<String> values) {
+        StringBuilder out = new StringBuilder("prefix:");
+        template.renderTo(out, values);
+        return out.substring("prefix:".length());
+    }
+}
@@ -0,0 +1,116 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.WebhookPayload;
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.WebhookPayload.InboundMessage;
+import com.stephenotieno.church_whatsapp_system.churchconnect.dto.WebhookPayload.MessageType;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class WebhookPayloadParserTest {
+
+    private final WebhookPayloadParser parser = new WebhookPayloadParser(new ObjectMapper());
+
+    @Test
+    void readsTextButtonAndInteractiveBodies() throws IOException {
+        WebhookPayload payload = parse(value(metadata(), messages(
+                message("m1", "\"type\":\"text\",\"text\":{\"body\":\"GIVE 100\"}"),
+                message("m2", "\"type\":\"button\",\"button\":{\"payload\":\"MENU_GIVE\",\"text\":\"Give\"}"),
+                message("m3", "\"type\":\"interactive\",\"interactive\":{\"type\":\"list_reply\","
+                        + "\"list_reply\":{\"id\":\"row_balance\",\"title\":\"Balance\"}}"))));
+
+        assertThat(payload.changes()).hasSize(1);
+        assertThat(payload.changes().get(0).phoneNumberId()).isEqualTo("106540352242922");
+        assertThat(payload.changes().get(0).messages())
+                .extracting(InboundMessage::body, InboundMessage::replyId)
+                .containsExactly(
+                        tuple("GIVE 100", null),
+                        tuple("Give", "MENU_GIVE"),
+                        tuple("Balance", "row_balance"));
+    }
+
+    @Test
+    void mediaMessagesCarryTheirCaptionAsBody() throws IOException {
+        WebhookPayload payload = parse(value(metadata(), messages(
+                message("m1", "\"type\":\"image\",\"image\":{\"id\":\"img-1\",\"mime_type\":\"image/jpeg\","
+                        + "\"caption\":\"Sunday bulletin\"}"),
+                message("m2", "\"type\":\"document\",\"document\":{\"id\":\"doc-1\",\"filename\":\"minutes.pdf\"}"),
+                message("m3", "\"type\":\"audio\",\"audio\":{\"id\":\"aud-1\",\"mime_type\":\"audio/ogg\"}"))));
+
+        assertThat(payload.changes().get(0).messages()).allSatisfy(message -> {
+            assertThat(message.type().isMedia()).isTrue();
+            assertThat(message.media()).isNotNull();
+        });
+        assertThat(payload.changes().get(0).messages())
+                .extracting(InboundMessage::type, InboundMessage::body)
+                .containsExactly(
+                        tuple(MessageType.IMAGE, "Sunday bulletin"),
+                        tuple(MessageType.DOCUMENT, ""),
+                        tuple(MessageType.AUDIO, ""));
+        assertThat(payload.changes().get(0).messages().get(1).media().filename()).isEqualTo("minutes.pdf");
+    }
+
+    @Test
+    void unsupportedTypesHaveNoBody() throws IOException {
+        WebhookPayload payload = parse(value(metadata(), messages(
+                message("m1", "\"type\":\"location\",\"location\":{\"latitude\":-1.28,\"longitude\":36.82}"))));
+
+        assertThat(payload.changes().get(0).messages().get(0).type()).isEqualTo(MessageType.UNSUPPORTED);
+        assertThat(payload.changes().get(0).messages().get(0).body()).isNull();
+    }
+
+    @Test
+    void metadataThatIsNotAnObjectIsSkipped() throws IOException {
+        for (String metadata : new String[] {"\"metadata\":[{\"phone_number_id\":\"1\"}]", "\"metadata\":\"x\"",
+                "\"metadata\":null"}) {
+            WebhookPayload payload = parse(value(metadata,
+                    messages(message("m1", "\"type\":\"text\",\"text\":{\"body\":\"hi\"}"))));
+
+            assertThat(payload.changes().get(0).phoneNumberId()).isNull();
+            assertThat(payload.changes().get(0).messages()).extracting(InboundMessage::body).containsExactly("hi");
+        }
+    }
+
+    @Test
+    void buttonAndInteractiveThatAreNotObjectsAreSkipped() throws IOException {
+        WebhookPayload payload = parse(value(metadata(), messages(
+                message("m1", "\"type\":\"button\",\"button\":[\"Give\",{\"text\":\"x\"}]"),
+                message("m2", "\"type\":\"interactive\",\"interactive\":\"list_reply\""),
+                message("m3", "\"type\":\"interactive\",\"interactive\":{\"list_reply\":[{\"title\":\"x\"}]}"),
+                message("m4", "\"type\":\"text\",\"text\":{\"body\":\"still read\"}"))));
+
+        assertThat(payload.changes().get(0).messages())
+                .extracting(InboundMessage::id, InboundMessage::body)
+                .containsExactly(
+                        tuple("m1", null),
+                        tuple("m2", null),
+                        tuple("m3", null),
+                        tuple("m4", "still read"));
+    }
+
+    private WebhookPayload parse(String value) throws IOException {
+        String body = "{\"object\":\"whatsapp_business_account\",\"entry\":[{\"id\":\"1\",\"changes\":[{\"field\":"
+                + "\"messages\",\"value\":" + value + "}]}]}";
+        return parser.parse(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String metadata() {
+        return "\"metadata\":{\"display_phone_number\":\"254700000000\",\"phone_number_id\":\"106540352242922\"}";
+    }
+
+    private static String value(String metadata, String messages) {
+        return "{\"messaging_product\":\"whatsapp\"," + metadata + "," + messages + "}";
+    }
+
+    private static String messages(String... messages) {
+        return "\"messages\":[" + String.join(",", messages) + "]";
+    }
+
+    private static String message(String id, String content) {
+        return "{\"from\":\"254711000000\",\"id\":\"" + id + "\",\"timestamp\":\"1717000000\"," + content + "}";
+    }
+}
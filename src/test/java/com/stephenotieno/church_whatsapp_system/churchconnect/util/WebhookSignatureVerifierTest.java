@@ -0,0 +1,114 @@
+package com.stephenotieno.church_whatsapp_system.churchconnect.util;
+
+import org.junit.jupiter.api.Test;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebhookSignatureVerifierTest {
+
+    private static final String SECRET = "test-app-secret";
+    private static final byte[] BODY =
+            "{\"object\":\"whatsapp_business_account\",\"entry\":[]}".getBytes(StandardCharsets.UTF_8);
+
+    private final WebhookSignatureVerifier verifier = new WebhookSignatureVerifier(SECRET, true);
+
+    @Test
+    void acceptsTheSignatureOfTheBody() {
+        assertThat(verifier.verify(BODY, 0, BODY.length, "sha256=" + hmacHex(BODY))).isTrue();
+        // Pooled instances are reused
+        assertThat(verifier.verify(BODY, 0, BODY.length, "sha256=" + hmacHex(BODY))).isTrue();
+    }
+
+    @Test
+    void acceptsUppercaseHex() {
+        assertThat(verifier.verify(BODY, 0, BODY.length, "sha256=" + hmacHex(BODY).toUpperCase())).isTrue();
+    }
+
+    @Test
+    void rejectsAWrongDigest() {
+        char[] hex = hmacHex(BODY).toCharArray();
+        hex[hex.length - 1] = hex[hex.length - 1] == '0' ? '1' : '0';
+
+        assertThat(verifier.verify(BODY, 0, BODY.length, "sha256=" + new String(hex))).isFalse();
+        assertThat(verifier.verify(BODY, 0, BODY.length, "sha256=" + hmacHex("{}".getBytes()))).isFalse();
+    }
+
+    @Test
+    void rejectsNonHexCharacters() {
+        String hex = hmacHex(BODY);
+        for (char bad : new char[] {'g', 'z', ' ', '-'}) {
+            String tampered = hex.substring(0, 10) + bad + hex.substring(11);
+            assertThat(verifier.verify(BODY, 0, BODY.length, "sha256=" + tampered)).isFalse();
+        }
+    }
+
+    @Test
+    void rejectsNonAsciiDigitsThatCharacterDigitWouldAccept() {
+        // Arabic-Indic digits and fullwidth a-f have the same Character.digit value as the real hex
+        StringBuilder lookalike = new StringBuilder();
+        for (char c : hmacHex(BODY).toCharArray()) {
+            lookalike.append(c <= '9' ? (char) ('\u0660' + (c - '0')) : (char) ('\uFF41' + (c - 'a')));
+        }
+
+        assertThat(verifier.verify(BODY, 0, BODY.length, "sha256=" + lookalike)).isFalse();
+    }
+
+    @Test
+    void rejectsAMissingOrMalformedHeader() {
+        String hex = hmacHex(BODY);
+
+        assertThat(verifier.verify(BODY, 0, BODY.length, null)).isFalse();
+        assertThat(verifier.verify(BODY, 0, BODY.length, "")).isFalse();
+        assertThat(verifier.verify(BODY, 0, BODY.length, hex)).isFalse();
+        assertThat(verifier.verify(BODY, 0, BODY.length, "sha1=" + hex + "00")).isFalse();
+    }
+
+    @Test
+    void rejectsTheWrongLength() {
+        String hex = hmacHex(BODY);
+
+        assertThat(verifier.verify(BODY, 0, BODY.length, "sha256=" + hex.substring(2))).isFalse();
+        assertThat(verifier.verify(BODY, 0, BODY.length, "sha256=" + hex + "00")).isFalse();
+    }
+
+    @Test
+    void signsOnlyTheGivenSliceOfTheBuffer() {
+        byte[] buffer = new byte[BODY.length + 8];
+        System.arraycopy(BODY, 0, buffer, 4, BODY.length);
+
+        assertThat(verifier.verify(buffer, 4, BODY.length, "sha256=" + hmacHex(BODY))).isTrue();
+        assertThat(verifier.verify(buffer, 0, BODY.length, "sha256=" + hmacHex(BODY))).isFalse();
+    }
+
+    @Test
+    void differentSecretDoesNotVerify() {
+        WebhookSignatureVerifier other = new WebhookSignatureVerifier("another-secret", true);
+
+        assertThat(other.verify(BODY, 0, BODY.length, "sha256=" + hmacHex(BODY))).isFalse();
+    }
+
+    @Test
+    void missingSecretFailsStartupUnlessVerificationIsOff() {
+        assertThatThrownBy(() -> new WebhookSignatureVerifier("", true)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new WebhookSignatureVerifier(null, true)).isInstanceOf(IllegalStateException.class);
+
+        WebhookSignatureVerifier off = new WebhookSignatureVerifier("", false);
+        assertThat(off.isEnabled()).isFalse();
+        assertThat(off.verify(BODY, 0, BODY.length, null)).isTrue();
+    }
+
+    private static String hmacHex(byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(body));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.stephenotieno.church_whatsapp_system.loadgen;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stand-in for the Graph API messages endpoint.
+ * Answers every {@code POST .../messages} like Meta does, after a configurable delay,
+ * and reports each recipient so the load generator can close the end-to-end timing.
+ */
+final class GraphApiStub {
+
+    private static final Pattern TO = Pattern.compile("\"to\"\\s*:\\s*\"\\+?([0-9]+)\"");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+
+    GraphApiStub(int port, int threads, long latencyMillis, Consumer<String> onReply) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> handle(exchange, latencyMillis, onReply));
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() throws InterruptedException {
+        server.stop(0);
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    private void handle(HttpExchange exchange, long latencyMillis, Consumer<String> onReply) throws IOException {
+        try (exchange) {
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            requests.incrementAndGet();
+
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+
+            Matcher matcher = TO.matcher(body);
+            String to = matcher.find() ? matcher.group(1) : "";
+            if (!to.isEmpty()) {
+                onReply.accept(to);
+            }
+
+            byte[] response = ("{\"messaging_product\":\"whatsapp\",\"contacts\":[{\"input\":\"" + to
+                    + "\",\"wa_id\":\"" + to + "\"}],\"messages\":[{\"id\":\"wamid.STUB"
+                    + sequence.incrementAndGet() + "\"}]}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
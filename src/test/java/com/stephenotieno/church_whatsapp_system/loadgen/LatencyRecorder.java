@@ -0,0 +1,74 @@
+package com.stephenotieno.church_whatsapp_system.loadgen;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects raw latency samples for one stage and reports exact percentiles at the end of a run
+ */
+final class LatencyRecorder {
+
+    private final String stage;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long[] samples = new long[1 << 16];
+    private int count;
+    private long errors;
+
+    LatencyRecorder(String stage) {
+        this.stage = stage;
+    }
+
+    void record(long nanos) {
+        lock.lock();
+        try {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, samples.length * 2);
+            }
+            samples[count++] = nanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void recordError() {
+        lock.lock();
+        try {
+            errors++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int count() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    String report(double elapsedSeconds) {
+        long[] sorted;
+        long errorCount;
+        lock.lock();
+        try {
+            sorted = Arrays.copyOf(samples, count);
+            errorCount = errors;
+        } finally {
+            lock.unlock();
+        }
+        Arrays.sort(sorted);
+
+        return String.format("%-16s %9d ok %7d err %10.1f/s   p50 %8.2f ms   p99 %8.2f ms   p999 %8.2f ms   max %8.2f ms",
+                stage, sorted.length, errorCount, sorted.length / elapsedSeconds,
+                millis(sorted, 0.5), millis(sorted, 0.99), millis(sorted, 0.999),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+}
@@ -0,0 +1,311 @@
+package com.stephenotieno.church_whatsapp_system.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stephenotieno.church_whatsapp_system.benchmark.WebhookPayloads;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for the Meta webhook.
+ * <p>
+ * Fires a weighted mix of realistic webhook bodies at a fixed rate against a running instance,
+ * with {@link GraphApiStub} standing in for the Graph API, and reports throughput and
+ * p50/p99/p999 for the webhook ack, the end-to-end reply, and the server-side pipeline stages.
+ * Latency is measured from each request's scheduled send time, so a stalled server shows up
+ * as latency instead of silently lowering the offered rate.
+ * <p>
+ * Start the app with {@code META_WA_APP_SECRET} matching {@code loadgen.app-secret} (or with
+ * {@code meta.whatsapp.signature.verify=false} and no app secret) and
+ * {@code meta.whatsapp.api.base-url=http://localhost:8089} (plus {@code meta.whatsapp.rate-limit.enabled=false}
+ * to measure past Meta's per-number throughput cap), then:
+ * <pre>
+ * mvn -Ploadgen test-compile exec:java -Dloadgen.rate=300 -Dloadgen.duration-seconds=120
+ * </pre>
+ * Settings ({@code -Dloadgen.*}): target, rate, duration-seconds, senders, mix, app-secret,
+ * stub-port, stub-latency-ms, stub-threads, max-outstanding, token (admin JWT for server-side stages).
+ */
+public final class LoadGenerator {
+
+    private static final String[] STAGES = {"queue_wait", "event", "partition_wait", "message", "graph_api"};
+
+    private static final String PASTORAL = "Pastor, I have been struggling with a difficult situation at home "
+            + "and at work. I feel confused about what to do next and would really appreciate counseling and "
+            + "prayer for my family this week. My mother is sick in hospital and the bills keep piling up, "
+            + "and I am not sure how to hold everything together. Thank you for always standing with us.";
+
+    enum Scenario {
+        GREETING(true), GIVE(true), BALANCE(true), PRAYER(true), PASTORAL(true), STATUS_BURST(false);
+
+        final boolean expectsReply;
+
+        Scenario(boolean expectsReply) {
+            this.expectsReply = expectsReply;
+        }
+    }
+
+    private final String target;
+    private final int rate;
+    private final int durationSeconds;
+    private final int senders;
+    private final int maxOutstanding;
+    private final Scenario[] wheel;
+    private final Mac mac;
+    private final String token;
+
+    private final HttpClient client;
+    private final GraphApiStub stub;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong clientDropped = new AtomicLong();
+
+    private final LatencyRecorder ack = new LatencyRecorder("webhook_ack");
+    private final LatencyRecorder endToEnd = new LatencyRecorder("end_to_end");
+    private final Map<Scenario, LatencyRecorder> ackByScenario = new EnumMap<>(Scenario.class);
+
+    // Scheduled send times of messages still waiting for a reply, per sender
+    private final ConcurrentHashMap<String, ConcurrentLinkedQueue<Long>> awaitingReply = new ConcurrentHashMap<>();
+
+    LoadGenerator() throws Exception {
+        this.target = System.getProperty("loadgen.target", "http://localhost:8080") + "/api/whatsapp/webhook";
+        this.rate = Integer.getInteger("loadgen.rate", 100);
+        this.durationSeconds = Integer.getInteger("loadgen.duration-seconds", 60);
+        this.senders = Integer.getInteger("loadgen.senders", 1000);
+        this.maxOutstanding = Integer.getInteger("loadgen.max-outstanding", 10_000);
+        this.wheel = parseMix(System.getProperty("loadgen.mix",
+                "GREETING=25,GIVE=15,BALANCE=20,PRAYER=10,PASTORAL=10,STATUS_BURST=20"));
+        this.token = System.getProperty("loadgen.token", "");
+
+        String secret = System.getProperty("loadgen.app-secret", "");
+        if (secret.isEmpty()) {
+            this.mac = null;
+        } else {
+            this.mac = Mac.getInstance("HmacSHA256");
+            this.mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        }
+
+        for (Scenario scenario : Scenario.values()) {
+            ackByScenario.put(scenario, new LatencyRecorder("ack_" + scenario.name().toLowerCase()));
+        }
+
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(4, runnable -> {
+                    Thread thread = new Thread(runnable, "loadgen-client");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+
+        this.stub = new GraphApiStub(
+                Integer.getInteger("loadgen.stub-port", 8089),
+                Integer.getInteger("loadgen.stub-threads", 64),
+                Long.getLong("loadgen.stub-latency-ms", 50L),
+                this::onReply);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadGenerator().run();
+    }
+
+    void run() throws Exception {
+        stub.start();
+        System.out.printf("🚀 %d req/s for %ds against %s (%d senders, signing %s)%n",
+                rate, durationSeconds, target, senders, mac != null ? "on" : "off");
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long total = (long) rate * durationSeconds;
+        long start = System.nanoTime();
+        Random random = new Random(42);
+
+        for (long i = 0; i < total; i++) {
+            long scheduled = start + i * intervalNanos;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            if (outstanding.get() >= maxOutstanding) {
+                clientDropped.incrementAndGet();
+                continue;
+            }
+            fire(wheel[random.nextInt(wheel.length)], random, scheduled);
+
+            if (i > 0 && i % ((long) rate * 10) == 0) {
+                System.out.printf("  … %ds: %d acked, %d replies, %d outstanding%n",
+                        (System.nanoTime() - start) / 1_000_000_000L, ack.count(), endToEnd.count(), outstanding.get());
+            }
+        }
+
+        // Give in-flight requests and replies a chance to land
+        long drainUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (outstanding.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(100);
+        }
+        Thread.sleep(2000);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        report(elapsed);
+        stub.stop();
+    }
+
+    private void fire(Scenario scenario, Random random, long scheduled) {
+        String from = "2547" + String.format("%08d", random.nextInt(senders));
+        byte[] body = payload(scenario, from).getBytes(StandardCharsets.UTF_8);
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(target))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (mac != null) {
+            request.header("X-Hub-Signature-256", "sha256=" + HexFormat.of().formatHex(sign(body)));
+        }
+
+        if (scenario.expectsReply) {
+            awaitingReply.computeIfAbsent(from, k -> new ConcurrentLinkedQueue<>()).add(scheduled);
+        }
+
+        outstanding.incrementAndGet();
+        client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    outstanding.decrementAndGet();
+                    long latency = System.nanoTime() - scheduled;
+                    if (error == null && response.statusCode() == 200) {
+                        ack.record(latency);
+                        ackByScenario.get(scenario).record(latency);
+                    } else {
+                        ack.recordError();
+                        ackByScenario.get(scenario).recordError();
+                        if (scenario.expectsReply) {
+                            ConcurrentLinkedQueue<Long> queue = awaitingReply.get(from);
+                            if (queue != null) queue.remove(scheduled);
+                        }
+                    }
+                });
+    }
+
+    private void onReply(String to) {
+        ConcurrentLinkedQueue<Long> queue = awaitingReply.get(to);
+        Long scheduled = queue != null ? queue.poll() : null;
+        if (scheduled != null) {
+            endToEnd.record(System.nanoTime() - scheduled);
+        }
+    }
+
+    private String payload(Scenario scenario, String from) {
+        String id = "wamid.LOADGEN." + runId + "." + sequence.incrementAndGet();
+        String[] none = new String[0];
+
+        return switch (scenario) {
+            case GREETING -> WebhookPayloads.envelope(WebhookPayloads.change("Load Tester", from,
+                    new String[]{WebhookPayloads.text(id, from, "Hello")}, none));
+            case GIVE -> WebhookPayloads.envelope(WebhookPayloads.change("Load Tester", from,
+                    new String[]{WebhookPayloads.text(id, from, "GIVE 500")}, none));
+            case BALANCE -> WebhookPayloads.envelope(WebhookPayloads.change("Load Tester", from,
+                    new String[]{WebhookPayloads.button(id, from, "BALANCE")}, none));
+            case PRAYER -> WebhookPayloads.envelope(WebhookPayloads.change("Load Tester", from,
+                    new String[]{WebhookPayloads.text(id, from, "PRAYER for my family")}, none));
+            case PASTORAL -> WebhookPayloads.envelope(WebhookPayloads.change("Load Tester", from,
+                    new String[]{WebhookPayloads.text(id, from, PASTORAL)}, none));
+            case STATUS_BURST -> {
+                String[] statuses = new String[12];
+                for (int i = 0; i < statuses.length; i += 3) {
+                    String wamid = id + "." + i;
+                    statuses[i] = WebhookPayloads.status(wamid, from, "sent");
+                    statuses[i + 1] = WebhookPayloads.status(wamid, from, "delivered");
+                    statuses[i + 2] = WebhookPayloads.status(wamid, from, i == 9 ? "failed" : "read");
+                }
+                yield WebhookPayloads.envelope(WebhookPayloads.change(null, null, none, statuses));
+            }
+        };
+    }
+
+    private byte[] sign(byte[] body) {
+        synchronized (mac) {
+            return mac.doFinal(body);
+        }
+    }
+
+    private void report(double elapsed) {
+        System.out.println();
+        System.out.printf("📊 Results over %.1fs (offered %d req/s, client-side drops %d, stub calls %d)%n",
+                elapsed, rate, clientDropped.get(), stub.requests());
+        System.out.println(ack.report(elapsed));
+        for (LatencyRecorder recorder : ackByScenario.values()) {
+            System.out.println(recorder.report(elapsed));
+        }
+        System.out.println(endToEnd.report(elapsed));
+        reportServerStages();
+    }
+
+    /**
+     * Server-side stage percentiles from /actuator/metrics (Micrometer's recent window, not the whole run)
+     */
+    private void reportServerStages() {
+        if (token.isEmpty()) {
+            System.out.println("ℹ️ Set -Dloadgen.token=<admin JWT> to include server-side stage latencies");
+            return;
+        }
+
+        String base = System.getProperty("loadgen.target", "http://localhost:8080") + "/actuator/metrics/";
+        ObjectMapper objectMapper = new ObjectMapper();
+        System.out.println("Server-side stages (pipeline.stage):");
+
+        for (String stage : STAGES) {
+            try {
+                double count = metric(objectMapper, base + "pipeline.stage?tag=stage:" + stage, "COUNT");
+                double p50 = metric(objectMapper, base + "pipeline.stage.percentile?tag=stage:" + stage + "&tag=phi:0.5", "VALUE");
+                double p99 = metric(objectMapper, base + "pipeline.stage.percentile?tag=stage:" + stage + "&tag=phi:0.99", "VALUE");
+                double p999 = metric(objectMapper, base + "pipeline.stage.percentile?tag=stage:" + stage + "&tag=phi:0.999", "VALUE");
+                System.out.printf("%-16s %9.0f total                           p50 %8.2f ms   p99 %8.2f ms   p999 %8.2f ms%n",
+                        stage, count, p50 * 1000, p99 * 1000, p999 * 1000);
+            } catch (Exception e) {
+                System.out.printf("%-16s unavailable (%s)%n", stage, e.getMessage());
+            }
+        }
+    }
+
+    private double metric(ObjectMapper objectMapper, String url, String statistic) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode());
+        }
+
+        for (JsonNode measurement : objectMapper.readTree(response.body()).path("measurements")) {
+            if (statistic.equals(measurement.path("statistic").asText())) {
+                return measurement.path("value").asDouble();
+            }
+        }
+        return 0;
+    }
+
+    private static Scenario[] parseMix(String mix) {
+        List<Scenario> wheel = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] weighted = part.trim().split("=");
+            Scenario scenario = Scenario.valueOf(weighted[0].trim().toUpperCase());
+            int weight = weighted.length > 1 ? Integer.parseInt(weighted[1].trim()) : 1;
+            for (int i = 0; i < weight; i++) {
+                wheel.add(scenario);
+            }
+        }
+        return wheel.toArray(new Scenario[0]);
+    }
+}